@@ -72,6 +72,38 @@ class SimpleDnsCacheSpec extends AnyWordSpec with Matchers {
       cache.cached(DnsProtocol.Resolve("test.local")) should ===(None)
     }
 
+    "evict the least frequently used entries when it is full" in {
+      val cache = new SimpleDnsCache()
+      val ttl = Ttl.fromPositive(5000.millis)
+      def resolved(name: String) =
+        DnsProtocol.Resolved(name, immutable.Seq(ARecord(name, ttl, InetAddress.getByName("127.0.0.1"))))
+      cache.put(("a.local", Ip()), resolved("a.local"), ttl, 2)
+      cache.put(("b.local", Ip()), resolved("b.local"), ttl, 2)
+      cache.get(("a.local", Ip()))
+      cache.get(("a.local", Ip()))
+      cache.get(("b.local", Ip()))
+
+      cache.put(("c.local", Ip()), resolved("c.local"), ttl, 2)
+      cache.get(("a.local", Ip())) should ===(Some(resolved("a.local")))
+      cache.get(("b.local", Ip())) should ===(None)
+      cache.get(("c.local", Ip())) should ===(Some(resolved("c.local")))
+      cache.statistics.evictionCount should ===(1L)
+    }
+
+    "count the hits and misses of lookups" in {
+      val cache = new SimpleDnsCache()
+      val ttl = Ttl.fromPositive(5000.millis)
+      val cacheEntry = DnsProtocol.Resolved(
+        "test.local",
+        immutable.Seq(ARecord("test.local", ttl, InetAddress.getByName("127.0.0.1"))))
+      cache.get(("test.local", Ip()))
+      cache.put(("test.local", Ip()), cacheEntry, ttl)
+      cache.get(("test.local", Ip()))
+      cache.get(("test.local", Ip()))
+
+      cache.statistics should ===(SimpleDnsCache.Statistics(2, 1, 0, 0, 0))
+    }
+
   }
 
   // TODO test that the old protocol is converted correctly
@@ -28,12 +28,15 @@ import pekko.testkit.{ PekkoSpec, TestProbe }
 import pekko.testkit.WithLogCapturing
 import pekko.util.ByteString
 
-class TcpIntegrationSpec extends PekkoSpec("""
+class TcpIntegrationSpec(ioBackend: String) extends PekkoSpec(s"""
     pekko.loglevel = debug
     pekko.loggers = ["org.apache.pekko.testkit.SilenceAllTestEventListener"]
     pekko.io.tcp.trace-logging = on
+    pekko.io.tcp.io-backend = $ioBackend
     """) with TcpIntegrationSpecSupport with TimeLimits with WithLogCapturing {
 
+  def this() = this("nio")
+
   def verifyActorTermination(actor: ActorRef): Unit = {
     watch(actor)
     expectTerminated(actor)
@@ -222,3 +225,5 @@ class TcpIntegrationSpec extends PekkoSpec("""
   }
 
 }
+
+class BatchingIoBackendTcpIntegrationSpec extends TcpIntegrationSpec("batching")
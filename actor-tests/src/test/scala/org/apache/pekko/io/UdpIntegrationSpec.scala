@@ -23,11 +23,14 @@ import pekko.testkit.{ ImplicitSender, PekkoSpec, TestProbe }
 import pekko.testkit.SocketUtil.temporaryServerAddresses
 import pekko.util.ByteString
 
-class UdpIntegrationSpec extends PekkoSpec("""
+class UdpIntegrationSpec(ioBackend: String) extends PekkoSpec(s"""
     pekko.loglevel = INFO
+    pekko.io.udp.io-backend = $ioBackend
     # tests expect to be able to mutate messages
     """) with ImplicitSender {
 
+  def this() = this("nio")
+
   def bindUdp(handler: ActorRef): InetSocketAddress = {
     val commander = TestProbe()
     commander.send(IO(Udp), Bind(handler, new InetSocketAddress("127.0.0.1", 0)))
@@ -105,6 +108,37 @@ class UdpIntegrationSpec extends PekkoSpec("""
       }
     }
 
+    "be able to send a batch of datagrams and receive them in batches" in {
+      val commander = TestProbe()
+      val handler = TestProbe()
+      commander.send(IO(Udp), Bind(handler.ref, new InetSocketAddress("127.0.0.1", 0), List(BatchReceive(10))))
+      val serverAddress = commander.expectMsgType[Bound].localAddress
+      val payloads = (1 to 25).map(i => ByteString(s"datagram $i"))
+      val simpleSender = createSimpleSender()
+      simpleSender ! SendBatch(payloads.map(Datagram(_, serverAddress)), BatchSent)
+      expectMsg(BatchSent)
+
+      var received = Vector.empty[Datagram]
+      while (received.size < payloads.size) {
+        val batch = handler.expectMsgType[ReceivedBatch].datagrams
+        batch.size should be <= 10
+        received ++= batch
+      }
+      received.map(_.data) should ===(payloads)
+    }
+
+    "fail a batch with the datagrams that could not be resolved" in {
+      val handler = TestProbe()
+      val serverAddress = bindUdp(handler.ref)
+      val unresolvable =
+        Datagram(ByteString("Can't be delivered"), new InetSocketAddress("some-unresolvable-host", 10000))
+      val first = Datagram(ByteString("first"), serverAddress)
+      val simpleSender = createSimpleSender()
+      simpleSender ! SendBatch(List(first, unresolvable))
+      expectMsgType[CommandFailed].cmd should ===(SendBatch(List(unresolvable)))
+      handler.expectMsgType[Received].data should ===(first.data)
+    }
+
     "call SocketOption.beforeBind method before bind." in {
       val commander = TestProbe()
       val assertOption = AssertBeforeBind()
@@ -132,6 +166,8 @@ class UdpIntegrationSpec extends PekkoSpec("""
 
 }
 
+private case object BatchSent extends Event
+
 private case class AssertBeforeBind() extends SocketOption {
   @volatile
   var beforeCalled = 0
@@ -161,3 +197,5 @@ private case class AssertOpenDatagramChannel() extends DatagramChannelCreator {
     super.create()
   }
 }
+
+class BatchingIoBackendUdpIntegrationSpec extends UdpIntegrationSpec("batching")
@@ -34,6 +34,8 @@ class DnsSettingsSpec extends PekkoSpec {
           ndots = 1
           positive-ttl = forever
           negative-ttl = never
+          cache-max-entries = 10000
+          refresh-ahead = 0.1
         """)
 
   "DNS settings" must {
@@ -137,6 +139,21 @@ class DnsSettingsSpec extends PekkoSpec {
       dnsSettingsDuration.PositiveCachePolicy shouldEqual CachePolicy.Ttl.fromPositive(10.seconds)
       dnsSettingsDuration.NegativeCachePolicy shouldEqual CachePolicy.Ttl.fromPositive(10.days)
     }
+
+    "parse the cache bounds" in {
+      val dnsSettings = new DnsSettings(eas, defaultConfig)
+      dnsSettings.CacheMaxEntries shouldEqual 10000
+      dnsSettings.RefreshAhead shouldEqual 0.1
+
+      val unbounded = new DnsSettings(
+        eas,
+        ConfigFactory.parseString("""
+          cache-max-entries = unlimited
+          refresh-ahead = 0
+        """).withFallback(defaultConfig))
+      unbounded.CacheMaxEntries shouldEqual Int.MaxValue
+      unbounded.RefreshAhead shouldEqual 0.0
+    }
   }
 
 }
@@ -24,12 +24,13 @@ import org.apache.pekko
 import pekko.actor.{ ActorRef, ExtendedActorSystem, Props }
 import pekko.actor.Status.Failure
 import pekko.io.SimpleDnsCache
-import pekko.io.dns.{ AAAARecord, ARecord, DnsSettings, SRVRecord }
+import pekko.io.dns.{ AAAARecord, ARecord, DnsSettings, RecordClass, RecordType, SRVRecord, UnknownRecord }
 import pekko.io.dns.CachePolicy.Ttl
 import pekko.io.dns.DnsProtocol._
 import pekko.io.dns.internal.AsyncDnsResolver.ResolveFailedException
 import pekko.io.dns.internal.DnsClient.{ Answer, Question4, Question6, SrvQuestion }
 import pekko.testkit.{ PekkoSpec, TestProbe, WithLogCapturing }
+import pekko.util.ByteString
 
 class AsyncDnsResolverSpec extends PekkoSpec("""
     pekko.loglevel = DEBUG
@@ -43,12 +44,15 @@ class AsyncDnsResolverSpec extends PekkoSpec("""
           ndots = 1
           positive-ttl = forever
           negative-ttl = never
+          cache-max-entries = 10000
+          refresh-ahead = 0.1
         """)
 
   trait Setup {
     val dnsClient1 = TestProbe()
     val dnsClient2 = TestProbe()
-    val r = resolver(List(dnsClient1.ref, dnsClient2.ref), defaultConfig)
+    val cache = new SimpleDnsCache()
+    val r = resolver(List(dnsClient1.ref, dnsClient2.ref), defaultConfig, cache)
     val senderProbe = TestProbe()
     implicit val sender: ActorRef = senderProbe.ref
   }
@@ -233,11 +237,117 @@ class AsyncDnsResolverSpec extends PekkoSpec("""
 
       senderProbe.expectMsg(Resolved("cats.com", im.Seq(ipv4Record)))
     }
+
+    "resolve concurrent requests for the same name once" in new Setup {
+      val ipv4Record = ARecord("cats.com", Ttl.fromPositive(100.seconds), InetAddress.getByName("127.0.0.1"))
+      val otherSender = TestProbe()
+
+      r ! Resolve("cats.com", Ip(ipv4 = true, ipv6 = false))
+      r.tell(Resolve("cats.com", Ip(ipv4 = true, ipv6 = false)), otherSender.ref)
+      dnsClient1.expectMsg(Question4(1, "cats.com"))
+      dnsClient1.reply(Answer(1, im.Seq(ipv4Record)))
+      dnsClient1.expectNoMessage(50.millis)
+
+      senderProbe.expectMsg(Resolved("cats.com", im.Seq(ipv4Record)))
+      otherSender.expectMsg(Resolved("cats.com", im.Seq(ipv4Record)))
+      cache.statistics.coalescedCount shouldEqual 1
+    }
+
+    "fail all concurrent requests for the same name when the resolution fails" in new Setup {
+      val otherSender = TestProbe()
+
+      r ! Resolve("cats.com", Ip(ipv4 = true, ipv6 = false))
+      r.tell(Resolve("cats.com", Ip(ipv4 = true, ipv6 = false)), otherSender.ref)
+      dnsClient1.expectMsg(Question4(1, "cats.com"))
+      dnsClient1.reply(Failure(new RuntimeException("Fail")))
+      dnsClient2.expectMsg(Question4(2, "cats.com"))
+      dnsClient2.reply(Failure(new RuntimeException("Yet another fail")))
+
+      senderProbe.expectMsgPF(remainingOrDefault) {
+        case Failure(ResolveFailedException(_)) =>
+      }
+      otherSender.expectMsgPF(remainingOrDefault) {
+        case Failure(ResolveFailedException(_)) =>
+      }
+    }
+
+    "resolve a cached record again when it is used shortly before it expires" in new Setup {
+      val config = defaultConfig
+        .withValue("positive-ttl", ConfigValueFactory.fromAnyRef("1s"))
+        .withValue("refresh-ahead", ConfigValueFactory.fromAnyRef(0.7))
+      override val r = resolver(List(dnsClient1.ref), config, cache)
+      val ipv4Record = ARecord("cats.com", Ttl.fromPositive(100.seconds), InetAddress.getByName("127.0.0.1"))
+
+      r ! Resolve("cats.com", Ip(ipv4 = true, ipv6 = false))
+      dnsClient1.expectMsg(Question4(1, "cats.com"))
+      dnsClient1.reply(Answer(1, im.Seq(ipv4Record)))
+      senderProbe.expectMsg(Resolved("cats.com", im.Seq(ipv4Record)))
+
+      Thread.sleep(400)
+      // answered from the cache while the record is refreshed in the background
+      r ! Resolve("cats.com", Ip(ipv4 = true, ipv6 = false))
+      senderProbe.expectMsg(Resolved("cats.com", im.Seq(ipv4Record)))
+      dnsClient1.expectMsg(Question4(2, "cats.com"))
+      dnsClient1.reply(Answer(2, im.Seq(ipv4Record)))
+      cache.statistics.refreshCount shouldEqual 1
+
+      // the refreshed record is cached for the full TTL again
+      awaitAssert(cache.timeLeft("cats.com" -> Ip(ipv4 = true, ipv6 = false)) should be > 700L)
+      r ! Resolve("cats.com", Ip(ipv4 = true, ipv6 = false))
+      senderProbe.expectMsg(Resolved("cats.com", im.Seq(ipv4Record)))
+      dnsClient1.expectNoMessage(50.millis)
+    }
+
+    "not cache a negative answer longer than the SOA record of the zone says" in new Setup {
+      val config = defaultConfig.withValue("negative-ttl", ConfigValueFactory.fromAnyRef("5s"))
+      override val r = resolver(List(dnsClient1.ref), config, cache)
+      // SOA RDATA with a MINIMUM of 0 at its end, the rest of it is not looked at
+      val soa = UnknownRecord(
+        "cats.com",
+        Ttl.fromPositive(100.seconds),
+        RecordType.SOA.code,
+        RecordClass.IN.code,
+        ByteString(Array.fill[Byte](20)(0)))
+
+      r ! Resolve("cats.com", Ip(ipv4 = true, ipv6 = false))
+      dnsClient1.expectMsg(Question4(1, "cats.com"))
+      dnsClient1.reply(Answer(1, im.Seq.empty, im.Seq.empty, im.Seq(soa)))
+      senderProbe.expectMsg(Resolved("cats.com", im.Seq.empty))
+
+      r ! Resolve("cats.com", Ip(ipv4 = true, ipv6 = false))
+      dnsClient1.expectMsg(Question4(2, "cats.com"))
+      dnsClient1.reply(Answer(2, im.Seq.empty))
+      senderProbe.expectMsg(Resolved("cats.com", im.Seq.empty))
+    }
   }
 
-  def resolver(clients: List[ActorRef], config: Config): ActorRef = {
+  "negativeTtl" must {
+    def soa(ttl: Ttl, minimum: Int) =
+      UnknownRecord(
+        "cats.com",
+        ttl,
+        RecordType.SOA.code,
+        RecordClass.IN.code,
+        ByteString.newBuilder.putBytes(new Array[Byte](16)).putInt(minimum)(java.nio.ByteOrder.BIG_ENDIAN).result())
+
+    "be the smaller of the SOA record TTL and its MINIMUM field" in {
+      AsyncDnsResolver.negativeTtl(im.Seq(soa(Ttl.fromPositive(100.seconds), 30))) shouldEqual Some(
+        Ttl.fromPositive(30.seconds))
+      AsyncDnsResolver.negativeTtl(im.Seq(soa(Ttl.fromPositive(10.seconds), 30))) shouldEqual Some(
+        Ttl.fromPositive(10.seconds))
+    }
+
+    "be empty without a SOA record" in {
+      AsyncDnsResolver.negativeTtl(im.Seq.empty) shouldEqual None
+    }
+  }
+
+  def resolver(clients: List[ActorRef], config: Config): ActorRef =
+    resolver(clients, config, new SimpleDnsCache())
+
+  def resolver(clients: List[ActorRef], config: Config, cache: SimpleDnsCache): ActorRef = {
     val settings = new DnsSettings(system.asInstanceOf[ExtendedActorSystem], config)
-    system.actorOf(Props(new AsyncDnsResolver(settings, new SimpleDnsCache(),
+    system.actorOf(Props(new AsyncDnsResolver(settings, cache,
       (_, _) => {
         clients
       })))
@@ -260,4 +260,72 @@ class TokenBucketSpec extends PekkoSpec {
 
   }
 
+  class TestConcurrentBucket(_cap: Long, _period: Long) extends ConcurrentTokenBucket(_cap, _period) {
+    @volatile var currentTime: Long = 0L
+  }
+
+  "A concurrent Token Bucket" must {
+
+    "start full" in {
+      val bucket = new TestConcurrentBucket(10, 1)
+      bucket.init()
+
+      bucket.offer(1) should ===(0L)
+      bucket.offer(1) should ===(0L)
+      bucket.offer(1) should ===(0L)
+      bucket.offer(7) should ===(0L)
+
+      bucket.offer(3) should ===(3L)
+    }
+
+    "delay like the single threaded token bucket" in {
+      val bucketRate3 = new TestConcurrentBucket(8, 3)
+      bucketRate3.init()
+      bucketRate3.offer(5) should ===(0L)
+      bucketRate3.offer(5) should ===(6L)
+
+      bucketRate3.currentTime = 6
+      bucketRate3.offer(3) should ===(9L)
+
+      // refills up to the capacity only
+      bucketRate3.currentTime = 1000
+      bucketRate3.offer(8) should ===(0L)
+      bucketRate3.offer(1) should ===(3L)
+    }
+
+    "only take the tokens that are available right now with tryTake" in {
+      val bucket = new TestConcurrentBucket(4, 10)
+      bucket.init()
+
+      bucket.tryTake(3) should ===(true)
+      bucket.tryTake(2) should ===(false)
+      bucket.tryTake(1) should ===(true)
+      bucket.tryTake(1) should ===(false)
+
+      bucket.currentTime = 10
+      bucket.tryTake(1) should ===(true)
+      bucket.tryTake(1) should ===(false)
+    }
+
+    "apply a changed rate to the tokens taken afterwards" in {
+      val bucket = new TestConcurrentBucket(2, 10)
+      bucket.init()
+
+      bucket.offer(2) should ===(0L)
+      bucket.setRate(2, 1)
+      bucket.offer(2) should ===(2L)
+    }
+
+    "hand out every token once when used from many threads" in {
+      val bucket = new TestConcurrentBucket(1000, 1)
+      bucket.init()
+
+      val threads = Vector.fill(8)(new Thread(() => for (_ <- 1 to 1000) bucket.offer(1)))
+      threads.foreach(_.start())
+      threads.foreach(_.join())
+
+      // 8000 tokens were taken at time 0 from a bucket holding 1000, the next one arrives after 7000 more
+      bucket.offer(1) should ===(7001L)
+    }
+  }
 }
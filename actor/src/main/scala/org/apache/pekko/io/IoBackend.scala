@@ -0,0 +1,287 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.io
+
+import java.nio.channels.{ CancelledKeyException, ClosedChannelException, SelectableChannel, SelectionKey }
+import java.nio.channels.SelectionKey._
+import java.nio.channels.spi.SelectorProvider
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.{ AtomicBoolean, AtomicInteger }
+
+import scala.concurrent.ExecutionContext
+import scala.util.Try
+import scala.util.control.NonFatal
+
+import org.apache.pekko
+import pekko.actor.ActorRef
+import pekko.event.LoggingAdapter
+
+/**
+ * INTERNAL API
+ *
+ * The part of a [[SelectionHandler]] that watches the channels of its connection actors for readiness and notifies
+ * them with `ChannelReadable`, `ChannelWritable`, `ChannelAcceptable` and `ChannelConnectable` messages.
+ */
+private[io] trait IoBackend extends ChannelRegistry {
+
+  /**
+   * Closes all channels and stops watching them.
+   */
+  def shutdown(): Unit
+}
+
+/**
+ * INTERNAL API
+ *
+ * Creates the backend of the selectors of the TCP and UDP managers, selected with the `io-backend` setting.
+ */
+private[io] abstract class IoBackendProvider {
+
+  /**
+   * Creates the backend of one selector. `executionContext` runs the tasks of the selector in order, on the
+   * `selector-dispatcher`.
+   */
+  def create(executionContext: ExecutionContext, settings: SelectionHandlerSettings, log: LoggingAdapter): IoBackend
+}
+
+/**
+ * INTERNAL API
+ */
+private[io] object IoBackendProvider {
+
+  def apply(settings: SelectionHandlerSettings): IoBackendProvider =
+    settings.IoBackend match {
+      case "nio"      => NioIoBackendProvider
+      case "batching" => BatchingIoBackendProvider
+      case other      => throw new IllegalArgumentException(s"Unknown io-backend [$other]")
+    }
+}
+
+/**
+ * INTERNAL API
+ *
+ * The NIO backend that applies every registration and change of interest as a separate task of the selector.
+ */
+private[io] object NioIoBackendProvider extends IoBackendProvider {
+  override def create(
+      executionContext: ExecutionContext,
+      settings: SelectionHandlerSettings,
+      log: LoggingAdapter): IoBackend =
+    new SelectionHandler.ChannelRegistryImpl(executionContext, settings, log)
+}
+
+/**
+ * INTERNAL API
+ */
+private[io] object BatchingIoBackendProvider extends IoBackendProvider {
+  override def create(
+      executionContext: ExecutionContext,
+      settings: SelectionHandlerSettings,
+      log: LoggingAdapter): IoBackend =
+    new BatchingIoBackend(executionContext, settings, log)
+}
+
+/**
+ * INTERNAL API
+ *
+ * A NIO backend that works in batches, like the submission and completion queues of io_uring: registrations and
+ * closes are queued and applied at the start of the next iteration of the select loop, and the interest changes of
+ * a channel are accumulated in its registration and applied once per iteration, however many times the connection
+ * actor changed them. This saves a task and an execution on the selector's execution context per change of interest,
+ * which connection actors make after every read and write, and repeated changes of the same key. The selector is
+ * only woken up once per batch.
+ */
+private[io] final class BatchingIoBackend(
+    executionContext: ExecutionContext,
+    settings: SelectionHandlerSettings,
+    log: LoggingAdapter)
+    extends IoBackend {
+  import SelectionHandler._
+
+  private[this] val selector = SelectorProvider.provider.openSelector
+  private[this] val wakeUp = new AtomicBoolean(false)
+  // registrations, closes and the shutdown, applied in the order they were submitted
+  private[this] val submissions = new ConcurrentLinkedQueue[Runnable]
+  // the registrations with interest changes that were not applied yet
+  private[this] val changed = new ConcurrentLinkedQueue[Registration]
+  // the thunks to run after the next select, which flushes the cancelled keys of closed channels
+  private[this] var afterSelect: List[() => Unit] = Nil
+
+  private final val OP_READ_AND_WRITE = OP_READ | OP_WRITE
+
+  private final class Registration(val key: SelectionKey) extends ChannelRegistration {
+    // the ops to add in the lower 16 bits and the ops to remove in the upper 16 bits, the last change of an op wins
+    private[this] val pending = new AtomicInteger
+    private[this] val queued = new AtomicBoolean(false)
+
+    override def enableInterest(ops: Int): Unit = change(ops, 0)
+
+    override def disableInterest(ops: Int): Unit = change(0, ops)
+
+    override def cancelAndClose(andThen: () => Unit): Unit =
+      submit(new Runnable {
+        override def run(): Unit = {
+          Try(key.cancel())
+          Try(key.channel().close())
+          afterSelect = andThen :: afterSelect
+        }
+      })
+
+    private def change(enable: Int, disable: Int): Unit = {
+      var current = pending.get
+      var updated = 0
+      while ({
+        val adding = ((current & 0xFFFF) & ~disable) | enable
+        val removing = ((current >>> 16) & ~enable) | disable
+        updated = adding | (removing << 16)
+        !pending.compareAndSet(current, updated)
+      }) current = pending.get
+      if (queued.compareAndSet(false, true)) {
+        changed.add(this)
+        wakeUpSelector()
+      }
+    }
+
+    def applyInterest(): Unit = {
+      // a change made from now on queues the registration again
+      queued.set(false)
+      val ops = pending.getAndSet(0)
+      if (ops != 0 && key.isValid) {
+        val currentOps = key.interestOps
+        val newOps = (currentOps | (ops & 0xFFFF)) & ~(ops >>> 16)
+        if (newOps != currentOps) {
+          if (settings.TraceLogging) log.debug(s"Changing interest of $key from $currentOps to $newOps")
+          key.interestOps(newOps)
+        }
+      }
+    }
+  }
+
+  private[this] val loop: Runnable = new Runnable {
+    override def run(): Unit =
+      if (selector.isOpen) {
+        try iteration()
+        catch {
+          case NonFatal(e) => log.error(e, "Error in selector loop: [{}]", e)
+        } finally {
+          // re-schedule behind all currently queued tasks of the execution context
+          if (selector.isOpen) executionContext.execute(this)
+        }
+      }
+  }
+
+  executionContext.execute(loop)
+
+  private def iteration(): Unit = {
+    runSubmissions()
+    if (selector.isOpen) {
+      applyInterestChanges()
+      // a closed channel does not make a blocking select return, so the thunks waiting for the flush of its
+      // cancelled key would wait up to MaxSelectMillis; the submissions are polled again before the next select,
+      // so consuming a pending wake up here does not delay them
+      val selected = if (afterSelect.isEmpty) selector.select(MaxSelectMillis) else selector.selectNow()
+      wakeUp.set(false)
+      if (selected > 0) dispatchReady()
+      if (afterSelect.nonEmpty) {
+        val thunks = afterSelect.reverse
+        afterSelect = Nil
+        thunks.foreach(thunk => runTask(thunk()))
+      }
+    }
+  }
+
+  private def runSubmissions(): Unit = {
+    var submission = submissions.poll()
+    while (submission ne null) {
+      runTask(submission.run())
+      submission = submissions.poll()
+    }
+  }
+
+  private def applyInterestChanges(): Unit = {
+    var registration = changed.poll()
+    while (registration ne null) {
+      runTask(registration.applyInterest())
+      registration = changed.poll()
+    }
+  }
+
+  private def dispatchReady(): Unit = {
+    val keys = selector.selectedKeys
+    val iterator = keys.iterator()
+    while (iterator.hasNext) {
+      val key = iterator.next()
+      if (key.isValid) {
+        try {
+          val readyOps = key.readyOps()
+          key.interestOps(key.interestOps & ~readyOps) // prevent immediate reselection by always clearing
+          val connection = key.attachment.asInstanceOf[ActorRef]
+          readyOps match {
+            case OP_READ                   => connection ! ChannelReadable
+            case OP_WRITE                  => connection ! ChannelWritable
+            case OP_READ_AND_WRITE         => { connection ! ChannelWritable; connection ! ChannelReadable }
+            case x if (x & OP_ACCEPT) > 0  => connection ! ChannelAcceptable
+            case x if (x & OP_CONNECT) > 0 => connection ! ChannelConnectable
+            case x                         => log.warning("Invalid readyOps: [{}]", x)
+          }
+        } catch {
+          case _: CancelledKeyException =>
+          // can be ignored because this exception is triggered when the key becomes invalid
+          // because `channel.close()` in `TcpConnection.postStop` is called from another thread
+        }
+      }
+    }
+    keys.clear() // we need to remove the selected keys from the set, otherwise they remain selected
+  }
+
+  override def register(channel: SelectableChannel, initialOps: Int)(implicit channelActor: ActorRef): Unit = {
+    if (settings.TraceLogging) log.debug(s"Scheduling Registering channel $channel with initialOps $initialOps")
+    submit(new Runnable {
+      override def run(): Unit =
+        try {
+          if (settings.TraceLogging) log.debug(s"Registering channel $channel with initialOps $initialOps")
+          channelActor ! new Registration(channel.register(selector, initialOps, channelActor))
+        } catch {
+          case _: ClosedChannelException =>
+          // ignore, might happen if a connection is closed in the same moment as an interest is registered
+        }
+    })
+  }
+
+  override def shutdown(): Unit =
+    submit(new Runnable {
+      override def run(): Unit = {
+        // thorough 'close' of the Selector
+        val it = selector.keys.iterator
+        try {
+          while (it.hasNext) {
+            try it.next().channel.close()
+            catch { case NonFatal(e) => log.debug("Error closing channel: {}", e) }
+          }
+        } finally selector.close()
+      }
+    })
+
+  private def submit(task: Runnable): Unit = {
+    submissions.add(task)
+    wakeUpSelector()
+  }
+
+  private def wakeUpSelector(): Unit =
+    if (wakeUp.compareAndSet(false, true)) // if possible avoid syscall and trade off with LOCK CMPXCHG
+      selector.wakeup()
+
+  private def runTask(task: => Unit): Unit =
+    try task
+    catch {
+      case _: CancelledKeyException => // ok, can be triggered while setting interest ops
+      case NonFatal(e)              => log.error(e, "Error during selector management task: [{}]", e)
+    }
+}
@@ -49,6 +49,8 @@ abstract class SelectionHandlerSettings(config: Config) {
   val SelectorDispatcher: String = getString("selector-dispatcher")
   val WorkerDispatcher: String = getString("worker-dispatcher")
   val TraceLogging: Boolean = getBoolean("trace-logging")
+  val IoBackend: String =
+    getString("io-backend").requiring(b => b == "nio" || b == "batching", "io-backend must be 'nio' or 'batching'")
 
   def MaxChannelsPerSelector: Int
 }
@@ -148,11 +150,11 @@ private[io] object SelectionHandler {
         } else super.logFailure(context, child, cause, decision)
     }
 
-  private class ChannelRegistryImpl(
+  private[io] class ChannelRegistryImpl(
       executionContext: ExecutionContext,
       settings: SelectionHandlerSettings,
       log: LoggingAdapter)
-      extends ChannelRegistry {
+      extends IoBackend {
     private[this] val selector = SelectorProvider.provider.openSelector
     private[this] val wakeUp = new AtomicBoolean(false)
 
@@ -321,7 +323,8 @@ private[io] class SelectionHandler(settings: SelectionHandlerSettings)
   private[this] var childCount = 0
   private[this] val registry = {
     val dispatcher = context.system.dispatchers.lookup(SelectorDispatcher)
-    new ChannelRegistryImpl(SerializedSuspendableExecutionContext(dispatcher.throughput)(dispatcher), settings, log)
+    IoBackendProvider(settings)
+      .create(SerializedSuspendableExecutionContext(dispatcher.throughput)(dispatcher), settings, log)
   }
 
   def receive: Receive = {
@@ -13,7 +13,7 @@
 
 package org.apache.pekko.io
 
-import java.util.concurrent.atomic.AtomicReference
+import java.util.concurrent.atomic.{ AtomicLong, AtomicReference, LongAdder }
 
 import scala.annotation.tailrec
 import scala.collection.immutable
@@ -45,6 +45,12 @@ class SimpleDnsCache extends Dns with PeriodicCacheCleanup with NoSerializationV
 
   private val nanoBase = System.nanoTime()
 
+  private val hits = new LongAdder
+  private val misses = new LongAdder
+  private val coalesced = new LongAdder
+  private val refreshes = new LongAdder
+  private val evictions = new LongAdder
+
   /**
    * Gets any IPv4 and IPv6 cached entries.
    * To get Srv or just one type use DnsProtocol
@@ -76,21 +82,59 @@ class SimpleDnsCache extends Dns with PeriodicCacheCleanup with NoSerializationV
     else (now - nanoBase) / 1000000
   }
 
+  /**
+   * The statistics of the lookups of the DNS resolver in this cache since it was created.
+   */
+  final def statistics: SimpleDnsCache.Statistics =
+    SimpleDnsCache.Statistics(hits.sum(), misses.sum(), coalesced.sum(), refreshes.sum(), evictions.sum())
+
   /**
    * INTERNAL API
    */
   @InternalApi
   private[pekko] final def get(key: (String, RequestType)): Option[Resolved] = {
-    cacheRef.get().get(key)
+    val result = cacheRef.get().get(key)
+    if (result.isDefined) hits.increment() else misses.increment()
+    result
   }
 
+  /**
+   * INTERNAL API: the milliseconds until the entry of the key expires, or 0 if it is not cached
+   */
+  @InternalApi
+  private[io] final def timeLeft(key: (String, RequestType)): Long =
+    cacheRef.get().timeLeft(key)
+
+  private[io] final def put(key: (String, RequestType), records: Resolved, ttl: CachePolicy): Unit =
+    put(key, records, ttl, Int.MaxValue)
+
+  /**
+   * INTERNAL API: puts the entry and evicts the least frequently used entries while there are more than
+   * `maxEntries` entries that have not expired
+   */
   @tailrec
-  private[io] final def put(key: (String, RequestType), records: Resolved, ttl: CachePolicy): Unit = {
+  private[io] final def put(key: (String, RequestType), records: Resolved, ttl: CachePolicy, maxEntries: Int): Unit = {
     val c = cacheRef.get()
-    if (!cacheRef.compareAndSet(c, c.put(key, records, ttl)))
-      put(key, records, ttl)
+    val updated = c.put(key, records, ttl)
+    val bounded = if (updated.size > maxEntries) updated.evictLeastFrequentlyUsed(maxEntries, key) else updated
+    if (cacheRef.compareAndSet(c, bounded)) {
+      val evicted = updated.size - bounded.size
+      if (evicted > 0) evictions.add(evicted)
+    } else put(key, records, ttl, maxEntries)
   }
 
+  /**
+   * INTERNAL API
+   */
+  @InternalApi
+  private[io] final def recordCoalesced(): Unit = coalesced.increment()
+
+  /**
+   * INTERNAL API
+   */
+  @InternalApi
+  private[io] final def recordRefresh(): Unit = refreshes.increment()
+
   @tailrec
   override final def cleanup(): Unit = {
     val c = cacheRef.get()
@@ -101,29 +145,96 @@ class SimpleDnsCache extends Dns with PeriodicCacheCleanup with NoSerializationV
 }
 object SimpleDnsCache {
 
+  /**
+   * The statistics of the lookups of a DNS resolver in a [[SimpleDnsCache]].
+   *
+   * @param hitCount the lookups that were answered from the cache
+   * @param missCount the lookups that were not cached or had expired
+   * @param coalescedCount the missed lookups that did not query the name servers themselves but waited for the
+   *                       answer to an identical lookup in flight
+   * @param refreshCount the entries that were resolved again because they were used shortly before they expired
+   * @param evictionCount the entries that were removed because the cache was full, the least frequently used ones
+   *                      and expired ones that had not been swept out yet
+   */
+  final case class Statistics(
+      hitCount: Long,
+      missCount: Long,
+      coalescedCount: Long,
+      refreshCount: Long,
+      evictionCount: Long)
+
   /**
    * INTERNAL API
    */
   @InternalApi
   private[io] class Cache[K, V](
-      queue: immutable.SortedSet[ExpiryEntry[K]],
-      cache: immutable.Map[K, CacheEntry[V]],
+      private val queue: immutable.SortedSet[ExpiryEntry[K]],
+      private val cache: immutable.Map[K, CacheEntry[V]],
       clock: () => Long) {
     def get(name: K): Option[V] = {
       for {
         e <- cache.get(name)
         if e.isValid(clock())
-      } yield e.answer
+      } yield {
+        e.uses.incrementAndGet()
+        e.answer
+      }
+    }
+
+    def timeLeft(name: K): Long = cache.get(name) match {
+      case Some(e) => math.max(e.until - clock(), 0L)
+      case None    => 0L
     }
 
+    def size: Int = cache.size
+
     def put(name: K, answer: V, ttl: CachePolicy): Cache[K, V] = {
       val until = ttl match {
         case Forever  => Long.MaxValue
         case Never    => clock() - 1
         case ttl: Ttl => clock() + ttl.value.toMillis
       }
+      // a refreshed entry keeps its uses, so that hot entries are not the first to be evicted
+      val uses = cache.get(name).fold(new AtomicLong)(_.uses)
 
-      new Cache[K, V](queue + new ExpiryEntry[K](name, until), cache + (name -> CacheEntry(answer, until)), clock)
+      new Cache[K, V](
+        queue + new ExpiryEntry[K](name, until),
+        cache + (name -> CacheEntry(answer, until)(uses)),
+        clock)
+    }
+
+    /**
+     * Removes the expired entries and then the least frequently used entries other than `keep` until at most
+     * `maxEntries` are left. Finding an entry to evict scans all entries, which is only done on puts into a
+     * full cache.
+     */
+    def evictLeastFrequentlyUsed(maxEntries: Int, keep: K): Cache[K, V] = {
+      val cleaned = cleanup()
+      var q = cleaned.queue
+      var c = cleaned.cache
+      var evictable = true
+      while (c.size > maxEntries && evictable) {
+        var victim: K = keep
+        var victimEntry: CacheEntry[V] = null
+        c.foreach {
+          case (name, entry) =>
+            if (name != keep && ((victimEntry eq null) || entry.uses.get < victimEntry.uses.get)) {
+              victim = name
+              victimEntry = entry
+            }
+        }
+        if (victimEntry eq null) evictable = false
+        else {
+          c -= victim
+          // the expiry queue holds one entry per expiry time, remove it if it is the one of the victim
+          val expiry = q.iteratorFrom(new ExpiryEntry[K](victim, victimEntry.until))
+          if (expiry.hasNext) {
+            val e = expiry.next()
+            if (e.until == victimEntry.until && e.name == victim) q -= e
+          }
+        }
+      }
+      new Cache(q, c, clock)
     }
 
     def cleanup(): Cache[K, V] = {
@@ -141,7 +252,7 @@ object SimpleDnsCache {
     }
   }
 
-  private[io] case class CacheEntry[T](answer: T, until: Long) {
+  private[io] case class CacheEntry[T](answer: T, until: Long)(val uses: AtomicLong = new AtomicLong) {
     def isValid(clock: Long): Boolean = clock < until
   }
 
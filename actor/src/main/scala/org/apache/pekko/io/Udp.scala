@@ -104,6 +104,30 @@ object Udp extends ExtensionId[UdpExt] with ExtensionIdProvider {
     def apply(data: ByteString, target: InetSocketAddress): Send = Send(data, target, NoAck)
   }
 
+  /**
+   * A datagram with the address it is sent to or was received from, as used by [[SendBatch]] and [[ReceivedBatch]].
+   */
+  final case class Datagram(data: ByteString, remoteAddress: InetSocketAddress)
+
+  /**
+   * This message is understood by the same actors as [[Send]] and sends each of
+   * the given datagrams as one UDP datagram to its address, as many as the O/S
+   * kernel accepts per writable notification of the socket, which saves an actor
+   * message per datagram. If the given `ack` is not of type [[NoAck]] the UDP
+   * actor will reply with the given object once all datagrams have been enqueued
+   * to the O/S kernel. If the kernel accepts no datagram even after the socket
+   * became writable again, the UDP actor will respond with a [[CommandFailed]]
+   * containing a `SendBatch` of the datagrams that were not sent.
+   */
+  final case class SendBatch(datagrams: immutable.Seq[Datagram], ack: Event) extends Command {
+    require(ack != null, "ack must be non-null. Use NoAck if you don't want acks.")
+
+    def wantsAck: Boolean = !ack.isInstanceOf[NoAck]
+  }
+  object SendBatch {
+    def apply(datagrams: immutable.Seq[Datagram]): SendBatch = SendBatch(datagrams, NoAck)
+  }
+
   /**
    * Send this message to the [[UdpExt#manager]] in order to bind to the given
    * local port (or an automatically assigned one if the port number is zero).
@@ -117,6 +141,17 @@ object Udp extends ExtensionId[UdpExt] with ExtensionIdProvider {
       options: immutable.Traversable[SocketOption] = Nil)
       extends Command
 
+  /**
+   * Pass this option with [[Bind]] to have the listener actor deliver the
+   * datagrams it receives as [[ReceivedBatch]] messages instead of one
+   * [[Received]] message per datagram. Every time the socket becomes readable
+   * the listener reads up to `maxDatagrams` datagrams, as many as are available,
+   * and sends them to the handler in one message.
+   */
+  final case class BatchReceive(maxDatagrams: Int) extends SocketOption {
+    require(maxDatagrams > 0, "maxDatagrams must be > 0")
+  }
+
   /**
    * Send this message to the listener actor that previously sent a [[Bound]]
    * message in order to close the listening socket. The recipient will reply
@@ -163,6 +198,23 @@ object Udp extends ExtensionId[UdpExt] with ExtensionIdProvider {
    */
   final case class Received(data: ByteString, sender: InetSocketAddress) extends Event
 
+  /**
+   * When a listener actor that was bound with the [[BatchReceive]] option
+   * receives datagrams from its socket it will send them to the handler
+   * designated in the [[Bind]] message using this message type, in the order
+   * they were received.
+   */
+  final case class ReceivedBatch(datagrams: immutable.Seq[Datagram]) extends Event {
+
+    /**
+     * Java API: the received datagrams
+     */
+    def getDatagrams: java.util.List[Datagram] = {
+      import pekko.util.ccompat.JavaConverters._
+      datagrams.asJava
+    }
+  }
+
   /**
    * When a command fails it will be replied to with this message type,
    * wrapping the failing command object.
@@ -298,6 +350,31 @@ object UdpMessage {
    */
   def send(payload: ByteString, target: InetSocketAddress): Command = Send(payload, target)
 
+  /**
+   * A datagram with the address it is sent to or was received from, see [[Udp.Datagram]].
+   */
+  def datagram(data: ByteString, remoteAddress: InetSocketAddress): Datagram = Datagram(data, remoteAddress)
+
+  /**
+   * This message is understood by the same actors as [[Udp.Send]] and sends each of
+   * the given datagrams as one UDP datagram to its address, see [[Udp.SendBatch]].
+   * If the given `ack` is not of type [[Udp.NoAck]] the UDP actor will reply with
+   * the given object once all datagrams have been enqueued to the O/S kernel.
+   */
+  def sendBatch(datagrams: JIterable[Datagram], ack: Event): Command =
+    SendBatch(datagrams.asScala.to(immutable.IndexedSeq), ack)
+
+  /**
+   * The same as `sendBatch(datagrams, noAck())`.
+   */
+  def sendBatch(datagrams: JIterable[Datagram]): Command = sendBatch(datagrams, NoAck)
+
+  /**
+   * Option for [[Udp.Bind]] to have the listener actor deliver the datagrams it
+   * receives as [[Udp.ReceivedBatch]] messages of up to `maxDatagrams` datagrams.
+   */
+  def batchReceive(maxDatagrams: Int): SocketOption = BatchReceive(maxDatagrams)
+
   /**
    * Send this message to the [[UdpExt#manager]] in order to bind to the given
    * local port (or an automatically assigned one if the port number is zero).
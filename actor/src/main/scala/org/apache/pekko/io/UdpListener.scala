@@ -18,6 +18,7 @@ import java.nio.ByteBuffer
 import java.nio.channels.SelectionKey._
 
 import scala.annotation.tailrec
+import scala.collection.immutable.VectorBuilder
 import scala.util.control.NonFatal
 
 import org.apache.pekko
@@ -99,25 +100,49 @@ private[io] class UdpListener(val udp: UdpExt, channelRegistry: ChannelRegistry,
       context.stop(self)
   }
 
+  // the maximum number of datagrams per ReceivedBatch, or 0 to send a Received per datagram
+  private[this] val batchReceiveLimit: Int = bind.options.collectFirst { case BatchReceive(max) => max }.getOrElse(0)
+
   def doReceive(registration: ChannelRegistration, handler: ActorRef): Unit = {
-    @tailrec def innerReceive(readsLeft: Int, buffer: ByteBuffer): Unit = {
+    // receives one datagram, or returns null if no data was available
+    def receiveDatagram(buffer: ByteBuffer): Datagram = {
       buffer.clear()
       buffer.limit(DirectBufferSize)
 
       channel.receive(buffer) match {
         case sender: InetSocketAddress =>
           buffer.flip()
-          handler ! Received(ByteString(buffer), sender)
-          if (readsLeft > 0) innerReceive(readsLeft - 1, buffer)
-        case null => // null means no data was available
+          Datagram(ByteString(buffer), sender)
+        case null => null // null means no data was available
         case unexpected =>
           throw new RuntimeException(s"Unexpected address in buffer: $unexpected") // will not happen, for exhaustiveness check
       }
     }
 
+    @tailrec def innerReceive(readsLeft: Int, buffer: ByteBuffer): Unit = {
+      val datagram = receiveDatagram(buffer)
+      if (datagram ne null) {
+        handler ! Received(datagram.data, datagram.remoteAddress)
+        if (readsLeft > 0) innerReceive(readsLeft - 1, buffer)
+      }
+    }
+
+    @tailrec def batchReceive(readsLeft: Int, buffer: ByteBuffer, batch: VectorBuilder[Datagram]): Unit = {
+      val datagram = if (readsLeft > 0) receiveDatagram(buffer) else null
+      if (datagram ne null) {
+        batch += datagram
+        batchReceive(readsLeft - 1, buffer, batch)
+      } else {
+        val datagrams = batch.result()
+        if (datagrams.nonEmpty) handler ! ReceivedBatch(datagrams)
+      }
+    }
+
     val buffer = bufferPool.acquire()
-    try innerReceive(BatchReceiveLimit, buffer)
-    finally {
+    try {
+      if (batchReceiveLimit > 0) batchReceive(batchReceiveLimit, buffer, new VectorBuilder[Datagram])
+      else innerReceive(BatchReceiveLimit, buffer)
+    } finally {
       bufferPool.release(buffer)
       registration.enableInterest(OP_READ)
     }
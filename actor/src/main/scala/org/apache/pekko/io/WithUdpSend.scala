@@ -14,14 +14,17 @@
 package org.apache.pekko.io
 
 import java.net.InetSocketAddress
+import java.nio.ByteBuffer
 import java.nio.channels.{ DatagramChannel, SelectionKey }
 
+import scala.annotation.tailrec
+import scala.collection.immutable
 import scala.util.control.NonFatal
 
 import org.apache.pekko
 import pekko.actor.{ Actor, ActorLogging, ActorRef }
 import pekko.io.SelectionHandler._
-import pekko.io.Udp.{ CommandFailed, Send }
+import pekko.io.Udp.{ CommandFailed, Datagram, Send, SendBatch }
 import pekko.io.dns.DnsProtocol
 
 /**
@@ -32,10 +35,13 @@ private[io] trait WithUdpSend {
 
   private var pendingSend: Send = null
   private var pendingCommander: ActorRef = null
+  // the batch being sent and its datagrams that were not sent yet
+  private var pendingBatch: SendBatch = null
+  private var pendingDatagrams: immutable.Seq[Datagram] = Nil
   // If send fails first, we allow a second go after selected writable, but no more. This flag signals that
   // pending send was already tried once.
   private var retriedSend = false
-  private def hasWritePending = pendingSend ne null
+  private def hasWritePending = (pendingSend ne null) || (pendingBatch ne null)
 
   def channel: DatagramChannel
   def udp: UdpExt
@@ -80,7 +86,19 @@ private[io] trait WithUdpSend {
         doSend(registration)
       }
 
-    case ChannelWritable => if (hasWritePending) doSend(registration)
+    case batch: SendBatch if hasWritePending =>
+      if (TraceLogging) log.debug("Dropping write because queue is full")
+      sender() ! CommandFailed(batch)
+
+    case batch: SendBatch =>
+      pendingBatch = batch
+      pendingDatagrams = batch.datagrams
+      pendingCommander = sender()
+      doSendBatch(registration)
+
+    case ChannelWritable =>
+      if (pendingSend ne null) doSend(registration)
+      else if (pendingBatch ne null) doSendBatch(registration)
   }
 
   private def doSend(registration: ChannelRegistration): Unit = {
@@ -113,4 +131,65 @@ private[io] trait WithUdpSend {
       udp.bufferPool.release(buffer)
     }
   }
+
+  private def doSendBatch(registration: ChannelRegistration): Unit = {
+    // sends datagrams until the kernel accepts no more, `pendingDatagrams` are the ones that were not sent
+    @tailrec def sendDatagrams(buffer: ByteBuffer): Unit =
+      if (pendingDatagrams.nonEmpty) {
+        val datagram = pendingDatagrams.head
+        val writtenBytes =
+          if (datagram.data.isEmpty) -1
+          else {
+            buffer.clear()
+            datagram.data.copyToBuffer(buffer)
+            buffer.flip()
+            channel.send(buffer, resolved(datagram.remoteAddress))
+          }
+        if (TraceLogging && writtenBytes >= 0) log.debug("Wrote [{}] bytes to channel", writtenBytes)
+        // Datagram channel either sends the whole message, or nothing
+        if (writtenBytes != 0) {
+          pendingDatagrams = pendingDatagrams.tail
+          sendDatagrams(buffer)
+        }
+      }
+
+    val buffer = udp.bufferPool.acquire()
+    val before = pendingDatagrams
+    try {
+      sendDatagrams(buffer)
+      if (pendingDatagrams.isEmpty) {
+        if (pendingBatch.wantsAck) pendingCommander ! pendingBatch.ack
+        clearPendingBatch()
+      } else if (retriedSend && (pendingDatagrams eq before)) {
+        // no datagram was sent after the socket became writable again
+        pendingCommander ! CommandFailed(pendingBatch.copy(datagrams = pendingDatagrams))
+        clearPendingBatch()
+      } else {
+        registration.enableInterest(SelectionKey.OP_WRITE)
+        retriedSend = true
+      }
+    } catch {
+      case NonFatal(e) =>
+        pendingCommander ! CommandFailed(pendingBatch.copy(datagrams = pendingDatagrams))
+        log.debug("Failure while sending batch of UDP datagrams to [{}]: {}", pendingDatagrams.head.remoteAddress, e)
+        clearPendingBatch()
+    } finally {
+      udp.bufferPool.release(buffer)
+    }
+  }
+
+  private def resolved(address: InetSocketAddress): InetSocketAddress =
+    if (!address.isUnresolved) address
+    else
+      Dns.resolve(DnsProtocol.Resolve(address.getHostName), context.system, self) match {
+        case Some(r) => new InetSocketAddress(r.address(), address.getPort)
+        case None    => throw new IllegalArgumentException(s"Name resolution failed for remote address [$address]")
+      }
+
+  private def clearPendingBatch(): Unit = {
+    retriedSend = false
+    pendingBatch = null
+    pendingDatagrams = Nil
+    pendingCommander = null
+  }
 }
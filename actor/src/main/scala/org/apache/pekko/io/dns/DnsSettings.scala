@@ -67,6 +67,14 @@ private[dns] final class DnsSettings(system: ExtendedActorSystem, c: Config) {
   val PositiveCachePolicy: CachePolicy = getTtl("positive-ttl")
   val NegativeCachePolicy: CachePolicy = getTtl("negative-ttl")
 
+  val CacheMaxEntries: Int = c.getString("cache-max-entries") match {
+    case "unlimited" => Int.MaxValue
+    case _           => c.getInt("cache-max-entries").requiring(_ > 0, "cache-max-entries must be 'unlimited' or > 0")
+  }
+
+  val RefreshAhead: Double =
+    c.getDouble("refresh-ahead").requiring(d => d >= 0.0 && d < 1.0, "refresh-ahead must be >= 0 and < 1")
+
   private def getTtl(path: String): CachePolicy =
     c.getString(path) match {
       case "forever" => Forever
@@ -14,22 +14,24 @@
 package org.apache.pekko.io.dns.internal
 
 import java.net.{ Inet4Address, Inet6Address, InetAddress, InetSocketAddress }
+import java.nio.ByteOrder
 
 import scala.collection.immutable
 import scala.concurrent.ExecutionContextExecutor
 import scala.concurrent.Future
-import scala.util.Try
+import scala.concurrent.duration._
+import scala.util.{ Failure, Success, Try }
 import scala.util.control.NonFatal
 
 import org.apache.pekko
-import pekko.actor.{ Actor, ActorLogging, ActorRef, ActorRefFactory }
+import pekko.actor.{ Actor, ActorLogging, ActorRef, ActorRefFactory, Status }
 import pekko.annotation.InternalApi
 import pekko.io.SimpleDnsCache
 import pekko.io.dns._
-import pekko.io.dns.CachePolicy.{ Never, Ttl }
+import pekko.io.dns.CachePolicy.{ CachePolicy, Never, Ttl }
 import pekko.io.dns.DnsProtocol.{ Ip, RequestType, Srv }
 import pekko.io.dns.internal.DnsClient._
-import pekko.pattern.{ ask, pipe }
+import pekko.pattern.ask
 import pekko.pattern.AskTimeoutException
 import pekko.util.{ Helpers, Timeout }
 import pekko.util.PrettyDuration._
@@ -94,32 +96,72 @@ private[io] final class AsyncDnsResolver(
 
   private val resolvers: List[ActorRef] = clientFactory(context, nameServers)
 
+  // the resolutions in flight and the senders waiting for them, empty for a refresh of a cached entry
+  private var inFlight = Map.empty[(String, RequestType), List[ActorRef]]
+
   // only supports DnsProtocol, not the deprecated Dns protocol
   // AsyncDnsManager converts between the protocols to support the deprecated protocol
   override def receive: Receive = {
     case DnsProtocol.Resolve(name, mode) =>
-      cache.get((name, mode)) match {
+      val key = (name, mode)
+      cache.get(key) match {
         case Some(resolved) =>
           log.debug("{} cached {}", mode, resolved)
           sender() ! resolved
+          if (shouldRefresh(key, resolved)) {
+            log.debug("{} refreshing {} ahead of expiry", mode, name)
+            cache.recordRefresh()
+            startResolution(key, Nil)
+          }
         case None =>
-          resolveWithResolvers(name, mode, resolvers)
-            .map { resolved =>
-              if (resolved.records.nonEmpty) {
-                val minTtl = (positiveCachePolicy +: resolved.records.map(_.ttl)).min
-                cache.put((name, mode), resolved, minTtl)
-              } else if (negativeCachePolicy != Never) cache.put((name, mode), resolved, negativeCachePolicy)
-              log.debug(s"{} resolved {}", mode, resolved)
-              resolved
-            }
-            .pipeTo(sender())
+          inFlight.get(key) match {
+            case Some(waiting) =>
+              cache.recordCoalesced()
+              inFlight = inFlight.updated(key, sender() :: waiting)
+            case None =>
+              startResolution(key, sender() :: Nil)
+          }
+      }
+
+    case ResolutionCompleted(key @ (_, mode), result) =>
+      val waiting = inFlight.getOrElse(key, Nil)
+      inFlight -= key
+      result match {
+        case Success(Resolution(resolved, negativeTtl)) =>
+          if (resolved.records.nonEmpty) {
+            val minTtl = (positiveCachePolicy +: resolved.records.map(_.ttl)).min
+            cache.put(key, resolved, minTtl, settings.CacheMaxEntries)
+          } else {
+            val ttl = negativeTtl.fold(negativeCachePolicy)(soaTtl => (negativeCachePolicy :: soaTtl :: Nil).min)
+            if (ttl != Never) cache.put(key, resolved, ttl, settings.CacheMaxEntries)
+          }
+          log.debug(s"{} resolved {}", mode, resolved)
+          waiting.foreach(_ ! resolved)
+        case Failure(e) =>
+          if (waiting.isEmpty) log.debug("{} refresh of {} failed: {}", mode, key._1, e.getMessage)
+          waiting.foreach(_ ! Status.Failure(e))
       }
   }
 
+  private def startResolution(key: (String, RequestType), waiting: List[ActorRef]): Unit = {
+    inFlight = inFlight.updated(key, waiting)
+    resolveWithResolvers(key._1, key._2, resolvers).onComplete(result => self ! ResolutionCompleted(key, result))
+  }
+
+  // a cached positive answer is resolved again in the background when it is used shortly before it expires
+  private def shouldRefresh(key: (String, RequestType), resolved: DnsProtocol.Resolved): Boolean =
+    settings.RefreshAhead > 0 && resolved.records.nonEmpty && !inFlight.contains(key) && {
+      (positiveCachePolicy +: resolved.records.map(_.ttl)).min match {
+        case Ttl(ttl) if ttl < Ttl.effectivelyForever.value =>
+          cache.timeLeft(key) < (ttl.toMillis * settings.RefreshAhead).toLong
+        case _ => false
+      }
+    }
+
   private def resolveWithResolvers(
       name: String,
       requestType: RequestType,
-      resolvers: List[ActorRef]): Future[DnsProtocol.Resolved] =
+      resolvers: List[ActorRef]): Future[Resolution] =
     if (isInetAddress(name)) {
       Future.fromTry {
         Try {
@@ -129,7 +171,7 @@ private[io] final class AsyncDnsResolver(
             case ipv6address: Inet6Address => AAAARecord(name, Ttl.effectivelyForever, ipv6address)
             case unexpected                => throw new IllegalArgumentException(s"Unexpected address: $unexpected")
           }
-          DnsProtocol.Resolved(name, record :: Nil)
+          Resolution(DnsProtocol.Resolved(name, record :: Nil), None)
         }
       }
     } else {
@@ -161,7 +203,7 @@ private[io] final class AsyncDnsResolver(
   private def resolveWithSearch(
       name: String,
       requestType: RequestType,
-      resolver: ActorRef): Future[DnsProtocol.Resolved] = {
+      resolver: ActorRef): Future[Resolution] = {
     if (settings.SearchDomains.nonEmpty) {
       val nameWithSearch = settings.SearchDomains.map(sd => name + "." + sd)
       // ndots is a heuristic used to try and work out whether the name passed in is a fully qualified domain name,
@@ -186,14 +228,14 @@ private[io] final class AsyncDnsResolver(
   private def resolveFirst(
       searchNames: List[String],
       requestType: RequestType,
-      resolver: ActorRef): Future[DnsProtocol.Resolved] = {
+      resolver: ActorRef): Future[Resolution] = {
     searchNames match {
       case searchName :: Nil =>
         resolve(searchName, requestType, resolver)
       case searchName :: remaining =>
-        resolve(searchName, requestType, resolver).flatMap { resolved =>
-          if (resolved.records.isEmpty) resolveFirst(remaining, requestType, resolver)
-          else Future.successful(resolved)
+        resolve(searchName, requestType, resolver).flatMap { resolution =>
+          if (resolution.resolved.records.isEmpty) resolveFirst(remaining, requestType, resolver)
+          else Future.successful(resolution)
         }
       case Nil =>
         // This can't happen
@@ -201,7 +243,7 @@ private[io] final class AsyncDnsResolver(
     }
   }
 
-  private def resolve(name: String, requestType: RequestType, resolver: ActorRef): Future[DnsProtocol.Resolved] = {
+  private def resolve(name: String, requestType: RequestType, resolver: ActorRef): Future[Resolution] = {
     log.debug("Attempting to resolve {} with {}", name, resolver)
     val caseFoldedName = Helpers.toRootLowerCase(name)
     requestType match {
@@ -221,11 +263,13 @@ private[io] final class AsyncDnsResolver(
         for {
           ipv4 <- ipv4Recs
           ipv6 <- ipv6Recs
-        } yield DnsProtocol.Resolved(name, ipv4.rrs ++ ipv6.rrs, ipv4.additionalRecs ++ ipv6.additionalRecs)
+        } yield Resolution(
+          DnsProtocol.Resolved(name, ipv4.rrs ++ ipv6.rrs, ipv4.additionalRecs ++ ipv6.additionalRecs),
+          negativeTtl(ipv4.authorityRecs ++ ipv6.authorityRecs))
 
       case Srv =>
         sendQuestion(resolver, SrvQuestion(nextId(), caseFoldedName)).map(answer => {
-          DnsProtocol.Resolved(name, answer.rrs, answer.additionalRecs)
+          Resolution(DnsProtocol.Resolved(name, answer.rrs, answer.additionalRecs), negativeTtl(answer.authorityRecs))
         })
     }
   }
@@ -256,5 +300,21 @@ private[pekko] object AsyncDnsResolver {
   private val Empty =
     Future.successful(Answer(-1, immutable.Seq.empty[ResourceRecord], immutable.Seq.empty[ResourceRecord]))
 
+  /**
+   * The TTL of a negative answer as defined by RFC 2308, the smaller of the TTL of the SOA record in the authority
+   * section and the MINIMUM field, the last 4 bytes of its data, or `None` if there is no SOA record.
+   */
+  private[internal] def negativeTtl(authorityRecs: immutable.Seq[ResourceRecord]): Option[CachePolicy] =
+    authorityRecs.collectFirst {
+      case soa: UnknownRecord if soa.recType == RecordType.SOA.code && soa.data.length >= 4 =>
+        val minimum = soa.data.drop(soa.data.length - 4).iterator.getInt(ByteOrder.BIG_ENDIAN) & 0xFFFFFFFFL
+        if (minimum == 0 || soa.ttl.value <= Duration.Zero) Never
+        else (soa.ttl :: Ttl.fromPositive(minimum.seconds) :: Nil).min
+    }
+
+  private final case class Resolution(resolved: DnsProtocol.Resolved, negativeTtl: Option[CachePolicy])
+
+  private final case class ResolutionCompleted(key: (String, RequestType), result: Try[Resolution])
+
   case class ResolveFailedException(msg: String) extends Exception(msg)
 }
@@ -39,9 +39,23 @@ import pekko.pattern.{ BackoffOpts, BackoffSupervisor }
   final case class SrvQuestion(id: Short, name: String) extends DnsQuestion
   final case class Question4(id: Short, name: String) extends DnsQuestion
   final case class Question6(id: Short, name: String) extends DnsQuestion
-  final case class Answer(id: Short, rrs: im.Seq[ResourceRecord], additionalRecs: im.Seq[ResourceRecord] = Nil)
+  final case class Answer(
+      id: Short,
+      rrs: im.Seq[ResourceRecord],
+      additionalRecs: im.Seq[ResourceRecord] = Nil,
+      authorityRecs: im.Seq[ResourceRecord] = Nil)
       extends NoSerializationVerificationNeeded
   final case class DropRequest(id: Short)
+
+  /**
+   * The answer to a response, with the authority records of a negative response to make it possible to cache it for
+   * as long as the SOA record in them says (RFC 2308).
+   */
+  private[internal] def answer(msg: Message): Answer = msg.flags.responseCode match {
+    case ResponseCode.SUCCESS    => Answer(msg.id, msg.answerRecs, msg.additionalRecs, msg.authorityRecs)
+    case ResponseCode.NAME_ERROR => Answer(msg.id, Nil, Nil, msg.authorityRecs)
+    case _                       => Answer(msg.id, Nil, Nil)
+  }
 }
 
 /**
@@ -140,9 +154,7 @@ import pekko.pattern.{ BackoffOpts, BackoffSupervisor }
             log.debug("Client for id {} not found. Discarding unsuccessful response.", msg.id)
         }
       } else {
-        val (recs, additionalRecs) =
-          if (msg.flags.responseCode == ResponseCode.SUCCESS) (msg.answerRecs, msg.additionalRecs) else (Nil, Nil)
-        self ! Answer(msg.id, recs, additionalRecs)
+        self ! answer(msg)
       }
     case response: Answer =>
       inflightRequests.get(response.id) match {
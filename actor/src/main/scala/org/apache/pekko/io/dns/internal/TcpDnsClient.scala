@@ -20,7 +20,6 @@ import pekko.PekkoException
 import pekko.actor.{ Actor, ActorLogging, ActorRef, Stash }
 import pekko.annotation.InternalApi
 import pekko.io.Tcp
-import pekko.io.dns.internal.DnsClient.Answer
 import pekko.util.ByteString
 
 /**
@@ -89,9 +88,7 @@ import pekko.util.ByteString
     if (msg.flags.isTruncated) {
       log.warning("TCP DNS response truncated")
     }
-    val (recs, additionalRecs) =
-      if (msg.flags.responseCode == ResponseCode.SUCCESS) (msg.answerRecs, msg.additionalRecs) else (Nil, Nil)
-    Answer(msg.id, recs, additionalRecs)
+    DnsClient.answer(msg)
   }
 }
 private[internal] object TcpDnsClient {
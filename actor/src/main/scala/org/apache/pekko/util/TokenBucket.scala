@@ -13,6 +13,10 @@
 
 package org.apache.pekko.util
 
+import java.util.concurrent.atomic.AtomicLong
+
+import scala.annotation.tailrec
+
 /**
  * INTERNAL API
  */
@@ -96,3 +100,91 @@ private[pekko] abstract class TokenBucket(capacity: Long, nanosBetweenTokens: Lo
 final class NanoTimeTokenBucket(_cap: Long, _period: Long) extends TokenBucket(_cap, _period) {
   override def currentTime: Long = System.nanoTime()
 }
+
+/**
+ * INTERNAL API
+ *
+ * A token bucket that many threads can take tokens from at the same time without locking. Its only state is the
+ * time at which the bucket was, or will be, empty: the tokens available at a given time are the ones that arrived
+ * since then, up to the capacity. Taking tokens moves that time forward with a compare-and-set.
+ */
+private[pekko] abstract class ConcurrentTokenBucket(capacity: Long, nanosBetweenTokens: Long) {
+  import ConcurrentTokenBucket.Rate
+
+  @volatile private[this] var rate = Rate(capacity, nanosBetweenTokens)
+  private[this] val emptyAt = new AtomicLong
+
+  /**
+   * This method must be called before the token bucket can be used, it starts out full.
+   */
+  def init(): Unit = {
+    val r = rate
+    emptyAt.set(currentTime - r.capacity * r.nanosBetweenTokens)
+  }
+
+  /**
+   * The current time in nanos. The returned value is monotonic, might wrap over and has no relationship with wall-clock.
+   */
+  def currentTime: Long
+
+  /**
+   * Changes the capacity and the rate of the bucket for the tokens taken from now on, tokens that were already taken
+   * are not given back.
+   */
+  def setRate(capacity: Long, nanosBetweenTokens: Long): Unit =
+    rate = Rate(capacity, nanosBetweenTokens)
+
+  /**
+   * Takes the tokens for an element and returns the number of nanoseconds the element needs to be delayed to conform
+   * with the token bucket parameters, zero if it can be emitted immediately. The tokens are taken in any case, so
+   * the elements offered by other threads in the meantime are delayed until after this one.
+   *
+   * @param cost How many tokens the element costs. Can be larger than the capacity of the bucket.
+   */
+  @tailrec final def offer(cost: Long): Long = {
+    if (cost < 0) throw new IllegalArgumentException("Cost must be non-negative")
+    val r = rate
+    val now = currentTime
+    val previous = emptyAt.get
+    val next = math.max(previous, now - r.capacity * r.nanosBetweenTokens) + cost * r.nanosBetweenTokens
+    if (emptyAt.compareAndSet(previous, next)) math.max(0L, next - now)
+    else offer(cost)
+  }
+
+  /**
+   * Takes the tokens for an element only if they are available right now.
+   *
+   * @param cost How many tokens the element costs.
+   * @return whether the tokens were taken
+   */
+  @tailrec final def tryTake(cost: Long): Boolean = {
+    if (cost < 0) throw new IllegalArgumentException("Cost must be non-negative")
+    val r = rate
+    val now = currentTime
+    val previous = emptyAt.get
+    val next = math.max(previous, now - r.capacity * r.nanosBetweenTokens) + cost * r.nanosBetweenTokens
+    if (next - now > 0) false
+    else if (emptyAt.compareAndSet(previous, next)) true
+    else tryTake(cost)
+  }
+}
+
+/**
+ * INTERNAL API
+ */
+private[pekko] object ConcurrentTokenBucket {
+  private final case class Rate(capacity: Long, nanosBetweenTokens: Long) {
+    require(capacity >= 0, "Capacity must be non-negative.")
+    require(nanosBetweenTokens > 0, "Time between tokens must be larger than zero nanoseconds.")
+  }
+}
+
+/**
+ * INTERNAL API
+ *
+ * Default implementation of [[ConcurrentTokenBucket]] that uses `System.nanoTime` as the time source.
+ */
+private[pekko] final class NanoTimeConcurrentTokenBucket(_cap: Long, _period: Long)
+    extends ConcurrentTokenBucket(_cap, _period) {
+  override def currentTime: Long = System.nanoTime()
+}
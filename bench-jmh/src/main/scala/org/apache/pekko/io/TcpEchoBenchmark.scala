@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.io
+
+import java.util.concurrent.TimeUnit
+
+import scala.concurrent.{ Await, Future }
+import scala.concurrent.duration._
+
+import com.typesafe.config.ConfigFactory
+import org.openjdk.jmh.annotations._
+
+import org.apache.pekko
+import pekko.actor.ActorSystem
+import pekko.stream.{ OverflowStrategy, QueueOfferResult }
+import pekko.stream.scaladsl._
+import pekko.util.ByteString
+
+object TcpEchoBenchmark {
+  final val MessageSize = 64
+}
+
+/**
+ * Opens `connections` connections over loopback to an echo server, and measures the rounds per second in which every
+ * connection sends a message of 64 bytes and waits for its echo, with the `nio` and the `batching` `io-backend`.
+ * The round trips per second are the rounds times the connections. Running it with 10000 connections needs a limit
+ * of open files of more than 20000.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@BenchmarkMode(Array(Mode.Throughput))
+class TcpEchoBenchmark {
+  import TcpEchoBenchmark._
+
+  @Param(Array("nio", "batching"))
+  var ioBackend = ""
+
+  @Param(Array("100", "10000"))
+  var connections = 0
+
+  implicit var system: ActorSystem = _
+  private var clients: Vector[(SourceQueueWithComplete[ByteString], SinkQueueWithCancel[ByteString])] = _
+  private val message = ByteString(Array.fill[Byte](MessageSize)(1))
+
+  @Setup
+  def setup(): Unit = {
+    system = ActorSystem(
+      "TcpEchoBenchmark",
+      ConfigFactory.parseString(s"""
+        pekko.io.tcp.io-backend = $ioBackend
+        pekko.io.tcp.max-channels = unlimited
+        """).withFallback(ConfigFactory.load()))
+
+    val binding = Await.result(
+      Tcp(system).bind("127.0.0.1", 0, backlog = 1024).to(Sink.foreach(_.handleWith(Flow[ByteString]))).run(),
+      10.seconds)
+
+    clients = Vector.fill(connections) {
+      Source
+        .queue[ByteString](1, OverflowStrategy.backpressure)
+        .via(Tcp(system).outgoingConnection(binding.localAddress))
+        .toMat(Sink.queue[ByteString]())(Keep.both)
+        .run()
+    }
+    // establish all connections
+    roundTrips()
+  }
+
+  @TearDown
+  def shutdown(): Unit = {
+    clients.foreach(_._1.complete())
+    Await.result(system.terminate(), 10.seconds)
+  }
+
+  private def roundTrips(): Int = {
+    import system.dispatcher
+    def receive(queue: SinkQueueWithCancel[ByteString], remaining: Int): Future[Int] =
+      if (remaining <= 0) Future.successful(1)
+      else queue.pull().flatMap(bytes => receive(queue, remaining - bytes.map(_.size).getOrElse(remaining)))
+
+    val echoes = clients.map {
+      case (source, sink) =>
+        source.offer(message).flatMap {
+          case QueueOfferResult.Enqueued => receive(sink, MessageSize)
+          case other                     => Future.failed(new IllegalStateException(s"Offer failed with $other"))
+        }
+    }
+    Await.result(Future.sequence(echoes), 1.minute).sum
+  }
+
+  @Benchmark
+  def echo_round(): Int = roundTrips()
+}
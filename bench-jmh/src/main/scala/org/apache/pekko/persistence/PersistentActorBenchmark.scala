@@ -30,12 +30,14 @@ import pekko.testkit.TestProbe
 @BenchmarkMode(Array(Mode.Throughput))
 class PersistentActorThroughputBenchmark {
 
-  val config = PersistenceSpec.config("leveldb", "benchmark")
+  @Param(Array("leveldb", "segment"))
+  var journal = ""
 
   lazy val storageLocations =
     List(
       "pekko.persistence.journal.leveldb.dir",
       "pekko.persistence.journal.leveldb-shared.store.dir",
+      "pekko.persistence.journal.segment.dir",
       "pekko.persistence.snapshot-store.local.dir").map(s => new File(system.settings.config.getString(s)))
 
   var system: ActorSystem = _
@@ -51,7 +53,7 @@ class PersistentActorThroughputBenchmark {
 
   @Setup
   def setup(): Unit = {
-    system = ActorSystem("test", config)
+    system = ActorSystem("test", PersistenceSpec.config(journal, "benchmark"))
 
     probe = TestProbe()(system)
 
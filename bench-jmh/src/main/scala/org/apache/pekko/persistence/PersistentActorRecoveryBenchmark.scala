@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.persistence
+
+import java.io.File
+import java.util.concurrent.TimeUnit
+
+import scala.concurrent.Await
+import scala.concurrent.duration._
+
+import org.apache.commons.io.FileUtils
+import org.openjdk.jmh.annotations._
+import org.openjdk.jmh.annotations.Scope
+
+import org.apache.pekko
+import pekko.actor._
+import pekko.testkit.TestProbe
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.Throughput))
+@OutputTimeUnit(TimeUnit.SECONDS)
+class PersistentActorRecoveryBenchmark {
+
+  @Param(Array("leveldb", "segment"))
+  var journal = ""
+
+  @Param(Array("1", "4"))
+  var parallelism = 0
+
+  val events = 100000
+
+  lazy val storageLocations =
+    List(
+      "pekko.persistence.journal.leveldb.dir",
+      "pekko.persistence.journal.leveldb-shared.store.dir",
+      "pekko.persistence.journal.segment.dir",
+      "pekko.persistence.snapshot-store.local.dir").map(s => new File(system.settings.config.getString(s)))
+
+  var system: ActorSystem = _
+
+  var probe: TestProbe = _
+
+  @Setup
+  def setup(): Unit = {
+    system = ActorSystem(
+      "test",
+      PersistenceSpec.config(
+        journal,
+        "recovery-benchmark",
+        extraConfig = Some(s"""
+          pekko.persistence.journal.$journal.replay-deserialization.parallelism = $parallelism
+          """)))
+
+    probe = TestProbe()(system)
+
+    storageLocations.foreach(FileUtils.deleteDirectory)
+
+    val writer = system.actorOf(Props(classOf[PersistAsyncPersistentActor], events), "r-1")
+    (1 to events).foreach(i => writer.tell(i, probe.ref))
+    probe.expectMsg(1.minute, Evt(events))
+    probe.watch(writer)
+    system.stop(writer)
+    probe.expectTerminated(writer)
+  }
+
+  @TearDown
+  def shutdown(): Unit = {
+    system.terminate()
+    Await.ready(system.whenTerminated, 15.seconds)
+
+    storageLocations.foreach(FileUtils.deleteDirectory)
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(100000)
+  def persistentActor_recover(): Unit = {
+    val actor = system.actorOf(Props(classOf[RecoveringPersistentActor], "r-1", probe.ref))
+    probe.expectMsg(1.minute, events)
+    system.stop(actor)
+  }
+
+}
+
+class RecoveringPersistentActor(override val persistenceId: String, replyTo: ActorRef) extends PersistentActor {
+  private var recovered = 0
+
+  override def receiveRecover = {
+    case _: Evt            => recovered += 1
+    case RecoveryCompleted => replyTo ! recovered
+  }
+
+  override def receiveCommand = {
+    case _ => // do nothing
+  }
+}
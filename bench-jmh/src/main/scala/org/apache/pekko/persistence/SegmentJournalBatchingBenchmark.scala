@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.persistence
+
+import java.io.File
+import java.util.concurrent.TimeUnit
+
+import scala.concurrent.Await
+import scala.concurrent.duration._
+
+import com.typesafe.config.ConfigFactory
+import org.apache.commons.io.FileUtils
+import org.openjdk.jmh.annotations._
+
+import org.apache.pekko
+import pekko.actor._
+import pekko.persistence.JournalProtocol._
+import pekko.testkit.TestProbe
+
+/*
+  Writes batches of events to the segment journal like LevelDbBatchingBenchmark does for LevelDB,
+  with the fsync policies of the segment journal. Compare the two with
+
+  bench-jmh/jmh -prof gc .*BatchingBenchmark
+ */
+@Fork(1)
+@Threads(10)
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+class SegmentJournalBatchingBenchmark {
+
+  @Param(Array("on", "group", "off"))
+  var fsync = ""
+
+  var sys: ActorSystem = _
+  var journal: ActorRef = _
+
+  val batch_1 = batch(1)
+  val batch_10 = batch(10)
+  val batch_100 = batch(100)
+  val batch_200 = batch(200)
+
+  private def batch(size: Int) = List.fill(size) { AtomicWrite(PersistentRepr("data", 12, "pa")) }
+
+  @Setup(Level.Trial)
+  def setup(): Unit = {
+    sys = ActorSystem(
+      "sys",
+      ConfigFactory.parseString(s"""
+        pekko.persistence.journal.segment.dir = "target/segment-journal-batching-benchmark"
+        pekko.persistence.journal.segment.fsync = $fsync
+        """).withFallback(ConfigFactory.load()))
+    deleteStorage(sys)
+
+    journal = Persistence(sys).journalFor("pekko.persistence.journal.segment")
+  }
+
+  @TearDown(Level.Trial)
+  def tearDown(): Unit = {
+    sys.terminate()
+    Await.ready(sys.whenTerminated, 10.seconds)
+    deleteStorage(sys)
+  }
+
+  @Benchmark
+  @Measurement(timeUnit = TimeUnit.MICROSECONDS)
+  @OperationsPerInvocation(1)
+  def write_1(): Unit = write(batch_1)
+
+  @Benchmark
+  @Measurement(timeUnit = TimeUnit.MICROSECONDS)
+  @OperationsPerInvocation(10)
+  def writeBatch_10(): Unit = write(batch_10)
+
+  @Benchmark
+  @Measurement(timeUnit = TimeUnit.MICROSECONDS)
+  @OperationsPerInvocation(100)
+  def writeBatch_100(): Unit = write(batch_100)
+
+  @Benchmark
+  @Measurement(timeUnit = TimeUnit.MICROSECONDS)
+  @OperationsPerInvocation(200)
+  def writeBatch_200(): Unit = write(batch_200)
+
+  // TOOLS
+
+  private def write(batch: List[AtomicWrite]): Unit = {
+    // a probe per invocation, the benchmark threads write concurrently
+    val probe = TestProbe()(sys)
+    journal ! WriteMessages(batch, probe.ref, 1)
+    probe.expectMsg(WriteMessagesSuccessful)
+    probe.receiveN(batch.size)
+  }
+
+  private def deleteStorage(sys: ActorSystem): Unit =
+    FileUtils.deleteDirectory(new File(sys.settings.config.getString("pekko.persistence.journal.segment.dir")))
+
+}
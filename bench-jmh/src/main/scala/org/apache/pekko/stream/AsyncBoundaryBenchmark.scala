@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream
+
+import java.util.concurrent.TimeUnit
+
+import scala.concurrent.Await
+import scala.concurrent.duration._
+
+import org.openjdk.jmh.annotations._
+
+import org.apache.pekko
+import pekko.actor.ActorSystem
+import pekko.stream.scaladsl._
+
+object AsyncBoundaryBenchmark {
+  final val OperationsPerInvocation = 1000000
+}
+
+/**
+ * Passes elements through a chain of asynchronous boundaries, with fixed input buffers of the initial and the
+ * maximum size and with adaptive input buffers between the two.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@BenchmarkMode(Array(Mode.Throughput))
+class AsyncBoundaryBenchmark {
+  import AsyncBoundaryBenchmark._
+
+  implicit val system: ActorSystem = ActorSystem("AsyncBoundaryBenchmark")
+
+  @Param(Array("fixed-4", "fixed-256", "adaptive"))
+  var inputBuffer = ""
+
+  @Param(Array("1", "4"))
+  var boundaries = 0
+
+  private def attributes: Attributes = inputBuffer match {
+    case "fixed-4"   => Attributes.inputBuffer(4, 4)
+    case "fixed-256" => Attributes.inputBuffer(256, 256)
+    case "adaptive"  => Attributes.inputBuffer(4, 256).and(Attributes.adaptiveInputBuffer(true))
+  }
+
+  @Setup
+  def setup(): Unit = {
+    // eager init of materializer
+    SystemMaterializer(system).materializer
+  }
+
+  @TearDown
+  def shutdown(): Unit = {
+    Await.result(system.terminate(), 5.seconds)
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(OperationsPerInvocation)
+  def pass_through(): Long = {
+    val source = (1 to boundaries).foldLeft(Source.repeat(1L).take(OperationsPerInvocation)) { (source, _) =>
+      source.async.map(_ + 1)
+    }
+    Await.result(source.withAttributes(attributes).runWith(Sink.fold(0L)(_ + _)), 1.minute)
+  }
+}
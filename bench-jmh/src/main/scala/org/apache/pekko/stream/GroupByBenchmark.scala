@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream
+
+import java.util.concurrent.TimeUnit
+
+import scala.concurrent._
+import scala.concurrent.duration._
+
+import org.openjdk.jmh.annotations._
+
+import org.apache.pekko
+import pekko.actor.ActorSystem
+import pekko.stream.scaladsl._
+
+object GroupByBenchmark {
+  final val NumberOfElements = 2000000
+}
+
+/**
+ * Groups 2M elements over 1M distinct keys, with at most `maxSubstreams` substreams open at the same time.
+ *
+ * Run with `-prof gc` to compare the allocation per key of the eviction strategies.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@BenchmarkMode(Array(Mode.Throughput))
+class GroupByBenchmark {
+  import GroupByBenchmark._
+
+  implicit val system: ActorSystem = ActorSystem("GroupByBenchmark")
+
+  @Param(Array("64", "1024"))
+  var maxSubstreams = 0
+
+  @Param(Array("lru", "idle"))
+  var eviction = ""
+
+  var graph: RunnableGraph[Future[Long]] = _
+
+  @Setup
+  def setup(): Unit = {
+    val strategy = eviction match {
+      case "lru"  => SubstreamEvictionStrategy.leastRecentlyUsed
+      case "idle" => SubstreamEvictionStrategy.idleTimeout(1.second)
+    }
+    // each key is seen twice in a row, like a short user session, and never again
+    graph = Source(0 until NumberOfElements)
+      .groupByWithEviction(maxSubstreams, _ / 2, strategy)
+      .fold(0L)(_ + _)
+      .mergeSubstreams
+      .toMat(Sink.fold(0L)(_ + _))(Keep.right)
+    // eager init of materializer
+    SystemMaterializer(system).materializer
+  }
+
+  @TearDown
+  def shutdown(): Unit = {
+    Await.result(system.terminate(), 5.seconds)
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NumberOfElements)
+  def group_by_1M_keys(): Long =
+    Await.result(graph.run(), Duration.Inf)
+}
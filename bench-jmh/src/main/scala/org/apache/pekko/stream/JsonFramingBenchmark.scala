@@ -40,6 +40,16 @@ class JsonFramingBenchmark {
     ByteString(
       s"""{"fname":"Frank","name":"Smith","age":42,"id":1337,"boardMember":false,"description":"${"a" * 1000000}"}""")
 
+  // 1000 objects with escaped quotes in their strings, as a single chunk of newline delimited JSON
+  val ndjson1000 =
+    ByteString(
+      (1 to 1000)
+        .map(i => s"""{"id":$i,"name":"Smith","quote":"she said \\"hi\\" {twice}","tags":["a","b"],"nested":{"x":1}}""")
+        .mkString("\n"))
+
+  // a 1 MB document arriving in 8 KiB chunks, like it would from a socket
+  val jsonLongChunks = jsonLong.grouped(8 * 1024).toVector
+
   val bracket = new JsonObjectParser
 
   @Benchmark
@@ -65,4 +75,28 @@ class JsonFramingBenchmark {
     bracket.poll().get
   }
 
+  @Benchmark
+  @OperationsPerInvocation(1000)
+  def counting_ndjson_1000: ByteString = {
+    bracket.offer(ndjson1000)
+    var last: ByteString = null
+    var i = 0
+    while (i < 1000) {
+      last = bracket.poll().get
+      i += 1
+    }
+    last
+  }
+
+  @Benchmark
+  def counting_long_document_chunked: ByteString = {
+    var result: Option[ByteString] = None
+    val it = jsonLongChunks.iterator
+    while (result.isEmpty) {
+      bracket.offer(it.next())
+      result = bracket.poll()
+    }
+    result.get
+  }
+
 }
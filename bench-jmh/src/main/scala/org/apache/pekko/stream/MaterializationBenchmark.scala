@@ -19,6 +19,7 @@ import scala.concurrent.Await
 import scala.concurrent.Future
 import scala.concurrent.duration._
 
+import com.typesafe.config.ConfigFactory
 import org.openjdk.jmh.annotations._
 
 import org.apache.pekko
@@ -107,7 +108,7 @@ class MaterializationBenchmark {
 
   import MaterializationBenchmark._
 
-  implicit val system: ActorSystem = ActorSystem("MaterializationBenchmark")
+  implicit var system: ActorSystem = _
 
   var flowWithMap: RunnableGraph[NotUsed] = _
   var graphWithJunctionsGradual: RunnableGraph[NotUsed] = _
@@ -118,8 +119,17 @@ class MaterializationBenchmark {
   @Param(Array("1", "10", "100"))
   var complexity = 0
 
+  // 0 disables the materialization plan cache
+  @Param(Array("0", "256"))
+  var planCacheSize = 0
+
   @Setup
   def setup(): Unit = {
+    system = ActorSystem(
+      "MaterializationBenchmark",
+      ConfigFactory
+        .parseString(s"pekko.stream.materializer.materialization-plan-cache-size = $planCacheSize")
+        .withFallback(ConfigFactory.load()))
     flowWithMap = flowWithMapBuilder(complexity)
     graphWithJunctionsGradual = graphWithJunctionsGradualBuilder(complexity)
     graphWithJunctionsImmediate = graphWithJunctionsImmediateBuilder(complexity)
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream
+
+import java.util.concurrent.TimeUnit
+import java.util.zip.CRC32
+
+import scala.concurrent._
+import scala.concurrent.duration._
+
+import org.openjdk.jmh.annotations._
+
+import org.apache.pekko
+import pekko.NotUsed
+import pekko.actor.ActorSystem
+import pekko.stream.scaladsl._
+import pekko.util.ByteString
+
+object MergeWeightedFairBenchmark {
+  final val NumberOfElements = 1000000
+  final val LightElements = 10000
+}
+
+/**
+ * `throughput` merges 1M elements from `inputs` inputs with `Merge`, `MergePrioritized` and `MergeWeightedFair`,
+ * to show the cost of the fair scheduling per element.
+ *
+ * `light_tenant` merges an input that always has 64 KiB elements available with one that has 10000 elements of
+ * 100 bytes, with a downstream whose work is proportional to the bytes, and measures how long it takes until all the
+ * small elements went through. `Merge` shares the output by elements, so the small elements wait behind the large
+ * ones, `MergeWeightedFair` with the size as cost shares it by bytes.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@BenchmarkMode(Array(Mode.Throughput))
+class MergeWeightedFairBenchmark {
+  import MergeWeightedFairBenchmark._
+
+  implicit val system: ActorSystem = ActorSystem("MergeWeightedFairBenchmark")
+
+  @Param(Array("merge", "prioritized", "weightedFair"))
+  var implementation = ""
+
+  @Param(Array("2", "16"))
+  var inputs = 0
+
+  val heavy: ByteString = ByteString(Array.fill[Byte](64 * 1024)(1))
+  val light: ByteString = ByteString(Array.fill[Byte](100)(2))
+
+  private def merge[T](weights: List[Int], cost: T => Long, quantum: Long): Graph[UniformFanInShape[T, T], NotUsed] =
+    implementation match {
+      case "merge"        => Merge[T](weights.size)
+      case "prioritized"  => MergePrioritized[T](weights)
+      case "weightedFair" =>
+        MergeWeightedFair[T](weights, quantum, bufferSize = 16)(cost).mapMaterializedValue(_ => NotUsed)
+    }
+
+  private def run[T](merge: Graph[UniformFanInShape[T, T], NotUsed], sources: List[Source[T, NotUsed]])(
+      sink: Sink[T, Future[Long]]): Long =
+    Await.result(Source.combine(sources.head, sources(1), sources.drop(2): _*)(_ => merge).runWith(sink), 1.minute)
+
+  @Setup
+  def setup(): Unit = {
+    // eager init of materializer
+    SystemMaterializer(system).materializer
+  }
+
+  @TearDown
+  def shutdown(): Unit = {
+    Await.result(system.terminate(), 5.seconds)
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NumberOfElements)
+  def throughput(): Long = {
+    val weights = List.tabulate(inputs)(i => i % 4 + 1)
+    val sources = List.fill(inputs)(Source.repeat(1L).take(NumberOfElements / inputs))
+    run(merge[Long](weights, _ => 1L, quantum = 1), sources)(Sink.fold(0L)(_ + _))
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(LightElements)
+  def light_tenant(): Long = {
+    val heavySources = List.fill(inputs - 1)(Source.repeat(heavy))
+    val sources = Source.repeat(light).take(LightElements) :: heavySources
+    val checksum = new CRC32
+    run(merge[ByteString](List.fill(inputs)(1), _.size.toLong, quantum = heavy.size), sources)(
+      Flow[ByteString]
+        .map { bytes =>
+          checksum.update(bytes.asByteBuffer)
+          bytes
+        }
+        .filter(_ eq light)
+        .take(LightElements)
+        .toMat(Sink.fold(0L)((count, _) => count + 1))(Keep.right))
+  }
+}
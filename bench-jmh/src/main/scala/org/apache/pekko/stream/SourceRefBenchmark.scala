@@ -55,9 +55,15 @@ class SourceRefBenchmark {
   //  @Param(Array("16", "32", "128"))
   //  var initialInputBufferSize = 0
 
+  // 1 means batching disabled
+  @Param(Array("1", "16"))
+  var batchMaxElements = 0
+
+  def batching: Attributes = StreamRefAttributes.batching(batchMaxElements, 256 * 1024, Duration.Zero)
+
   @Setup(Level.Invocation)
   def setup(): Unit = {
-    sourceRef = Source.fromGraph(new BenchTestSource(100000)).runWith(StreamRefs.sourceRef())
+    sourceRef = Source.fromGraph(new BenchTestSource(100000)).runWith(StreamRefs.sourceRef().addAttributes(batching))
   }
 
   @TearDown
@@ -71,7 +77,7 @@ class SourceRefBenchmark {
     val lock = new Semaphore(1) // todo rethink what is the most lightweight way to await for a streams completion
     lock.acquire()
 
-    sourceRef.source.runWith(Sink.onComplete(_ => lock.release()))
+    sourceRef.source.addAttributes(batching).runWith(Sink.onComplete(_ => lock.release()))
 
     lock.acquire()
   }
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream
+
+import java.nio.file.{ Files, Path }
+import java.util.concurrent.TimeUnit
+import java.util.zip.CRC32
+
+import scala.concurrent.Await
+import scala.concurrent.duration._
+
+import org.openjdk.jmh.annotations._
+
+import org.apache.pekko
+import pekko.actor.ActorSystem
+import pekko.stream.scaladsl._
+import pekko.util.ByteString
+
+object SpillingBufferBenchmark {
+  final val OperationsPerInvocation = 100000
+}
+
+/**
+ * Passes 100 byte elements through a buffer to a slower downstream, comparing an in-memory `buffer` large enough
+ * for all elements with a `SpillingBuffer` that keeps 16 of them in memory and spills the rest.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@BenchmarkMode(Array(Mode.Throughput))
+class SpillingBufferBenchmark {
+  import SpillingBufferBenchmark._
+
+  implicit val system: ActorSystem = ActorSystem("SpillingBufferBenchmark")
+
+  @Param(Array("memory", "spilling"))
+  var implementation = ""
+
+  var directory: Path = _
+  val element: ByteString = ByteString(Array.fill[Byte](100)(1))
+
+  @Setup
+  def setup(): Unit = {
+    // eager init of materializer
+    SystemMaterializer(system).materializer
+    directory = Files.createTempDirectory("spilling-buffer-benchmark")
+  }
+
+  @TearDown
+  def shutdown(): Unit = {
+    Files.deleteIfExists(directory)
+    Await.result(system.terminate(), 5.seconds)
+  }
+
+  private def buffer: Flow[ByteString, ByteString, Any] = implementation match {
+    case "memory"   => Flow[ByteString].buffer(OperationsPerInvocation, OverflowStrategy.backpressure)
+    case "spilling" => SpillingBuffer[ByteString](16, directory, 64L * 1024 * 1024)(identity, identity)
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(OperationsPerInvocation)
+  def buffer_to_slower_downstream(): Long = {
+    val checksum = new CRC32
+    val done = Source
+      .repeat(element)
+      .take(OperationsPerInvocation)
+      .via(buffer)
+      .async
+      .map { bytes =>
+        // some work so that the buffer fills up
+        var i = 0
+        while (i < 4) {
+          checksum.update(bytes.asByteBuffer)
+          i += 1
+        }
+        bytes
+      }
+      .runWith(Sink.fold(0L)((count, _) => count + 1))
+    Await.result(done, 1.minute)
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream
+
+import java.util.concurrent.TimeUnit
+
+import scala.concurrent._
+import scala.concurrent.duration._
+
+import org.openjdk.jmh.annotations._
+
+import org.apache.pekko
+import pekko.NotUsed
+import pekko.actor.ActorSystem
+import pekko.stream.scaladsl._
+
+object WindowBenchmark {
+  final val NumberOfElements = 1000000
+}
+
+/**
+ * Sums 1M elements, one per millisecond, in sliding windows of `size` milliseconds that slide by 10 milliseconds.
+ *
+ * `invertible` uses `WindowAggregate.sum`, whose windows are updated with a constant amount of work per slide,
+ * `mergingPanes` the same sum without an inverse, which merges the `size / 10` panes of every window, and `sliding`
+ * the `sliding` operator that keeps the elements of a window and sums them for every window.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@BenchmarkMode(Array(Mode.Throughput))
+class WindowBenchmark {
+  import WindowBenchmark._
+
+  implicit val system: ActorSystem = ActorSystem("WindowBenchmark")
+
+  @Param(Array("invertible", "mergingPanes", "sliding"))
+  var implementation = ""
+
+  @Param(Array("100", "10000"))
+  var size = 0
+
+  private val slide = 10
+
+  private def sumWindows(aggregate: WindowAggregate[Long, Long, Long]): Flow[Long, Long, NotUsed] =
+    Window.sliding(size.millis, slide.millis)((ts: Long) => ts)(aggregate).map(_.result)
+
+  private def window: Flow[Long, Long, NotUsed] = implementation match {
+    case "invertible"   => sumWindows(WindowAggregate.sum[Long](identity))
+    case "mergingPanes" => sumWindows(WindowAggregate[Long, Long, Long](0L)(_ + _, _ + _)(identity))
+    case "sliding"      => Flow[Long].sliding(size, slide).map(_.sum)
+  }
+
+  @Setup
+  def setup(): Unit = {
+    // eager init of materializer
+    SystemMaterializer(system).materializer
+  }
+
+  @TearDown
+  def shutdown(): Unit = {
+    Await.result(system.terminate(), 5.seconds)
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(NumberOfElements)
+  def sum_sliding_windows(): Long =
+    Await.result(Source(0L until NumberOfElements).via(window).runWith(Sink.fold(0L)(_ + _)), 1.minute)
+}
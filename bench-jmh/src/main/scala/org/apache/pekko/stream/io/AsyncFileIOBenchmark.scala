@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.io
+
+import java.nio.file.{ Files, Path }
+import java.util.concurrent.TimeUnit
+
+import scala.concurrent.{ Await, Future }
+import scala.concurrent.duration._
+
+import org.openjdk.jmh.annotations._
+
+import org.apache.pekko
+import pekko.actor.ActorSystem
+import pekko.stream.{ Attributes, IOResult }
+import pekko.stream.scaladsl._
+import pekko.util.ByteString
+
+object AsyncFileIOBenchmark {
+  final val FileSize = 256 * 1024
+  final val ChunkSize = 8192
+}
+
+/**
+ * Writes and reads `files` files of 256 KiB concurrently with the blocking `FileIO` operators, which run on the
+ * blocking IO dispatcher and block one of its threads per file while it waits for the disk, and with the ones based
+ * on `AsynchronousFileChannel`, which keep `maxInFlight` operations outstanding per file.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@BenchmarkMode(Array(Mode.Throughput))
+@Fork(1)
+class AsyncFileIOBenchmark {
+  import AsyncFileIOBenchmark._
+
+  implicit val system: ActorSystem = ActorSystem("async-file-io-benchmark")
+
+  @Param(Array("blocking", "async"))
+  var implementation = ""
+
+  @Param(Array("16", "1024"))
+  var files = 0
+
+  @Param(Array("4"))
+  var maxInFlight = 0
+
+  var paths: Vector[Path] = _
+  val chunks: List[ByteString] = List.fill(FileSize / ChunkSize)(ByteString(Array.fill[Byte](ChunkSize)(42)))
+
+  @Setup
+  def setup(): Unit = {
+    paths = Vector.fill(files)(Files.createTempFile("async-file-io-benchmark", ".tmp"))
+    Await.result(Future.sequence(paths.map(Source(chunks).runWith(FileIO.toPath(_)))), 1.minute)
+  }
+
+  @TearDown
+  def teardown(): Unit =
+    paths.foreach(Files.delete)
+
+  @TearDown
+  def shutdown(): Unit =
+    Await.result(system.terminate(), 5.seconds)
+
+  private def source(path: Path): Source[ByteString, Future[IOResult]] =
+    implementation match {
+      case "blocking" => FileIO.fromPath(path, ChunkSize)
+      case "async" =>
+        FileIO.fromPathAsync(path, ChunkSize).withAttributes(Attributes.maxInFlightFileOperations(maxInFlight))
+    }
+
+  private def sink(path: Path): Sink[ByteString, Future[IOResult]] =
+    implementation match {
+      case "blocking" => FileIO.toPath(path)
+      case "async"    => FileIO.toPathAsync(path).withAttributes(Attributes.maxInFlightFileOperations(maxInFlight))
+    }
+
+  private def runAll(run: Path => Future[IOResult]): Long = {
+    val results = Source(paths).mapAsyncUnordered(files)(run).runFold(0L)(_ + _.count)
+    Await.result(results, 1.minute)
+  }
+
+  @Benchmark
+  def read_all_files(): Long =
+    runAll(path => source(path).to(Sink.ignore).run())
+
+  @Benchmark
+  def write_all_files(): Long =
+    runAll(path => Source(chunks).runWith(sink(path)))
+}
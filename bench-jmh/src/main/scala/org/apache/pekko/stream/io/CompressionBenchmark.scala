@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.io
+
+import java.util.concurrent.TimeUnit
+import java.util.zip.Deflater
+
+import scala.concurrent.Await
+import scala.concurrent.duration._
+import scala.util.Random
+
+import org.openjdk.jmh.annotations._
+
+import org.apache.pekko
+import pekko.actor.ActorSystem
+import pekko.stream.scaladsl._
+import pekko.util.ByteString
+
+/**
+ * Compresses 32 MiB of log-like text with the single-threaded gzip flow and with gzipParallel, and decompresses
+ * the multi-member output of gzipParallel.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@BenchmarkMode(Array(Mode.AverageTime))
+class CompressionBenchmark {
+
+  implicit val system: ActorSystem = ActorSystem("compression-benchmark")
+
+  @Param(Array("1", "4", "8"))
+  var parallelism = 0
+
+  val chunks: List[ByteString] = {
+    val random = new Random(42)
+    val levels = Vector("DEBUG", "INFO", "WARN", "ERROR")
+    val lines = Iterator.continually {
+      ByteString(
+        s"2024-01-01T00:00:${random.nextInt(60)} ${levels(random.nextInt(4))} [worker-${random.nextInt(32)}] " +
+        s"request ${random.nextLong()} took ${random.nextInt(1000)} ms\n")
+    }
+    lines.grouped(100).map(_.foldLeft(ByteString.empty)(_ ++ _).compact).take(32 * 1024 * 1024 / 8000).toList
+  }
+
+  var multiMember: List[ByteString] = _
+
+  @Setup
+  def setup(): Unit = {
+    val compressed = Await.result(
+      Source(chunks).via(Compression.gzipParallel(Deflater.DEFAULT_COMPRESSION, 128 * 1024, 8)).runWith(Sink.seq),
+      1.minute)
+    multiMember = compressed.toList
+  }
+
+  @TearDown
+  def shutdown(): Unit = {
+    Await.result(system.terminate(), 5.seconds)
+  }
+
+  @Benchmark
+  def gzip(): Long =
+    Await.result(Source(chunks).via(Compression.gzip(Deflater.DEFAULT_COMPRESSION)).runFold(0L)(_ + _.length), 1.minute)
+
+  @Benchmark
+  def gzipParallel(): Long =
+    Await.result(
+      Source(chunks)
+        .via(Compression.gzipParallel(Deflater.DEFAULT_COMPRESSION, 128 * 1024, parallelism))
+        .runFold(0L)(_ + _.length),
+      1.minute)
+
+  @Benchmark
+  def gunzipMultiMember(): Long =
+    Await.result(Source(multiMember).via(Compression.gunzip()).runFold(0L)(_ + _.length), 1.minute)
+}
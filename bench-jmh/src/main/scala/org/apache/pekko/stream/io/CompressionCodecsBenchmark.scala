@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.io
+
+import java.util.concurrent.TimeUnit
+import java.util.zip.Deflater
+
+import scala.concurrent.Await
+import scala.concurrent.duration._
+import scala.util.Random
+
+import org.openjdk.jmh.annotations._
+
+import org.apache.pekko
+import pekko.NotUsed
+import pekko.actor.ActorSystem
+import pekko.stream.scaladsl._
+import pekko.util.ByteString
+
+/**
+ * Compresses and decompresses 16 MiB of log-like text in 8 KiB chunks, like a stream sent over a StreamRef or Tcp,
+ * with each codec at its default level. The compression ratio of each codec is printed during setup.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@BenchmarkMode(Array(Mode.AverageTime))
+class CompressionCodecsBenchmark {
+
+  implicit val system: ActorSystem = ActorSystem("compression-codecs-benchmark")
+
+  @Param(Array("gzip", "deflate", "zstd", "lz4"))
+  var codec = ""
+
+  val chunks: List[ByteString] = {
+    val random = new Random(42)
+    val levels = Vector("DEBUG", "INFO", "WARN", "ERROR")
+    val lines = Iterator.continually {
+      ByteString(
+        s"2024-01-01T00:00:${random.nextInt(60)} ${levels(random.nextInt(4))} [worker-${random.nextInt(32)}] " +
+        s"request ${random.nextLong()} took ${random.nextInt(1000)} ms\n")
+    }
+    lines.grouped(100).map(_.foldLeft(ByteString.empty)(_ ++ _).compact).take(16 * 1024 * 1024 / 8000).toList
+  }
+
+  var compress: Flow[ByteString, ByteString, NotUsed] = _
+  var decompress: Flow[ByteString, ByteString, NotUsed] = _
+  var compressed: List[ByteString] = _
+
+  @Setup
+  def setup(): Unit = {
+    codec match {
+      case "gzip" =>
+        compress = Compression.gzip(Deflater.DEFAULT_COMPRESSION)
+        decompress = Compression.gunzip()
+      case "deflate" =>
+        compress = Compression.deflate(Deflater.DEFAULT_COMPRESSION, false)
+        decompress = Compression.inflate()
+      case "zstd" =>
+        compress = Compression.zstd
+        decompress = Compression.zstdDecompress()
+      case "lz4" =>
+        compress = Compression.lz4
+        decompress = Compression.lz4Decompress()
+    }
+    compressed = Await.result(Source(chunks).via(compress).runWith(Sink.seq), 1.minute).toList
+    val ratio = chunks.map(_.length.toDouble).sum / compressed.map(_.length).sum
+    println(f"$codec compression ratio: $ratio%.2f")
+  }
+
+  @TearDown
+  def shutdown(): Unit = {
+    Await.result(system.terminate(), 5.seconds)
+  }
+
+  @Benchmark
+  def compress_16MiB(): Long =
+    Await.result(Source(chunks).via(compress).runFold(0L)(_ + _.length), 1.minute)
+
+  @Benchmark
+  def decompress_16MiB(): Long =
+    Await.result(Source(compressed).via(decompress).runFold(0L)(_ + _.length), 1.minute)
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.io
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.TimeUnit
+
+import scala.concurrent.Await
+import scala.concurrent.Future
+import scala.concurrent.duration._
+
+import org.openjdk.jmh.annotations._
+
+import org.apache.pekko
+import pekko.NotUsed
+import pekko.actor.ActorSystem
+import pekko.stream.IOResult
+import pekko.stream.scaladsl._
+import pekko.util.ByteString
+
+/**
+ * Compares reading and writing a 256 MiB file through `FileChannel` reads and writes
+ * (`FileIO.fromPath`/`FileIO.toPath`) and through memory-mapped regions (`FileIO.mmapSource`/`FileIO.mmapSink`).
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@BenchmarkMode(Array(Mode.AverageTime))
+class MmapFileBenchmark {
+
+  implicit val system: ActorSystem = ActorSystem("mmap-file-benchmark")
+
+  final val FileSize = 256 * 1024 * 1024
+
+  @Param(Array("8192", "65536"))
+  var chunkSize = 0
+
+  var file: Path = _
+  var target: Path = _
+  var bytes: Source[ByteString, NotUsed] = _
+
+  @Setup
+  def setup(): Unit = {
+    val chunk = ByteString(Array.fill[Byte](chunkSize)('x'))
+    bytes = Source.repeat(chunk).take(FileSize / chunkSize)
+    file = Files.createTempFile(getClass.getName, ".bench.tmp")
+    target = Files.createTempFile(getClass.getName, ".bench.out.tmp")
+    Await.result(bytes.runWith(FileIO.toPath(file)), 1.minute)
+  }
+
+  @TearDown
+  def teardown(): Unit = {
+    Files.delete(file)
+    Files.delete(target)
+    Await.result(system.terminate(), Duration.Inf)
+  }
+
+  @Benchmark
+  def read_fileChannel(): IOResult =
+    await(FileIO.fromPath(file, chunkSize).to(Sink.ignore).run())
+
+  @Benchmark
+  def read_mmap(): IOResult =
+    await(FileIO.mmapSource(file, chunkSize).to(Sink.ignore).run())
+
+  @Benchmark
+  def write_fileChannel(): IOResult =
+    await(bytes.runWith(FileIO.toPath(target)))
+
+  @Benchmark
+  def write_mmap(): IOResult =
+    await(bytes.runWith(FileIO.mmapSink(target)))
+
+  private def await(result: Future[IOResult]): IOResult = Await.result(result, 1.minute)
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.io
+
+import java.net.InetSocketAddress
+import java.util.concurrent.TimeUnit
+
+import scala.concurrent.Await
+import scala.concurrent.duration._
+
+import com.typesafe.config.ConfigFactory
+import org.openjdk.jmh.annotations._
+
+import org.apache.pekko
+import pekko.actor.ActorSystem
+import pekko.stream.scaladsl._
+import pekko.util.ByteString
+
+object TcpStreamingBenchmark {
+  final val ChunkSize = 64 * 1024
+  // 256 MiB per invocation
+  final val Chunks = 4096
+}
+
+/**
+ * Streams 256 MiB over a loopback connection and measures the MiB per second the client receives, with reads of at
+ * most `direct-buffer-size` bytes.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@BenchmarkMode(Array(Mode.Throughput))
+class TcpStreamingBenchmark {
+  import TcpStreamingBenchmark._
+
+  @Param(Array("128 KiB", "1 MiB"))
+  var directBufferSize = ""
+
+  implicit var system: ActorSystem = _
+  private var serverAddress: InetSocketAddress = _
+
+  @Setup
+  def setup(): Unit = {
+    system = ActorSystem(
+      "TcpStreamingBenchmark",
+      ConfigFactory.parseString(s"""
+        pekko.io.tcp.direct-buffer-size = "$directBufferSize"
+        """).withFallback(ConfigFactory.load()))
+
+    val chunk = ByteString(Array.fill[Byte](ChunkSize)(1))
+    val data = Source.repeat(chunk).take(Chunks)
+    val binding = Await.result(
+      Tcp(system)
+        .bind("127.0.0.1", 0)
+        .to(Sink.foreach(_.handleWith(Flow.fromSinkAndSourceCoupled(Sink.ignore, data))))
+        .run(),
+      10.seconds)
+    serverAddress = binding.localAddress
+  }
+
+  @TearDown
+  def shutdown(): Unit = {
+    Await.result(system.terminate(), 10.seconds)
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(Chunks * ChunkSize / (1024 * 1024))
+  def receive_MiB(): Long =
+    Await.result(
+      Source
+        .maybe[ByteString]
+        .via(Tcp(system).outgoingConnection(serverAddress))
+        .runFold(0L)(_ + _.size),
+      1.minute)
+}
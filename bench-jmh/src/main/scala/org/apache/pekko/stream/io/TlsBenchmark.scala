@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.io
+
+import java.security.{ KeyStore, SecureRandom }
+import java.util.concurrent.TimeUnit
+import javax.net.ssl.{ KeyManagerFactory, SSLContext, SSLEngine, TrustManagerFactory }
+
+import scala.concurrent.Await
+import scala.concurrent.duration._
+
+import org.openjdk.jmh.annotations._
+
+import org.apache.pekko
+import pekko.NotUsed
+import pekko.actor.ActorSystem
+import pekko.stream.{ Client, Server, TLSClosing, TLSRole }
+import pekko.stream.TLSProtocol._
+import pekko.stream.scaladsl._
+import pekko.util.ByteString
+
+object TlsBenchmark {
+  final val TotalBytes = 64 * 1024 * 1024
+}
+
+/**
+ * Sends 64 MiB through a TLS client and server connected back to back in memory, and echoes it back, with the
+ * actor based TLS operator and with the fused one. The small chunk size shows the per element overhead, which
+ * dominates the latency of request/response protocols, the large one the bulk throughput.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@BenchmarkMode(Array(Mode.Throughput))
+class TlsBenchmark {
+  import TlsBenchmark._
+
+  implicit val system: ActorSystem = ActorSystem("tls-benchmark")
+
+  @Param(Array("actor", "fused"))
+  var implementation = ""
+
+  @Param(Array("512", "65536"))
+  var chunkSize = 0
+
+  val sslContext: SSLContext = {
+    val password = "changeme".toCharArray
+    def load(path: String): KeyStore = {
+      val store = KeyStore.getInstance(KeyStore.getDefaultType)
+      store.load(getClass.getResourceAsStream(path), password)
+      store
+    }
+    val keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm)
+    keyManagerFactory.init(load("/tls/keystore"), password)
+    val trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm)
+    trustManagerFactory.init(load("/tls/truststore"))
+    val context = SSLContext.getInstance("TLSv1.2")
+    context.init(keyManagerFactory.getKeyManagers, trustManagerFactory.getTrustManagers, new SecureRandom)
+    context
+  }
+
+  var chunks: List[SslTlsOutbound] = _
+  var roundTrip: Flow[SslTlsOutbound, SslTlsInbound, NotUsed] = _
+
+  def createSSLEngine(role: TLSRole): SSLEngine = {
+    val engine = sslContext.createSSLEngine()
+    engine.setUseClientMode(role == Client)
+    engine.setEnabledCipherSuites(Array("TLS_ECDHE_RSA_WITH_AES_128_CBC_SHA"))
+    engine.setEnabledProtocols(Array("TLSv1.2"))
+    engine
+  }
+
+  def tls(role: TLSRole): BidiFlow[SslTlsOutbound, ByteString, ByteString, SslTlsInbound, NotUsed] =
+    implementation match {
+      case "actor" => TLS(() => createSSLEngine(role), TLSClosing.eagerClose)
+      case "fused" => TLS.fused(() => createSSLEngine(role), TLSClosing.eagerClose)
+    }
+
+  @Setup
+  def setup(): Unit = {
+    val chunk = SendBytes(ByteString(Array.fill[Byte](chunkSize)(42)))
+    chunks = List.fill(TotalBytes / chunkSize)(chunk)
+    val echo = Flow[SslTlsInbound].collect { case SessionBytes(_, bytes) => SendBytes(bytes) }
+    roundTrip = tls(Client).atop(tls(Server).reversed).join(echo)
+  }
+
+  @TearDown
+  def shutdown(): Unit =
+    Await.result(system.terminate(), 5.seconds)
+
+  @Benchmark
+  @OperationsPerInvocation(TotalBytes)
+  def echo_64_MiB(): Long = {
+    val received = Source(chunks)
+      .concat(Source.never)
+      .via(roundTrip)
+      .collect { case SessionBytes(_, bytes) => bytes.size.toLong }
+      .scan(0L)(_ + _)
+      .takeWhile(_ < TotalBytes, inclusive = true)
+      .runWith(Sink.last)
+    Await.result(received, 1.minute)
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.util
+
+import java.util.concurrent.TimeUnit
+
+import org.openjdk.jmh.annotations._
+
+/**
+ * Takes tokens from a bucket that is shared by all threads, as the flows of a `SharedThrottle` do, with a rate that
+ * is high enough that no token has to be waited for, to measure the cost of the contention on the bucket.
+ * Compare `-t 1` with `-t 8` or more.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.Throughput))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Threads(8)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+class ConcurrentTokenBucketBenchmark {
+
+  // one token per nanosecond, with a burst large enough that a thread is never delayed
+  val bucket = new NanoTimeConcurrentTokenBucket(1L << 40, 1)
+  bucket.init()
+
+  @Benchmark
+  def offer(): Long = bucket.offer(1)
+
+  @Benchmark
+  def tryTake(): Boolean = bucket.tryTake(1)
+}
@@ -13,7 +13,15 @@
 
 package org.apache.pekko.persistence.serialization
 
-import java.io.NotSerializableException
+import java.io.{
+  ByteArrayInputStream,
+  ByteArrayOutputStream,
+  DataInputStream,
+  DataOutputStream,
+  InputStream,
+  NotSerializableException,
+  OutputStream
+}
 import java.util.UUID
 
 import scala.concurrent.Await
@@ -39,6 +47,7 @@ object SerializerSpecConfigs {
           my-payload2 = "org.apache.pekko.persistence.serialization.MyPayload2Serializer"
           my-snapshot = "org.apache.pekko.persistence.serialization.MySnapshotSerializer"
           my-snapshot2 = "org.apache.pekko.persistence.serialization.MySnapshotSerializer2"
+          my-snapshot3 = "org.apache.pekko.persistence.serialization.MyStreamingSnapshotSerializer"
           old-payload = "org.apache.pekko.persistence.serialization.OldPayloadSerializer"
         }
         serialization-bindings {
@@ -46,6 +55,7 @@ object SerializerSpecConfigs {
           "org.apache.pekko.persistence.serialization.MyPayload2" = my-payload2
           "org.apache.pekko.persistence.serialization.MySnapshot" = my-snapshot
           "org.apache.pekko.persistence.serialization.MySnapshot2" = my-snapshot2
+          "org.apache.pekko.persistence.serialization.MySnapshot3" = my-snapshot3
           # this entry was used when creating the data for the test
           # "deserialize data when class is removed"
           #"org.apache.pekko.persistence.serialization.OldPayload" = old-payload
@@ -106,6 +116,44 @@ class SnapshotSerializerPersistenceSpec extends PekkoSpec(customSerializers) {
       deserialized should ===(Snapshot(MySnapshot2(".a.")))
     }
 
+    "serialize a snapshot to a stream in the same format as to a byte array" in {
+      val wrapped = Snapshot(MySnapshot2("a"))
+      val serializer = serialization.findSerializerFor(wrapped).asInstanceOf[StreamingSnapshotSerializer]
+
+      val out = new ByteArrayOutputStream
+      serializer.toBinary(wrapped, out)
+      out.toByteArray should ===(serialization.serialize(wrapped).get)
+
+      val in = new ByteArrayInputStream(out.toByteArray)
+      serializer.fromBinary(in, "") should ===(Snapshot(MySnapshot2(".a.")))
+    }
+
+    "stream the snapshot data of a streaming snapshot serializer" in {
+      val wrapped = Snapshot(MySnapshot3("a" * 100000))
+      val serializer = serialization.findSerializerFor(wrapped).asInstanceOf[StreamingSnapshotSerializer]
+
+      val out = new ByteArrayOutputStream
+      serializer.toBinary(wrapped, out)
+      out.toByteArray should ===(serialization.serialize(wrapped).get)
+
+      val in = new ByteArrayInputStream(out.toByteArray)
+      serializer.fromBinary(in, "") should ===(wrapped)
+      in.available should ===(0)
+      serialization.deserialize(out.toByteArray, classOf[Snapshot]).get should ===(wrapped)
+    }
+
+    "reject an invalid snapshot header length from a byte array and from a stream" in {
+      val serializer = serialization.findSerializerFor(Snapshot("a")).asInstanceOf[SnapshotSerializer]
+      val bytes = Array[Byte](-1, -1, -1, 127, 1, 2, 3, 4)
+
+      intercept[NotSerializableException] {
+        serializer.fromBinary(bytes, None)
+      }.getMessage should startWith("Invalid snapshot header length")
+      intercept[NotSerializableException] {
+        serializer.fromBinary(new ByteArrayInputStream(bytes), "")
+      }.getMessage should startWith("Invalid snapshot header length")
+    }
+
     "throw error when reads snapshot created with akka 2.3.6 and Scala 2.10" in {
       val dataStr = "abc"
       val snapshot = Snapshot(dataStr.getBytes(UTF_8))
@@ -381,6 +429,7 @@ final case class MyPayload(data: String)
 final case class MyPayload2(data: String, n: Int)
 final case class MySnapshot(data: String)
 final case class MySnapshot2(data: String)
+final case class MySnapshot3(data: String)
 
 // this class was used when creating the data for the test
 // "deserialize data when class is removed"
@@ -469,6 +518,47 @@ class MySnapshotSerializer2 extends SerializerWithStringManifest {
   }
 }
 
+class MyStreamingSnapshotSerializer extends SerializerWithStringManifest with StreamingSnapshotSerializer {
+
+  def identifier: Int = 77128
+
+  def manifest(o: AnyRef): String = "MySnapshot-V3"
+
+  def toBinary(o: AnyRef): Array[Byte] = {
+    val out = new ByteArrayOutputStream
+    toBinary(o, out)
+    out.toByteArray
+  }
+
+  def fromBinary(bytes: Array[Byte], manifest: String): AnyRef =
+    fromBinary(new ByteArrayInputStream(bytes), manifest)
+
+  def toBinary(o: AnyRef, out: OutputStream): Unit = o match {
+    case MySnapshot3(data) =>
+      // in chunks, as a snapshot too large for one array would be
+      data.grouped(1024).foreach { chunk =>
+        val bytes = chunk.getBytes(UTF_8)
+        new DataOutputStream(out).writeInt(bytes.length)
+        out.write(bytes)
+      }
+      new DataOutputStream(out).writeInt(0)
+    case unexpected => throw new NotSerializableException(s"Unexpected: $unexpected")
+  }
+
+  def fromBinary(in: InputStream, manifest: String): AnyRef = {
+    val data = new DataInputStream(in)
+    val builder = new StringBuilder
+    var length = data.readInt()
+    while (length > 0) {
+      val bytes = new Array[Byte](length)
+      data.readFully(bytes)
+      builder.append(new String(bytes, UTF_8))
+      length = data.readInt()
+    }
+    MySnapshot3(builder.toString)
+  }
+}
+
 class OldPayloadSerializer extends SerializerWithStringManifest {
 
   def identifier: Int = 77127
@@ -20,8 +20,10 @@ import org.scalatest.BeforeAndAfterAll
 
 trait PluginCleanup extends BeforeAndAfterAll { self: PluginSpec =>
   val storageLocations =
-    List("pekko.persistence.journal.leveldb.dir", "pekko.persistence.snapshot-store.local.dir").map(s =>
-      new File(system.settings.config.getString(s)))
+    List(
+      "pekko.persistence.journal.leveldb.dir",
+      "pekko.persistence.journal.segment.dir",
+      "pekko.persistence.snapshot-store.local.dir").map(s => new File(system.settings.config.getString(s)))
 
   override def beforeAll(): Unit = {
     storageLocations.foreach(FileUtils.deleteDirectory)
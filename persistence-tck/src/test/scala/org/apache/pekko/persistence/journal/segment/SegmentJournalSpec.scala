@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.persistence.journal.segment
+
+import org.apache.pekko
+import pekko.persistence.{ PersistenceSpec, PluginCleanup }
+import pekko.persistence.journal.JournalSpec
+
+class SegmentJournalSpec
+    extends JournalSpec(config = PersistenceSpec.config("segment", "SegmentJournalSpec"))
+    with PluginCleanup {
+
+  override def supportsRejectingNonSerializableObjects = true
+
+  override def supportsSerialization = true
+}
+
+class SegmentJournalSmallSegmentsSpec
+    extends JournalSpec(
+      config = PersistenceSpec.config(
+        "segment",
+        "SegmentJournalSmallSegmentsSpec",
+        extraConfig = Some("""
+        pekko.persistence.journal.segment.segment-size = 4 KiB
+        pekko.persistence.journal.segment.index-interval = 2
+        pekko.persistence.journal.segment.fsync = on
+        """)))
+    with PluginCleanup {
+
+  override def supportsRejectingNonSerializableObjects = true
+
+  override def supportsSerialization = true
+}
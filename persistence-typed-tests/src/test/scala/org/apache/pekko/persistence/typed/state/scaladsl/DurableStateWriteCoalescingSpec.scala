@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.persistence.typed.state.scaladsl
+
+import scala.concurrent.duration._
+
+import com.typesafe.config.Config
+import com.typesafe.config.ConfigFactory
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import org.apache.pekko
+import pekko.actor.testkit.typed.scaladsl.LogCapturing
+import pekko.actor.testkit.typed.scaladsl.ScalaTestWithActorTestKit
+import pekko.actor.testkit.typed.scaladsl.TestProbe
+import pekko.actor.typed.ActorRef
+import pekko.actor.typed.Behavior
+import pekko.actor.typed.scaladsl.Behaviors
+import pekko.persistence.testkit.PersistenceTestKitDurableStateStorePlugin
+import pekko.persistence.typed.PersistenceId
+import pekko.persistence.typed.state.RecoveryCompleted
+import pekko.persistence.typed.state.WriteCoalescing
+
+object DurableStateWriteCoalescingSpec {
+
+  def conf: Config = PersistenceTestKitDurableStateStorePlugin.config.withFallback(ConfigFactory.parseString(s"""
+    pekko.loglevel = INFO
+    """))
+
+  sealed trait Command
+  final case class Increment(replyTo: ActorRef[String]) extends Command
+  final case class GetValue(replyTo: ActorRef[String]) extends Command
+  final case class Delete(replyTo: ActorRef[String]) extends Command
+  case object Stop extends Command
+
+}
+
+class DurableStateWriteCoalescingSpec
+    extends ScalaTestWithActorTestKit(DurableStateWriteCoalescingSpec.conf)
+    with AnyWordSpecLike
+    with LogCapturing {
+  import DurableStateWriteCoalescingSpec._
+
+  private def counter(
+      pid: PersistenceId,
+      writeCoalescing: WriteCoalescing,
+      probe: ActorRef[String]): Behavior[Command] =
+    Behaviors.setup(ctx =>
+      DurableStateBehavior[Command, Int](
+        pid,
+        0,
+        (state, command) =>
+          command match {
+            case Increment(replyTo) =>
+              Effect
+                .persist(state + 1)
+                .thenRun(newState => replyTo ! s"${DurableStateBehavior.lastSequenceNumber(ctx)} $newState")
+            case GetValue(replyTo) =>
+              replyTo ! s"${DurableStateBehavior.lastSequenceNumber(ctx)} $state"
+              Effect.none
+            case Delete(replyTo) =>
+              Effect
+                .delete[Int]()
+                .thenRun(newState => replyTo ! s"${DurableStateBehavior.lastSequenceNumber(ctx)} $newState")
+            case Stop =>
+              Effect.stop()
+          }).withWriteCoalescing(writeCoalescing).receiveSignal {
+        case (state, RecoveryCompleted) =>
+          probe ! s"${DurableStateBehavior.lastSequenceNumber(ctx)} $state onRecoveryComplete"
+      })
+
+  "Write coalescing of a DurableStateBehavior" must {
+
+    "write the state of several commands with one revision" in {
+      val probe = TestProbe[String]()
+      val pid = PersistenceId.ofUniqueId("pid-1")
+      val writeCoalescing = WriteCoalescing(200.millis, 100)
+      val ref = spawn(counter(pid, writeCoalescing, probe.ref))
+      probe.expectMessage("0 0 onRecoveryComplete")
+
+      (1 to 3).foreach(_ => ref ! Increment(probe.ref))
+      probe.expectMessage("1 1")
+      probe.expectMessage("1 2")
+      probe.expectMessage("1 3")
+
+      (1 to 2).foreach(_ => ref ! Increment(probe.ref))
+      probe.expectMessage("2 4")
+      probe.expectMessage("2 5")
+
+      testKit.stop(ref)
+      probe.expectTerminated(ref)
+
+      spawn(counter(pid, writeCoalescing, probe.ref))
+      probe.expectMessage("2 5 onRecoveryComplete")
+    }
+
+    "acknowledge the commands after the write by default" in {
+      val probe = TestProbe[String]()
+      val ref = spawn(counter(PersistenceId.ofUniqueId("pid-2"), WriteCoalescing(1.second, 100), probe.ref))
+      probe.expectMessage("0 0 onRecoveryComplete")
+
+      ref ! Increment(probe.ref)
+      ref ! Increment(probe.ref)
+      // the commands that don't change the state are not delayed
+      ref ! GetValue(probe.ref)
+      probe.expectMessage("1 2")
+      probe.expectNoMessage(300.millis)
+      probe.expectMessage("1 1")
+      probe.expectMessage("1 2")
+    }
+
+    "acknowledge the commands immediately with AcknowledgeImmediately" in {
+      val probe = TestProbe[String]()
+      val writeCoalescing =
+        WriteCoalescing(1.second, 100).withAcknowledgement(WriteCoalescing.AcknowledgeImmediately)
+      val ref = spawn(counter(PersistenceId.ofUniqueId("pid-3"), writeCoalescing, probe.ref))
+      probe.expectMessage("0 0 onRecoveryComplete")
+
+      ref ! Increment(probe.ref)
+      ref ! Increment(probe.ref)
+      probe.expectMessage(300.millis, "1 1")
+      probe.expectMessage(300.millis, "1 2")
+    }
+
+    "write the state when maxChanges commands changed it" in {
+      val probe = TestProbe[String]()
+      val pid = PersistenceId.ofUniqueId("pid-4")
+      val writeCoalescing = WriteCoalescing(1.minute, 2)
+      val ref = spawn(counter(pid, writeCoalescing, probe.ref))
+      probe.expectMessage("0 0 onRecoveryComplete")
+
+      (1 to 5).foreach(_ => ref ! Increment(probe.ref))
+      probe.expectMessage("1 1")
+      probe.expectMessage("1 2")
+      probe.expectMessage("2 3")
+      probe.expectMessage("2 4")
+      probe.expectNoMessage(300.millis)
+    }
+
+    "write the unwritten state before stopping" in {
+      val probe = TestProbe[String]()
+      val pid = PersistenceId.ofUniqueId("pid-5")
+      val writeCoalescing = WriteCoalescing(1.minute, 100)
+      val ref = spawn(counter(pid, writeCoalescing, probe.ref))
+      probe.expectMessage("0 0 onRecoveryComplete")
+
+      (1 to 3).foreach(_ => ref ! Increment(probe.ref))
+      ref ! Stop
+      probe.expectMessage("1 1")
+      probe.expectMessage("1 2")
+      probe.expectMessage("1 3")
+      probe.expectTerminated(ref)
+
+      spawn(counter(pid, writeCoalescing, probe.ref))
+      probe.expectMessage("1 3 onRecoveryComplete")
+    }
+
+    "write the unwritten state before deleting it" in {
+      val probe = TestProbe[String]()
+      val pid = PersistenceId.ofUniqueId("pid-6")
+      val writeCoalescing = WriteCoalescing(1.minute, 100)
+      val ref = spawn(counter(pid, writeCoalescing, probe.ref))
+      probe.expectMessage("0 0 onRecoveryComplete")
+
+      (1 to 2).foreach(_ => ref ! Increment(probe.ref))
+      ref ! Delete(probe.ref)
+      probe.expectMessage("1 1")
+      probe.expectMessage("1 2")
+      probe.expectMessage("2 0")
+
+      ref ! Increment(probe.ref)
+      ref ! Stop
+      probe.expectMessage("3 1")
+      probe.expectTerminated(ref)
+
+      spawn(counter(pid, writeCoalescing, probe.ref))
+      probe.expectMessage("3 1 onRecoveryComplete")
+    }
+  }
+}
@@ -23,6 +23,7 @@ import org.apache.pekko
 import pekko.actor.typed.ActorSystem
 import pekko.annotation.InternalApi
 import pekko.persistence.Persistence
+import pekko.persistence.journal.ParallelReplayDeserializer
 
 /**
  * INTERNAL API
@@ -51,6 +52,9 @@ import pekko.persistence.Persistence
     val recoveryEventTimeout: FiniteDuration =
       journalConfig.getDuration("recovery-event-timeout", TimeUnit.MILLISECONDS).millis
 
+    // a replay that is deserialized by several threads takes as many recovery permits
+    val recoveryPermits = ParallelReplayDeserializer.settings(journalConfig).parallelism
+
     val useContextLoggerForInternalLogging = typedConfig.getBoolean("use-context-logger-for-internal-logging")
 
     Persistence.verifyPluginConfigExists(config, snapshotPluginId, "Snapshot store")
@@ -62,7 +66,8 @@ import pekko.persistence.Persistence
       recoveryEventTimeout,
       journalPluginId,
       snapshotPluginId,
-      useContextLoggerForInternalLogging)
+      useContextLoggerForInternalLogging,
+      recoveryPermits)
   }
 
   private def journalConfigFor(config: Config, journalPluginId: String): Config = {
@@ -90,7 +95,8 @@ private[pekko] final case class EventSourcedSettings(
     recoveryEventTimeout: FiniteDuration,
     journalPluginId: String,
     snapshotPluginId: String,
-    useContextLoggerForInternalLogging: Boolean) {
+    useContextLoggerForInternalLogging: Boolean,
+    recoveryPermits: Int = 1) {
 
   require(journalPluginId != null, "journal plugin id must not be null; use empty string for 'default' journal")
   require(
@@ -139,9 +139,14 @@ private[pekko] trait JournalInteractions[C, E, S] {
   }
 
   protected def requestRecoveryPermit(): Unit = {
-    setup.persistence.recoveryPermitter.tell(RecoveryPermitter.RequestRecoveryPermit, setup.selfClassic)
+    setup.persistence.recoveryPermitter.tell(
+      RecoveryPermitter.requestRecoveryPermits(setup.settings.recoveryPermits),
+      setup.selfClassic)
   }
 
+  protected def prioritizeRecoveryPermit(): Unit =
+    setup.persistence.recoveryPermitter.tell(RecoveryPermitter.PrioritizeRecoveryPermit, setup.selfClassic)
+
   /** Intended to be used in .onSignal(returnPermitOnStop) by behaviors */
   protected def returnPermitOnStop
       : PartialFunction[(ActorContext[InternalProtocol], Signal), Behavior[InternalProtocol]] = {
@@ -154,10 +159,20 @@ private[pekko] trait JournalInteractions[C, E, S] {
   }
 
   /** Mutates setup, by setting the `holdingRecoveryPermit` to false */
-  protected def tryReturnRecoveryPermit(reason: String): Unit = {
+  protected def tryReturnRecoveryPermit(reason: String): Unit =
+    tryReturnRecoveryPermit(reason, RecoveryPermitter.ReturnRecoveryPermit)
+
+  /**
+   * Like `tryReturnRecoveryPermit`, for a recovery that failed due to the journal or the snapshot store,
+   * or that timed out.
+   */
+  protected def tryReturnRecoveryPermitOnFailure(reason: String): Unit =
+    tryReturnRecoveryPermit(reason, RecoveryPermitter.ReturnRecoveryPermitOnFailure)
+
+  private def tryReturnRecoveryPermit(reason: String, returnPermit: RecoveryPermitter.Request): Unit = {
     if (setup.holdingRecoveryPermit) {
       setup.internalLogger.debug("Returning recovery permit, reason: {}", reason)
-      setup.persistence.recoveryPermitter.tell(RecoveryPermitter.ReturnRecoveryPermit, setup.selfClassic)
+      setup.persistence.recoveryPermitter.tell(returnPermit, setup.selfClassic)
       setup.holdingRecoveryPermit = false
     } // else, no need to return the permit
   }
@@ -198,7 +198,7 @@ private[pekko] final class ReplayingEvents[C, E, S](
           onRecoveryCompleted(state)
 
         case ReplayMessagesFailure(cause) =>
-          onRecoveryFailure(cause, Some(response))
+          onRecoveryFailure(cause, Some(response), journalFailure = true)
 
         case _ =>
           Behaviors.unhandled
@@ -231,7 +231,7 @@ private[pekko] final class ReplayingEvents[C, E, S](
       } else {
         val msg =
           s"Replay timed out, didn't get event within [${setup.settings.recoveryEventTimeout}], highest sequence number seen [${state.seqNr}]"
-        onRecoveryFailure(new RecoveryTimedOut(msg), None)
+        onRecoveryFailure(new RecoveryTimedOut(msg), None, journalFailure = true)
       }
     } else {
       // snapshot timeout, but we're already in the events recovery phase
@@ -252,12 +252,17 @@ private[pekko] final class ReplayingEvents[C, E, S](
    *
    * @param cause failure cause.
    * @param event the event that was being processed when the exception was thrown
+   * @param journalFailure if the replay failed or timed out, rather than the handling of an event
    */
-  private def onRecoveryFailure(cause: Throwable, event: Option[Any]): Behavior[InternalProtocol] = {
+  private def onRecoveryFailure(
+      cause: Throwable,
+      event: Option[Any],
+      journalFailure: Boolean = false): Behavior[InternalProtocol] = {
     onRecoveryFailed(setup.context, cause, event)
     setup.onSignal(state.state, RecoveryFailed(cause), catchAndLog = true)
     setup.cancelRecoveryTimer()
-    tryReturnRecoveryPermit("on replay failure: " + cause.getMessage)
+    if (journalFailure) tryReturnRecoveryPermitOnFailure("on replay failure: " + cause.getMessage)
+    else tryReturnRecoveryPermit("on replay failure: " + cause.getMessage)
     if (setup.internalLogger.isDebugEnabled) {
       setup.internalLogger.debug2(
         "Recovery failure for persistenceId [{}] after {}",
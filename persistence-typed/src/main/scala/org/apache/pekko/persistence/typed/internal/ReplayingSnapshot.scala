@@ -108,7 +108,7 @@ private[pekko] class ReplayingSnapshot[C, E, S](override val setup: BehaviorSetu
     setup.onSignal(setup.emptyState, RecoveryFailed(cause), catchAndLog = true)
     setup.cancelRecoveryTimer()
 
-    tryReturnRecoveryPermit("on snapshot recovery failure: " + cause.getMessage)
+    tryReturnRecoveryPermitOnFailure("on snapshot recovery failure: " + cause.getMessage)
 
     if (setup.internalLogger.isDebugEnabled)
       setup.internalLogger.debug("Recovery failure for persistenceId [{}]", setup.persistenceId)
@@ -50,12 +50,20 @@ private[pekko] class RequestingRecoveryPermit[C, E, S](override val setup: Behav
     // request a permit, as only once we obtain one we can start replaying
     requestRecoveryPermit()
 
+    var prioritized = false
+
     def stay(receivedPoisonPill: Boolean): Behavior[InternalProtocol] = {
       Behaviors
         .receiveMessage[InternalProtocol] {
           case InternalProtocol.RecoveryPermitGranted =>
             becomeReplaying(receivedPoisonPill)
 
+          case cmd: InternalProtocol.IncomingCommand[_] if !prioritized && !receivedPoisonPill =>
+            // a recovery with pending commands is granted a permit before the ones without
+            prioritizeRecoveryPermit()
+            prioritized = true
+            stashInternal(cmd)
+
           case other =>
             if (receivedPoisonPill) {
               if (setup.settings.logOnStashing)
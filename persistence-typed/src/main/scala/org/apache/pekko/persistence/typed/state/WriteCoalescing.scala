@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.persistence.typed.state
+
+import scala.concurrent.duration.FiniteDuration
+
+import org.apache.pekko
+import pekko.annotation.ApiMayChange
+import pekko.util.JavaDurationConverters._
+
+@ApiMayChange
+object WriteCoalescing {
+
+  /**
+   * When the side effects of a command that changed the state, such as replies, are run.
+   */
+  sealed abstract class Acknowledgement
+
+  /**
+   * The side effects of a command are run after the state it changed was written to the store, as without
+   * write coalescing. A reply confirms that the state is durable, and a failed write runs none of the side
+   * effects of the coalesced commands, so that senders that retry until they get a reply have their
+   * commands applied at least once.
+   */
+  case object AcknowledgeAfterWrite extends Acknowledgement
+
+  /**
+   * The side effects of a command are run when the state is changed, before it is written to the store,
+   * except for stopping the actor, which waits for the write. A reply doesn't confirm that the state is durable:
+   * the acknowledged changes of up to `maxDelay` are lost if the actor or the system fails before it is written.
+   */
+  case object AcknowledgeImmediately extends Acknowledgement
+
+  /**
+   * Java API: see [[AcknowledgeAfterWrite]]
+   */
+  def acknowledgeAfterWrite: Acknowledgement = AcknowledgeAfterWrite
+
+  /**
+   * Java API: see [[AcknowledgeImmediately]]
+   */
+  def acknowledgeImmediately: Acknowledgement = AcknowledgeImmediately
+
+  /**
+   * Coalesce the state changes of up to `maxDelay` or `maxChanges` commands into one write, with
+   * [[AcknowledgeAfterWrite]].
+   */
+  def apply(maxDelay: FiniteDuration, maxChanges: Int): WriteCoalescing =
+    new WriteCoalescing(maxDelay, maxChanges, AcknowledgeAfterWrite)
+
+  /**
+   * Java API: Coalesce the state changes of up to `maxDelay` or `maxChanges` commands into one write, with
+   * [[AcknowledgeAfterWrite]].
+   */
+  def create(maxDelay: java.time.Duration, maxChanges: Int): WriteCoalescing =
+    apply(maxDelay.asScala, maxChanges)
+}
+
+/**
+ * Write-behind of the state of a `DurableStateBehavior`: the state changes of consecutive commands are kept in
+ * memory and only the last of them is written to the `DurableStateStore`, `maxDelay` after the first of them or
+ * when `maxChanges` commands changed the state, whatever comes first. The state is also written before the actor
+ * stops with `Effect.stop` or a `PoisonPill`, and before `Effect.delete` deletes it, so that the side effects of the
+ * coalesced commands only run for a written state.
+ *
+ * The revision is incremented once per write rather than once per state change, so that the revisions in the
+ * store stay consecutive. `DurableStateBehavior.lastSequenceNumber` is the revision the current state will be
+ * written with.
+ *
+ * Durability: state changes that are not written yet are lost when the actor fails or is stopped in another way,
+ * e.g. when the actor system terminates. See [[WriteCoalescing.Acknowledgement]] for when the commands that changed
+ * them are acknowledged.
+ *
+ * API May Change
+ */
+@ApiMayChange
+final class WriteCoalescing private (
+    val maxDelay: FiniteDuration,
+    val maxChanges: Int,
+    val acknowledgement: WriteCoalescing.Acknowledgement) {
+  require(maxDelay.length > 0, "maxDelay must be > 0")
+  require(maxChanges > 0, "maxChanges must be > 0")
+
+  /**
+   * Java API
+   */
+  def getMaxDelay: java.time.Duration = maxDelay.asJava
+
+  def withMaxDelay(maxDelay: FiniteDuration): WriteCoalescing =
+    new WriteCoalescing(maxDelay, maxChanges, acknowledgement)
+
+  /**
+   * Java API
+   */
+  def withMaxDelay(maxDelay: java.time.Duration): WriteCoalescing =
+    withMaxDelay(maxDelay.asScala)
+
+  def withMaxChanges(maxChanges: Int): WriteCoalescing =
+    new WriteCoalescing(maxDelay, maxChanges, acknowledgement)
+
+  def withAcknowledgement(acknowledgement: WriteCoalescing.Acknowledgement): WriteCoalescing =
+    new WriteCoalescing(maxDelay, maxChanges, acknowledgement)
+
+  override def toString: String =
+    s"WriteCoalescing($maxDelay, $maxChanges, $acknowledgement)"
+}
@@ -31,6 +31,7 @@ import pekko.persistence.state.DurableStateStoreRegistry
 import pekko.persistence.state.scaladsl.DurableStateUpdateStore
 import pekko.persistence.typed.PersistenceId
 import pekko.persistence.typed.SnapshotAdapter
+import pekko.persistence.typed.state.WriteCoalescing
 import pekko.util.OptionVal
 
 /**
@@ -48,7 +49,8 @@ private[pekko] final class BehaviorSetup[C, S](
     var holdingRecoveryPermit: Boolean,
     val settings: DurableStateSettings,
     val stashState: StashState,
-    private val internalLoggerFactory: () => Logger) {
+    private val internalLoggerFactory: () => Logger,
+    val writeCoalescing: Option[WriteCoalescing] = None) {
 
   import pekko.actor.typed.scaladsl.adapter._
 
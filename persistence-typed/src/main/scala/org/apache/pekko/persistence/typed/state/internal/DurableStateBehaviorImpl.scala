@@ -33,6 +33,7 @@ import pekko.persistence.typed.state.scaladsl._
 import pekko.persistence.state.scaladsl.GetObjectResult
 import pekko.persistence.typed.PersistenceId
 import pekko.persistence.typed.SnapshotAdapter
+import pekko.persistence.typed.state.WriteCoalescing
 import pekko.util.unused
 
 @InternalApi
@@ -61,7 +62,8 @@ private[pekko] final case class DurableStateBehaviorImpl[Command, State](
     tag: String = "",
     snapshotAdapter: SnapshotAdapter[State] = NoOpSnapshotAdapter.instance[State],
     supervisionStrategy: SupervisorStrategy = SupervisorStrategy.stop,
-    override val signalHandler: PartialFunction[(State, Signal), Unit] = PartialFunction.empty)
+    override val signalHandler: PartialFunction[(State, Signal), Unit] = PartialFunction.empty,
+    writeCoalescing: Option[WriteCoalescing] = None)
     extends DurableStateBehavior[Command, State] {
 
   if (persistenceId eq null)
@@ -115,7 +117,8 @@ private[pekko] final case class DurableStateBehaviorImpl[Command, State](
             holdingRecoveryPermit = false,
             settings = settings,
             stashState = stashState,
-            internalLoggerFactory = () => internalLogger())
+            internalLoggerFactory = () => internalLogger(),
+            writeCoalescing = writeCoalescing)
 
           // needs to accept Any since we also can get messages from outside
           // not part of the user facing Command protocol
@@ -176,6 +179,9 @@ private[pekko] final case class DurableStateBehaviorImpl[Command, State](
   override def onPersistFailure(backoffStrategy: BackoffSupervisorStrategy): DurableStateBehavior[Command, State] =
     copy(supervisionStrategy = backoffStrategy)
 
+  override def withWriteCoalescing(writeCoalescing: WriteCoalescing): DurableStateBehavior[Command, State] =
+    copy(writeCoalescing = Some(writeCoalescing))
+
 }
 
 /** Protocol used internally by the DurableStateBehavior. */
@@ -189,6 +195,7 @@ private[pekko] final case class DurableStateBehaviorImpl[Command, State](
   case object DeleteSuccess extends InternalProtocol
   final case class DeleteFailure(cause: Throwable) extends InternalProtocol
   case object RecoveryTimeout extends InternalProtocol
+  case object WriteCoalescingTimeout extends InternalProtocol
   final case class IncomingCommand[C](c: C) extends InternalProtocol
 
 }
@@ -53,17 +53,26 @@ private[pekko] trait DurableStateStoreInteractions[C, S] {
       value: Any): Running.RunningState[S] = {
 
     val newRunningState = state.nextRevision()
+    internalUpsertRevision(ctx, cmd, newRunningState, value)
+    newRunningState
+  }
+
+  /**
+   * Writes the state with its revision as is, for the coalesced state changes that share the revision.
+   */
+  protected def internalUpsertRevision(
+      ctx: ActorContext[InternalProtocol],
+      cmd: Any,
+      state: Running.RunningState[S],
+      value: Any): Unit = {
     val persistenceId = setup.persistenceId.id
 
     onWriteInitiated(ctx, cmd)
 
-    ctx.pipeToSelf[Done](
-      setup.durableStateStore.upsertObject(persistenceId, newRunningState.revision, value, setup.tag)) {
+    ctx.pipeToSelf[Done](setup.durableStateStore.upsertObject(persistenceId, state.revision, value, setup.tag)) {
       case Success(_)     => InternalProtocol.UpsertSuccess
       case Failure(cause) => InternalProtocol.UpsertFailure(cause)
     }
-
-    newRunningState
   }
 
   protected def internalDelete(
@@ -94,6 +103,9 @@ private[pekko] trait DurableStateStoreInteractions[C, S] {
     setup.persistence.recoveryPermitter.tell(RecoveryPermitter.RequestRecoveryPermit, setup.selfClassic)
   }
 
+  protected def prioritizeRecoveryPermit(): Unit =
+    setup.persistence.recoveryPermitter.tell(RecoveryPermitter.PrioritizeRecoveryPermit, setup.selfClassic)
+
   /** Intended to be used in .onSignal(returnPermitOnStop) by behaviors */
   protected def returnPermitOnStop
       : PartialFunction[(ActorContext[InternalProtocol], Signal), Behavior[InternalProtocol]] = {
@@ -106,10 +118,19 @@ private[pekko] trait DurableStateStoreInteractions[C, S] {
   }
 
   /** Mutates setup, by setting the `holdingRecoveryPermit` to false */
-  protected def tryReturnRecoveryPermit(reason: String): Unit = {
+  protected def tryReturnRecoveryPermit(reason: String): Unit =
+    tryReturnRecoveryPermit(reason, RecoveryPermitter.ReturnRecoveryPermit)
+
+  /**
+   * Like `tryReturnRecoveryPermit`, for a recovery that failed due to the durable state store or that timed out.
+   */
+  protected def tryReturnRecoveryPermitOnFailure(reason: String): Unit =
+    tryReturnRecoveryPermit(reason, RecoveryPermitter.ReturnRecoveryPermitOnFailure)
+
+  private def tryReturnRecoveryPermit(reason: String, returnPermit: RecoveryPermitter.Request): Unit = {
     if (setup.holdingRecoveryPermit) {
       setup.internalLogger.debug("Returning recovery permit, reason: {}", reason)
-      setup.persistence.recoveryPermitter.tell(RecoveryPermitter.ReturnRecoveryPermit, setup.selfClassic)
+      setup.persistence.recoveryPermitter.tell(returnPermit, setup.selfClassic)
       setup.holdingRecoveryPermit = false
     } // else, no need to return the permit
   }
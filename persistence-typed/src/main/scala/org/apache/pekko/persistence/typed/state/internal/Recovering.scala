@@ -87,6 +87,7 @@ private[pekko] class Recovering[C, S](
       case success: GetSuccess[S @unchecked] => onGetSuccess(success.result)
       case GetFailure(exc)                   => onGetFailure(exc)
       case RecoveryTimeout                   => onRecoveryTimeout()
+      case WriteCoalescingTimeout            => Behaviors.unhandled
       case cmd: IncomingCommand[C @unchecked] =>
         if (recoveryState.receivedPoisonPill) {
           if (setup.settings.logOnStashing)
@@ -125,7 +126,7 @@ private[pekko] class Recovering[C, S](
     setup.onSignal(setup.emptyState, RecoveryFailed(cause), catchAndLog = true)
     setup.cancelRecoveryTimer()
 
-    tryReturnRecoveryPermit("on recovery failure: " + cause.getMessage)
+    tryReturnRecoveryPermitOnFailure("on recovery failure: " + cause.getMessage)
 
     if (setup.internalLogger.isDebugEnabled)
       setup.internalLogger.debug("Recovery failure for persistenceId [{}]", setup.persistenceId)
@@ -49,12 +49,20 @@ private[pekko] class RequestingRecoveryPermit[C, S](override val setup: Behavior
     // request a permit, as only once we obtain one we can start recovery
     requestRecoveryPermit()
 
+    var prioritized = false
+
     def stay(receivedPoisonPill: Boolean): Behavior[InternalProtocol] = {
       Behaviors
         .receiveMessage[InternalProtocol] {
           case InternalProtocol.RecoveryPermitGranted =>
             becomeRecovering(receivedPoisonPill)
 
+          case cmd: InternalProtocol.IncomingCommand[_] if !prioritized && !receivedPoisonPill =>
+            // a recovery with pending commands is granted a permit before the ones without
+            prioritizeRecoveryPermit()
+            prioritized = true
+            stashInternal(cmd)
+
           case other =>
             if (receivedPoisonPill) {
               if (setup.settings.logOnStashing)
@@ -17,6 +17,7 @@ import scala.annotation.tailrec
 import scala.collection.immutable
 
 import org.apache.pekko
+import pekko.actor.Cancellable
 import pekko.actor.UnhandledMessage
 import pekko.actor.typed.Behavior
 import pekko.actor.typed.Signal
@@ -27,8 +28,10 @@ import pekko.actor.typed.scaladsl.Behaviors
 import pekko.actor.typed.scaladsl.LoggerOps
 import pekko.annotation.InternalApi
 import pekko.annotation.InternalStableApi
+import pekko.persistence.typed.state.WriteCoalescing
 import pekko.persistence.typed.state.internal.DurableStateBehaviorImpl.GetState
 import pekko.persistence.typed.state.scaladsl.Effect
+import pekko.util.OptionVal
 import pekko.util.unused
 
 /**
@@ -79,6 +82,13 @@ private[pekko] object Running {
   // Needed for WithSeqNrAccessible, when unstashing
   private var _currentRevision = 0L
 
+  // the state changes that are not written yet with write coalescing, and the side effects that wait for their write
+  private var unwrittenChanges = 0
+  private var unwrittenSideEffects: immutable.Seq[SideEffect[S]] = Nil
+  private var writeCoalescingTimer: OptionVal[Cancellable] = OptionVal.None
+  // the command and side effects of an Effect.delete that waits for the write of the coalesced state changes
+  private var deleteAfterWrite: OptionVal[(Any, immutable.Seq[SideEffect[S]])] = OptionVal.None
+
   final class HandlingCommands(state: RunningState[S])
       extends AbstractBehavior[InternalProtocol](setup.context)
       with WithRevisionAccessible {
@@ -88,12 +98,15 @@ private[pekko] object Running {
     def onMessage(msg: InternalProtocol): Behavior[InternalProtocol] = msg match {
       case IncomingCommand(c: C @unchecked) => onCommand(state, c)
       case get: GetState[S @unchecked]      => onGetState(get)
+      case WriteCoalescingTimeout           => if (unwrittenChanges > 0) writeCoalesced(msg, state) else this
       case _                                => Behaviors.unhandled
     }
 
     override def onSignal: PartialFunction[Signal, Behavior[InternalProtocol]] = {
       case PoisonPill =>
-        if (isInternalStashEmpty && !isUnstashAllInProgress) Behaviors.stopped
+        // the coalesced state changes are written before stopping
+        if (unwrittenChanges > 0) writeCoalesced(PoisonPill, state.copy(receivedPoisonPill = true))
+        else if (isInternalStashEmpty && !isUnstashAllInProgress) Behaviors.stopped
         else new HandlingCommands(state.copy(receivedPoisonPill = true))
       case signal =>
         if (setup.onSignal(state.state, signal, catchAndLog = false)) this
@@ -114,6 +127,15 @@ private[pekko] object Running {
     }
 
     private def handlePersist(
+        newState: S,
+        cmd: Any,
+        sideEffects: immutable.Seq[SideEffect[S]]): (Behavior[InternalProtocol], Boolean) =
+      setup.writeCoalescing match {
+        case Some(writeCoalescing) => handleCoalescedPersist(writeCoalescing, newState, cmd, sideEffects)
+        case None                  => handleWrittenPersist(newState, cmd, sideEffects)
+      }
+
+    private def handleWrittenPersist(
         newState: S,
         cmd: Any,
         sideEffects: immutable.Seq[SideEffect[S]]): (Behavior[InternalProtocol], Boolean) = {
@@ -128,6 +150,41 @@ private[pekko] object Running {
       (persistingState(newState2, state, sideEffects), false)
     }
 
+    private def handleCoalescedPersist(
+        writeCoalescing: WriteCoalescing,
+        newState: S,
+        cmd: Any,
+        sideEffects: immutable.Seq[SideEffect[S]]): (Behavior[InternalProtocol], Boolean) = {
+      // the coalesced state changes share the revision they are written with
+      val stateAfterApply =
+        (if (unwrittenChanges == 0) state.nextRevision() else state).applyState(setup, newState)
+      _currentRevision = stateAfterApply.revision
+      if (unwrittenChanges == 0) startWriteCoalescingTimer(writeCoalescing)
+      unwrittenChanges += 1
+
+      val (runNow, runAfterWrite) = writeCoalescing.acknowledgement match {
+        case WriteCoalescing.AcknowledgeAfterWrite =>
+          // bound to the state of the command, the side effects run with the state of the write otherwise
+          (Nil, sideEffects.map {
+            case callback: Callback[S @unchecked] => new Callback[S](_ => callback.sideEffect(stateAfterApply.state))
+            case other                            => other
+          })
+        case WriteCoalescing.AcknowledgeImmediately =>
+          sideEffects.partition(_.isInstanceOf[Callback[_]])
+      }
+      runNow.foreach {
+        case callback: Callback[S @unchecked] => callback.sideEffect(stateAfterApply.state)
+        case _                                =>
+      }
+      unwrittenSideEffects ++= runAfterWrite
+
+      // stop and unstashAll wait for the write
+      if (unwrittenChanges >= writeCoalescing.maxChanges || runAfterWrite.exists(!_.isInstanceOf[Callback[_]]))
+        (writeCoalesced(cmd, stateAfterApply), false)
+      else
+        (new HandlingCommands(stateAfterApply), true)
+    }
+
     @tailrec def applyEffects(
         msg: Any,
         state: RunningState[S],
@@ -149,11 +206,23 @@ private[pekko] object Running {
           handlePersist(newState, msg, sideEffects)
 
         case _: PersistNothing.type =>
-          (applySideEffects(sideEffects, state), true)
+          if (unwrittenChanges > 0 && sideEffects.exists(!_.isInstanceOf[Callback[_]])) {
+            // stop and unstashAll wait for the write of the coalesced state changes
+            unwrittenSideEffects ++= sideEffects
+            (writeCoalesced(msg, state), false)
+          } else
+            (applySideEffects(sideEffects, state), true)
 
         case _: Delete[_] =>
-          val nextState = internalDelete(setup.context, msg, state)
-          (applySideEffects(sideEffects, nextState), true)
+          if (unwrittenChanges > 0) {
+            // the coalesced state changes are written first, so that their side effects only run after
+            // their state was written
+            deleteAfterWrite = OptionVal.Some(msg -> sideEffects)
+            (writeCoalesced(msg, state), false)
+          } else {
+            val nextState = internalDelete(setup.context, msg, state)
+            (applySideEffects(sideEffects, nextState), true)
+          }
 
         case _: Unhandled.type =>
           import pekko.actor.typed.scaladsl.adapter._
@@ -181,6 +250,40 @@ private[pekko] object Running {
 
   // ===============================================
 
+  private def startWriteCoalescingTimer(writeCoalescing: WriteCoalescing): Unit = {
+    cancelWriteCoalescingTimer()
+    val timer = setup.context.scheduleOnce(writeCoalescing.maxDelay, setup.context.self, WriteCoalescingTimeout)
+    writeCoalescingTimer = OptionVal.Some(timer)
+  }
+
+  private def cancelWriteCoalescingTimer(): Unit = {
+    writeCoalescingTimer match {
+      case OptionVal.Some(t) => t.cancel()
+      case _                 =>
+    }
+    writeCoalescingTimer = OptionVal.None
+  }
+
+  /**
+   * Writes the state of the coalesced state changes, the side effects that wait for the write are applied
+   * when it succeeded.
+   */
+  private def writeCoalesced(cmd: Any, state: RunningState[S]): Behavior[InternalProtocol] = {
+    cancelWriteCoalescingTimer()
+    if (setup.internalLogger.isDebugEnabled)
+      setup.internalLogger.debug2(
+        "Writing [{}] coalesced state changes with revision [{}]",
+        unwrittenChanges,
+        state.revision)
+    onWriteCoalesced(setup.context, unwrittenChanges)
+
+    val sideEffects = unwrittenSideEffects
+    unwrittenChanges = 0
+    unwrittenSideEffects = Nil
+    internalUpsertRevision(setup.context, cmd, state, setup.snapshotAdapter.toJournal(state.state))
+    persistingState(state, state, sideEffects)
+  }
+
   def persistingState(
       state: RunningState[S],
       visibleState: RunningState[S], // previous state until write success
@@ -205,6 +308,7 @@ private[pekko] object Running {
         case in: IncomingCommand[C @unchecked] => onCommand(in)
         case get: GetState[S @unchecked]       => stashInternal(get)
         case RecoveryTimeout                   => Behaviors.unhandled
+        case WriteCoalescingTimeout            => Behaviors.same // the timer was cancelled by the write
         case RecoveryPermitGranted             => Behaviors.unhandled
         case _: GetSuccess[_]                  => Behaviors.unhandled
         case _: GetFailure                     => Behaviors.unhandled
@@ -232,7 +336,15 @@ private[pekko] object Running {
       onWriteSuccess(setup.context)
 
       visibleState = state
-      val newState = applySideEffects(sideEffects, state)
+      val newState = deleteAfterWrite match {
+        case OptionVal.Some((cmd, deleteSideEffects)) =>
+          deleteAfterWrite = OptionVal.None
+          // only callbacks wait for a delete, other side effects write the coalesced state changes right away
+          sideEffects.foreach(applySideEffect(_, state, Behaviors.same))
+          applySideEffects(deleteSideEffects, internalDelete(setup.context, cmd, state))
+        case _ =>
+          applySideEffects(sideEffects, state)
+      }
       tryUnstashOne(newState)
     }
 
@@ -293,6 +405,11 @@ private[pekko] object Running {
     }
   }
 
+  /**
+   * Called when the state changes of `changes` commands are coalesced into one write, before `onWriteInitiated`.
+   */
+  @InternalStableApi
+  private[pekko] def onWriteCoalesced(@unused ctx: ActorContext[_], @unused changes: Int): Unit = ()
   @InternalStableApi
   private[pekko] def onWriteFailed(@unused ctx: ActorContext[_], @unused reason: Throwable): Unit = ()
   @InternalStableApi
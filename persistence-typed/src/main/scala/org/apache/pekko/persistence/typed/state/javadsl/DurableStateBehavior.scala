@@ -23,6 +23,7 @@ import pekko.actor.typed.internal.BehaviorImpl.DeferredBehavior
 import pekko.actor.typed.javadsl.ActorContext
 import pekko.annotation.ApiMayChange
 import pekko.annotation.InternalApi
+import pekko.persistence.typed.state.WriteCoalescing
 import pekko.persistence.typed.state.internal
 import pekko.persistence.typed.state.internal._
 import pekko.persistence.typed.state.scaladsl
@@ -124,6 +125,13 @@ abstract class DurableStateBehavior[Command, State] private[pekko] (
    */
   def snapshotAdapter(): SnapshotAdapter[State] = NoOpSnapshotAdapter.instance[State]
 
+  /**
+   * Override to coalesce the state changes of consecutive commands into one write to the `DurableStateStore`,
+   * for entities that change their state more often than it has to be written. See [[WriteCoalescing]] for
+   * the durability of the state changes and when the commands are acknowledged.
+   */
+  def writeCoalescing(): Optional[WriteCoalescing] = Optional.empty()
+
   /**
    * INTERNAL API: DeferredBehavior init, not for user extension
    */
@@ -141,10 +149,15 @@ abstract class DurableStateBehavior[Command, State] private[pekko] (
       (state, cmd) => commandHandler()(state, cmd).asInstanceOf[EffectImpl[State]],
       getClass).withTag(tag).snapshotAdapter(snapshotAdapter()).withDurableStateStorePluginId(durableStateStorePluginId)
 
+    val coalescing = writeCoalescing()
+    val behaviorWithCoalescing =
+      if (coalescing.isPresent) behavior.withWriteCoalescing(coalescing.get)
+      else behavior
+
     val handler = signalHandler()
     val behaviorWithSignalHandler =
-      if (handler.isEmpty) behavior
-      else behavior.receiveSignal(handler.handler)
+      if (handler.isEmpty) behaviorWithCoalescing
+      else behaviorWithCoalescing.receiveSignal(handler.handler)
 
     if (onPersistFailure.isPresent)
       behaviorWithSignalHandler.onPersistFailure(onPersistFailure.get)
@@ -28,6 +28,7 @@ import pekko.annotation.DoNotInherit
 import pekko.persistence.typed.state.internal._
 import pekko.persistence.typed.PersistenceId
 import pekko.persistence.typed.SnapshotAdapter
+import pekko.persistence.typed.state.WriteCoalescing
 
 /**
  * API May Change
@@ -170,4 +171,11 @@ object DurableStateBehavior {
    */
   def onPersistFailure(backoffStrategy: BackoffSupervisorStrategy): DurableStateBehavior[Command, State]
 
+  /**
+   * Coalesce the state changes of consecutive commands into one write to the `DurableStateStore`, for
+   * entities that change their state more often than it has to be written. See [[WriteCoalescing]] for
+   * the durability of the state changes and when the commands are acknowledged.
+   */
+  def withWriteCoalescing(writeCoalescing: WriteCoalescing): DurableStateBehavior[Command, State]
+
 }
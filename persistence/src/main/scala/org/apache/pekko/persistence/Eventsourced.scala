@@ -28,6 +28,7 @@ import pekko.actor.{ Actor, ActorCell, DeadLetter, StashOverflowException }
 import pekko.annotation.{ InternalApi, InternalStableApi }
 import pekko.dispatch.Envelope
 import pekko.event.{ Logging, LoggingAdapter }
+import pekko.persistence.journal.ParallelReplayDeserializer
 import pekko.util.Helpers.ConfigOps
 
 /** INTERNAL API */
@@ -268,7 +269,15 @@ private[persistence] trait Eventsourced
   }
 
   private def requestRecoveryPermit(): Unit = {
-    extension.recoveryPermitter.tell(RecoveryPermitter.RequestRecoveryPermit, self)
+    // a replay that is deserialized by several threads takes as many permits
+    val permits = {
+      val journalPluginConfig = this match {
+        case c: RuntimePluginConfig => c.journalPluginConfig
+        case _                      => ConfigFactory.empty
+      }
+      ParallelReplayDeserializer.settings(extension.journalConfigFor(journalPluginId, journalPluginConfig)).parallelism
+    }
+    extension.recoveryPermitter.tell(RecoveryPermitter.requestRecoveryPermits(permits), self)
     changeState(waitingRecoveryPermit(recovery))
   }
 
@@ -602,10 +611,12 @@ private[persistence] trait Eventsourced
    * the journal and its data store is protected from being overloaded by limiting number
    * of recoveries that can be in progress at the same time. When receiving
    * `RecoveryPermitGranted` it switches to `recoveryStarted` state
-   * All incoming messages are stashed.
+   * All incoming messages are stashed, the first one makes the permit request a priority.
    */
   private def waitingRecoveryPermit(recovery: Recovery) = new State {
 
+    private var prioritized = false
+
     override def toString: String = s"waiting for recovery permit"
 
     override def recoveryRunning: Boolean = true
@@ -615,6 +626,10 @@ private[persistence] trait Eventsourced
         startRecovery(recovery)
 
       case other =>
+        if (!prioritized) {
+          extension.recoveryPermitter.tell(RecoveryPermitter.PrioritizeRecoveryPermit, self)
+          prioritized = true
+        }
         stashInternally(other)
     }
   }
@@ -710,7 +725,7 @@ private[persistence] trait Eventsourced
               timeoutCancellable.cancel()
               try onRecoveryFailure(cause, event = None)
               finally context.stop(self)
-              returnRecoveryPermit()
+              returnRecoveryPermitOnFailure()
             }
 
           case RecoveryTick(true) =>
@@ -718,7 +733,7 @@ private[persistence] trait Eventsourced
                 new RecoveryTimedOut(s"Recovery timed out, didn't get snapshot within $timeout"),
                 event = None)
             finally context.stop(self)
-            returnRecoveryPermit()
+            returnRecoveryPermitOnFailure()
 
           case other =>
             stashInternally(other)
@@ -733,6 +748,9 @@ private[persistence] trait Eventsourced
     private def returnRecoveryPermit(): Unit =
       extension.recoveryPermitter.tell(RecoveryPermitter.ReturnRecoveryPermit, self)
 
+    private def returnRecoveryPermitOnFailure(): Unit =
+      extension.recoveryPermitter.tell(RecoveryPermitter.ReturnRecoveryPermitOnFailure, self)
+
   }
 
   /**
@@ -789,7 +807,7 @@ private[persistence] trait Eventsourced
               timeoutCancellable.cancel()
               try onRecoveryFailure(cause, event = None)
               finally context.stop(self)
-              returnRecoveryPermit()
+              returnRecoveryPermitOnFailure()
             case RecoveryTick(false) if !eventSeenInInterval =>
               timeoutCancellable.cancel()
               try onRecoveryFailure(
@@ -797,7 +815,7 @@ private[persistence] trait Eventsourced
                     s"Recovery timed out, didn't get event within $timeout, highest sequence number seen $lastSequenceNr"),
                   event = None)
               finally context.stop(self)
-              returnRecoveryPermit()
+              returnRecoveryPermitOnFailure()
             case RecoveryTick(false) =>
               eventSeenInInterval = false
             case RecoveryTick(true) =>
@@ -814,6 +832,9 @@ private[persistence] trait Eventsourced
       private def returnRecoveryPermit(): Unit =
         extension.recoveryPermitter.tell(RecoveryPermitter.ReturnRecoveryPermit, self)
 
+      private def returnRecoveryPermitOnFailure(): Unit =
+        extension.recoveryPermitter.tell(RecoveryPermitter.ReturnRecoveryPermitOnFailure, self)
+
       private def transitToProcessingState(): Unit = {
         if (eventBatch.nonEmpty) flushBatch()
 
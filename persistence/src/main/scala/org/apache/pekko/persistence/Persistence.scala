@@ -223,7 +223,8 @@ class Persistence(val system: ExtendedActorSystem) extends Extension {
    */
   @InternalApi private[pekko] val recoveryPermitter: ActorRef = {
     val maxPermits = config.getInt("max-concurrent-recoveries")
-    system.systemActorOf(RecoveryPermitter.props(maxPermits), "recoveryPermitter")
+    val adaptiveLimit = RecoveryPermitter.AdaptiveLimit.fromConfig(config)
+    system.systemActorOf(RecoveryPermitter.props(maxPermits, adaptiveLimit), "recoveryPermitter")
   }
 
   // Lazy, so user is not forced to configure defaults when she is not using them.
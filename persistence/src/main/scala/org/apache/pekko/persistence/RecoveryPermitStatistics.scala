@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.persistence
+
+import scala.concurrent.duration.FiniteDuration
+
+import org.apache.pekko.util.JavaDurationConverters._
+
+/**
+ * Published to the event stream of the actor system once per `adjust-interval` when
+ * `pekko.persistence.adaptive-concurrent-recoveries` is enabled, unless no recoveries were
+ * in progress, pending or completed in the interval.
+ *
+ * @param limit the number of recoveries that can be in progress at the same time after the adjustment
+ * @param inProgress the number of recoveries in progress, a recovery that deserializes its events
+ *   with several threads counts as that many
+ * @param pending the number of recoveries waiting to start
+ * @param completed the number of recoveries that completed in the interval
+ * @param failed the number of recoveries that failed in the interval due to the journal or the
+ *   snapshot store, or that timed out
+ * @param meanRecoveryTime the mean time of the recoveries that completed in the interval
+ */
+final case class RecoveryPermitStatistics(
+    limit: Int,
+    inProgress: Int,
+    pending: Int,
+    completed: Int,
+    failed: Int,
+    meanRecoveryTime: FiniteDuration) {
+
+  /** Java API */
+  def getMeanRecoveryTime: java.time.Duration = meanRecoveryTime.asJava
+}
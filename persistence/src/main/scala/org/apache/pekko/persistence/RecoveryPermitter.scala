@@ -13,13 +13,19 @@
 
 package org.apache.pekko.persistence
 
+import scala.concurrent.duration._
+
+import com.typesafe.config.Config
+
 import org.apache.pekko
 import pekko.actor.Actor
 import pekko.actor.ActorLogging
 import pekko.actor.ActorRef
 import pekko.actor.Props
 import pekko.actor.Terminated
+import pekko.actor.Timers
 import pekko.annotation.{ InternalApi, InternalStableApi }
+import pekko.util.Helpers.ConfigOps
 import pekko.util.MessageBuffer
 
 /**
@@ -29,13 +35,76 @@ import pekko.util.MessageBuffer
   def props(maxPermits: Int): Props =
     Props(new RecoveryPermitter(maxPermits))
 
+  def props(maxPermits: Int, adaptiveLimit: Option[AdaptiveLimit]): Props =
+    Props(new RecoveryPermitter(maxPermits, adaptiveLimit))
+
+  /**
+   * Adjusts the number of permits between `min` and the max permits once per `adjustInterval`, from the time the
+   * recoveries of the interval took and their failures: the limit is increased by `increase` when it was reached,
+   * and multiplied by `decreaseFactor` when a recovery failed or the recoveries took longer than
+   * `targetRecoveryTime` on average.
+   */
+  final case class AdaptiveLimit(
+      min: Int,
+      adjustInterval: FiniteDuration,
+      targetRecoveryTime: FiniteDuration,
+      increase: Int,
+      decreaseFactor: Double) {
+    require(min > 0, "adaptive-concurrent-recoveries.min-concurrent-recoveries must be > 0")
+    require(increase > 0, "adaptive-concurrent-recoveries.increase must be > 0")
+    require(
+      decreaseFactor > 0.0 && decreaseFactor < 1.0,
+      "adaptive-concurrent-recoveries.decrease-factor must be > 0 and < 1")
+  }
+
+  object AdaptiveLimit {
+
+    /**
+     * The `adaptive-concurrent-recoveries` settings of the `pekko.persistence` config, if enabled.
+     */
+    def fromConfig(persistenceConfig: Config): Option[AdaptiveLimit] = {
+      val config = persistenceConfig.getConfig("adaptive-concurrent-recoveries")
+      if (config.getBoolean("enabled"))
+        Some(
+          AdaptiveLimit(
+            config.getInt("min-concurrent-recoveries"),
+            config.getMillisDuration("adjust-interval"),
+            config.getMillisDuration("target-recovery-time"),
+            config.getInt("increase"),
+            config.getDouble("decrease-factor")))
+      else None
+    }
+  }
+
   sealed trait Protocol
   sealed trait Request extends Protocol
   sealed trait Reply extends Protocol
   case object RequestRecoveryPermit extends Request
+
+  /**
+   * Request for a permit that counts as `permits` permits, for a recovery that uses as many threads to replay
+   * its events. It is returned with `ReturnRecoveryPermit` like a single permit.
+   */
+  final case class RequestRecoveryPermits(permits: Int) extends Request
+
+  /**
+   * Sent by a recovery that is waiting for its permit when it receives a command, to be granted a permit
+   * before the recoveries without pending commands.
+   */
+  case object PrioritizeRecoveryPermit extends Request
   case object RecoveryPermitGranted extends Reply
   case object ReturnRecoveryPermit extends Request
 
+  /**
+   * Return of the permit of a recovery that failed due to the journal or the snapshot store, or timed out.
+   */
+  case object ReturnRecoveryPermitOnFailure extends Request
+
+  def requestRecoveryPermits(permits: Int): Request =
+    if (permits <= 1) RequestRecoveryPermit else RequestRecoveryPermits(permits)
+
+  private case object AdjustLimit
+
 }
 
 /**
@@ -43,48 +112,95 @@ import pekko.util.MessageBuffer
  * its data store is protected from being overloaded by limiting number
  * of recoveries that can be in progress at the same time.
  */
-@InternalApi private[pekko] class RecoveryPermitter(maxPermits: Int) extends Actor with ActorLogging {
+@InternalApi private[pekko] class RecoveryPermitter(
+    maxPermits: Int,
+    adaptiveLimit: Option[RecoveryPermitter.AdaptiveLimit])
+    extends Actor
+    with ActorLogging
+    with Timers {
   import RecoveryPermitter._
 
+  def this(maxPermits: Int) = this(maxPermits, None)
+
+  private val minLimit = adaptiveLimit.fold(maxPermits)(a => math.min(a.min, maxPermits))
+  // the number of permits that can be in use, maxPermits unless it is adjusted by the adaptive limit
+  private var limit = minLimit
   private var usedPermits = 0
+  // the permits of the recoveries that hold more than one
+  private var heldPermits = Map.empty[ActorRef, Int]
+  // when the permits were granted, for the recovery times of the adaptive limit
+  private var grantedAt = Map.empty[ActorRef, Long]
 
   @InternalStableApi
   private val pendingBuffer = MessageBuffer.empty
+  // the pending requests of recoveries with pending commands, granted before the ones in pendingBuffer
+  private val priorityBuffer = MessageBuffer.empty
   private var maxPendingStats = 0
 
+  // the recoveries of the current adjust interval of the adaptive limit
+  private var completed = 0
+  private var failed = 0
+  private var totalRecoveryNanos = 0L
+  private var limitReached = false
+
+  override def preStart(): Unit =
+    adaptiveLimit.foreach(a => timers.startTimerWithFixedDelay(AdjustLimit, AdjustLimit, a.adjustInterval))
+
   def receive = {
-    case RequestRecoveryPermit =>
+    case request @ (RequestRecoveryPermit | _: RequestRecoveryPermits) =>
       context.watch(sender())
-      if (usedPermits >= maxPermits) {
-        if (pendingBuffer.isEmpty)
-          log.debug("Exceeded max-concurrent-recoveries [{}]. First pending {}", maxPermits, sender())
-        pendingBuffer.append(RequestRecoveryPermit, sender())
-        maxPendingStats = math.max(maxPendingStats, pendingBuffer.size)
+      if (pendingCount > 0 || usedPermits + permits(request) > limit) {
+        if (pendingCount == 0)
+          log.debug("Exceeded max-concurrent-recoveries [{}]. First pending {}", limit, sender())
+        pendingBuffer.append(request, sender())
+        limitReached = true
+        maxPendingStats = math.max(maxPendingStats, pendingCount)
       } else {
-        recoveryPermitGranted(sender())
+        recoveryPermitGranted(sender(), permits(request))
+      }
+
+    case PrioritizeRecoveryPermit =>
+      val ref = sender()
+      pendingBuffer.foreach { (request, r) =>
+        if (r == ref) priorityBuffer.append(request, r)
       }
+      pendingBuffer.filterNot { case (_, r) => r == ref }
 
     case ReturnRecoveryPermit =>
-      onReturnRecoveryPermit(sender())
+      onReturnRecoveryPermit(sender(), failure = false)
+
+    case ReturnRecoveryPermitOnFailure =>
+      onReturnRecoveryPermit(sender(), failure = true)
 
     case Terminated(ref) =>
       // pre-mature termination should be rare
-      val before = pendingBuffer.size
+      val before = pendingCount
       pendingBuffer.filterNot { case (_, r) => r == ref }
-      if (before == pendingBuffer.size)
-        onReturnRecoveryPermit(ref) // it wasn't pending, so return permit
+      priorityBuffer.filterNot { case (_, r) => r == ref }
+      if (before == pendingCount)
+        onReturnRecoveryPermit(ref, failure = false) // it wasn't pending, so return permit
+      else
+        grantPending() // a request for several permits may have been in the way
+
+    case AdjustLimit =>
+      adjustLimit()
   }
 
-  private def onReturnRecoveryPermit(ref: ActorRef): Unit = {
-    usedPermits -= 1
+  private def pendingCount: Int = pendingBuffer.size + priorityBuffer.size
+
+  private def onReturnRecoveryPermit(ref: ActorRef, failure: Boolean): Unit = {
+    usedPermits -= heldPermits.getOrElse(ref, 1)
+    heldPermits -= ref
+    grantedAt.get(ref).foreach { startNanos =>
+      completed += 1
+      if (failure) failed += 1
+      totalRecoveryNanos += System.nanoTime() - startNanos
+      grantedAt -= ref
+    }
     context.unwatch(ref)
     if (usedPermits < 0) throw new IllegalStateException(s"permits must not be negative (returned by: $ref)")
-    if (!pendingBuffer.isEmpty) {
-      val ref = pendingBuffer.head()._2
-      pendingBuffer.dropHead()
-      recoveryPermitGranted(ref)
-    }
-    if (pendingBuffer.isEmpty && maxPendingStats > 0) {
+    grantPending()
+    if (pendingCount == 0 && maxPendingStats > 0) {
       log.debug(
         "Drained pending recovery permit requests, max in progress was [{}], still [{}] in progress",
         usedPermits + maxPendingStats,
@@ -93,9 +209,61 @@ import pekko.util.MessageBuffer
     }
   }
 
-  private def recoveryPermitGranted(ref: ActorRef): Unit = {
-    usedPermits += 1
+  private def grantPending(): Unit = {
+    def grantHead(buffer: MessageBuffer): Boolean =
+      !buffer.isEmpty && usedPermits + permits(buffer.head()._1) <= limit && {
+        val (request, ref) = buffer.head()
+        buffer.dropHead()
+        recoveryPermitGranted(ref, permits(request))
+        true
+      }
+    // the pending requests without commands don't overtake the ones with commands
+    while (grantHead(priorityBuffer) || (priorityBuffer.isEmpty && grantHead(pendingBuffer))) ()
+  }
+
+  // a request for more permits than the limit counts as all of them
+  private def permits(request: Any): Int = request match {
+    case RequestRecoveryPermits(n) => math.min(math.max(n, 1), limit)
+    case _                         => 1
+  }
+
+  private def recoveryPermitGranted(ref: ActorRef, permits: Int): Unit = {
+    usedPermits += permits
+    if (permits > 1) heldPermits = heldPermits.updated(ref, permits)
+    if (adaptiveLimit.isDefined) grantedAt = grantedAt.updated(ref, System.nanoTime())
     ref ! RecoveryPermitGranted
   }
 
+  private def adjustLimit(): Unit = adaptiveLimit.foreach { a =>
+    val targetNanos = a.targetRecoveryTime.toNanos
+    val meanRecoveryNanos = if (completed == 0) 0L else totalRecoveryNanos / completed
+    // a journal that doesn't respond completes no recoveries, the ones that take longer than the target tell
+    val stalled = completed == 0 && {
+      val now = System.nanoTime()
+      grantedAt.valuesIterator.exists(now - _ > targetNanos)
+    }
+    val newLimit =
+      if (failed > 0 || meanRecoveryNanos > targetNanos || stalled) math.max((limit * a.decreaseFactor).toInt, minLimit)
+      else if (limitReached) math.min(limit + a.increase, maxPermits)
+      else limit
+
+    if (newLimit != limit)
+      log.debug(
+        "Adjusted max-concurrent-recoveries from [{}] to [{}], recoveries took [{} ms] on average, [{}] failed",
+        limit,
+        newLimit,
+        meanRecoveryNanos / 1000000,
+        failed)
+    if (completed > 0 || usedPermits > 0 || pendingCount > 0 || newLimit != limit)
+      context.system.eventStream.publish(
+        RecoveryPermitStatistics(newLimit, usedPermits, pendingCount, completed, failed, meanRecoveryNanos.nanos))
+
+    limit = newLimit
+    completed = 0
+    failed = 0
+    totalRecoveryNanos = 0L
+    limitReached = pendingCount > 0
+    grantPending()
+  }
+
 }
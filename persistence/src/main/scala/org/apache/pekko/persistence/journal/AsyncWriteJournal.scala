@@ -70,82 +70,150 @@ trait AsyncWriteJournal extends Actor with WriteJournalBase with AsyncRecovery {
     val eventStream = context.system.eventStream // used from Future callbacks
     implicit val ec: ExecutionContext = context.dispatcher
 
+    // coalescing of the writes of many persistent actors into one asyncWriteMessages call,
+    // the state is kept here rather than in the trait due to binary compatibility
+    val coalescingConfig = config.getConfig("write-coalescing")
+    val coalesceWrites = coalescingConfig.getBoolean("enabled")
+    val coalescingMaxLatency = coalescingConfig.getDuration("max-latency", NANOSECONDS).nanos
+    val coalescingMaxEvents = coalescingConfig.getInt("max-events")
+    var coalesced = Vector.empty[CoalescedWrite]
+    var coalescedEvents = 0
+    var coalescingGeneration = 0L
+
+    def writeToPlugin(prepared: immutable.Seq[AtomicWrite]): Future[immutable.Seq[Try[Unit]]] = {
+      // try in case the asyncWriteMessages throws
+      val writeResult =
+        try breaker.withCircuitBreaker(asyncWriteMessages(prepared))
+        catch { case NonFatal(e) => Future.failed(e) }
+      writeResult.map { results =>
+        if (results.nonEmpty && results.size != prepared.size)
+          throw new IllegalStateException(
+            "asyncWriteMessages returned invalid number of results. " +
+            s"Expected [${prepared.size}], but got [${results.size}]")
+        results
+      }
+    }
+
+    def sendWriteResults(
+        messages: immutable.Seq[PersistentEnvelope],
+        persistentActor: ActorRef,
+        actorInstanceId: Int,
+        cctr: Long,
+        atomicWriteCount: Int,
+        writeResult: Try[immutable.Seq[Try[Unit]]]): Unit =
+      writeResult match {
+        case Success(results) =>
+          resequencer ! Desequenced(WriteMessagesSuccessful, cctr, persistentActor, self)
+
+          val resultsIter =
+            if (results.isEmpty) Iterator.fill(atomicWriteCount)(AsyncWriteJournal.successUnit)
+            else results.iterator
+          var n = cctr + 1
+          messages.foreach {
+            case a: AtomicWrite =>
+              resultsIter.next() match {
+                case Success(_) =>
+                  a.payload.foreach { p =>
+                    resequencer ! Desequenced(WriteMessageSuccess(p, actorInstanceId), n, persistentActor, p.sender)
+                    n += 1
+                  }
+                case Failure(e) =>
+                  a.payload.foreach { p =>
+                    resequencer ! Desequenced(
+                      WriteMessageRejected(p, e, actorInstanceId),
+                      n,
+                      persistentActor,
+                      p.sender)
+                    n += 1
+                  }
+              }
+
+            case r: NonPersistentRepr =>
+              resequencer ! Desequenced(LoopMessageSuccess(r.payload, actorInstanceId), n, persistentActor, r.sender)
+              n += 1
+          }
+
+        case Failure(e) =>
+          resequencer ! Desequenced(WriteMessagesFailed(e, atomicWriteCount), cctr, persistentActor, self)
+          var n = cctr + 1
+          messages.foreach {
+            case a: AtomicWrite =>
+              a.payload.foreach { p =>
+                resequencer ! Desequenced(WriteMessageFailure(p, e, actorInstanceId), n, persistentActor, p.sender)
+                n += 1
+              }
+            case r: NonPersistentRepr =>
+              resequencer ! Desequenced(LoopMessageSuccess(r.payload, actorInstanceId), n, persistentActor, r.sender)
+              n += 1
+          }
+      }
+
+    def coalesce(write: CoalescedWrite): Unit = {
+      if (coalesced.isEmpty) {
+        val flush = FlushCoalescedWrites(coalescingGeneration)
+        if (coalescingMaxLatency == Duration.Zero) self ! flush
+        else context.system.scheduler.scheduleOnce(coalescingMaxLatency, self, flush)
+      }
+      coalesced :+= write
+      coalescedEvents += write.prepared.foldLeft(0)(_ + _.size)
+      if (coalescedEvents >= coalescingMaxEvents) flushCoalesced()
+    }
+
+    def flushCoalesced(): Unit = {
+      val writes = coalesced
+      coalesced = Vector.empty
+      coalescedEvents = 0
+      coalescingGeneration += 1
+      writeToPlugin(writes.flatMap(_.prepared)).onComplete { writeResult =>
+        // fan the results of the coalesced writes back out to the persistent actors they came from
+        var offset = 0
+        writes.foreach { w =>
+          val count = w.prepared.size
+          val results = writeResult.map(rs => if (rs.isEmpty) rs else rs.slice(offset, offset + count))
+          sendWriteResults(w.messages, w.persistentActor, w.actorInstanceId, w.cctr, count, results)
+          offset += count
+        }
+      }
+    }
+
+    // a replay or deletion must not overtake the writes of the persistent actor that are still being coalesced
+    def flushCoalescedWritesOf(persistenceId: String): Unit =
+      if (coalesced.exists(_.prepared.exists(_.persistenceId == persistenceId))) flushCoalesced()
+
     {
       case WriteMessages(messages, persistentActor, actorInstanceId) =>
         val cctr = resequencerCounter
         resequencerCounter += messages.foldLeft(1)((acc, m) => acc + m.size)
 
         val atomicWriteCount = messages.count(_.isInstanceOf[AtomicWrite])
-        val prepared = Try(preparePersistentBatch(messages))
-        val writeResult = (prepared match {
+        Try(preparePersistentBatch(messages)) match {
           case Success(prep) if prep.isEmpty =>
             // prep is empty when all messages are instances of NonPersistentRepr (used for defer) in that case,
             // we continue right away without calling the journal plugin (most plugins fail calling head on empty Seq).
             // Ordering of the replies is handled by Resequencer
-            Future.successful(Nil)
+            sendWriteResults(messages, persistentActor, actorInstanceId, cctr, atomicWriteCount, Success(Nil))
+          case Success(prep) if coalesceWrites =>
+            coalesce(CoalescedWrite(messages, persistentActor, actorInstanceId, cctr, prep))
           case Success(prep) =>
-            // try in case the asyncWriteMessages throws
-            try breaker.withCircuitBreaker(asyncWriteMessages(prep))
-            catch { case NonFatal(e) => Future.failed(e) }
-          case f @ Failure(_) =>
+            writeToPlugin(prep).onComplete(
+              sendWriteResults(messages, persistentActor, actorInstanceId, cctr, atomicWriteCount, _))
+          case Failure(e) =>
             // exception from preparePersistentBatch => rejected
-            Future.successful(messages.collect { case _: AtomicWrite => f })
-        }).map { results =>
-          if (results.nonEmpty && results.size != atomicWriteCount)
-            throw new IllegalStateException(
-              "asyncWriteMessages returned invalid number of results. " +
-              s"Expected [${prepared.get.size}], but got [${results.size}]")
-          results
+            sendWriteResults(
+              messages,
+              persistentActor,
+              actorInstanceId,
+              cctr,
+              atomicWriteCount,
+              Success(messages.collect { case _: AtomicWrite => Failure(e) }))
         }
 
-        writeResult.onComplete {
-          case Success(results) =>
-            resequencer ! Desequenced(WriteMessagesSuccessful, cctr, persistentActor, self)
-
-            val resultsIter =
-              if (results.isEmpty) Iterator.fill(atomicWriteCount)(AsyncWriteJournal.successUnit)
-              else results.iterator
-            var n = cctr + 1
-            messages.foreach {
-              case a: AtomicWrite =>
-                resultsIter.next() match {
-                  case Success(_) =>
-                    a.payload.foreach { p =>
-                      resequencer ! Desequenced(WriteMessageSuccess(p, actorInstanceId), n, persistentActor, p.sender)
-                      n += 1
-                    }
-                  case Failure(e) =>
-                    a.payload.foreach { p =>
-                      resequencer ! Desequenced(
-                        WriteMessageRejected(p, e, actorInstanceId),
-                        n,
-                        persistentActor,
-                        p.sender)
-                      n += 1
-                    }
-                }
-
-              case r: NonPersistentRepr =>
-                resequencer ! Desequenced(LoopMessageSuccess(r.payload, actorInstanceId), n, persistentActor, r.sender)
-                n += 1
-            }
-
-          case Failure(e) =>
-            resequencer ! Desequenced(WriteMessagesFailed(e, atomicWriteCount), cctr, persistentActor, self)
-            var n = cctr + 1
-            messages.foreach {
-              case a: AtomicWrite =>
-                a.payload.foreach { p =>
-                  resequencer ! Desequenced(WriteMessageFailure(p, e, actorInstanceId), n, persistentActor, p.sender)
-                  n += 1
-                }
-              case r: NonPersistentRepr =>
-                resequencer ! Desequenced(LoopMessageSuccess(r.payload, actorInstanceId), n, persistentActor, r.sender)
-                n += 1
-            }
-        }
+      case FlushCoalescedWrites(generation) =>
+        // a flush of writes that were already flushed because they reached max-events is ignored
+        if (generation == coalescingGeneration && coalesced.nonEmpty) flushCoalesced()
 
       case r @ ReplayMessages(fromSequenceNr, toSequenceNr, max, persistenceId, persistentActor) =>
+        flushCoalescedWritesOf(persistenceId)
         val replyTo =
           if (isReplayFilterEnabled)
             context.actorOf(
@@ -193,6 +261,7 @@ trait AsyncWriteJournal extends Actor with WriteJournalBase with AsyncRecovery {
           }
 
       case d @ DeleteMessagesTo(persistenceId, toSequenceNr, persistentActor) =>
+        flushCoalescedWritesOf(persistenceId)
         breaker
           .withCircuitBreaker(asyncDeleteMessagesTo(persistenceId, toSequenceNr))
           .map { _ =>
@@ -308,6 +377,15 @@ private[persistence] object AsyncWriteJournal {
   final case class Desequenced(msg: Any, snr: Long, target: ActorRef, sender: ActorRef)
       extends NoSerializationVerificationNeeded
 
+  final case class CoalescedWrite(
+      messages: immutable.Seq[PersistentEnvelope],
+      persistentActor: ActorRef,
+      actorInstanceId: Int,
+      cctr: Long,
+      prepared: immutable.Seq[AtomicWrite])
+
+  final case class FlushCoalescedWrites(generation: Long) extends NoSerializationVerificationNeeded
+
   class Resequencer extends Actor {
     import scala.collection.mutable.Map
 
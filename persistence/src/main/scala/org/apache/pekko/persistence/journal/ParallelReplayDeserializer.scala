@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.persistence.journal
+
+import java.util.ArrayDeque
+import java.util.concurrent.{ CountDownLatch, TimeUnit, TimeoutException }
+
+import scala.collection.immutable
+import scala.concurrent.ExecutionContext
+import scala.concurrent.duration._
+import scala.util.Try
+
+import com.typesafe.config.Config
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.util.JavaDurationConverters._
+
+/**
+ * INTERNAL API
+ *
+ * Deserializes the events of a replay ahead of the replay callback. The serialized events are added in order by the
+ * replaying thread and deserialized in batches of `lookahead / parallelism` events, with at most `parallelism`
+ * batches in flight on the `executionContext`. The deserialized events are passed to the callback in order, on the
+ * replaying thread. With a `parallelism` of 1 each event is deserialized and passed on when it is added.
+ *
+ * The replaying thread waits for the batches, so the `executionContext` must not be the one the replay runs on,
+ * which could run out of threads for the batches. The wait uses a latch rather than `Await` so that a fork-join
+ * replay dispatcher does not start compensating threads, and is bounded by the `timeout` of the settings.
+ *
+ * Not thread-safe, one instance is used by one replay.
+ */
+@InternalApi private[persistence] final class ParallelReplayDeserializer[A, B](
+    settings: ParallelReplayDeserializer.Settings,
+    deserialize: A => B,
+    callback: B => Unit)(implicit executionContext: ExecutionContext) {
+
+  private val batchSize = math.max(settings.lookahead / settings.parallelism, 1)
+  private var batch = new immutable.VectorBuilder[A]
+  private var batchCount = 0
+  private val inFlight = new ArrayDeque[Batch]
+
+  private final class Batch(events: immutable.Seq[A]) extends Runnable {
+    private val done = new CountDownLatch(1)
+    @volatile private var result: Try[immutable.Seq[B]] = _
+
+    override def run(): Unit = {
+      result = Try(events.map(deserialize))
+      done.countDown()
+    }
+
+    def await(): immutable.Seq[B] = {
+      if (!done.await(settings.timeout.toNanos, TimeUnit.NANOSECONDS))
+        throw new TimeoutException(s"Deserialization of replayed events did not complete within ${settings.timeout}")
+      result.get
+    }
+  }
+
+  def add(serialized: A): Unit =
+    if (settings.parallelism == 1) callback(deserialize(serialized))
+    else {
+      batch += serialized
+      batchCount += 1
+      if (batchCount == batchSize) submit()
+    }
+
+  /**
+   * Passes the events that are still deserialized to the callback, to be called after the last event was added.
+   * Throws the exception of the first failed deserialization, or a `TimeoutException` if a batch was not
+   * deserialized within the timeout.
+   */
+  def complete(): Unit = {
+    if (batchCount > 0) submit()
+    while (!inFlight.isEmpty) deliver()
+  }
+
+  private def submit(): Unit = {
+    if (inFlight.size >= settings.parallelism) deliver()
+    val next = new Batch(batch.result())
+    batch = new immutable.VectorBuilder[A]
+    batchCount = 0
+    inFlight.add(next)
+    executionContext.execute(next)
+  }
+
+  private def deliver(): Unit =
+    inFlight.poll().await().foreach(callback)
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi private[persistence] object ParallelReplayDeserializer {
+
+  final case class Settings(
+      parallelism: Int,
+      lookahead: Int,
+      timeout: FiniteDuration = DefaultTimeout,
+      dispatcher: String = DefaultDispatcher) {
+    require(parallelism > 0, "replay-deserialization.parallelism must be > 0")
+    require(lookahead > 0, "replay-deserialization.lookahead must be > 0")
+  }
+
+  val DefaultTimeout: FiniteDuration = 30.seconds
+  val DefaultDispatcher = "pekko.persistence.dispatchers.default-replay-deserialization-dispatcher"
+
+  val Sequential = Settings(parallelism = 1, lookahead = 1)
+
+  /**
+   * The `replay-deserialization` settings of a journal plugin config, sequential if it does not define them.
+   * A batch is awaited for at most the `recovery-event-timeout` of the journal.
+   */
+  def settings(journalConfig: Config): Settings =
+    if (journalConfig.hasPath("replay-deserialization")) {
+      val config = journalConfig.getConfig("replay-deserialization")
+      val timeout =
+        if (journalConfig.hasPath("recovery-event-timeout")) journalConfig.getDuration("recovery-event-timeout").asScala
+        else DefaultTimeout
+      val dispatcher = if (config.hasPath("dispatcher")) config.getString("dispatcher") else DefaultDispatcher
+      Settings(config.getInt("parallelism"), config.getInt("lookahead"), timeout, dispatcher)
+    } else Sequential
+}
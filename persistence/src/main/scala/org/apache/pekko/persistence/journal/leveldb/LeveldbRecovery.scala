@@ -19,7 +19,7 @@ import org.iq80.leveldb.DBIterator
 
 import org.apache.pekko
 import pekko.persistence._
-import pekko.persistence.journal.AsyncRecovery
+import pekko.persistence.journal.{ AsyncRecovery, ParallelReplayDeserializer }
 import pekko.persistence.journal.leveldb.LeveldbJournal.ReplayedTaggedMessage
 
 /**
@@ -32,6 +32,9 @@ private[persistence] trait LeveldbRecovery extends AsyncRecovery { this: Leveldb
 
   private lazy val replayDispatcherId = config.getString("replay-dispatcher")
   private lazy val replayDispatcher = context.system.dispatchers.lookup(replayDispatcherId)
+  private lazy val replayDeserialization = ParallelReplayDeserializer.settings(config)
+  private lazy val replayDeserializationDispatcher =
+    context.system.dispatchers.lookup(replayDeserialization.dispatcher)
 
   def asyncReadHighestSequenceNr(persistenceId: String, fromSequenceNr: Long): Future[Long] = {
     val nid = numericId(persistenceId)
@@ -46,8 +49,13 @@ private[persistence] trait LeveldbRecovery extends AsyncRecovery { this: Leveldb
 
   def replayMessages(persistenceId: Int, fromSequenceNr: Long, toSequenceNr: Long, max: Long)(
       replayCallback: PersistentRepr => Unit): Unit = {
+    val deserializer = new ParallelReplayDeserializer[Array[Byte], PersistentRepr](
+      replayDeserialization,
+      persistentFromBytes,
+      replayCallback)(replayDeserializationDispatcher)
+
     @scala.annotation.tailrec
-    def go(iter: DBIterator, key: Key, ctr: Long, replayCallback: PersistentRepr => Unit): Unit = {
+    def go(iter: DBIterator, key: Key, ctr: Long): Unit = {
       if (iter.hasNext) {
         val nextEntry = iter.next()
         val nextKey = keyFromBytes(nextEntry.getKey)
@@ -55,13 +63,12 @@ private[persistence] trait LeveldbRecovery extends AsyncRecovery { this: Leveldb
           // end iteration here
         } else if (isDeletionKey(nextKey)) {
           // this case is needed to discard old events with deletion marker
-          go(iter, nextKey, ctr, replayCallback)
+          go(iter, nextKey, ctr)
         } else if (key.persistenceId == nextKey.persistenceId) {
-          val msg = persistentFromBytes(nextEntry.getValue)
           val del = deletion(iter, nextKey)
           if (ctr < max) {
-            if (!del) replayCallback(msg)
-            go(iter, nextKey, ctr + 1L, replayCallback)
+            if (!del) deserializer.add(nextEntry.getValue)
+            go(iter, nextKey, ctr + 1L)
           }
         }
       }
@@ -84,7 +91,8 @@ private[persistence] trait LeveldbRecovery extends AsyncRecovery { this: Leveldb
     withIterator { iter =>
       val startKey = Key(persistenceId, if (fromSequenceNr < 1L) 1L else fromSequenceNr, 0)
       iter.seek(keyToBytes(startKey))
-      go(iter, startKey, 0L, replayCallback)
+      go(iter, startKey, 0L)
+      deserializer.complete()
     }
   }
 
@@ -0,0 +1,277 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.persistence.journal.segment
+
+import java.io.File
+import java.nio.{ ByteBuffer, MappedByteBuffer }
+import java.nio.channels.FileChannel
+import java.nio.file.StandardOpenOption
+import java.util.zip.CRC32
+
+import scala.collection.immutable
+
+import org.apache.pekko.util.ByteString.UTF_8
+
+/**
+ * INTERNAL API.
+ *
+ * An append-only segment file of the [[SegmentJournal]], memory-mapped as a whole. It is written by the journal
+ * actor only, replays on other threads read the records up to the [[writtenTo]] position they have seen.
+ *
+ * A record is the length of its body, the CRC32 of its body and the body:
+ *
+ * {{{
+ * type (byte) | persistenceId length (short) | persistenceId (UTF-8) | sequence nr 1 (long) | sequence nr 2 (long)
+ * }}}
+ *
+ * followed for an events record, the events of one `AtomicWrite` with the sequence numbers 1 to 2, by the
+ * number of events (int) and the length (int) and serialized `PersistentRepr` of each event. A deletion record
+ * holds the sequence number the events of the persistenceId are deleted to and its highest sequence number.
+ * The unwritten rest of a segment is zeros, a length of 0 marks the end of the records.
+ */
+private[segment] final class Segment(val id: Long, val file: File, buffer: MappedByteBuffer) {
+  import Segment._
+
+  @volatile private var _writtenTo = 0
+
+  def writtenTo: Int = _writtenTo
+
+  def capacity: Int = buffer.capacity
+
+  def remaining: Int = capacity - _writtenTo
+
+  /**
+   * Appends the record and returns its position.
+   */
+  def append(record: ByteBuffer): Int = {
+    val position = _writtenTo
+    val target = buffer.duplicate()
+    target.position(position)
+    target.put(record)
+    _writtenTo = target.position()
+    position
+  }
+
+  /**
+   * Forces the written records to the storage device.
+   */
+  def force(): Unit = buffer.force()
+
+  /**
+   * A cursor over the records from `position` up to `end`.
+   */
+  def cursor(position: Int, end: Int): RecordCursor = {
+    val view = buffer.asReadOnlyBuffer()
+    view.limit(end)
+    new RecordCursor(view, position)
+  }
+
+  /**
+   * Verifies the records of a segment that was written before and continues appending after the last valid
+   * one. The rest of the segment is zeroed if a torn record follows it, so that it can not be mistaken for a
+   * record once it is partly overwritten.
+   */
+  def recover(onRecord: RecordCursor => Unit): Int = {
+    val records = cursor(0, capacity)
+    while (records.next(verify = true)) onRecord(records)
+    val end = records.nextPosition
+    if (end + 4 <= capacity && buffer.getInt(end) != 0) {
+      val zeros = new Array[Byte](math.min(64 * 1024, capacity - end))
+      val target = buffer.duplicate()
+      target.position(end)
+      while (target.hasRemaining) target.put(zeros, 0, math.min(zeros.length, target.remaining))
+    }
+    _writtenTo = end
+    end
+  }
+}
+
+/**
+ * INTERNAL API.
+ */
+private[segment] object Segment {
+  final val HeaderSize = 8
+
+  final val EventsRecord: Byte = 1
+  final val DeletionRecord: Byte = 2
+
+  private val FileNamePattern = """^(\d{20})\.segment$""".r
+
+  def fileName(id: Long): String = f"$id%020d.segment"
+
+  /**
+   * The ids of the segment files in the directory, in order.
+   */
+  def segmentIds(dir: File): immutable.Seq[Long] = {
+    val names = Option(dir.list()).fold(immutable.Seq.empty[String])(_.toList)
+    names.collect { case FileNamePattern(id) => id.toLong }.sorted
+  }
+
+  /**
+   * Opens the segment with the id, mapping an existing file with its size or creating it with `size` bytes.
+   */
+  def open(dir: File, id: Long, size: Int): Segment = {
+    val file = new File(dir, fileName(id))
+    val channel =
+      FileChannel.open(file.toPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)
+    try {
+      val mappedSize = if (channel.size > 0) math.min(channel.size, Int.MaxValue).toInt else size
+      new Segment(id, file, channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize))
+    } finally channel.close()
+  }
+
+  def eventsRecord(
+      persistenceId: Array[Byte],
+      fromSequenceNr: Long,
+      toSequenceNr: Long,
+      events: immutable.Seq[Array[Byte]]): ByteBuffer = {
+    val bodySize = bodyHeaderSize(persistenceId) + 4 + events.foldLeft(0L)(_ + 4 + _.length)
+    val record = allocate(persistenceId, EventsRecord, fromSequenceNr, toSequenceNr, bodySize)
+    record.putInt(events.size)
+    events.foreach { event =>
+      record.putInt(event.length)
+      record.put(event)
+    }
+    seal(record)
+  }
+
+  def deletionRecord(persistenceId: Array[Byte], deletedTo: Long, highestSequenceNr: Long): ByteBuffer =
+    seal(allocate(persistenceId, DeletionRecord, deletedTo, highestSequenceNr, bodyHeaderSize(persistenceId)))
+
+  def persistenceIdBytes(persistenceId: String): Array[Byte] = {
+    val bytes = persistenceId.getBytes(UTF_8)
+    require(bytes.length <= Short.MaxValue, s"persistenceId must be at most ${Short.MaxValue} bytes as UTF-8")
+    bytes
+  }
+
+  private def bodyHeaderSize(persistenceId: Array[Byte]): Int = 1 + 2 + persistenceId.length + 8 + 8
+
+  private def allocate(
+      persistenceId: Array[Byte],
+      recordType: Byte,
+      sequenceNr1: Long,
+      sequenceNr2: Long,
+      bodySize: Long): ByteBuffer = {
+    require(bodySize <= Int.MaxValue - HeaderSize, s"Record of [$bodySize] bytes is too large")
+    val record = ByteBuffer.allocate(HeaderSize + bodySize.toInt)
+    record.putInt(bodySize.toInt)
+    record.putInt(0) // the CRC32, filled in by seal
+    record.put(recordType)
+    record.putShort(persistenceId.length.toShort)
+    record.put(persistenceId)
+    record.putLong(sequenceNr1)
+    record.putLong(sequenceNr2)
+    record
+  }
+
+  private def seal(record: ByteBuffer): ByteBuffer = {
+    record.flip()
+    record.putInt(4, checksum(record, HeaderSize, record.limit()))
+    record
+  }
+
+  private def checksum(buffer: ByteBuffer, from: Int, until: Int): Int = {
+    val crc = new CRC32
+    val body = buffer.duplicate()
+    body.limit(until)
+    body.position(from)
+    crc.update(body)
+    crc.getValue.toInt
+  }
+
+  /**
+   * INTERNAL API.
+   *
+   * Reads the records of a segment one after the other, not thread-safe.
+   */
+  final class RecordCursor private[Segment] (buffer: ByteBuffer, private var position: Int) {
+    private var recordPosition = -1
+    private var bodyEnd = 0
+    private var _recordType: Byte = 0
+    private var persistenceIdLength = 0
+    private var _sequenceNr1 = 0L
+    private var _sequenceNr2 = 0L
+
+    /**
+     * Moves to the next record, returns `false` at the end of the records or at a record that is not complete.
+     */
+    def next(verify: Boolean): Boolean = {
+      val limit = buffer.limit()
+      if (position + HeaderSize > limit) false
+      else {
+        val length = buffer.getInt(position)
+        val bodyStart = position + HeaderSize
+        if (length < 1 + 2 + 8 + 8 || length > limit - bodyStart) false
+        else if (verify && checksum(buffer, bodyStart, bodyStart + length) != buffer.getInt(position + 4)) false
+        else if (buffer.getShort(bodyStart + 1) < 0 || 19 + buffer.getShort(bodyStart + 1) > length) false
+        else {
+          recordPosition = position
+          bodyEnd = bodyStart + length
+          _recordType = buffer.get(bodyStart)
+          persistenceIdLength = buffer.getShort(bodyStart + 1)
+          _sequenceNr1 = buffer.getLong(bodyStart + 3 + persistenceIdLength)
+          _sequenceNr2 = buffer.getLong(bodyStart + 11 + persistenceIdLength)
+          position = bodyEnd
+          true
+        }
+      }
+    }
+
+    /**
+     * The position of the current record.
+     */
+    def currentPosition: Int = recordPosition
+
+    /**
+     * The position after the current record.
+     */
+    def nextPosition: Int = position
+
+    def recordType: Byte = _recordType
+
+    def sequenceNr1: Long = _sequenceNr1
+
+    def sequenceNr2: Long = _sequenceNr2
+
+    def persistenceId: String = new String(persistenceIdArray, UTF_8)
+
+    def hasPersistenceId(persistenceId: Array[Byte]): Boolean =
+      persistenceId.length == persistenceIdLength && {
+        val start = recordPosition + HeaderSize + 3
+        var i = 0
+        while (i < persistenceIdLength && buffer.get(start + i) == persistenceId(i)) i += 1
+        i == persistenceIdLength
+      }
+
+    /**
+     * The serialized events of an events record.
+     */
+    def foreachEvent(f: Array[Byte] => Unit): Unit = {
+      val view = buffer.duplicate()
+      view.limit(bodyEnd)
+      view.position(recordPosition + HeaderSize + 19 + persistenceIdLength)
+      var remaining = view.getInt()
+      while (remaining > 0) {
+        val event = new Array[Byte](view.getInt())
+        view.get(event)
+        f(event)
+        remaining -= 1
+      }
+    }
+
+    private def persistenceIdArray: Array[Byte] = {
+      val bytes = new Array[Byte](persistenceIdLength)
+      val view = buffer.duplicate()
+      view.position(recordPosition + HeaderSize + 3)
+      view.get(bytes)
+      bytes
+    }
+  }
+}
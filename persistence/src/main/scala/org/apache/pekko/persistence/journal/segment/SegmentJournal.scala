@@ -0,0 +1,349 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.persistence.journal.segment
+
+import java.io.File
+import java.nio.ByteBuffer
+
+import scala.collection.immutable
+import scala.concurrent.{ Future, Promise }
+import scala.util.{ Failure, Success, Try }
+import scala.util.control.NonFatal
+
+import com.typesafe.config.Config
+
+import org.apache.pekko
+import pekko.Done
+import pekko.actor.{ ActorLogging, NoSerializationVerificationNeeded }
+import pekko.dispatch.ExecutionContexts
+import pekko.persistence.{ AtomicWrite, PersistentRepr }
+import pekko.persistence.journal.{ AsyncWriteJournal, ParallelReplayDeserializer, Tagged }
+import pekko.serialization.SerializationExtension
+import pekko.util.Helpers.{ toRootLowerCase, Requiring }
+
+/**
+ * INTERNAL API.
+ *
+ * Journal that appends the events to memory-mapped segment files. The writes of the batches that arrive while
+ * one is written are forced to the storage device together (group commit), a sparse index of the positions of
+ * the events of each persistenceId is kept in memory for replays and segments that only hold deleted events are
+ * removed.
+ */
+private[persistence] class SegmentJournal(config: Config) extends AsyncWriteJournal with ActorLogging {
+  import SegmentJournal._
+
+  private val dir = new File(config.getString("dir"))
+  private val segmentSize = config
+    .getBytes("segment-size")
+    .longValue
+    .requiring(size => size >= 4096 && size <= Int.MaxValue, "segment-size must be between 4 KiB and 2 GiB")
+    .toInt
+  private val fsync: FsyncPolicy = toRootLowerCase(config.getString("fsync")) match {
+    case "on"    => FsyncEveryWrite
+    case "group" => FsyncGroup
+    case "off"   => FsyncOff
+    case other   => throw new IllegalArgumentException(s"fsync must be 'on', 'group' or 'off', was [$other]")
+  }
+  private val indexInterval = config.getInt("index-interval").requiring(_ > 0, "index-interval must be > 0")
+  private val replayDispatcher = context.system.dispatchers.lookup(config.getString("replay-dispatcher"))
+  private val replayDeserialization = ParallelReplayDeserializer.settings(config)
+  private val replayDeserializationDispatcher = context.system.dispatchers.lookup(replayDeserialization.dispatcher)
+
+  private val serialization = SerializationExtension(context.system)
+
+  // replaced by the journal actor and read by replays on other threads, the index after the segments
+  @volatile private var segments = immutable.SortedMap.empty[Long, Segment]
+  @volatile private var index = Map.empty[String, PersistenceIdIndex]
+
+  private var active: Segment = _
+  // segment id -> persistenceId -> highest sequence number of its events in the segment, 0 for deletions only
+  private var segmentContents = Map.empty[Long, Map[String, Long]]
+  // completed by the Sync of the current group commit
+  private var groupCommit: Promise[Done] = _
+
+  override def preStart(): Unit = {
+    super.preStart()
+    dir.mkdirs()
+    Segment.segmentIds(dir).foreach { id =>
+      val segment = Segment.open(dir, id, segmentSize)
+      segments += id -> segment
+      segmentContents += id -> Map.empty
+      val end = segment.recover { record =>
+        val persistenceId = record.persistenceId
+        if (record.recordType == Segment.EventsRecord)
+          indexEvents(persistenceId, record.sequenceNr1, record.sequenceNr2, id, record.currentPosition)
+        else if (record.recordType == Segment.DeletionRecord)
+          indexDeletion(persistenceId, record.sequenceNr1, record.sequenceNr2, id)
+      }
+      log.debug("Recovered segment [{}] up to position [{}]", segment.file, end)
+      active = segment
+    }
+    if (active eq null) roll()
+  }
+
+  override def postStop(): Unit = {
+    if (active ne null) {
+      if (fsync != FsyncOff) active.force()
+      if (groupCommit ne null) groupCommit.trySuccess(Done)
+    }
+    super.postStop()
+  }
+
+  override def receivePluginInternal: Receive = {
+    case Sync =>
+      val commit = groupCommit
+      groupCommit = null
+      try {
+        active.force()
+        commit.success(Done)
+      } catch {
+        case NonFatal(e) => commit.failure(e)
+      }
+  }
+
+  override def asyncWriteMessages(messages: immutable.Seq[AtomicWrite]): Future[immutable.Seq[Try[Unit]]] =
+    try {
+      val results = messages.map { write =>
+        encode(write) match {
+          case Success(record) =>
+            val position = append(record)
+            indexEvents(write.persistenceId, write.lowestSequenceNr, write.highestSequenceNr, active.id, position)
+            Success(())
+          case Failure(e) => Failure(e)
+        }
+      }
+      synced(results)
+    } catch {
+      case NonFatal(e) => Future.failed(e)
+    }
+
+  override def asyncDeleteMessagesTo(persistenceId: String, toSequenceNr: Long): Future[Unit] =
+    try {
+      val idx = index.getOrElse(persistenceId, PersistenceIdIndex.empty)
+      val deletedTo = math.max(idx.deletedTo, math.min(toSequenceNr, idx.highestSequenceNr))
+      if (deletedTo > idx.deletedTo) {
+        appendDeletion(persistenceId, deletedTo, idx.highestSequenceNr)
+        compact()
+      }
+      synced(())
+    } catch {
+      case NonFatal(e) => Future.failed(e)
+    }
+
+  override def asyncReadHighestSequenceNr(persistenceId: String, fromSequenceNr: Long): Future[Long] =
+    Future.successful(index.get(persistenceId).fold(0L)(_.highestSequenceNr))
+
+  override def asyncReplayMessages(persistenceId: String, fromSequenceNr: Long, toSequenceNr: Long, max: Long)(
+      recoveryCallback: PersistentRepr => Unit): Future[Unit] = {
+    // the index first, the segments it refers to were published before it
+    val idx = index.get(persistenceId)
+    val currentSegments = segments
+    idx match {
+      case Some(i) if max > 0 =>
+        Future(replay(persistenceId, i, currentSegments, fromSequenceNr, toSequenceNr, max, recoveryCallback))(
+          replayDispatcher)
+      case _ => Future.successful(())
+    }
+  }
+
+  private def replay(
+      persistenceId: String,
+      idx: PersistenceIdIndex,
+      segments: immutable.SortedMap[Long, Segment],
+      fromSequenceNr: Long,
+      toSequenceNr: Long,
+      max: Long,
+      recoveryCallback: PersistentRepr => Unit): Unit = {
+    val from = math.max(fromSequenceNr, idx.deletedTo + 1)
+    val to = math.min(toSequenceNr, idx.highestSequenceNr)
+    val persistenceIdBytes = Segment.persistenceIdBytes(persistenceId)
+    val deserializer = new ParallelReplayDeserializer[Array[Byte], PersistentRepr](
+      replayDeserialization,
+      serialization.deserialize(_, classOf[PersistentRepr]).get,
+      recoveryCallback)(replayDeserializationDispatcher)
+    // start at the last index entry at or before the first event to replay and scan each segment it is in once
+    var entries = idx.entries.drop(math.max(idx.entries.lastIndexWhere(_.sequenceNr <= from), 0))
+    var count = 0L
+    var scannedSegment = -1L
+    while (entries.nonEmpty && count < max && entries.head.sequenceNr <= to) {
+      val entry = entries.head
+      if (entry.segmentId != scannedSegment) {
+        scannedSegment = entry.segmentId
+        segments.get(entry.segmentId).foreach { segment =>
+          val records = segment.cursor(entry.position, segment.writtenTo)
+          var done = false
+          while (!done && count < max && records.next(verify = false)) {
+            if (records.recordType == Segment.EventsRecord && records.hasPersistenceId(persistenceIdBytes)) {
+              if (records.sequenceNr1 > to) done = true
+              else if (records.sequenceNr2 >= from) {
+                // the events of a record have the sequence numbers 1 to 2
+                var sequenceNr = records.sequenceNr1
+                records.foreachEvent { bytes =>
+                  if (count < max && sequenceNr >= from && sequenceNr <= to) {
+                    deserializer.add(bytes)
+                    count += 1
+                  }
+                  sequenceNr += 1
+                }
+              }
+            }
+          }
+        }
+      }
+      entries = entries.tail
+    }
+    deserializer.complete()
+  }
+
+  private def encode(write: AtomicWrite): Try[ByteBuffer] = Try {
+    val events = write.payload.map { persistent =>
+      val stored = persistent.payload match {
+        case Tagged(payload, _) => persistent.withPayload(payload)
+        case _                  => persistent
+      }
+      serialization.serialize(stored).get
+    }
+    val record = Segment.eventsRecord(
+      Segment.persistenceIdBytes(write.persistenceId),
+      write.lowestSequenceNr,
+      write.highestSequenceNr,
+      events)
+    require(record.remaining <= segmentSize, s"Events of [${record.remaining}] bytes do not fit into a segment")
+    record
+  }
+
+  /**
+   * Appends the record to the active segment, to a new one if it does not fit, and returns its position.
+   */
+  private def append(record: ByteBuffer): Int = {
+    if (record.remaining > active.remaining) roll()
+    active.append(record)
+  }
+
+  private def appendDeletion(persistenceId: String, deletedTo: Long, highestSequenceNr: Long): Unit = {
+    append(Segment.deletionRecord(Segment.persistenceIdBytes(persistenceId), deletedTo, highestSequenceNr))
+    indexDeletion(persistenceId, deletedTo, highestSequenceNr, active.id)
+  }
+
+  private def indexEvents(persistenceId: String, from: Long, to: Long, segmentId: Long, position: Int): Unit = {
+    val idx = index.getOrElse(persistenceId, PersistenceIdIndex.empty)
+    val events = math.max(to - from + 1, 1L)
+    val newEntry =
+      idx.entries.isEmpty || idx.entries.last.segmentId != segmentId || idx.eventsSinceEntry >= indexInterval
+    index = index.updated(
+      persistenceId,
+      idx.copy(
+        highestSequenceNr = math.max(idx.highestSequenceNr, to),
+        entries = if (newEntry) idx.entries :+ IndexEntry(from, segmentId, position) else idx.entries,
+        eventsSinceEntry = if (newEntry) events else idx.eventsSinceEntry + events))
+    val contents = segmentContents.getOrElse(segmentId, Map.empty)
+    val highestInSegment = math.max(contents.getOrElse(persistenceId, 0L), to)
+    segmentContents = segmentContents.updated(segmentId, contents.updated(persistenceId, highestInSegment))
+  }
+
+  private def indexDeletion(persistenceId: String, deletedTo: Long, highestSequenceNr: Long, segmentId: Long): Unit = {
+    val idx = index.getOrElse(persistenceId, PersistenceIdIndex.empty)
+    index = index.updated(
+      persistenceId,
+      idx.copy(
+        highestSequenceNr = math.max(idx.highestSequenceNr, highestSequenceNr),
+        deletedTo = math.max(idx.deletedTo, deletedTo)))
+    val contents = segmentContents.getOrElse(segmentId, Map.empty)
+    if (!contents.contains(persistenceId))
+      segmentContents = segmentContents.updated(segmentId, contents.updated(persistenceId, 0L))
+  }
+
+  private def roll(): Unit = {
+    if ((active ne null) && fsync != FsyncOff) active.force()
+    val id = if (segments.isEmpty) 1L else segments.lastKey + 1
+    val segment = Segment.open(dir, id, segmentSize)
+    segmentContents += id -> Map.empty
+    segments += id -> segment
+    active = segment
+  }
+
+  /**
+   * Removes the segments other than the active one in which all events are deleted. The deletions of the
+   * persistenceIds in them are appended again first, so that their highest sequence numbers are kept.
+   */
+  private def compact(): Unit = {
+    val removable = segments.valuesIterator
+      .filter(segment =>
+        (segment ne active) && segmentContents(segment.id).forall {
+          case (persistenceId, highest) => highest <= index(persistenceId).deletedTo
+        })
+      .toList
+    if (removable.nonEmpty) {
+      val firstWritten = active.id
+      val persistenceIds = removable.flatMap(segment => segmentContents(segment.id).keys).distinct
+      persistenceIds.foreach { persistenceId =>
+        val idx = index(persistenceId)
+        appendDeletion(persistenceId, idx.deletedTo, idx.highestSequenceNr)
+      }
+      segments.valuesIterator.filter(_.id >= firstWritten).foreach(_.force())
+
+      val removed = removable.map(_.id).toSet
+      segmentContents --= removed
+      segments --= removed
+      index = persistenceIds.foldLeft(index) { (idx, persistenceId) =>
+        idx.updated(persistenceId, idx(persistenceId).withoutSegments(removed))
+      }
+      removable.foreach { segment =>
+        if (segment.file.delete()) log.debug("Removed segment [{}] with deleted events only", segment.file)
+        else log.warning("Failed to remove segment [{}] with deleted events only", segment.file)
+      }
+    }
+  }
+
+  private def synced[T](result: T): Future[T] = fsync match {
+    case FsyncOff =>
+      Future.successful(result)
+    case FsyncEveryWrite =>
+      active.force()
+      Future.successful(result)
+    case FsyncGroup =>
+      if (groupCommit eq null) {
+        groupCommit = Promise[Done]()
+        self ! Sync
+      }
+      groupCommit.future.map(_ => result)(ExecutionContexts.parasitic)
+  }
+}
+
+/**
+ * INTERNAL API.
+ */
+private[persistence] object SegmentJournal {
+  private sealed trait FsyncPolicy
+  private case object FsyncEveryWrite extends FsyncPolicy
+  private case object FsyncGroup extends FsyncPolicy
+  private case object FsyncOff extends FsyncPolicy
+
+  private case object Sync extends NoSerializationVerificationNeeded
+
+  /**
+   * The position of the record with the events from `sequenceNr` of a persistenceId, for the first record of the
+   * persistenceId in each segment and after every `index-interval` events.
+   */
+  private final case class IndexEntry(sequenceNr: Long, segmentId: Long, position: Int)
+
+  private final case class PersistenceIdIndex(
+      highestSequenceNr: Long,
+      deletedTo: Long,
+      entries: Vector[IndexEntry],
+      eventsSinceEntry: Long) {
+    def withoutSegments(segmentIds: Set[Long]): PersistenceIdIndex =
+      copy(entries = entries.filterNot(entry => segmentIds(entry.segmentId)))
+  }
+
+  private object PersistenceIdIndex {
+    val empty = PersistenceIdIndex(0L, 0L, Vector.empty, 0L)
+  }
+}
@@ -32,7 +32,7 @@ final case class Snapshot(data: Any)
 /**
  * [[Snapshot]] serializer.
  */
-class SnapshotSerializer(val system: ExtendedActorSystem) extends BaseSerializer {
+class SnapshotSerializer(val system: ExtendedActorSystem) extends BaseSerializer with StreamingSnapshotSerializer {
 
   override val includeManifest: Boolean = false
 
@@ -54,6 +54,22 @@ class SnapshotSerializer(val system: ExtendedActorSystem) extends BaseSerializer
   def fromBinary(bytes: Array[Byte], manifest: Option[Class[_]]): AnyRef =
     Snapshot(snapshotFromBinary(bytes))
 
+  /**
+   * Serializes a [[Snapshot]] into the stream, in the same format as `toBinary`. The snapshot `data` is written
+   * to the stream directly when it is serialized by a [[StreamingSnapshotSerializer]].
+   */
+  def toBinary(o: AnyRef, out: OutputStream): Unit = o match {
+    case Snapshot(data) => withTransportInformation(() => snapshotToStream(data.asInstanceOf[AnyRef], out))
+    case _              => throw new IllegalArgumentException(s"Can't serialize object of type ${o.getClass}")
+  }
+
+  /**
+   * Deserializes a [[Snapshot]] from the stream. The snapshot `data` is read from the stream directly when it was
+   * serialized by a [[StreamingSnapshotSerializer]].
+   */
+  def fromBinary(in: InputStream, manifest: String): AnyRef =
+    Snapshot(snapshotFromStream(in))
+
   private def headerToBinary(snapshot: AnyRef, snapshotSerializer: Serializer): Array[Byte] = {
     val out = new ByteArrayOutputStream
     writeInt(out, snapshotSerializer.identifier)
@@ -83,30 +99,36 @@ class SnapshotSerializer(val system: ExtendedActorSystem) extends BaseSerializer
   }
 
   private def snapshotToBinary(snapshot: AnyRef): Array[Byte] = {
-    def serialize() = {
-      val snapshotSerializer = serialization.findSerializerFor(snapshot)
+    val out = new ByteArrayOutputStream
+    withTransportInformation(() => snapshotToStream(snapshot, out))
+    out.toByteArray
+  }
 
-      val headerBytes = headerToBinary(snapshot, snapshotSerializer)
+  private def snapshotToStream(snapshot: AnyRef, out: OutputStream): Unit = {
+    val snapshotSerializer = serialization.findSerializerFor(snapshot)
 
-      val out = new ByteArrayOutputStream
+    val headerBytes = headerToBinary(snapshot, snapshotSerializer)
 
-      writeInt(out, headerBytes.length)
+    writeInt(out, headerBytes.length)
 
-      out.write(headerBytes)
-      out.write(snapshotSerializer.toBinary(snapshot))
-      out.toByteArray
+    out.write(headerBytes)
+    snapshotSerializer match {
+      case s: StreamingSnapshotSerializer => s.toBinary(snapshot, out)
+      case s                              => out.write(s.toBinary(snapshot))
     }
+  }
 
+  private def withTransportInformation[T](f: () => T): T = {
     val oldInfo = Serialization.currentTransportInformation.value
     try {
       if (oldInfo eq null)
         Serialization.currentTransportInformation.value = system.provider.serializationInformation
-      serialize()
+      f()
     } finally Serialization.currentTransportInformation.value = oldInfo
   }
 
   private def snapshotFromBinary(bytes: Array[Byte]): AnyRef = {
-    val headerLength = readInt(new ByteArrayInputStream(bytes))
+    val headerLength = readHeaderLength(new ByteArrayInputStream(bytes))
     val headerBytes = bytes.slice(4, headerLength + 4)
     val snapshotBytes = bytes.drop(headerLength + 4)
 
@@ -115,6 +137,29 @@ class SnapshotSerializer(val system: ExtendedActorSystem) extends BaseSerializer
     serialization.deserialize(snapshotBytes, serializerId, manifest).get
   }
 
+  private def snapshotFromStream(in: InputStream): AnyRef = {
+    val headerLength = readHeaderLength(in)
+    val headerBytes = new Array[Byte](headerLength)
+    new DataInputStream(in).readFully(headerBytes)
+
+    val (serializerId, manifest) = headerFromBinary(headerBytes)
+
+    serialization.serializerByIdentity.get(serializerId) match {
+      case Some(s: StreamingSnapshotSerializer) =>
+        Serialization.withTransportInformation(system)(() => s.fromBinary(in, manifest))
+      case _ =>
+        serialization.deserialize(streamToBytes(in), serializerId, manifest).get
+    }
+  }
+
+  private def readHeaderLength(in: InputStream): Int = {
+    val headerLength = readInt(in)
+    // the serializer id and a manifest, which is a class name at most
+    if (headerLength < 4 || headerLength > 4 + 0xFFFF)
+      throw new NotSerializableException(s"Invalid snapshot header length [$headerLength]")
+    headerLength
+  }
+
   private def writeInt(out: OutputStream, i: Int): Unit = {
     out.write(i >>> 0)
     out.write(i >>> 8)
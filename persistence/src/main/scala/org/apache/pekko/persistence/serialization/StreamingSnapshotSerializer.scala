@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.persistence.serialization
+
+import java.io.{ InputStream, NotSerializableException, OutputStream }
+
+/**
+ * A serializer of snapshots that writes the serialized form to and reads it from a stream, so that a large
+ * snapshot does not have to be held in one byte array. Snapshot stores that write to a stream, such as the
+ * local snapshot store, use these methods when the snapshot data is serialized by a serializer with this trait.
+ *
+ * The serializer must also implement the array based `toBinary` and `fromBinary` methods, which are used by
+ * snapshot stores that keep a snapshot in one value, and both forms must be the same bytes. The array based
+ * methods can for example be implemented by delegation to a `ByteArrayOutputStream` and a
+ * `ByteArrayInputStream`.
+ */
+trait StreamingSnapshotSerializer {
+
+  /**
+   * Serializes the given object into the `OutputStream`, it must not close the stream.
+   */
+  def toBinary(o: AnyRef, out: OutputStream): Unit
+
+  /**
+   * Produces an object from the `InputStream`, with the manifest it was serialized with. It must read the
+   * serialized form only, up to the end of the stream at most, and must not close the stream.
+   */
+  @throws(classOf[NotSerializableException])
+  def fromBinary(in: InputStream, manifest: String): AnyRef
+
+}
@@ -0,0 +1,30 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.persistence.snapshot
+
+/**
+ * A snapshot that holds the changes of the state since the snapshot that was saved before it, rather than the
+ * whole state. It is saved like any other snapshot, with `saveSnapshot`.
+ *
+ * A snapshot store that supports deltas, such as the local snapshot store, loads such a snapshot by applying it
+ * and the deltas before it to the full snapshot they are based on, so that the persistent actor is offered the
+ * merged state. Other snapshot stores offer the delta itself.
+ *
+ * The next delta should only be saved after the previous snapshot was saved successfully, so that the changes
+ * it holds are not missing from the merged state when that save fails.
+ */
+trait SnapshotDelta {
+
+  /**
+   * Applies the changes to the state of the snapshot that was saved before this one and returns the new state.
+   */
+  def applyTo(snapshot: Any): Any
+
+}
@@ -21,6 +21,7 @@ import java.nio.file.NoSuchFileException
 import scala.collection.immutable
 import scala.concurrent.Future
 import scala.util._
+import scala.util.control.NonFatal
 
 import com.typesafe.config.Config
 
@@ -37,6 +38,11 @@ import pekko.util.ccompat._
  * INTERNAL API
  *
  * Local filesystem backed snapshot store.
+ *
+ * Snapshots are streamed to and from their files, see [[StreamingSnapshotSerializer]]. A [[SnapshotDelta]] is
+ * kept in the `deltas` sub-directory and loaded by applying it and the deltas before it to the full snapshot
+ * they are based on. Once `max-deltas` deltas are based on the same full snapshot, the latest one is replaced
+ * by the merged full snapshot and the deltas before it are deleted.
  */
 @ccompatUsedUntil213
 private[persistence] class LocalSnapshotStore(config: Config) extends SnapshotStore with ActorLogging {
@@ -48,8 +54,11 @@ private[persistence] class LocalSnapshotStore(config: Config) extends SnapshotSt
 
   private val streamDispatcher = context.system.dispatchers.lookup(config.getString("stream-dispatcher"))
   private val dir = new File(config.getString("dir"))
+  private val deltaDir = new File(dir, "deltas")
+  private val maxDeltas = config.getInt("max-deltas").requiring(_ > 0, "max-deltas must be > 0")
 
   private val serializationExtension = SerializationExtension(context.system)
+  private val snapshotSerializer = serializationExtension.serializerFor(classOf[Snapshot])
   private var saving = immutable.Set.empty[SnapshotMetadata] // saving in progress
 
   override def loadAsync(
@@ -86,17 +95,17 @@ private[persistence] class LocalSnapshotStore(config: Config) extends SnapshotSt
       // multiple snapshot files here mean that there were multiple snapshots for this seqNr, we delete all of them
       // usually snapshot-stores would keep one snapshot per sequenceNr however here in the file-based one we timestamp
       // snapshots and allow multiple to be kept around (for the same seqNr) if desired
-      snapshotFiles(metadata).map(_.delete())
-    }(streamDispatcher).map(_ => ())(streamDispatcher)
+      consolidateDeltasBasedOnDeleted(metadata.persistenceId, matches(metadata))
+      snapshotFiles(metadata).foreach(_.delete())
+    }(streamDispatcher)
   }
 
   override def deleteAsync(persistenceId: String, criteria: SnapshotSelectionCriteria): Future[Unit] = {
     val metadatas = snapshotMetadatas(persistenceId, criteria)
-    Future
-      .sequence {
-        metadatas.map(deleteAsync)
-      }(scala.collection.immutable.IndexedSeq, streamDispatcher)
-      .map(_ => ())(streamDispatcher)
+    Future {
+      consolidateDeltasBasedOnDeleted(persistenceId, metadatas.toSet)
+      metadatas.foreach(snapshotFiles(_).foreach(_.delete()))
+    }(streamDispatcher)
   }
 
   override def receivePluginInternal: Receive = {
@@ -107,7 +116,9 @@ private[persistence] class LocalSnapshotStore(config: Config) extends SnapshotSt
   }
 
   private def snapshotFiles(metadata: SnapshotMetadata): immutable.Seq[File] = {
-    snapshotDir().listFiles(new SnapshotSeqNrFilenameFilter(metadata)).toVector
+    val filter = new SnapshotSeqNrFilenameFilter(metadata)
+    val deltaFiles = deltaDir.listFiles(filter)
+    snapshotDir().listFiles(filter).toVector ++ (if (deltaFiles eq null) Nil else deltaFiles.toVector)
   }
 
   @scala.annotation.tailrec
@@ -115,9 +126,9 @@ private[persistence] class LocalSnapshotStore(config: Config) extends SnapshotSt
     metadata.lastOption match {
       case None => Success(None) // no snapshots stored
       case Some(md) =>
-        Try(withInputStream(md)(deserialize)) match {
+        Try(loadSnapshot(md)) match {
           case Success(s) =>
-            Success(Some(SelectedSnapshot(md, s.data)))
+            Success(Some(SelectedSnapshot(md, s)))
           case Failure(e) =>
             val remaining = metadata.init
             log.error(e, s"Error loading snapshot [{}], remaining attempts: [{}]", md, remaining.size)
@@ -128,17 +139,104 @@ private[persistence] class LocalSnapshotStore(config: Config) extends SnapshotSt
         }
     }
 
+  /**
+   * The snapshot data of `metadata`, merged with the deltas before it and the full snapshot they are based on
+   * when it is a delta.
+   */
+  private def loadSnapshot(metadata: SnapshotMetadata): Any =
+    if (snapshotFileForWrite(metadata).exists) withInputStream(metadata)(deserialize).data
+    else {
+      val chain = deltaChain(metadata)
+      chain.tail.foldLeft(withInputStream(chain.head)(deserialize).data) { (state, delta) =>
+        withFileInputStream(deltaFileForWrite(delta))(deserialize).data match {
+          case d: SnapshotDelta => d.applyTo(state)
+          case other            => throw new IllegalStateException(s"Expected a delta snapshot, got [${other.getClass}]")
+        }
+      }
+    }
+
+  /**
+   * The full snapshot that the delta with `metadata` is based on, followed by the deltas up to and including
+   * it in the order they were saved.
+   */
+  private def deltaChain(metadata: SnapshotMetadata): List[SnapshotMetadata] = {
+    val ordering = SnapshotMetadata.ordering
+    val bases = listMetadatas(snapshotDir(), metadata.persistenceId).filter(ordering.lteq(_, metadata))
+    val deltas = listMetadatas(deltaDir, metadata.persistenceId).filter { md =>
+      ordering.lteq(md, metadata) && bases.forall(ordering.gt(md, _))
+    }
+    if (!deltas.contains(metadata))
+      throw new NoSuchFileException(deltaFileForWrite(metadata).getPath) // deleted meanwhile
+    if (bases.isEmpty)
+      throw new IllegalStateException(s"No full snapshot found that the delta snapshot [$metadata] is based on")
+    bases.max(ordering) :: deltas.sorted(ordering).toList
+  }
+
   protected def save(metadata: SnapshotMetadata, snapshot: Any): Unit = {
     val tmpFile = withOutputStream(metadata)(serialize(_, Snapshot(snapshot)))
+    snapshot match {
+      case _: SnapshotDelta =>
+        deltaDir.mkdirs()
+        tmpFile.renameTo(deltaFileForWrite(metadata))
+        val chain = deltaChain(metadata)
+        if (chain.size > maxDeltas) {
+          try {
+            consolidate(chain)
+            // the older deltas are only kept until the full snapshot that replaces them was written
+            chain.tail.init.foreach(deltaFileForWrite(_).delete())
+          } catch {
+            case NonFatal(e) =>
+              log.warning("Failed to merge the delta snapshot [{}] into a full snapshot: {}", metadata, e.getMessage)
+          }
+        }
+      case _ =>
+        tmpFile.renameTo(snapshotFileForWrite(metadata))
+    }
+  }
+
+  /**
+   * Replaces the last delta of the chain by the merged full snapshot.
+   */
+  private def consolidate(chain: List[SnapshotMetadata]): Unit = {
+    val metadata = chain.last
+    val merged = loadSnapshot(metadata)
+    val tmpFile = withOutputStream(metadata)(serialize(_, Snapshot(merged)))
     tmpFile.renameTo(snapshotFileForWrite(metadata))
+    deltaFileForWrite(metadata).delete()
+  }
+
+  /**
+   * Replaces the deltas that are based on a snapshot or delta that is going to be deleted by the merged full
+   * snapshot, so that they can still be loaded afterwards.
+   */
+  private def consolidateDeltasBasedOnDeleted(persistenceId: String, deleted: SnapshotMetadata => Boolean): Unit = {
+    val fulls = listMetadatas(snapshotDir(), persistenceId).toSet
+    val deltas = listMetadatas(deltaDir, persistenceId).filterNot(fulls)
+    if (deltas.exists(!deleted(_))) {
+      var basedOnDeleted = false
+      (fulls ++ deltas).toVector.sorted(SnapshotMetadata.ordering).foreach { md =>
+        if (deleted(md)) basedOnDeleted = true
+        else if (fulls(md)) basedOnDeleted = false
+        else if (basedOnDeleted) {
+          consolidate(deltaChain(md))
+          basedOnDeleted = false
+        }
+      }
+    }
   }
 
   protected def deserialize(inputStream: InputStream): Snapshot =
-    serializationExtension.deserialize(streamToBytes(inputStream), classOf[Snapshot]).get
+    snapshotSerializer match {
+      case s: StreamingSnapshotSerializer => s.fromBinary(inputStream, "").asInstanceOf[Snapshot]
+      case _ =>
+        serializationExtension.deserialize(streamToBytes(inputStream), classOf[Snapshot]).get
+    }
 
-  protected def serialize(outputStream: OutputStream, snapshot: Snapshot): Unit = {
-    outputStream.write(serializationExtension.serialize(snapshot).get)
-  }
+  protected def serialize(outputStream: OutputStream, snapshot: Snapshot): Unit =
+    snapshotSerializer match {
+      case s: StreamingSnapshotSerializer => s.toBinary(snapshot, outputStream)
+      case _                              => outputStream.write(serializationExtension.serialize(snapshot).get)
+    }
 
   protected def withOutputStream(metadata: SnapshotMetadata)(p: (OutputStream) => Unit): File = {
     val tmpFile = snapshotFileForWrite(metadata, extension = "tmp")
@@ -147,7 +245,10 @@ private[persistence] class LocalSnapshotStore(config: Config) extends SnapshotSt
   }
 
   private def withInputStream[T](metadata: SnapshotMetadata)(p: (InputStream) => T): T =
-    withStream(new BufferedInputStream(Files.newInputStream(snapshotFileForWrite(metadata).toPath())), p)
+    withFileInputStream(snapshotFileForWrite(metadata))(p)
+
+  private def withFileInputStream[T](file: File)(p: (InputStream) => T): T =
+    withStream(new BufferedInputStream(Files.newInputStream(file.toPath())), p)
 
   private def withStream[A <: Closeable, B](stream: A, p: A => B): B =
     try {
@@ -162,10 +263,17 @@ private[persistence] class LocalSnapshotStore(config: Config) extends SnapshotSt
       snapshotDir(),
       s"snapshot-${URLEncoder.encode(metadata.persistenceId, UTF_8)}-${metadata.sequenceNr}-${metadata.timestamp}$extension")
 
+  private def deltaFileForWrite(metadata: SnapshotMetadata): File =
+    new File(deltaDir, snapshotFileForWrite(metadata).getName)
+
   private def snapshotMetadatas(
       persistenceId: String,
-      criteria: SnapshotSelectionCriteria): immutable.Seq[SnapshotMetadata] = {
-    val files = snapshotDir().listFiles(new SnapshotFilenameFilter(persistenceId))
+      criteria: SnapshotSelectionCriteria): immutable.Seq[SnapshotMetadata] =
+    (listMetadatas(snapshotDir(), persistenceId) ++ listMetadatas(deltaDir, persistenceId)).distinct
+      .filter(md => criteria.matches(md) && !saving.contains(md))
+
+  private def listMetadatas(dir: File, persistenceId: String): immutable.Seq[SnapshotMetadata] = {
+    val files = dir.listFiles(new SnapshotFilenameFilter(persistenceId))
     if (files eq null) Nil // if the dir was removed
     else {
       files
@@ -175,7 +283,6 @@ private[persistence] class LocalSnapshotStore(config: Config) extends SnapshotSt
             case (pid, snr, tms) => SnapshotMetadata(URLDecoder.decode(pid, UTF_8), snr, tms)
           }
         }
-        .filter(md => criteria.matches(md) && !saving.contains(md))
         .toVector
     }
   }
@@ -208,6 +315,11 @@ private[persistence] class LocalSnapshotStore(config: Config) extends SnapshotSt
     }
   }
 
+  /** Like [[SnapshotSeqNrFilenameFilter]] */
+  private def matches(md: SnapshotMetadata)(other: SnapshotMetadata): Boolean =
+    other.persistenceId == md.persistenceId && other.sequenceNr == md.sequenceNr &&
+    (md.timestamp == 0L || other.timestamp == md.timestamp)
+
   private final class SnapshotSeqNrFilenameFilter(md: SnapshotMetadata) extends FilenameFilter {
     private final def matches(pid: String, snr: String, tms: String): Boolean = {
       pid.equals(URLEncoder.encode(md.persistenceId, defaultSystemEncoding)) &&
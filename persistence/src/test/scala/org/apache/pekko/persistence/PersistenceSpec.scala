@@ -81,6 +81,7 @@ object PersistenceSpec {
       pekko.persistence.publish-plugin-commands = on
       pekko.persistence.journal.plugin = "pekko.persistence.journal.$plugin"
       pekko.persistence.journal.leveldb.dir = "target/journal-$test"
+      pekko.persistence.journal.segment.dir = "target/segment-journal-$test"
       pekko.persistence.snapshot-store.plugin = "pekko.persistence.snapshot-store.local"
       pekko.persistence.snapshot-store.local.dir = "target/snapshots-$test/"
       pekko.test.single-expect-default = 10s
@@ -99,6 +99,88 @@ class RecoveryPermitterSpec extends PersistenceSpec(ConfigFactory.parseString(s"
       permitter.tell(ReturnRecoveryPermit, p5.ref)
     }
 
+    "count a request for several permits as that many permits" in {
+      requestPermit(p1)
+      permitter.tell(RequestRecoveryPermits(2), p2.ref)
+      p2.expectMsg(RecoveryPermitGranted)
+
+      // no overtaking of the pending request for several permits
+      permitter.tell(RequestRecoveryPermits(2), p3.ref)
+      permitter.tell(RequestRecoveryPermit, p4.ref)
+      p3.expectNoMessage(100.millis)
+      p4.expectNoMessage(10.millis)
+
+      permitter.tell(ReturnRecoveryPermit, p1.ref)
+      p3.expectNoMessage(100.millis)
+      permitter.tell(ReturnRecoveryPermit, p2.ref)
+      p3.expectMsg(RecoveryPermitGranted)
+      p4.expectMsg(RecoveryPermitGranted)
+
+      // more permits than max-concurrent-recoveries count as all of them
+      permitter.tell(ReturnRecoveryPermit, p3.ref)
+      permitter.tell(RequestRecoveryPermits(10), p5.ref)
+      p5.expectNoMessage(100.millis)
+      permitter.tell(ReturnRecoveryPermit, p4.ref)
+      p5.expectMsg(RecoveryPermitGranted)
+      permitter.tell(ReturnRecoveryPermit, p5.ref)
+    }
+
+    "grant a permit to the recoveries with pending commands first" in {
+      requestPermit(p1)
+      requestPermit(p2)
+      requestPermit(p3)
+
+      permitter.tell(RequestRecoveryPermit, p4.ref)
+      p4.expectNoMessage(100.millis)
+      val persistentActor = system.actorOf(testProps("p5", p5.ref))
+      p5.expectNoMessage(100.millis)
+      // the stashed command makes it a priority
+      persistentActor ! "stop"
+      p5.expectNoMessage(100.millis)
+
+      permitter.tell(ReturnRecoveryPermit, p1.ref)
+      p5.expectMsg(RecoveryCompleted)
+      p5.expectMsg("postStop")
+      p4.expectMsg(RecoveryPermitGranted)
+
+      permitter.tell(ReturnRecoveryPermit, p2.ref)
+      permitter.tell(ReturnRecoveryPermit, p3.ref)
+      permitter.tell(ReturnRecoveryPermit, p4.ref)
+    }
+
+    "adjust the limit with additive increase and multiplicative decrease when it is adaptive" in {
+      val statistics = TestProbe()
+      system.eventStream.subscribe(statistics.ref, classOf[RecoveryPermitStatistics])
+      val adaptiveLimit = AdaptiveLimit(
+        min = 2,
+        adjustInterval = 100.millis,
+        targetRecoveryTime = 10.seconds,
+        increase = 2,
+        decreaseFactor = 0.5)
+      val adaptivePermitter = system.actorOf(RecoveryPermitter.props(maxPermits = 10, Some(adaptiveLimit)))
+
+      // the limit starts at min and is increased after it was reached
+      List(p1, p2, p3, p4).foreach(p => adaptivePermitter.tell(RequestRecoveryPermit, p.ref))
+      p1.expectMsg(RecoveryPermitGranted)
+      p2.expectMsg(RecoveryPermitGranted)
+      p3.expectMsg(RecoveryPermitGranted)
+      p4.expectMsg(RecoveryPermitGranted)
+      statistics.fishForMessage(3.seconds) {
+        case s: RecoveryPermitStatistics => s.limit == 4 && s.inProgress == 4
+      }
+
+      // and decreased after a failed recovery
+      adaptivePermitter.tell(ReturnRecoveryPermitOnFailure, p1.ref)
+      val decreased = statistics.fishForMessage(3.seconds) {
+        case s: RecoveryPermitStatistics => s.failed == 1
+      }
+      decreased.asInstanceOf[RecoveryPermitStatistics].limit should ===(2)
+      decreased.asInstanceOf[RecoveryPermitStatistics].inProgress should ===(3)
+
+      List(p2, p3, p4).foreach(p => adaptivePermitter.tell(ReturnRecoveryPermit, p.ref))
+      system.stop(adaptivePermitter)
+    }
+
     "grant recovery when all permits not used" in {
       requestPermit(p1)
 
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.persistence
+
+import java.io.File
+
+import org.apache.pekko
+import pekko.actor._
+import pekko.persistence.snapshot.SnapshotDelta
+import pekko.testkit._
+
+object SnapshotDeltaSpec {
+  case object TakeSnapshot
+  case object TakeDelta
+
+  final case class Added(payloads: List[String]) extends SnapshotDelta {
+    override def applyTo(snapshot: Any): Any = snapshot.asInstanceOf[List[String]] ++ payloads
+  }
+
+  class DeltaSnapshotTestPersistentActor(name: String, probe: ActorRef) extends NamedPersistentActor(name) {
+    var state = List.empty[String]
+    var added = List.empty[String]
+
+    override def receiveRecover: Receive = {
+      case payload: String => state :+= payload
+    }
+
+    override def receiveCommand = {
+      case payload: String =>
+        persist(payload) { _ =>
+          state :+= payload
+          added :+= payload
+        }
+      case TakeSnapshot =>
+        saveSnapshot(state)
+        added = Nil
+      case TakeDelta =>
+        saveSnapshot(Added(added))
+        added = Nil
+      case SaveSnapshotSuccess(md)             => probe ! md.sequenceNr
+      case DeleteSnapshotsSuccess(_)           => probe ! "deleted"
+      case criteria: SnapshotSelectionCriteria => deleteSnapshots(criteria)
+    }
+  }
+}
+
+class SnapshotDeltaSpec
+    extends PersistenceSpec(
+      PersistenceSpec.config(
+        "inmem",
+        "SnapshotDeltaSpec",
+        extraConfig = Some("pekko.persistence.snapshot-store.local.max-deltas = 3")))
+    with ImplicitSender {
+  import SnapshotDeltaSpec._
+  import SnapshotSpec.LoadSnapshotTestPersistentActor
+
+  private val snapshotDir = new File(system.settings.config.getString("pekko.persistence.snapshot-store.local.dir"))
+
+  private def snapshotFiles(dir: File): Seq[String] =
+    Option(dir.list()).fold(Seq.empty[String])(_.toSeq.filter(_.startsWith(s"snapshot-$name-")))
+
+  private def save(persistentActor: ActorRef, command: Any): Long = {
+    persistentActor ! command
+    expectMsgType[Long]
+  }
+
+  private def expectRecovered(sequenceNr: Long, snapshot: List[String], replayed: String*): Unit = {
+    system.actorOf(Props(classOf[LoadSnapshotTestPersistentActor], name, Recovery(), testActor))
+    val offer = expectMsgType[SnapshotOffer]
+    offer.metadata.sequenceNr should ===(sequenceNr)
+    offer.snapshot should ===(snapshot)
+    replayed.foreach(expectMsg(_))
+    expectMsg(RecoveryCompleted)
+  }
+
+  "A persistentActor" must {
+
+    "recover the state merged from a full snapshot and the deltas saved after it" in {
+      val persistentActor = system.actorOf(Props(classOf[DeltaSnapshotTestPersistentActor], name, testActor))
+      persistentActor ! "a"
+      save(persistentActor, TakeSnapshot) should ===(1L)
+      persistentActor ! "b"
+      persistentActor ! "c"
+      save(persistentActor, TakeDelta) should ===(3L)
+      persistentActor ! "d"
+      save(persistentActor, TakeDelta) should ===(4L)
+      persistentActor ! "e"
+
+      expectRecovered(4L, List("a", "b", "c", "d"), "e-5")
+      snapshotFiles(new File(snapshotDir, "deltas")).size should ===(2)
+    }
+
+    "replace a delta by the merged full snapshot once max-deltas deltas are based on the same full snapshot" in {
+      val persistentActor = system.actorOf(Props(classOf[DeltaSnapshotTestPersistentActor], name, testActor))
+      persistentActor ! "a"
+      save(persistentActor, TakeSnapshot)
+      (2 to 4).foreach { i =>
+        persistentActor ! s"p-$i"
+        save(persistentActor, TakeDelta) should ===(i.toLong)
+      }
+      snapshotFiles(snapshotDir).size should ===(2)
+      // the deltas that are merged into the full snapshot are deleted
+      snapshotFiles(new File(snapshotDir, "deltas")) should ===(Nil)
+
+      persistentActor ! "p-5"
+      save(persistentActor, TakeDelta) should ===(5L)
+      snapshotFiles(new File(snapshotDir, "deltas")).size should ===(1)
+      expectRecovered(5L, List("a", "p-2", "p-3", "p-4", "p-5"))
+    }
+
+    "keep the deltas loadable when the snapshots they are based on are deleted" in {
+      val persistentActor = system.actorOf(Props(classOf[DeltaSnapshotTestPersistentActor], name, testActor))
+      persistentActor ! "a"
+      save(persistentActor, TakeSnapshot)
+      persistentActor ! "b"
+      save(persistentActor, TakeDelta)
+      persistentActor ! "c"
+      save(persistentActor, TakeDelta)
+
+      persistentActor ! SnapshotSelectionCriteria(maxSequenceNr = 2L)
+      expectMsg("deleted")
+      snapshotFiles(snapshotDir).size should ===(1)
+      snapshotFiles(new File(snapshotDir, "deltas")) should ===(Nil)
+
+      expectRecovered(3L, List("a", "b", "c"))
+    }
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.persistence.journal
+
+import java.util.concurrent.{ CountDownLatch, ThreadLocalRandom, TimeoutException }
+
+import scala.concurrent.ExecutionContext
+import scala.concurrent.duration._
+
+import com.typesafe.config.ConfigFactory
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class ParallelReplayDeserializerSpec extends AnyWordSpec with Matchers {
+  import ParallelReplayDeserializer.Settings
+
+  private implicit val ec: ExecutionContext = ExecutionContext.global
+
+  private final class Replay(settings: Settings, fail: Int => Boolean = _ => false) {
+    var added = 0
+    var delivered = Vector.empty[String]
+    var maxAhead = 0
+
+    private def deserialize(n: Int): String = {
+      Thread.sleep(ThreadLocalRandom.current().nextInt(2))
+      if (fail(n)) throw new IllegalArgumentException(s"Simulated failure of [$n]")
+      s"e-$n"
+    }
+
+    val deserializer = new ParallelReplayDeserializer[Int, String](settings, deserialize, e => delivered :+= e)
+
+    def run(events: Range): Unit = {
+      events.foreach { n =>
+        deserializer.add(n)
+        added += 1
+        maxAhead = math.max(maxAhead, added - delivered.size)
+      }
+      deserializer.complete()
+    }
+  }
+
+  "A ParallelReplayDeserializer" must {
+
+    "pass the events to the callback in the order they were added" in {
+      val replay = new Replay(Settings(parallelism = 4, lookahead = 16))
+      replay.run(1 to 1000)
+      replay.delivered should ===((1 to 1000).map(n => s"e-$n"))
+    }
+
+    "deserialize no more events ahead of the callback than the lookahead and one batch" in {
+      val replay = new Replay(Settings(parallelism = 4, lookahead = 16))
+      replay.run(1 to 1000)
+      replay.maxAhead should be <= (16 + 4)
+    }
+
+    "pass each event to the callback when it is added with a parallelism of 1" in {
+      val replay = new Replay(ParallelReplayDeserializer.Sequential)
+      replay.run(1 to 100)
+      replay.maxAhead should ===(0)
+      replay.delivered.size should ===(100)
+    }
+
+    "throw the exception of a failed deserialization after passing on the events before it" in {
+      val replay = new Replay(Settings(parallelism = 2, lookahead = 4), fail = _ == 7)
+      intercept[IllegalArgumentException] {
+        replay.run(1 to 20)
+      }.getMessage should ===("Simulated failure of [7]")
+      replay.delivered.take(6) should ===((1 to 6).map(n => s"e-$n"))
+      replay.delivered.exists(_ == "e-7") should ===(false)
+    }
+
+    "fail with a TimeoutException when a batch is not deserialized within the timeout" in {
+      val latch = new CountDownLatch(1)
+      val deserializer = new ParallelReplayDeserializer[Int, Int](
+        Settings(parallelism = 2, lookahead = 2, timeout = 100.millis),
+        n => { latch.await(); n },
+        _ => ())
+      try {
+        intercept[TimeoutException] {
+          (1 to 2).foreach(deserializer.add)
+          deserializer.complete()
+        }
+      } finally latch.countDown()
+    }
+
+    "read its settings from the replay-deserialization section of a journal plugin config" in {
+      val config = ConfigFactory.parseString("""
+        replay-deserialization { parallelism = 4, lookahead = 64, dispatcher = "my-dispatcher" }
+        recovery-event-timeout = 10s
+        """)
+      ParallelReplayDeserializer.settings(config) should ===(
+        Settings(parallelism = 4, lookahead = 64, timeout = 10.seconds, dispatcher = "my-dispatcher"))
+      ParallelReplayDeserializer.settings(ConfigFactory.empty) should ===(ParallelReplayDeserializer.Sequential)
+    }
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.persistence.journal
+
+import scala.collection.immutable
+import scala.concurrent.Future
+import scala.concurrent.duration._
+import scala.util.{ Failure, Try }
+import scala.util.control.NoStackTrace
+
+import com.typesafe.config.ConfigFactory
+
+import org.apache.pekko
+import pekko.persistence._
+import pekko.persistence.JournalProtocol._
+import pekko.persistence.journal.inmem.InmemJournal
+import pekko.testkit.{ PekkoSpec, TestProbe }
+
+object WriteCoalescingSpec {
+
+  final case class WrittenBatch(persistenceIds: immutable.Seq[String])
+
+  class SimulatedException(msg: String) extends RuntimeException(msg) with NoStackTrace
+
+  /**
+   * Publishes the persistenceIds of each batch it is asked to write, fails a batch with a "fail" event and
+   * rejects the atomic writes with a "reject" event.
+   */
+  class CoalescingTestJournal extends InmemJournal {
+    import context.dispatcher
+
+    override def asyncWriteMessages(messages: immutable.Seq[AtomicWrite]): Future[immutable.Seq[Try[Unit]]] = {
+      context.system.eventStream.publish(WrittenBatch(messages.map(_.persistenceId)))
+      def has(a: AtomicWrite, payload: String) = a.payload.exists(_.payload == payload)
+      if (messages.exists(has(_, "fail"))) Future.failed(new SimulatedException("Simulated store failure"))
+      else
+        super.asyncWriteMessages(messages.filterNot(has(_, "reject"))).map { _ =>
+          messages.map { a =>
+            if (has(a, "reject")) Failure(new SimulatedException(s"Rejected [${a.persistenceId}]"))
+            else AsyncWriteJournal.successUnit
+          }
+        }
+    }
+  }
+}
+
+class WriteCoalescingSpec extends PekkoSpec(ConfigFactory.parseString("""
+    pekko.persistence.journal.plugin = "coalescing-journal"
+    coalescing-journal {
+      class = "org.apache.pekko.persistence.journal.WriteCoalescingSpec$CoalescingTestJournal"
+      write-coalescing {
+        enabled = on
+        max-latency = 300ms
+        max-events = 4
+      }
+    }
+    """)) {
+  import WriteCoalescingSpec._
+
+  private val journal = Persistence(system).journalFor(null)
+
+  system.eventStream.subscribe(testActor, classOf[WrittenBatch])
+
+  private def write(persistenceId: String, payloads: String*): TestProbe = {
+    val probe = TestProbe()
+    val messages = payloads.zipWithIndex.map {
+      case (payload, i) => AtomicWrite(PersistentRepr(payload, i + 1L, persistenceId))
+    }
+    journal ! WriteMessages(messages.toList, probe.ref, 1)
+    probe
+  }
+
+  private def expectSuccess(probe: TestProbe, persistenceId: String, events: Int = 1): Unit = {
+    probe.expectMsg(WriteMessagesSuccessful)
+    (1 to events).foreach { _ =>
+      probe.expectMsgType[WriteMessageSuccess].persistent.persistenceId should ===(persistenceId)
+    }
+  }
+
+  "An AsyncWriteJournal with write coalescing" must {
+
+    "pass the writes of different persistent actors to the plugin in one call" in {
+      val probes = (1 to 3).map(i => s"p-$i" -> write(s"p-$i", "a"))
+      expectMsg(WrittenBatch(List("p-1", "p-2", "p-3")))
+      probes.foreach { case (persistenceId, probe) => expectSuccess(probe, persistenceId) }
+    }
+
+    "reply with the result of each write when the plugin rejects some of them" in {
+      val probe1 = write("r-1", "a")
+      val probe2 = write("r-2", "reject")
+      val probe3 = write("r-3", "a")
+      expectMsg(WrittenBatch(List("r-1", "r-2", "r-3")))
+
+      expectSuccess(probe1, "r-1")
+      probe2.expectMsg(WriteMessagesSuccessful)
+      probe2.expectMsgType[WriteMessageRejected].cause.getMessage should ===("Rejected [r-2]")
+      expectSuccess(probe3, "r-3")
+    }
+
+    "fail all coalesced writes when the plugin call fails" in {
+      val probes = List(write("f-1", "a"), write("f-2", "fail"))
+      expectMsg(WrittenBatch(List("f-1", "f-2")))
+      probes.foreach { probe =>
+        probe.expectMsgType[WriteMessagesFailed].writeCount should ===(1)
+        probe.expectMsgType[WriteMessageFailure]
+      }
+    }
+
+    "pass the coalesced writes to the plugin without waiting when they reach max-events" in {
+      val probe1 = write("m-1", "a", "b")
+      val probe2 = write("m-2", "a", "b")
+      val probe3 = write("m-3", "a")
+      expectMsg(WrittenBatch(List("m-1", "m-1", "m-2", "m-2")))
+      expectSuccess(probe1, "m-1", events = 2)
+      expectSuccess(probe2, "m-2", events = 2)
+      probe3.expectNoMessage(100.millis)
+
+      expectMsg(WrittenBatch(List("m-3")))
+      expectSuccess(probe3, "m-3")
+    }
+
+    "pass the coalesced writes of a persistent actor to the plugin before replaying its events" in {
+      val writer = write("h-1", "a", "b")
+      val replayer = TestProbe()
+      journal ! ReplayMessages(1L, Long.MaxValue, Long.MaxValue, "h-1", replayer.ref)
+      expectMsg(WrittenBatch(List("h-1", "h-1")))
+      expectSuccess(writer, "h-1", events = 2)
+      replayer.expectMsgType[ReplayedMessage].persistent.payload should ===("a")
+      replayer.expectMsgType[ReplayedMessage].persistent.payload should ===("b")
+      replayer.expectMsg(RecoverySuccess(2L))
+    }
+
+    "pass the coalesced writes of a persistent actor to the plugin before deleting its events" in {
+      val writer = write("d-1", "a", "b")
+      journal ! DeleteMessagesTo("d-1", 2L, writer.ref)
+      expectMsg(WrittenBatch(List("d-1", "d-1")))
+      expectSuccess(writer, "d-1", events = 2)
+      writer.expectMsg(DeleteMessagesSuccess(2L))
+
+      val replayer = TestProbe()
+      journal ! ReplayMessages(1L, Long.MaxValue, Long.MaxValue, "d-1", replayer.ref)
+      replayer.expectMsg(RecoverySuccess(2L))
+    }
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.persistence.journal.segment
+
+import java.io.File
+import java.nio.file.Files
+
+import scala.collection.immutable
+import scala.concurrent.Await
+import scala.concurrent.duration._
+
+import com.typesafe.config.{ Config, ConfigFactory }
+import org.apache.commons.io.FileUtils
+
+import org.apache.pekko
+import pekko.actor.ActorSystem
+import pekko.persistence._
+import pekko.persistence.JournalProtocol._
+import pekko.testkit.{ PekkoSpec, TestProbe }
+import pekko.util.ByteString
+
+class SegmentJournalRecoverySpec extends PekkoSpec {
+
+  private val baseDir = new File(s"target/segment-journal-${getClass.getSimpleName}")
+  private var counter = 0
+
+  private def newDir(): File = {
+    counter += 1
+    new File(baseDir, counter.toString)
+  }
+
+  private def journalConfig(dir: File, parallelism: Int): Config =
+    ConfigFactory.parseString(s"""
+      pekko.persistence.journal.plugin = "pekko.persistence.journal.segment"
+      pekko.persistence.journal.segment.dir = "${dir.getPath.replace('\\', '/')}"
+      pekko.persistence.journal.segment.segment-size = 4 KiB
+      pekko.persistence.journal.segment.index-interval = 4
+      pekko.persistence.journal.segment.replay-deserialization.parallelism = $parallelism
+      pekko.persistence.journal.segment.replay-deserialization.lookahead = 8
+      """).withFallback(system.settings.config)
+
+  /**
+   * Runs `f` with the journal of an actor system that is terminated afterwards, like a restart of the journal.
+   */
+  private def withJournal(dir: File, parallelism: Int = 1)(f: Journal => Unit): Unit = {
+    val journalSystem = ActorSystem(system.name + "-journal", journalConfig(dir, parallelism))
+    try f(new Journal(journalSystem))
+    finally Await.ready(journalSystem.terminate(), 10.seconds)
+  }
+
+  private final class Journal(journalSystem: ActorSystem) {
+    private val journal = Persistence(journalSystem).journalFor(null)
+
+    def write(persistenceId: String, sequenceNrs: immutable.Seq[Int], payload: Long => Any): Unit = {
+      val probe = TestProbe()(journalSystem)
+      val messages = sequenceNrs.map(i => AtomicWrite(PersistentRepr(payload(i.toLong), i.toLong, persistenceId)))
+      journal ! WriteMessages(messages, probe.ref, 1)
+      probe.expectMsg(WriteMessagesSuccessful)
+      sequenceNrs.foreach(_ => probe.expectMsgType[WriteMessageSuccess])
+    }
+
+    def replay(persistenceId: String, from: Long): (Seq[Any], Long) = replay(persistenceId, from, Long.MaxValue)
+
+    def replay(persistenceId: String, from: Long, to: Long): (Seq[Any], Long) = {
+      val probe = TestProbe()(journalSystem)
+      journal ! ReplayMessages(from, to, Long.MaxValue, persistenceId, probe.ref)
+      val payloads = probe.receiveWhile() { case ReplayedMessage(p) => p.payload }
+      (payloads, probe.expectMsgType[RecoverySuccess].highestSequenceNr)
+    }
+
+    def delete(persistenceId: String, toSequenceNr: Long): Unit = {
+      val probe = TestProbe()(journalSystem)
+      journal ! DeleteMessagesTo(persistenceId, toSequenceNr, probe.ref)
+      probe.expectMsg(DeleteMessagesSuccess(toSequenceNr))
+    }
+  }
+
+  private def segmentFiles(dir: File): Seq[File] =
+    Option(dir.listFiles()).fold(Seq.empty[File])(_.toSeq.filter(_.getName.endsWith(".segment")))
+
+  override protected def afterTermination(): Unit =
+    FileUtils.deleteDirectory(baseDir)
+
+  "The segment journal" must {
+
+    "replay the events of a persistenceId written before a restart" in {
+      val dir = newDir()
+      withJournal(dir) { journal =>
+        (1 to 100).grouped(10).foreach { range =>
+          journal.write("p-1", range, i => s"a-$i")
+          journal.write("p-2", range, i => s"b-$i")
+        }
+      }
+      segmentFiles(dir).size should be > 1
+
+      withJournal(dir) { journal =>
+        journal.replay("p-1", 37, 64) should ===(((37 to 64).map(i => s"a-$i"), 100L))
+        journal.replay("p-2", 1) should ===(((1 to 100).map(i => s"b-$i"), 100L))
+        journal.replay("p-3", 1) should ===((Nil, 0L))
+      }
+    }
+
+    "replay the events in order when they are deserialized in parallel" in {
+      val dir = newDir()
+      withJournal(dir) { journal =>
+        (1 to 100).grouped(10).foreach(range => journal.write("p-1", range, i => s"a-$i"))
+      }
+
+      withJournal(dir, parallelism = 4) { journal =>
+        journal.replay("p-1", 1) should ===(((1 to 100).map(i => s"a-$i"), 100L))
+        journal.replay("p-1", 13, 42) should ===(((13 to 42).map(i => s"a-$i"), 100L))
+      }
+    }
+
+    "continue after the last complete write when the end of a segment is torn" in {
+      val dir = newDir()
+      withJournal(dir) { journal =>
+        journal.write("p-1", 1 to 3, i => s"a-$i")
+        journal.write("p-1", 4 to 4, _ => "torn")
+      }
+
+      // corrupt the last write, as if it was not completely on disk before a crash
+      val file = segmentFiles(dir).maxBy(_.getName)
+      val bytes = Files.readAllBytes(file.toPath)
+      val torn = ByteString(bytes).indexOfSlice(ByteString("torn"))
+      torn should be > 0
+      bytes(torn) = 'x'.toByte
+      Files.write(file.toPath, bytes)
+
+      withJournal(dir) { journal =>
+        journal.replay("p-1", 1) should ===(((1 to 3).map(i => s"a-$i"), 3L))
+        journal.write("p-1", 4 to 5, i => s"a-$i")
+      }
+
+      withJournal(dir) { journal =>
+        journal.replay("p-1", 1) should ===(((1 to 5).map(i => s"a-$i"), 5L))
+      }
+    }
+
+    "remove the segments with deleted events only and keep the highest sequence number" in {
+      val dir = newDir()
+      withJournal(dir) { journal =>
+        val payload = "x" * 200
+        (1 to 100).grouped(5).foreach(range => journal.write("p-1", range, _ => payload))
+        journal.write("p-2", 1 to 1, _ => "kept")
+        val segmentsBefore = segmentFiles(dir).size
+        segmentsBefore should be > 2
+
+        journal.delete("p-1", 100L)
+        segmentFiles(dir).size should be < segmentsBefore
+      }
+
+      withJournal(dir) { journal =>
+        journal.replay("p-1", 1) should ===((Nil, 100L))
+        journal.replay("p-2", 1) should ===((Seq("kept"), 1L))
+      }
+    }
+  }
+}
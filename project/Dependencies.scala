@@ -141,6 +141,7 @@ object Dependencies {
       "com.fasterxml.jackson.dataformat" % "jackson-dataformat-cbor" % jacksonCoreVersion
     } // ApacheV2
     val lz4Java = "org.lz4" % "lz4-java" % "1.8.0"
+    val zstdJni = "com.github.luben" % "zstd-jni" % "1.5.5-11" // BSD 2-Clause
 
     val logback = "ch.qos.logback" % "logback-classic" % logbackVersion
 
@@ -178,6 +179,10 @@ object Dependencies {
       val tinybundles = "org.ops4j.pax.tinybundles" % "tinybundles" % "3.0.0" % Test
       val log4j = "log4j" % "log4j" % "1.2.17" % Test
 
+      // compression codecs that are optional for pekko-stream
+      val lz4Java = Compile.lz4Java % Test
+      val zstdJni = Compile.zstdJni % Test
+
       // in-memory filesystem for file related tests
       val jimfs = "com.google.jimfs" % "jimfs" % "1.1" % Test
 
@@ -223,6 +228,9 @@ object Dependencies {
 
       val protobufRuntime = "com.google.protobuf" % "protobuf-java" % protobufJavaVersion % "optional;provided"
 
+      val lz4Java = Compile.lz4Java % "optional;provided"
+      val zstdJni = Compile.zstdJni % "optional;provided"
+
     }
 
   }
@@ -366,11 +374,17 @@ object Dependencies {
     Docs.gson,
     Provided.levelDB)
 
-  val benchJmh = l ++= Seq(logback, Provided.levelDB, Provided.levelDBNative, Compile.jctools)
+  val benchJmh =
+    l ++= Seq(logback, Provided.levelDB, Provided.levelDBNative, Provided.zstdJni, Compile.jctools)
 
   // pekko stream
 
-  lazy val stream = l ++= Seq[sbt.ModuleID](reactiveStreams, sslConfigCore.value, TestDependencies.scalatest.value)
+  lazy val stream = l ++= Seq[sbt.ModuleID](
+    reactiveStreams,
+    sslConfigCore.value,
+    Provided.lz4Java,
+    Provided.zstdJni,
+    TestDependencies.scalatest.value)
 
   lazy val streamTestkit = l ++= Seq(
     TestDependencies.scalatest.value,
@@ -382,7 +396,9 @@ object Dependencies {
     TestDependencies.scalatestScalaCheck.value,
     TestDependencies.junit,
     TestDependencies.commonsIo,
-    TestDependencies.jimfs)
+    TestDependencies.jimfs,
+    TestDependencies.lz4Java,
+    TestDependencies.zstdJni)
 
   lazy val streamTestsTck = l ++= Seq(
     TestDependencies.scalatest.value,
@@ -96,6 +96,8 @@ object OSGi {
         scalaParsingCombinatorImport(),
         sslConfigCoreImport("com.typesafe.sslconfig.ssl.*"),
         sslConfigCoreImport("com.typesafe.sslconfig.util.*"),
+        optionalResolution("com.github.luben.zstd.*"),
+        optionalResolution("net.jpountz.*"),
         "!com.typesafe.sslconfig.pekko.*"))
 
   val streamTestkit = exports(Seq("org.apache.pekko.stream.testkit.*"))
@@ -95,8 +95,10 @@ class DslConsistencySpec extends AnyWordSpec with Matchers {
     jFlowClass -> graphHelpers,
     jSourceClass -> (graphHelpers ++ Set("watch", "ask")),
     // Java subflows can only be nested using .via and .to (due to type system restrictions)
-    jSubFlowClass -> (graphHelpers ++ Set("groupBy", "splitAfter", "splitWhen", "subFlow", "watch", "ask")),
-    jSubSourceClass -> (graphHelpers ++ Set("groupBy", "splitAfter", "splitWhen", "subFlow", "watch", "ask")),
+    jSubFlowClass -> (graphHelpers ++
+      Set("groupBy", "groupByWithEviction", "splitAfter", "splitWhen", "subFlow", "watch", "ask")),
+    jSubSourceClass -> (graphHelpers ++
+      Set("groupBy", "groupByWithEviction", "splitAfter", "splitWhen", "subFlow", "watch", "ask")),
     sFlowClass -> Set("of"),
     sSourceClass -> Set("adapt", "from", "watch"),
     sSinkClass -> Set("adapt"),
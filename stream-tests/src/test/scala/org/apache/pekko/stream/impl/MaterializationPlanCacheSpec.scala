@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.impl
+
+import scala.concurrent.Future
+
+import org.apache.pekko
+import pekko.stream._
+import pekko.stream.scaladsl._
+import pekko.stream.testkit.{ StreamSpec, TestPublisher, TestSubscriber }
+import pekko.stream.testkit.scaladsl.{ TestSink, TestSource }
+
+class MaterializationPlanCacheSpec extends StreamSpec("""
+    pekko.stream.materializer.materialization-plan-cache-size = 256
+  """) {
+
+  "The materialization plan cache" must {
+
+    "materialize a blueprint the same way every time" in {
+      val graph: RunnableGraph[(Int, Future[Seq[Int]])] =
+        Source(1 to 10)
+          .mapMaterializedValue(_ => 42)
+          .map(_ * 2)
+          .async
+          .filter(_ % 3 != 0)
+          .toMat(Sink.seq)(Keep.both)
+
+      (1 to 5).foreach { _ =>
+        val (mat, result) = graph.run()
+        mat should ===(42)
+        result.futureValue should ===((1 to 10).map(_ * 2).filter(_ % 3 != 0))
+      }
+    }
+
+    "create new materialized values and logics for every materialization" in {
+      val graph: RunnableGraph[(TestPublisher.Probe[Int], TestSubscriber.Probe[Int])] =
+        TestSource[Int]().via(Flow[Int].map(_ + 1).async).toMat(TestSink[Int]())(Keep.both)
+
+      val runs = (1 to 3).map(_ => graph.run())
+      runs.map(_._1).distinct.size should ===(3)
+
+      runs.zipWithIndex.foreach {
+        case ((pub, sub), i) =>
+          sub.request(1)
+          pub.sendNext(i)
+          sub.expectNext(i + 1)
+          pub.sendComplete()
+          sub.expectComplete()
+      }
+    }
+
+    "wire fan-out and fan-in junctions across islands" in {
+      val graph: RunnableGraph[Future[Seq[Int]]] = RunnableGraph.fromGraph(GraphDSL.createGraph(Sink.seq[Int]) {
+        implicit b => sink =>
+          import GraphDSL.Implicits._
+          val broadcast = b.add(Broadcast[Int](2))
+          val merge = b.add(Merge[Int](2))
+          Source(1 to 3) ~> broadcast
+          broadcast.out(0) ~> Flow[Int].map(_ * 10).async ~> merge.in(0)
+          broadcast.out(1) ~> Flow[Int].map(-_) ~> merge.in(1)
+          merge.out ~> sink
+          ClosedShape
+      })
+
+      (1 to 5).foreach { _ =>
+        graph.run().futureValue.sorted should ===(Seq(-3, -2, -1, 10, 20, 30))
+      }
+    }
+
+    "keep a plan when one-off blueprints are materialized in between" in {
+      val cache = new MaterializationPlanCache(1)
+      val attributes = Attributes.none
+      val hot = new AnyRef
+      val plan = new MaterializationPlan.Recorder(
+        PhasedFusingActorMaterializer.DefaultPhase,
+        PhasedFusingActorMaterializer.DefaultPhases).plan
+
+      cache.seenBefore(hot, attributes) should ===(false)
+      cache.seenBefore(hot, attributes) should ===(true)
+      cache.put(hot, attributes, plan)
+
+      (1 to 10).foreach { _ =>
+        val oneOff = new AnyRef
+        cache.get(oneOff, attributes) shouldBe null
+        cache.seenBefore(oneOff, attributes) should ===(false)
+        cache.get(hot, attributes) should be theSameInstanceAs plan
+      }
+    }
+
+    "materialize a blueprint with sub streams" in {
+      // the sub streams are materialized by the sub-fusing materializer, which does not use the cache
+      val graph = Source(1 to 3).flatMapConcat(i => Source.single(i).map(_ + 1)).toMat(Sink.seq)(Keep.right)
+      (1 to 3).foreach { _ =>
+        graph.run().futureValue should ===(Seq(2, 3, 4))
+      }
+    }
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.impl.fusing
+
+import scala.concurrent.duration._
+
+import org.apache.pekko
+import pekko.stream._
+import pekko.stream.scaladsl._
+import pekko.stream.testkit.StreamSpec
+import pekko.stream.testkit.TestPublisher
+import pekko.testkit.TimingTest
+
+class AdaptiveInputBufferSpec extends StreamSpec {
+
+  private val adaptive = Attributes.inputBuffer(2, 16).and(Attributes.adaptiveInputBuffer(true))
+
+  private def subscribe(attributes: Attributes): TestPublisher.ManualProbe[Int] = {
+    val upstream = TestPublisher.manualProbe[Int]()
+    Source.fromPublisher(upstream).map(identity).to(Sink.ignore).withAttributes(attributes).run()
+    upstream
+  }
+
+  "An asynchronous input boundary" must {
+
+    "request the maximum input buffer size when not adaptive" in {
+      val upstream = subscribe(Attributes.inputBuffer(2, 16))
+      upstream.expectSubscription().expectRequest() should ===(16L)
+    }
+
+    "request the initial input buffer size first when adaptive" in {
+      val upstream = subscribe(adaptive)
+      upstream.expectSubscription().expectRequest() should ===(2L)
+    }
+
+    "request more when downstream waits for the round trip of the requests" taggedAs TimingTest in {
+      val upstream = subscribe(adaptive)
+      val subscription = upstream.expectSubscription()
+
+      // answers the requests of every 20 millis at once, so that the window is what limits the throughput
+      var largestRequest = 0L
+      var rounds = 0
+      while (largestRequest < 8 && rounds < 50) {
+        val requests = upstream.receiveWhile(max = 20.millis) { case TestPublisher.RequestMore(_, n) => n }
+        if (requests.nonEmpty) largestRequest = math.max(largestRequest, requests.max)
+        (1L to requests.sum).foreach(_ => subscription.sendNext(1))
+        rounds += 1
+      }
+      largestRequest should be >= 8L
+      subscription.sendComplete()
+    }
+
+    "emit all elements in order" in {
+      Source(1 to 1000).async.map(identity).withAttributes(adaptive).runWith(Sink.seq).futureValue should ===(
+        1 to 1000)
+    }
+
+    "emit all elements in order when downstream is slower" in {
+      Source(1 to 100)
+        .async
+        .throttle(1000, 1.second)
+        .withAttributes(adaptive)
+        .runWith(Sink.seq)
+        .futureValue should ===(1 to 100)
+    }
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.io
+
+import java.nio.file.{ Files, NoSuchFileException, Path }
+import java.nio.file.StandardOpenOption.{ APPEND, CREATE, WRITE }
+
+import scala.concurrent.Future
+
+import org.apache.pekko
+import pekko.stream.{ Attributes, IOOperationIncompleteException, IOResult }
+import pekko.stream.scaladsl.{ FileIO, Keep, Sink, Source }
+import pekko.stream.testkit._
+import pekko.stream.testkit.Utils.UnboundedMailboxConfig
+import pekko.stream.testkit.scaladsl.TestSink
+import pekko.util.ByteString
+
+class AsyncFileIOSpec extends StreamSpec(UnboundedMailboxConfig) {
+
+  // not a multiple of the chunk sizes used below
+  val TestText = (0 until 2500).map(i => ('a' + i % 26).toChar).mkString
+
+  "FileIO.fromPathAsync" must {
+    "read the contents of a file in chunks" in {
+      withFile(TestText) { f =>
+        val (chunks, result) = readAll(FileIO.fromPathAsync(f, chunkSize = 512))
+        chunks.map(_.size) should ===(List(512, 512, 512, 512, 452))
+        chunks.reduce(_ ++ _).utf8String should ===(TestText)
+        result.count should ===(2500L)
+      }
+    }
+
+    "emit the chunks in file order with many reads in flight" in {
+      withFile(TestText * 40) { f =>
+        val (chunks, _) =
+          readAll(FileIO.fromPathAsync(f, chunkSize = 7).withAttributes(Attributes.maxInFlightFileOperations(64)))
+        chunks.reduce(_ ++ _).utf8String should ===(TestText * 40)
+      }
+    }
+
+    "read with a single read in flight" in {
+      withFile(TestText) { f =>
+        val (chunks, _) =
+          readAll(FileIO.fromPathAsync(f, chunkSize = 100).withAttributes(Attributes.maxInFlightFileOperations(1)))
+        chunks.size should ===(25)
+        chunks.reduce(_ ++ _).utf8String should ===(TestText)
+      }
+    }
+
+    "read from the start position" in {
+      withFile(TestText) { f =>
+        val (chunks, result) = readAll(FileIO.fromPathAsync(f, chunkSize = 512, startPosition = 2000))
+        chunks.reduce(_ ++ _).utf8String should ===(TestText.drop(2000))
+        result.count should ===(2500L)
+      }
+    }
+
+    "complete an empty file without elements" in {
+      withFile("") { f =>
+        val (chunks, result) = readAll(FileIO.fromPathAsync(f))
+        chunks should ===(Nil)
+        result.count should ===(0L)
+      }
+    }
+
+    "only read ahead as many chunks as are allowed in flight" in {
+      withFile(TestText) { f =>
+        val probe = FileIO
+          .fromPathAsync(f, chunkSize = 100)
+          .withAttributes(Attributes.maxInFlightFileOperations(2))
+          .runWith(TestSink.probe)
+        probe.request(1)
+        probe.expectNext().utf8String should ===(TestText.take(100))
+        probe.expectNoMessage()
+        probe.request(1)
+        probe.expectNext().utf8String should ===(TestText.slice(100, 200))
+        probe.cancel()
+      }
+    }
+
+    "fail the materialized value for a missing file" in {
+      val f = Files.createTempFile("async-file-spec", ".tmp")
+      Files.delete(f)
+      val (result, done) = FileIO.fromPathAsync(f).toMat(Sink.ignore)(Keep.both).run()
+      result.failed.futureValue shouldBe a[NoSuchFileException]
+      done.failed.futureValue shouldBe a[NoSuchFileException]
+    }
+  }
+
+  "FileIO.toPathAsync" must {
+    "write all elements in order" in {
+      withFile("") { f =>
+        val result = Source(TestText.grouped(33).map(ByteString(_)).toList)
+          .runWith(FileIO.toPathAsync(f).withAttributes(Attributes.maxInFlightFileOperations(16)))
+          .futureValue
+        result.count should ===(2500L)
+        new String(Files.readAllBytes(f), "UTF-8") should ===(TestText)
+      }
+    }
+
+    "skip empty elements" in {
+      withFile("") { f =>
+        val result = Source(List(ByteString("abc"), ByteString.empty, ByteString("def")))
+          .runWith(FileIO.toPathAsync(f))
+          .futureValue
+        result.count should ===(6L)
+        new String(Files.readAllBytes(f), "UTF-8") should ===("abcdef")
+      }
+    }
+
+    "overwrite an existing file by default" in {
+      withFile("x" * 5000) { f =>
+        Source.single(ByteString(TestText)).runWith(FileIO.toPathAsync(f)).futureValue.count should ===(2500L)
+        new String(Files.readAllBytes(f), "UTF-8") should ===(TestText)
+      }
+    }
+
+    "write from the start position without wiping existing data" in {
+      withFile("x" * 5000) { f =>
+        Source.single(ByteString("abc")).runWith(FileIO.toPathAsync(f, Set(WRITE), startPosition = 10)).futureValue
+        val contents = new String(Files.readAllBytes(f), "UTF-8")
+        contents should ===("x" * 10 + "abc" + "x" * 4987)
+      }
+    }
+
+    "append to the end of the file" in {
+      withFile("abc") { f =>
+        Source(List(ByteString("de"), ByteString("f")))
+          .runWith(FileIO.toPathAsync(f, Set(WRITE, CREATE, APPEND)))
+          .futureValue
+        new String(Files.readAllBytes(f), "UTF-8") should ===("abcdef")
+      }
+    }
+
+    "fail the materialized value when upstream fails" in {
+      withFile("") { f =>
+        val result = Source
+          .single(ByteString("abc"))
+          .concat(Source.failed(new RuntimeException("boom")))
+          .runWith(FileIO.toPathAsync(f))
+        result.failed.futureValue shouldBe an[IOOperationIncompleteException]
+      }
+    }
+
+    "be readable by fromPathAsync" in {
+      withFile("") { f =>
+        Source(TestText.grouped(100).map(ByteString(_)).toList).runWith(FileIO.toPathAsync(f)).futureValue
+        readAll(FileIO.fromPathAsync(f, 1000))._1.reduce(_ ++ _).utf8String should ===(TestText)
+      }
+    }
+  }
+
+  private def readAll(source: Source[ByteString, Future[IOResult]]): (List[ByteString], IOResult) = {
+    val (result, chunks) = source.toMat(Sink.seq)(Keep.both).run()
+    (chunks.futureValue.toList, result.futureValue)
+  }
+
+  private def withFile(contents: String)(block: Path => Unit): Unit = {
+    val f = Files.createTempFile("async-file-spec", ".tmp")
+    try {
+      Files.write(f, contents.getBytes("UTF-8"))
+      block(f)
+    } finally Files.delete(f)
+  }
+}
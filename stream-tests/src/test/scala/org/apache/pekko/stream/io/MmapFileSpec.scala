@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.io
+
+import java.nio.file.{ Files, NoSuchFileException, Path }
+import java.nio.file.StandardOpenOption.{ CREATE, WRITE }
+
+import scala.concurrent.Future
+
+import org.apache.pekko
+import pekko.stream.{ FileSyncPolicy, IOResult }
+import pekko.stream.scaladsl.{ FileIO, Keep, Sink, Source }
+import pekko.stream.testkit._
+import pekko.stream.testkit.Utils.UnboundedMailboxConfig
+import pekko.util.ByteString
+
+class MmapFileSpec extends StreamSpec(UnboundedMailboxConfig) {
+
+  // not a multiple of the chunk and region sizes used below
+  val TestText = (0 until 2500).map(i => ('a' + i % 26).toChar).mkString
+
+  "FileIO.mmapSource" must {
+    "read the contents of a file in chunks" in {
+      withFile(TestText) { f =>
+        val (chunks, result) = readAll(FileIO.mmapSource(f, chunkSize = 512))
+        chunks.map(_.size) should ===(List(512, 512, 512, 512, 452))
+        chunks.reduce(_ ++ _).utf8String should ===(TestText)
+        result.count should ===(2500L)
+      }
+    }
+
+    "read across several mapped regions" in {
+      withFile(TestText) { f =>
+        // the region size is rounded down to a multiple of the chunk size
+        val (chunks, _) = readAll(FileIO.mmapSource(f, chunkSize = 300, regionSize = 1000, startPosition = 0))
+        chunks.init.foreach(_.size should ===(300))
+        chunks.reduce(_ ++ _).utf8String should ===(TestText)
+      }
+    }
+
+    "read from the start position" in {
+      withFile(TestText) { f =>
+        val (chunks, result) = readAll(FileIO.mmapSource(f, chunkSize = 512, regionSize = 1024, startPosition = 2000))
+        chunks.reduce(_ ++ _).utf8String should ===(TestText.drop(2000))
+        result.count should ===(2500L)
+      }
+    }
+
+    "complete an empty file without elements" in {
+      withFile("") { f =>
+        val (chunks, _) = readAll(FileIO.mmapSource(f))
+        chunks should ===(Nil)
+      }
+    }
+
+    "fail the materialized value for a missing file" in {
+      val f = Files.createTempFile("mmap-file-spec", ".tmp")
+      Files.delete(f)
+      val result = FileIO.mmapSource(f).runWith(Sink.ignore)
+      result.failed.futureValue shouldBe a[NoSuchFileException]
+    }
+  }
+
+  "FileIO.mmapSink" must {
+    "write elements across mapped regions and truncate the file to the written bytes" in {
+      withFile("") { f =>
+        val result = Source(TestText.grouped(333).map(ByteString(_)).toList)
+          .runWith(FileIO.mmapSink(f, Set(WRITE, CREATE), regionSize = 1000, FileSyncPolicy.everyRegion, 0))
+          .futureValue
+        result.count should ===(2500L)
+        new String(Files.readAllBytes(f), "UTF-8") should ===(TestText)
+      }
+    }
+
+    "write all mapped regions when syncing on completion" in {
+      withFile("") { f =>
+        val result = Source(TestText.grouped(100).map(ByteString(_)).toList)
+          .runWith(FileIO.mmapSink(f, Set(WRITE, CREATE), regionSize = 512, FileSyncPolicy.onComplete, 0))
+          .futureValue
+        result.count should ===(2500L)
+        new String(Files.readAllBytes(f), "UTF-8") should ===(TestText)
+      }
+    }
+
+    "overwrite an existing file by default" in {
+      withFile("x" * 5000) { f =>
+        Source.single(ByteString(TestText)).runWith(FileIO.mmapSink(f)).futureValue.count should ===(2500L)
+        new String(Files.readAllBytes(f), "UTF-8") should ===(TestText)
+      }
+    }
+
+    "write from the start position without wiping existing data" in {
+      withFile("x" * 5000) { f =>
+        Source
+          .single(ByteString("abc"))
+          .runWith(FileIO.mmapSink(f, Set(WRITE), regionSize = 1024, FileSyncPolicy.onComplete, startPosition = 10))
+          .futureValue
+        val contents = new String(Files.readAllBytes(f), "UTF-8")
+        contents should ===("x" * 10 + "abc" + "x" * 4987)
+      }
+    }
+
+    "be readable by mmapSource" in {
+      withFile("") { f =>
+        Source(TestText.grouped(100).map(ByteString(_)).toList).runWith(FileIO.mmapSink(f)).futureValue
+        readAll(FileIO.mmapSource(f, 1000))._1.reduce(_ ++ _).utf8String should ===(TestText)
+      }
+    }
+  }
+
+  private def readAll(source: Source[ByteString, Future[IOResult]]): (List[ByteString], IOResult) = {
+    val (result, chunks) = source.toMat(Sink.seq)(Keep.both).run()
+    (chunks.futureValue.toList, result.futureValue)
+  }
+
+  private def withFile(contents: String)(block: Path => Unit): Unit = {
+    val f = Files.createTempFile("mmap-file-spec", ".tmp")
+    try {
+      Files.write(f, contents.getBytes("UTF-8"))
+      block(f)
+    } finally Files.delete(f)
+  }
+}
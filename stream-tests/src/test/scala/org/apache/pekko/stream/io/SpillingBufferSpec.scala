@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.io
+
+import java.nio.ByteBuffer
+import java.nio.file.{ Files, Path }
+
+import org.apache.pekko
+import pekko.stream.{ Attributes, SpillingBufferMetrics }
+import pekko.stream.scaladsl.{ Flow, Keep, Source, SpillingBuffer }
+import pekko.stream.testkit._
+import pekko.stream.testkit.Utils.UnboundedMailboxConfig
+import pekko.stream.testkit.scaladsl.{ TestSink, TestSource }
+import pekko.util.ByteString
+import pekko.util.ccompat.JavaConverters._
+
+class SpillingBufferSpec extends StreamSpec(UnboundedMailboxConfig) {
+
+  // every spilled element takes 8 bytes in a segment, its length and the int
+  private def serialize(i: Int): ByteString = ByteString.fromArrayUnsafe(ByteBuffer.allocate(4).putInt(i).array())
+  private def deserialize(bytes: ByteString): Int = bytes.asByteBuffer.getInt
+
+  private def buffer(directory: Path, memorySize: Int, maxDiskBytes: Long): Flow[Int, Int, SpillingBufferMetrics] =
+    SpillingBuffer[Int](memorySize, directory, maxDiskBytes, segmentSize = 40)(serialize, deserialize)
+
+  "A SpillingBuffer" must {
+
+    "pass elements through when downstream keeps up" in withDirectory { dir =>
+      Source(1 to 1000)
+        .via(buffer(dir, 4, 400))
+        .runWith(TestSink.probe[Int])
+        .request(1000)
+        .expectNextN(1 to 1000)
+        .expectComplete()
+      awaitAssert(segmentFiles(dir) should ===(0))
+    }
+
+    "spill the elements that do not fit into memory and emit them in order" in withDirectory { dir =>
+      val (metrics, probe) =
+        Source(1 to 50).viaMat(buffer(dir, 4, 400))(Keep.right).toMat(TestSink.probe[Int])(Keep.both).run()
+
+      awaitAssert {
+        metrics.elementsInMemory should ===(4)
+        metrics.elementsOnDisk should ===(46L)
+      }
+      // five elements per segment
+      metrics.bytesOnDisk should ===(10L * 40)
+      segmentFiles(dir) should ===(10)
+      metrics.spilledElements should ===(46L)
+      metrics.spilledBytes should ===(46L * 4)
+
+      probe.request(50).expectNextN(1 to 50).expectComplete()
+      awaitAssert(metrics.elementsOnDisk should ===(0L))
+      // the last segment is kept for reuse until the stream stops
+      awaitAssert(segmentFiles(dir) should ===(0))
+    }
+
+    "backpressure when the disk space is used up" in withDirectory { dir =>
+      val ((upstream, metrics), downstream) =
+        TestSource[Int]()
+          .viaMat(buffer(dir, 2, 80))(Keep.both)
+          .toMat(TestSink.probe[Int])(Keep.both)
+          .withAttributes(Attributes.inputBuffer(1, 1))
+          .run()
+
+      // two elements in memory, ten on disk, one that is held back until there is room and one more in the input buffer
+      (1 to 14).foreach(upstream.sendNext)
+      awaitAssert {
+        metrics.elementsInMemory should ===(2)
+        metrics.elementsOnDisk should ===(10L)
+      }
+      upstream.expectNoMessage()
+
+      // reading the first five spilled elements frees their segment
+      downstream.request(6).expectNextN(1 to 6)
+      upstream.sendNext(15)
+      upstream.sendComplete()
+      downstream.request(9).expectNextN(7 to 15).expectComplete()
+    }
+
+    "complete when upstream finished while an element was held back" in withDirectory { dir =>
+      val (metrics, downstream) =
+        Source(1 to 13).viaMat(buffer(dir, 2, 80))(Keep.right).toMat(TestSink.probe[Int])(Keep.both).run()
+
+      // two elements in memory, ten on disk and the last one held back after upstream finished
+      awaitAssert {
+        metrics.elementsInMemory should ===(2)
+        metrics.elementsOnDisk should ===(10L)
+      }
+      downstream.request(13).expectNextN(1 to 13).expectComplete()
+      awaitAssert(segmentFiles(dir) should ===(0))
+    }
+
+    "delete the segment files when the stream is cancelled" in withDirectory { dir =>
+      val probe = Source(1 to 50).via(buffer(dir, 4, 400)).runWith(TestSink.probe[Int])
+      awaitAssert(segmentFiles(dir) should ===(10))
+      probe.request(1).expectNext(1)
+      probe.cancel()
+      awaitAssert(segmentFiles(dir) should ===(0))
+    }
+
+    "fail when a serialized element does not fit into a segment" in withDirectory { dir =>
+      val tooLarge = SpillingBuffer[Int](1, dir, 400, segmentSize = 40)(_ => ByteString(new Array[Byte](100)), _ => 0)
+      val probe = Source(1 to 3).via(tooLarge).runWith(TestSink.probe[Int])
+      probe.ensureSubscription()
+      probe.expectError() shouldBe an[IllegalArgumentException]
+      awaitAssert(segmentFiles(dir) should ===(0))
+    }
+
+    "reject a disk space smaller than a segment" in withDirectory { dir =>
+      an[IllegalArgumentException] should be thrownBy buffer(dir, 4, 39)
+    }
+  }
+
+  private def segmentFiles(dir: Path): Int = {
+    val files = Files.list(dir)
+    try files.iterator().asScala.size
+    finally files.close()
+  }
+
+  private def withDirectory(block: Path => Unit): Unit = {
+    val dir = Files.createTempDirectory("spilling-buffer-spec")
+    try block(dir)
+    finally {
+      val files = Files.list(dir)
+      try files.iterator().asScala.foreach(Files.delete)
+      finally files.close()
+      Files.delete(dir)
+    }
+  }
+}
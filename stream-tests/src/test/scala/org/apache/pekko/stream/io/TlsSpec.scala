@@ -13,6 +13,7 @@
 
 package org.apache.pekko.stream.io
 
+import java.nio.ByteBuffer
 import java.security.KeyStore
 import java.security.SecureRandom
 import java.security.cert.CertificateException
@@ -118,7 +119,12 @@ class TlsSpec extends StreamSpec(TlsSpec.configOverrides) with WithLogCapturing
     if (JavaVersion.majorVersion >= 11)
       "work for TLSv1.3" must { workFor("TLSv1.3", TLS13Ciphers) }
 
-    def workFor(protocol: String, ciphers: Set[String]): Unit = {
+    "work for TLSv1.2 when fused" must { workFor("TLSv1.2", TLS12Ciphers, fused = true) }
+
+    if (JavaVersion.majorVersion >= 11)
+      "work for TLSv1.3 when fused" must { workFor("TLSv1.3", TLS13Ciphers, fused = true) }
+
+    def workFor(protocol: String, ciphers: Set[String], fused: Boolean = false): Unit = {
       val sslContext = initSslContext(protocol)
 
       val debug = Flow[SslTlsInbound].map { x =>
@@ -159,14 +165,17 @@ class TlsSpec extends StreamSpec(TlsSpec.configOverrides) with WithLogCapturing
         engine
       }
 
+      def tls(engineFactory: () => SSLEngine, closing: TLSClosing) =
+        if (fused) TLS.fused(engineFactory, closing) else TLS(engineFactory, closing)
+
       def clientTls(closing: TLSClosing) =
-        TLS(() => createSSLEngine(sslContext, Client), closing)
+        tls(() => createSSLEngine(sslContext, Client), closing)
 
       def badClientTls(closing: TLSClosing) =
-        TLS(() => createSSLEngine(initWithTrust("/badtruststore", protocol), Client), closing)
+        tls(() => createSSLEngine(initWithTrust("/badtruststore", protocol), Client), closing)
 
       def serverTls(closing: TLSClosing) =
-        TLS(() => createSSLEngine(sslContext, Server), closing)
+        tls(() => createSSLEngine(sslContext, Server), closing)
 
       trait Named {
         def name: String =
@@ -526,6 +535,32 @@ class TlsSpec extends StreamSpec(TlsSpec.configOverrides) with WithLogCapturing
         pub.expectSubscription().expectCancellation()
       }
 
+      if (fused)
+        "close the SSLEngine when the stream fails" in {
+          val engine = createSSLEngine(sslContext, Client)
+          val ex = new Exception("hello")
+          val out =
+            RunnableGraph
+              .fromGraph(GraphDSL.createGraph(Sink.head[SslTlsInbound]) { implicit b => o =>
+                val stage = b.add(tls(() => engine, EagerClose))
+                Source.never[SslTlsOutbound] ~> stage.in1
+                stage.out1                   ~> Sink.ignore
+                o <~ stage.out2
+                stage.in2 <~ Source.failed(ex)
+                ClosedShape
+              })
+              .run()
+          the[Exception] thrownBy Await.result(out, 1.second) should be(ex)
+          awaitAssert(engine.isInboundDone should ===(true))
+          // the outbound side is only done once the alerts of the closed engine were wrapped
+          val transport = ByteBuffer.allocate(engine.getSession.getPacketBufferSize)
+          def wrap() = {
+            transport.clear()
+            engine.wrap(ByteBuffer.allocate(0), transport).getStatus
+          }
+          Iterator.continually(wrap()).take(5).contains(SSLEngineResult.Status.CLOSED) should ===(true)
+        }
+
       "complete if TLS connection is truncated" in {
 
         val ks = KillSwitches.shared("ks")
@@ -565,7 +600,7 @@ class TlsSpec extends StreamSpec(TlsSpec.configOverrides) with WithLogCapturing
             case SessionTruncated   => SendBytes(ByteString.empty)
             case SessionBytes(_, b) => SendBytes(b)
           }
-          val clientTls = TLS(
+          val clientTls = tls(
             () => createSSLEngine2(sslContext, Client, hostnameVerification = true, hostInfo = Some((hostName, 80))),
             EagerClose)
 
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.io
+
+import java.net.InetSocketAddress
+
+import scala.concurrent.duration._
+
+import org.apache.pekko
+import pekko.Done
+import pekko.io.{ Udp => IoUdp }
+import pekko.stream.BindFailedException
+import pekko.stream.impl.io.UdpBindSource
+import pekko.stream.scaladsl.{ Keep, Sink, Source, Udp }
+import pekko.stream.testkit.StreamSpec
+import pekko.stream.testkit.scaladsl.TestSink
+import pekko.testkit.TestProbe
+import pekko.util.ByteString
+
+class UdpSpec extends StreamSpec {
+
+  private def localhost = new InetSocketAddress("127.0.0.1", 0)
+
+  "Udp.bind" must {
+
+    "emit the datagrams received on the bound socket" in {
+      val (bound, probe) = Udp.bind(localhost).toMat(TestSink[Udp.Datagram]())(Keep.both).run()
+      val address = bound.futureValue
+      val payloads = (1 to 100).map(i => ByteString(s"datagram $i"))
+
+      Source(payloads).map(Udp.Datagram(_, address)).runWith(Udp.sendSink()).futureValue should ===(Done)
+
+      probe.request(payloads.size.toLong)
+      probe.expectNextN(payloads.size.toLong).map(_.data) should ===(payloads)
+      probe.cancel()
+    }
+
+    "keep the datagrams that arrive while downstream backpressures" in {
+      val (bound, probe) =
+        Udp.bind(localhost, Nil, maxBatchSize = 4, bufferSize = 8).toMat(TestSink[Udp.Datagram]())(Keep.both).run()
+      val address = bound.futureValue
+      // more than the buffer holds, so reading is suspended and resumed while they are emitted
+      val payloads = (1 to 20).map(i => ByteString(s"datagram $i"))
+
+      Source(payloads).map(Udp.Datagram(_, address)).runWith(Udp.sendSink()).futureValue should ===(Done)
+      probe.expectNoMessage(100.millis)
+
+      probe.request(payloads.size.toLong)
+      probe.expectNextN(payloads.size.toLong).map(_.data) should ===(payloads)
+      probe.cancel()
+    }
+
+    "suspend reading when the buffer is full and resume it once half of it was emitted" in {
+      val udpManager = TestProbe()
+      val probe = Source
+        .fromGraph(new UdpBindSource(udpManager.ref, localhost, Nil, maxBatchSize = 4, bufferSize = 8))
+        .runWith(TestSink[Udp.Datagram]())
+      val handler = udpManager.expectMsgType[IoUdp.Bind].handler
+      val listener = TestProbe()
+      handler.tell(IoUdp.Bound(localhost), listener.ref)
+      val datagrams = (1 to 8).map(i => Udp.Datagram(ByteString(s"datagram $i"), localhost))
+
+      handler.tell(IoUdp.ReceivedBatch(datagrams.take(4)), listener.ref)
+      listener.expectNoMessage(100.millis)
+      handler.tell(IoUdp.ReceivedBatch(datagrams.drop(4)), listener.ref)
+      listener.expectMsg(IoUdp.SuspendReading)
+
+      probe.request(3)
+      probe.expectNextN(datagrams.take(3))
+      listener.expectNoMessage(100.millis)
+      probe.request(1)
+      probe.expectNext(datagrams(3))
+      listener.expectMsg(IoUdp.ResumeReading)
+
+      probe.request(4)
+      probe.expectNextN(datagrams.drop(4))
+      probe.cancel()
+      listener.expectMsg(IoUdp.Unbind)
+    }
+
+    "fail the materialized value when the address cannot be bound" in {
+      val address = Udp.bind(localhost).to(Sink.ignore).run().futureValue
+      Udp.bind(address).to(Sink.ignore).run().failed.futureValue shouldBe a[BindFailedException]
+    }
+  }
+
+  "Udp.sendSink" must {
+
+    "complete when all datagrams have been sent" in {
+      Source.empty[Udp.Datagram].runWith(Udp.sendSink()).futureValue should ===(Done)
+    }
+
+    "fail when a datagram cannot be sent" in {
+      val unresolvable = new InetSocketAddress("some-unresolvable-host", 10000)
+      Source
+        .single(Udp.Datagram(ByteString("Can't be delivered"), unresolvable))
+        .runWith(Udp.sendSink())
+        .failed
+        .futureValue shouldBe an[java.io.IOException]
+    }
+  }
+}
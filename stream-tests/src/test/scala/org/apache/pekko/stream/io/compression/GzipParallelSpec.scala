@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.io.compression
+
+import java.io.ByteArrayInputStream
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.zip.{ Deflater, GZIPInputStream }
+
+import scala.concurrent.duration._
+
+import org.scalatest.wordspec.AnyWordSpec
+
+import org.apache.pekko
+import pekko.stream.ActorAttributes
+import pekko.stream.impl.io.compression.{ CompressionUtils, GzipCompressor }
+import pekko.stream.scaladsl.{ Compression, Source }
+import pekko.util.ByteString
+import pekko.util.ccompat.JavaConverters._
+
+class GzipParallelSpec extends AnyWordSpec with CodecSpecSupport {
+  import CompressionTestingTools._
+
+  private val BlockSize = 1024
+
+  private def gzipParallel(input: ByteString, chunkSize: Int = 100): ByteString =
+    Source(input.grouped(chunkSize).toList)
+      .via(Compression.gzipParallel(Deflater.BEST_SPEED, BlockSize, parallelism = 4))
+      .join
+      .awaitResult(3.seconds)
+
+  private def gunzip(compressed: ByteString, maxBytesPerChunk: Int = Compression.MaxBytesPerChunkDefault) =
+    Source.single(compressed).via(Compression.gunzip(maxBytesPerChunk)).join.awaitResult(3.seconds)
+
+  "Compression.gzipParallel" should {
+    "produce a valid gzip stream for empty input" in {
+      val compressed = gzipParallel(ByteString.empty)
+      compressed should not be empty
+      gunzip(compressed) should readAs("")
+    }
+
+    "emit one gzip member per block, in order" in {
+      val compressed = gzipParallel(largeTextBytes)
+      val header = ByteString(0x1F, 0x8B, 8, 0)
+      val members = Iterator
+        .iterate(compressed.indexOfSlice(header))(i => compressed.indexOfSlice(header, i + 1))
+        .takeWhile(_ >= 0)
+        .size
+      members should ===((largeTextBytes.length + BlockSize - 1) / BlockSize)
+      gunzip(compressed) should readAs(largeText)
+    }
+
+    "be readable by java.util.zip.GZIPInputStream" in {
+      val compressed = gzipParallel(largeTextBytes, chunkSize = 3000)
+      val in = new GZIPInputStream(new ByteArrayInputStream(compressed.toArray))
+      val decompressed = ByteString(Iterator.continually(in.read()).takeWhile(_ != -1).map(_.toByte).toArray)
+      decompressed should readAs(largeText)
+    }
+
+    "be decompressed with small output chunks and arbitrarily split input" in {
+      val compressed = gzipParallel(largeTextBytes)
+      gunzip(compressed, maxBytesPerChunk = 100) should readAs(largeText)
+      Source(compressed.grouped(17).toList)
+        .via(Compression.gunzip())
+        .join
+        .awaitResult(3.seconds) should readAs(largeText)
+    }
+
+    "compress on the configured dispatcher" in {
+      val threads = new ConcurrentLinkedQueue[String]
+      // the compressor of a block is created on the thread that compresses it
+      val newCompressor = () => {
+        threads.add(Thread.currentThread().getName)
+        new GzipCompressor(Deflater.BEST_SPEED)
+      }
+      Source(largeTextBytes.grouped(BlockSize).toList)
+        .via(
+          CompressionUtils
+            .parallelCompressorFlow(BlockSize, parallelism = 2, newCompressor)
+            .withAttributes(ActorAttributes.dispatcher("pekko.actor.internal-dispatcher")))
+        .via(Compression.gunzip())
+        .join
+        .awaitResult(3.seconds) should readAs(largeText)
+
+      threads.size should ===((largeTextBytes.length + BlockSize - 1) / BlockSize)
+      threads.asScala.foreach(_ should include("pekko.actor.internal-dispatcher"))
+    }
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.io.compression
+
+import java.io.{ IOException, InputStream, OutputStream }
+
+import scala.concurrent.duration._
+
+import net.jpountz.lz4.{ LZ4FrameInputStream, LZ4FrameOutputStream }
+
+import org.apache.pekko
+import pekko.stream.impl.io.compression.{ Compressor, Lz4Compressor }
+import pekko.stream.scaladsl.{ Compression, Flow, Source }
+import pekko.util.ByteString
+
+class Lz4Spec extends CoderSpec("lz4") {
+  import CompressionTestingTools._
+
+  protected def newCompressor(): Compressor = new Lz4Compressor
+  protected val encoderFlow: Flow[ByteString, ByteString, Any] = Compression.lz4
+  protected def decoderFlow(maxBytesPerChunk: Int): Flow[ByteString, ByteString, Any] =
+    Compression.lz4Decompress(maxBytesPerChunk)
+
+  protected def newDecodedInputStream(underlying: InputStream): InputStream =
+    new LZ4FrameInputStream(underlying)
+
+  protected def newEncodedOutputStream(underlying: OutputStream): OutputStream =
+    new LZ4FrameOutputStream(underlying)
+
+  // LZ4 doesn't report corruption with a DataFormatException
+  override protected def corruptInputCheck: Boolean = false
+
+  override def extraTests(): Unit = {
+    "decode concatenated frames" in {
+      ourDecode(Seq(encode("Hello, "), encode("dear "), encode("User!")).join) should readAs("Hello, dear User!")
+    }
+    "throw an error on corrupt input" in {
+      an[RuntimeException] should be thrownBy ourDecode(corruptContent)
+    }
+    "throw an error on truncated input" in {
+      val ex = the[RuntimeException] thrownBy ourDecode(streamEncode(smallTextBytes).dropRight(5))
+      ex.ultimateCause.getMessage should equal("Truncated LZ4 stream")
+    }
+    "throw early if header is corrupt" in {
+      val cause = (the[RuntimeException] thrownBy ourDecode(ByteString(0, 1, 2, 3, 4))).ultimateCause
+      cause should ((be(an[IOException]) and have).message("Not in LZ4 frame format"))
+    }
+    "emit blocks in chunks of at most maxBytesPerChunk" in {
+      val decoded = Source
+        .single(ourEncode(largeTextBytes))
+        .via(decoderFlow(maxBytesPerChunk = 100))
+        .runFold(Vector.empty[ByteString])(_ :+ _)
+        .awaitResult(3.seconds)
+      all(decoded.map(_.length)) should be <= 100
+      decoded.join should readAs(largeText)
+    }
+    "round-trip with the high compression compressor" in {
+      val compressed = new Lz4Compressor(9).compressAndFinish(largeTextBytes)
+      streamDecode(compressed) should readAs(largeText)
+      Source
+        .single(largeTextBytes)
+        .via(Compression.lz4(9))
+        .via(decoderFlow())
+        .join
+        .awaitResult(3.seconds) should readAs(largeText)
+    }
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.io.compression
+
+import java.io.{ InputStream, OutputStream }
+
+import scala.concurrent.duration._
+
+import com.github.luben.zstd.{ ZstdInputStream, ZstdOutputStream }
+
+import org.apache.pekko
+import pekko.stream.impl.io.compression.{ Compressor, ZstdCompressor }
+import pekko.stream.scaladsl.{ Compression, Flow, Source }
+import pekko.util.ByteString
+
+class ZstdSpec extends CoderSpec("zstd") {
+  import CompressionTestingTools._
+
+  protected def newCompressor(): Compressor = new ZstdCompressor
+  protected val encoderFlow: Flow[ByteString, ByteString, Any] = Compression.zstd
+  protected def decoderFlow(maxBytesPerChunk: Int): Flow[ByteString, ByteString, Any] =
+    Compression.zstdDecompress(maxBytesPerChunk)
+
+  protected def newDecodedInputStream(underlying: InputStream): InputStream =
+    new ZstdInputStream(underlying)
+
+  protected def newEncodedOutputStream(underlying: OutputStream): OutputStream =
+    new ZstdOutputStream(underlying)
+
+  // zstd doesn't report corruption with a DataFormatException
+  override protected def corruptInputCheck: Boolean = false
+
+  override def extraTests(): Unit = {
+    "decode concatenated frames" in {
+      ourDecode(Seq(encode("Hello, "), encode("dear "), encode("User!")).join) should readAs("Hello, dear User!")
+    }
+    "throw an error on corrupt input" in {
+      an[RuntimeException] should be thrownBy ourDecode(corruptContent)
+    }
+    "throw an error on truncated input" in {
+      val ex = the[RuntimeException] thrownBy ourDecode(streamEncode(largeTextBytes).dropRight(5))
+      ex.ultimateCause.getMessage should equal("Truncated ZSTD stream")
+    }
+    "decode output larger than maxBytesPerChunk that zstd buffered internally" in {
+      val decoded = Source
+        .single(ourEncode(largeTextBytes))
+        .via(decoderFlow(maxBytesPerChunk = 100))
+        .runFold(Vector.empty[ByteString])(_ :+ _)
+        .awaitResult(3.seconds)
+      all(decoded.map(_.length)) should be <= 100
+      decoded.join should readAs(largeText)
+    }
+    "round-trip with a dictionary and a custom level" in {
+      val dictionary = largeTextBytes
+      val withDictionary = new ZstdCompressor(19, dictionary).compressAndFinish(smallTextBytes)
+      withDictionary.length should be < ourEncode(smallTextBytes).length
+
+      Source
+        .single(smallTextBytes)
+        .via(Compression.zstd(19, dictionary))
+        .via(Compression.zstdDecompress(Compression.MaxBytesPerChunkDefault, dictionary))
+        .join
+        .awaitResult(3.seconds) should readAs(smallText)
+    }
+  }
+}
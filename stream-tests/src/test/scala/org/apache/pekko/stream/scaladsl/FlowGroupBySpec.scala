@@ -33,6 +33,7 @@ import pekko.stream._
 import pekko.stream.Attributes._
 import pekko.stream.Supervision.resumingDecider
 import pekko.stream.impl.SinkModule
+import pekko.stream.impl.SubscriptionTimeoutException
 import pekko.stream.impl.fusing.GroupBy
 import pekko.stream.testkit._
 import pekko.stream.testkit.Utils._
@@ -369,6 +370,84 @@ class FlowGroupBySpec extends StreamSpec("""
       down.expectComplete()
     }
 
+    "evict the least recently used substream when exceeding maxSubstreams" in {
+      val result = Source(List(1, 2, 1, 3, 2))
+        .groupByWithEviction(2, identity, SubstreamEvictionStrategy.leastRecentlyUsed)
+        .fold(Vector.empty[Int])(_ :+ _)
+        .mergeSubstreams
+        .runWith(Sink.seq)
+        .futureValue
+
+      // 2 is evicted for 3, then 1 is evicted for the second 2
+      result.sortBy(group => (group.head, group.size)) should ===(
+        Seq(Vector(1, 1), Vector(2), Vector(2), Vector(3)))
+    }
+
+    "evict a substream that has not been consumed yet without losing its element" in {
+      val (up, down) = Flow[Int]
+        .groupByWithEviction(1, identity, SubstreamEvictionStrategy.leastRecentlyUsed)
+        .prefixAndTail(0)
+        .mergeSubstreams
+        .runWith(TestSource.probe[Int], TestSink.probe)
+
+      down.request(2)
+      up.sendNext(1)
+      val first = down.expectNext()._2
+      up.sendNext(2)
+      val second = down.expectNext()._2
+
+      first.runWith(Sink.seq).futureValue should ===(Seq(1))
+      up.sendComplete()
+      second.runWith(Sink.seq).futureValue should ===(Seq(2))
+      down.expectComplete()
+    }
+
+    "complete after upstream finished when an evicted substream is never materialized" in {
+      val upstream = TestPublisher.probe[Int]()
+      val downstream = TestSubscriber.probe[Source[Int, NotUsed]]()
+
+      Source
+        .fromPublisher(upstream)
+        .via(new GroupBy[Int, Int](1, identity, evictionStrategy = SubstreamEvictionStrategy.leastRecentlyUsed))
+        .withAttributes(
+          ActorAttributes.streamSubscriptionTimeout(300.millis, StreamSubscriptionTimeoutTerminationMode.cancel))
+        .runWith(Sink.fromSubscriber(downstream))
+
+      downstream.request(2)
+      upstream.sendNext(1)
+      val unmaterialized = downstream.expectNext()
+      // evicts the substream of 1 before its first element was pulled
+      upstream.sendNext(2)
+      val second = downstream.expectNext().runWith(Sink.seq)
+      upstream.sendComplete()
+      second.futureValue should ===(Seq(2))
+
+      downstream.expectComplete()
+      a[SubscriptionTimeoutException] should be thrownBy {
+        Await.result(unmaterialized.runWith(Sink.ignore), 3.seconds)
+      }
+    }
+
+    "complete idle substreams" in {
+      val (up, down) = Flow[Int]
+        .groupByWithEviction(10, _ % 2, SubstreamEvictionStrategy.idleTimeout(200.millis))
+        .fold(0)(_ + _)
+        .mergeSubstreams
+        .runWith(TestSource.probe[Int], TestSink.probe)
+
+      down.request(3)
+      up.sendNext(1)
+      up.sendNext(3)
+      down.expectNext(3.seconds, 4)
+      // the key of the evicted substream opens a new substream
+      up.sendNext(5)
+      down.expectNext(3.seconds, 5)
+      up.sendNext(2)
+      up.sendComplete()
+      down.expectNext(2)
+      down.expectComplete()
+    }
+
     "emit subscribe before completed" in {
       val futureGroupSource =
         Source.single(0).groupBy(1, _ => "all").prefixAndTail(0).map(_._2).concatSubstreams.runWith(Sink.head)
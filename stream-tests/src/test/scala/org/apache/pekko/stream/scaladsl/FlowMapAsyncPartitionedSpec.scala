@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.scaladsl
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
+
+import scala.concurrent.Await
+import scala.concurrent.Future
+import scala.concurrent.Promise
+import scala.concurrent.duration._
+import scala.util.control.NoStackTrace
+
+import org.apache.pekko
+import pekko.stream.ActorAttributes.supervisionStrategy
+import pekko.stream.Supervision.resumingDecider
+import pekko.stream.testkit._
+import pekko.stream.testkit.scaladsl._
+
+class FlowMapAsyncPartitionedSpec extends StreamSpec {
+
+  "A Flow with mapAsyncPartitioned" must {
+
+    "keep the order within a partition" in {
+      implicit val ec = system.dispatcher
+      val result = Source(1 to 100)
+        .mapAsyncPartitioned(8, 2)(_ % 3) { (n, _) =>
+          Future {
+            Thread.sleep(n % 5)
+            n
+          }
+        }
+        .runWith(Sink.seq)
+        .futureValue
+
+      result.toSet should ===((1 to 100).toSet)
+      (0 until 3).foreach { partition =>
+        result.filter(_ % 3 == partition) should ===((1 to 100).filter(_ % 3 == partition))
+      }
+    }
+
+    "not block other partitions on a slow element" in {
+      val promises = (1 to 4).map(_ => Promise[Int]())
+      val c = TestSubscriber.manualProbe[Int]()
+      Source(1 to 4)
+        .mapAsyncPartitioned(4, 1)(n => n % 2)((n, _) => promises(n - 1).future)
+        .to(Sink.fromSubscriber(c))
+        .run()
+      val sub = c.expectSubscription()
+      sub.request(4)
+
+      // 2 is not waiting for 1 since it belongs to another partition
+      promises(1).success(2)
+      c.expectNext(2)
+      // 3 is waiting for 1 in the same partition
+      promises(2).success(3)
+      c.expectNoMessage(100.millis)
+      promises(0).success(1)
+      c.expectNext(1)
+      c.expectNext(3)
+      promises(3).success(4)
+      c.expectNext(4)
+      c.expectComplete()
+    }
+
+    "respect the per partition and global parallelism" in {
+      implicit val ec = system.dispatcher
+      val globalInFlight = new AtomicInteger
+      val maxGlobal = new AtomicInteger
+      val partitionInFlight = new ConcurrentHashMap[Int, AtomicInteger]()
+      val maxPerPartition = new AtomicInteger
+
+      Source(1 to 200)
+        .mapAsyncPartitioned(6, 2)(_ % 5) { (n, partition) =>
+          val g = globalInFlight.incrementAndGet()
+          maxGlobal.accumulateAndGet(g, math.max)
+          val p = partitionInFlight.computeIfAbsent(partition, _ => new AtomicInteger).incrementAndGet()
+          maxPerPartition.accumulateAndGet(p, math.max)
+          Future {
+            Thread.sleep(1)
+            partitionInFlight.get(partition).decrementAndGet()
+            globalInFlight.decrementAndGet()
+            n
+          }
+        }
+        .runWith(Sink.ignore)
+        .futureValue
+
+      maxGlobal.get should be <= 6
+      maxPerPartition.get should be <= 2
+    }
+
+    "complete without requiring further demand with already completed future" in {
+      Source(1 :: 2 :: Nil)
+        .mapAsyncPartitioned(2, 1)(identity)((v, _) => Future.successful(v))
+        .runWith(TestSink.probe[Int])
+        .request(2)
+        .expectNextN(2)
+        .toSet should ===(Set(1, 2))
+    }
+
+    "skip null results" in {
+      Source(1 to 4)
+        .mapAsyncPartitioned(4, 1)(_ % 2)((n, _) => Future.successful(if (n == 2) null else n.toString))
+        .runWith(Sink.seq)
+        .futureValue
+        .toSet should ===(Set("1", "3", "4"))
+    }
+
+    "signal future failure" in {
+      val done = Source(1 to 5)
+        .mapAsyncPartitioned(4, 1)(_ % 2) { (n, _) =>
+          if (n == 3) Future.failed(new RuntimeException("err1") with NoStackTrace)
+          else Future.successful(n)
+        }
+        .runWith(Sink.ignore)
+      intercept[RuntimeException] {
+        Await.result(done, remainingOrDefault)
+      }.getMessage should be("err1")
+    }
+
+    "signal error from the partitioner" in {
+      val done = Source(1 to 5)
+        .mapAsyncPartitioned(4, 1) { n =>
+          if (n == 3) throw new RuntimeException("err2") with NoStackTrace
+          else n % 2
+        }((n, _) => Future.successful(n))
+        .runWith(Sink.ignore)
+      intercept[RuntimeException] {
+        Await.result(done, remainingOrDefault)
+      }.getMessage should be("err2")
+    }
+
+    "resume after future failure and thrown exceptions" in {
+      implicit val ec = system.dispatcher
+      Source(1 to 6)
+        .mapAsyncPartitioned(4, 2)(_ % 2) { (n, _) =>
+          if (n == 2) throw new RuntimeException("err3") with NoStackTrace
+          else
+            Future {
+              if (n == 3) throw new RuntimeException("err4") with NoStackTrace
+              n
+            }
+        }
+        .withAttributes(supervisionStrategy(resumingDecider))
+        .runWith(Sink.seq)
+        .futureValue
+        .toSet should ===(Set(1, 4, 5, 6))
+    }
+
+    "drop the state of partitions without elements" in {
+      // many distinct keys must not be a problem as partitions are dropped once empty
+      Source(1 to 10000)
+        .mapAsyncPartitioned(4, 1)(identity)((n, _) => Future.successful(n))
+        .runWith(Sink.fold(0L)(_ + _))
+        .futureValue should ===((1 to 10000).map(_.toLong).sum)
+    }
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.scaladsl
+
+import scala.collection.immutable
+
+import org.apache.pekko
+import pekko.NotUsed
+import pekko.stream.{ ClosedShape, Graph, Inlet, MergeWeightsControl, Outlet, UniformFanInShape }
+import pekko.stream.testkit.{ TestSubscriber, TwoStreamsSetup }
+
+class GraphMergeWeightedFairSpec extends TwoStreamsSetup {
+  import GraphDSL.Implicits._
+
+  override type Outputs = Int
+
+  override def fixture(b: GraphDSL.Builder[_]): Fixture = new Fixture {
+    val mergeWeightedFair = b.add(MergeWeightedFair[Outputs](List(2, 1), bufferSize = 4))
+
+    override def left: Inlet[Outputs] = mergeWeightedFair.in(0)
+    override def right: Inlet[Outputs] = mergeWeightedFair.in(1)
+    override def out: Outlet[Outputs] = mergeWeightedFair.out
+  }
+
+  "merge weighted fair" must {
+    commonTests()
+
+    "emit elements from each input in proportion to its weight" in {
+      val probe = TestSubscriber.probe[Int]()
+      run(MergeWeightedFair[Int](List(3, 1), bufferSize = 16), List(repeat(1), repeat(2)), probe)
+
+      probe.request(12)
+      probe.expectNextN(12) should ===(List(1, 1, 1, 2, 1, 1, 1, 2, 1, 1, 1, 2))
+      probe.cancel()
+    }
+
+    "share the inputs by the cost of their elements" in {
+      val probe = TestSubscriber.probe[String]()
+      val merge = MergeWeightedFair[String](List(1, 1), quantum = 100, bufferSize = 16)(_.length.toLong)
+      run(merge, List(repeat("a" * 100), repeat("b" * 25)), probe)
+
+      probe.request(10)
+      probe.expectNextN(10).map(_.head) should ===("abbbbabbbb".toList)
+      probe.cancel()
+    }
+
+    "carry over the unused share of an input to emit elements costing more than its quantum" in {
+      val probe = TestSubscriber.probe[String]()
+      val merge = MergeWeightedFair[String](List(1, 1), quantum = 10, bufferSize = 16)(_.length.toLong)
+      run(merge, List(repeat("x" * 35), repeat("y" * 10)), probe)
+
+      probe.request(8)
+      probe.expectNextN(8).map(_.head) should ===("yyyxyyyx".toList)
+      probe.cancel()
+    }
+
+    "emit an element costing many quanta when it is the only one" in {
+      val probe = TestSubscriber.probe[String]()
+      val merge = MergeWeightedFair[String](List(1, 1), quantum = 1, bufferSize = 16)(_ => 1000000L)
+      run(merge, List(Source(List("a", "b", "c")), Source.empty), probe)
+
+      probe.request(4)
+      probe.expectNextN(3) should ===(List("a", "b", "c"))
+      probe.expectComplete()
+    }
+
+    "change the weights while running" in {
+      val probe = TestSubscriber.probe[Int]()
+      val control = run(MergeWeightedFair[Int](List(1, 1), bufferSize = 16), List(repeat(1), repeat(2)), probe)
+
+      probe.request(4)
+      probe.expectNextN(4) should ===(List(1, 2, 1, 2))
+
+      control.setWeight(1, 0)
+      probe.request(4)
+      probe.expectNextN(4) should ===(List(1, 1, 1, 1))
+
+      control.setWeight(0, 0)
+      control.setWeight(1, 3)
+      probe.request(4)
+      probe.expectNextN(4) should ===(List(2, 2, 2, 2))
+      probe.cancel()
+    }
+
+    "emit the buffered elements of a paused input once its weight is raised" in {
+      val probe = TestSubscriber.probe[Int]()
+      val paused = Source(List(2, 2)).concat(Source.never)
+      val control = run(MergeWeightedFair[Int](List(1, 0), bufferSize = 16), List(Source(List(1, 1)), paused), probe)
+
+      probe.request(4)
+      probe.expectNextN(2) should ===(List(1, 1))
+      probe.expectNoMessage()
+
+      control.setWeight(1, 1)
+      probe.expectNextN(2) should ===(List(2, 2))
+      probe.cancel()
+    }
+
+    "complete after emitting the buffered elements of an input with weight zero" in {
+      val probe = TestSubscriber.probe[Int]()
+      run(MergeWeightedFair[Int](List(1, 0), bufferSize = 16), List(Source(List(1, 1)), Source(List(2, 2))), probe)
+
+      probe.request(5)
+      probe.expectNextN(4) should ===(List(1, 1, 2, 2))
+      probe.expectComplete()
+    }
+
+    "reject invalid weights" in {
+      an[IllegalArgumentException] should be thrownBy MergeWeightedFair[Int](List(1, -1), bufferSize = 16)
+
+      val probe = TestSubscriber.probe[Int]()
+      val control = run(MergeWeightedFair[Int](List(1, 1), bufferSize = 16), List(repeat(1), repeat(2)), probe)
+      an[IllegalArgumentException] should be thrownBy control.setWeight(2, 1)
+      an[IllegalArgumentException] should be thrownBy control.setWeight(0, -1)
+      probe.cancel()
+    }
+  }
+
+  private def repeat[T](elem: T): Source[T, NotUsed] = Source.repeat(elem)
+
+  private def run[T](
+      merge: Graph[UniformFanInShape[T, T], MergeWeightsControl],
+      sources: immutable.Seq[Source[T, NotUsed]],
+      probe: TestSubscriber.Probe[T]): MergeWeightsControl = {
+    val control = RunnableGraph
+      .fromGraph(GraphDSL.createGraph(merge) { implicit b => m =>
+        sources.zipWithIndex.foreach { case (source, i) => source ~> m.in(i) }
+        m.out ~> Sink.fromSubscriber(probe)
+        ClosedShape
+      })
+      .run()
+    // the elements are only requested once all inputs had the chance to fill their buffers
+    probe.ensureSubscription()
+    control
+  }
+}
@@ -480,6 +480,24 @@ class JsonFramingSpec extends PekkoSpec {
         buffer.poll().get.utf8String shouldBe """{ "name": "john"}"""
       }
 
+      "returns the same objects for any split of the input" in {
+        val objects = List(
+          """{"text":"a long string with \"escaped quotes\", a backslash \\ and {braces} in it"}""",
+          """{"nested":{"deeper":{"list":[1,2,{"x":"}}}"}]}},"after":"\\"}""",
+          """{"unicode":"ünïcödé {\"}"}""")
+        val input = ByteString(objects.mkString("[", ",\n", "]"))
+
+        for (chunkSize <- 1 to 17) {
+          val buffer = new JsonObjectParser()
+          val result = input.grouped(chunkSize).flatMap { chunk =>
+            buffer.offer(chunk)
+            Iterator.continually(buffer.poll()).takeWhile(_.isDefined).map(_.get.utf8String).toList
+          }
+          result.toList shouldBe objects
+          buffer.canComplete shouldBe true
+        }
+      }
+
       "invalid json is supplied" should {
         "fail if it's broken from the start" in {
           val buffer = new JsonObjectParser()
@@ -520,6 +538,14 @@ class JsonFramingSpec extends PekkoSpec {
       }
     }
 
+    "fail on too large object arriving in chunks" in {
+      val buffer = new JsonObjectParser(20)
+      buffer.offer(ByteString("""{ "name": """))
+      buffer.poll() should ===(None)
+      buffer.offer(ByteString(""""very very long" }"""))
+      a[FramingException] shouldBe thrownBy { buffer.poll() }
+    }
+
     "fail when 2nd object is too large" in {
       val input = List(
         """{ "name": "john" }""",
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.scaladsl
+
+import scala.concurrent.duration._
+
+import org.apache.pekko
+import pekko.stream.{ RateExceededException, SharedThrottle }
+import pekko.stream.ThrottleMode.{ Enforcing, Shaping }
+import pekko.stream.testkit._
+import pekko.stream.testkit.scaladsl.TestSink
+import pekko.testkit.TimingTest
+
+class SharedThrottleSpec extends StreamSpec("""
+    pekko.stream.materializer.initial-input-buffer-size = 2
+    pekko.stream.materializer.max-input-buffer-size = 2
+  """) {
+
+  "A SharedThrottle" must {
+
+    "pass elements like throttle" in {
+      val throttle = SharedThrottle("happy", 19, 1000.millis)
+      Source(1 to 5)
+        .via(throttle.flow)
+        .runWith(TestSink.probe[Int])
+        .request(5)
+        .expectNext(1, 2, 3, 4, 5)
+        .expectComplete()
+    }
+
+    "materialize to itself" in {
+      val throttle = SharedThrottle("materialized", 1, 100.millis)
+      Source.empty[Int].viaMat(throttle.flow)(Keep.right).to(Sink.ignore).run() should be theSameInstanceAs throttle
+    }
+
+    "share the rate between all its materializations" taggedAs TimingTest in {
+      val throttle = SharedThrottle("shared", 1, 300.millis, 1, Shaping)
+      val probe1 = Source.repeat(1).via(throttle.flow).runWith(TestSink.probe[Int])
+      val probe2 = Source.repeat(2).via(throttle.flow).runWith(TestSink.probe[Int])
+
+      probe1.request(1)
+      probe2.request(1)
+      // only one of the streams gets the token that is in the bucket
+      val first = probe1.receiveWithin(100.millis, 1) ++ probe2.receiveWithin(100.millis, 1)
+      first.size should ===(1)
+      // the other one has to wait for the next token
+      (probe1.receiveWithin(500.millis, 1) ++ probe2.receiveWithin(500.millis, 1)).size should ===(1)
+
+      probe1.cancel()
+      probe2.cancel()
+    }
+
+    "use the cost calculation of each flow" in {
+      val throttle = SharedThrottle("cost", 10, 1.second, 10, Shaping)
+      val probe =
+        Source(List("aaaaaaaaaa", "b")).via(throttle.flowWithCost[String](_.length)).runWith(TestSink.probe[String])
+      probe.request(2)
+      probe.expectNext("aaaaaaaaaa")
+      probe.expectNoMessage(50.millis)
+      probe.expectNext(500.millis, "b")
+      probe.expectComplete()
+    }
+
+    "fail a stream in Enforcing mode when the rate is exceeded by all its materializations together" in {
+      val throttle = SharedThrottle("enforcing", 1, 1.day, 1, Enforcing)
+      Source.single(1).via(throttle.flow).runWith(TestSink.probe[Int]).request(1).expectNext(1).expectComplete()
+
+      Source
+        .single(2)
+        .via(throttle.flow)
+        .runWith(TestSink.probe[Int])
+        .request(1)
+        .expectError() shouldBe a[RateExceededException]
+    }
+
+    "apply a changed rate to the streams" in {
+      val throttle = SharedThrottle("changed", 1, 1.day, 1, Shaping)
+      Source.single(1).via(throttle.flow).runWith(TestSink.probe[Int]).request(1).expectNext(1).expectComplete()
+
+      throttle.setRate(1000, 1.second)
+      Source(1 to 3)
+        .via(throttle.flow)
+        .runWith(TestSink.probe[Int])
+        .request(3)
+        .expectNext(1, 2, 3)
+        .expectComplete()
+    }
+
+    "reject invalid rates" in {
+      an[IllegalArgumentException] should be thrownBy SharedThrottle("invalid", 0, 1.second)
+      an[IllegalArgumentException] should be thrownBy SharedThrottle("invalid", 1, 1.second, 0, Enforcing)
+      val throttle = SharedThrottle("valid", 1, 1.second)
+      an[IllegalArgumentException] should be thrownBy throttle.setRate(1, 0.seconds)
+    }
+  }
+}
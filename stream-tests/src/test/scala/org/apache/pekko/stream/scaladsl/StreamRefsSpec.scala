@@ -27,7 +27,7 @@ import pekko.actor.{ Actor, ActorIdentity, ActorLogging, ActorRef, ActorSystem,
 import pekko.actor.Status.Failure
 import pekko.pattern._
 import pekko.stream._
-import pekko.stream.impl.streamref.{ SinkRefImpl, SourceRefImpl }
+import pekko.stream.impl.streamref.{ SinkRefImpl, SourceRefImpl, StreamRefsProtocol }
 import pekko.stream.testkit.TestPublisher
 import pekko.stream.testkit.Utils.TE
 import pekko.stream.testkit.scaladsl._
@@ -85,6 +85,12 @@ object StreamRefsSpec {
 
         sender() ! ref
 
+      case "give-batched" =>
+        val ref = Source(1 to 1000)
+          .map("batched-" + _)
+          .runWith(StreamRefs.sourceRef[String]().addAttributes(StreamRefAttributes.batching(16, 1024, 10.millis)))
+        sender() ! ref
+
       case "give-fail" =>
         val ref = Source.failed[String](new Exception("Booooom!") with NoStackTrace).runWith(StreamRefs.sourceRef())
         sender() ! ref
@@ -481,6 +487,77 @@ class StreamRefsSpec extends PekkoSpec(StreamRefsSpec.config()) {
       expectTerminated(sinkRefStageActorRef)
     }
 
+    "deliver all elements in order when both sides batch" in {
+      val remoteProbe = TestProbe()(remoteSystem)
+      remoteActor.tell("give-batched", remoteProbe.ref)
+      val sourceRef = remoteProbe.expectMsgType[SourceRef[String]]
+
+      val result = sourceRef.source
+        .addAttributes(StreamRefAttributes.batching(16, 1024, 10.millis))
+        .runWith(Sink.seq)
+
+      Await.result(result, 8.seconds) should ===((1 to 1000).map("batched-" + _))
+    }
+
+    "deliver all elements when only the sending side batches" in {
+      val remoteProbe = TestProbe()(remoteSystem)
+      remoteActor.tell("give-batched", remoteProbe.ref)
+      val sourceRef = remoteProbe.expectMsgType[SourceRef[String]]
+
+      val result = sourceRef.source.runWith(Sink.seq)
+
+      Await.result(result, 8.seconds) should ===((1 to 1000).map("batched-" + _))
+    }
+
+    "send the elements in batches to a partner that supports them" in {
+      import pekko.stream.impl.streamref.StreamRefsProtocol._
+
+      val remoteProbe = TestProbe()(remoteSystem)
+      remoteActor.tell("give-batched", remoteProbe.ref)
+      val sourceRefImpl = remoteProbe.expectMsgType[SourceRefImpl[String]]
+
+      // acts as the SourceRef stage of a node with batching enabled
+      val sourceRefStageProbe = TestProbe("sourceRefStageProbe")
+      sourceRefStageProbe.send(sourceRefImpl.initialPartnerRef, BatchingSupported)
+      sourceRefStageProbe.send(sourceRefImpl.initialPartnerRef, CumulativeDemand(1000))
+      sourceRefStageProbe.expectMsgType[OnSubscribeHandshake]
+
+      val messages = sourceRefStageProbe.receiveWhile[StreamRefsProtocol](max = 8.seconds) {
+        case msg @ (_: SequencedOnNext[_] | _: SequencedOnNextBatch[_]) => msg.asInstanceOf[StreamRefsProtocol]
+      }
+      val elements = messages.flatMap {
+        case SequencedOnNext(_, payload)       => List(payload)
+        case SequencedOnNextBatch(_, payloads) => payloads
+        case other                             => fail(s"Unexpected $other")
+      }
+      elements should ===((1 to 1000).map("batched-" + _))
+      messages.count(_.isInstanceOf[SequencedOnNextBatch[_]]) should be > 0
+      messages.size should be < elements.size
+      sourceRefStageProbe.expectMsg(RemoteStreamCompleted(1000))
+    }
+
+    "receive the elements of a partner that does not understand BatchingSupported" in {
+      import pekko.stream.impl.streamref.StreamRefsProtocol._
+
+      val (sinkRef, result) = StreamRefs
+        .sinkRef[String]()
+        .addAttributes(StreamRefAttributes.batching(16, 1024, 10.millis))
+        .toMat(Sink.seq)(Keep.both)
+        .run()
+      val sinkRefImpl = sinkRef.asInstanceOf[SinkRefImpl[String]]
+
+      // acts as the SinkRef stage of a node without batching support, which drops the BatchingSupported it
+      // can't deserialize and keeps sending single elements
+      val sinkRefStageProbe = TestProbe("sinkRefStageProbe")(remoteSystem)
+      sinkRefStageProbe.send(sinkRefImpl.initialPartnerRef, OnSubscribeHandshake(sinkRefStageProbe.ref))
+      sinkRefStageProbe.expectMsg(BatchingSupported)
+      sinkRefStageProbe.expectMsgType[CumulativeDemand]
+      sinkRefStageProbe.send(sinkRefImpl.initialPartnerRef, SequencedOnNext(0, "hello"))
+      sinkRefStageProbe.send(sinkRefImpl.initialPartnerRef, SequencedOnNext(1, "world"))
+      sinkRefStageProbe.send(sinkRefImpl.initialPartnerRef, RemoteStreamCompleted(2))
+
+      Await.result(result, 8.seconds) should ===(List("hello", "world"))
+    }
   }
 
   "A SinkRef" must {
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.scaladsl
+
+import scala.collection.immutable
+import scala.concurrent.duration._
+import scala.util.Random
+
+import org.apache.pekko
+import pekko.NotUsed
+import pekko.stream.{ LateElementException, LateElementStrategy, WindowAggregate, Windowed }
+import pekko.stream.testkit.StreamSpec
+import pekko.stream.testkit.scaladsl.{ TestSink, TestSource }
+
+class WindowSpec extends StreamSpec {
+
+  private def run[R](timestamps: immutable.Seq[Long], window: Flow[Long, Windowed[R], NotUsed]): Seq[Windowed[R]] =
+    Source(timestamps).via(window).runWith(Sink.seq).futureValue
+
+  private def count: WindowAggregate[Long, Long, Long] = WindowAggregate.count[Long]
+
+  // the windows of `size` starting every `slide` that contain elements, calculated from all elements
+  private def expectedWindows(timestamps: Seq[Long], size: Long, slide: Long)(
+      aggregate: Seq[Long] => Long): Seq[Windowed[Long]] = {
+    val starts = timestamps.flatMap { ts =>
+      val first = (Math.floorDiv(ts - size, slide) + 1) * slide
+      first to ts by slide
+    }.distinct.sorted
+    starts.map { start =>
+      Windowed(start, start + size, aggregate(timestamps.filter(ts => ts >= start && ts < start + size)))
+    }
+  }
+
+  "Window.tumbling" must {
+
+    "aggregate the elements of consecutive windows" in {
+      run(List(0L, 1L, 999L, 1000L, 2500L), Window.tumbling(1.second)((ts: Long) => ts)(count)) should ===(
+        List(Windowed(0L, 1000L, 3L), Windowed(1000L, 2000L, 1L), Windowed(2000L, 3000L, 1L)))
+    }
+
+    "only emit windows that contain elements" in {
+      run(List(500L, 10500L, 10600L, 1000000L), Window.tumbling(1.second)((ts: Long) => ts)(count)) should ===(
+        List(Windowed(0L, 1000L, 1L), Windowed(10000L, 11000L, 2L), Windowed(1000000L, 1001000L, 1L)))
+    }
+
+    "emit a window once the watermark passed its end" in {
+      val (pub, sub) = TestSource[Long]()
+        .via(Window.tumbling(1.second)((ts: Long) => ts)(count))
+        .toMat(TestSink[Windowed[Long]]())(Keep.both)
+        .run()
+      sub.request(10)
+      pub.sendNext(100L)
+      pub.sendNext(900L)
+      sub.expectNoMessage(100.millis)
+      pub.sendNext(1200L)
+      sub.expectNext(Windowed(0L, 1000L, 2L))
+      pub.sendComplete()
+      sub.expectNext(Windowed(1000L, 2000L, 1L))
+      sub.expectComplete()
+    }
+
+    "include elements that arrive out of order within the allowed lateness" in {
+      val window = Window.tumbling(1.second, 2.seconds, LateElementStrategy.Drop)((ts: Long) => ts)(count)
+      run(List(1500L, 200L, 2100L, 900L, 1000L, 4000L), window) should ===(
+        List(
+          Windowed(0L, 1000L, 2L),
+          Windowed(1000L, 2000L, 2L),
+          Windowed(2000L, 3000L, 1L),
+          Windowed(4000L, 5000L, 1L)))
+    }
+
+    "drop late elements" in {
+      run(List(1500L, 200L, 1700L), Window.tumbling(1.second)((ts: Long) => ts)(count)) should ===(
+        List(Windowed(1000L, 2000L, 2L)))
+    }
+
+    "fail on late elements with the fail strategy" in {
+      val window = Window.tumbling(1.second, 100.millis, LateElementStrategy.Fail)((ts: Long) => ts)(count)
+      Source(List(1500L, 200L)).via(window).runWith(Sink.seq).failed.futureValue shouldBe a[LateElementException]
+    }
+
+    "use a custom aggregate" in {
+      val average = WindowAggregate[Long, (Long, Long), Double]((0L, 0L))(
+        (acc, ts) => (acc._1 + ts, acc._2 + 1),
+        (a, b) => (a._1 + b._1, a._2 + b._2))(acc => acc._1.toDouble / acc._2)
+      run(List(100L, 300L, 1100L), Window.tumbling(1.second)((ts: Long) => ts)(average)) should ===(
+        List(Windowed(0L, 1000L, 200.0), Windowed(1000L, 2000L, 1100.0)))
+    }
+  }
+
+  "Window.sliding" must {
+
+    "aggregate the elements of overlapping windows" in {
+      run(List(0L, 300L, 600L), Window.sliding(1.second, 500.millis)((ts: Long) => ts)(count)) should ===(
+        List(Windowed(-500L, 500L, 2L), Windowed(0L, 1000L, 3L), Windowed(500L, 1500L, 1L)))
+    }
+
+    "calculate the same windows with invertible and non-invertible aggregates" in {
+      val random = new Random(42)
+      val timestamps = (1 to 2000).scanLeft(0L)((ts, _) => ts + random.nextInt(50)).toList
+      val nonInvertibleSum = WindowAggregate[Long, Long, Long](0L)(_ + _, _ + _)(identity)
+
+      for ((size, slide) <- List(1000L -> 250L, 1000L -> 300L, 700L -> 700L)) {
+        def window[R](aggregate: WindowAggregate[Long, Long, R]) =
+          Window.sliding(size.millis, slide.millis)((ts: Long) => ts)(aggregate)
+        val expectedSums = expectedWindows(timestamps, size, slide)(_.sum)
+        run(timestamps, window(WindowAggregate.sum[Long](identity))) should ===(expectedSums)
+        run(timestamps, window(nonInvertibleSum)) should ===(expectedSums)
+        run(timestamps, window(WindowAggregate.max[Long](identity))) should ===(
+          expectedWindows(timestamps, size, slide)(_.max))
+      }
+    }
+
+    "calculate the windows of elements that arrive out of order within the allowed lateness" in {
+      val random = new Random(7)
+      val timestamps = (1 to 2000).map(i => i * 10L + random.nextInt(500)).toList
+      val window =
+        Window.sliding(1.second, 200.millis, 500.millis, LateElementStrategy.Fail)((ts: Long) => ts)(count)
+      run(timestamps, window) should ===(expectedWindows(timestamps, 1000L, 200L)(_.size.toLong))
+    }
+
+    "reject a slide larger than the size" in {
+      an[IllegalArgumentException] should be thrownBy Window.sliding(1.second, 2.seconds)((ts: Long) => ts)(count)
+    }
+  }
+
+  "Window.session" must {
+
+    "aggregate the elements of sessions" in {
+      run(List(0L, 100L, 250L, 1000L, 1050L), Window.session(200.millis)((ts: Long) => ts)(count)) should ===(
+        List(Windowed(0L, 450L, 3L), Windowed(1000L, 1250L, 2L)))
+    }
+
+    "merge sessions connected by an element that arrives out of order" in {
+      val window = Window.session(100.millis, 1.second, LateElementStrategy.Drop)((ts: Long) => ts)(count)
+      run(List(0L, 150L, 80L, 2000L), window) should ===(List(Windowed(0L, 250L, 3L), Windowed(2000L, 2100L, 1L)))
+    }
+
+    "drop late elements" in {
+      run(List(0L, 1000L, 500L, 1100L), Window.session(200.millis)((ts: Long) => ts)(count)) should ===(
+        List(Windowed(0L, 200L, 1L), Windowed(1000L, 1300L, 2L)))
+    }
+  }
+}
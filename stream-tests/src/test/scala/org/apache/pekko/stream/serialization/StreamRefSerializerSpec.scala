@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.serialization
+
+import org.apache.pekko
+import pekko.actor.ExtendedActorSystem
+import pekko.serialization.SerializationExtension
+import pekko.stream.impl.streamref.StreamRefsProtocol
+import pekko.testkit.PekkoSpec
+import pekko.util.ByteString
+
+class StreamRefSerializerSpec extends PekkoSpec {
+
+  private val serializer = new StreamRefSerializer(system.asInstanceOf[ExtendedActorSystem])
+
+  private def verifySerialization(msg: AnyRef): Unit =
+    serializer.fromBinary(serializer.toBinary(msg), serializer.manifest(msg)) should ===(msg)
+
+  "StreamRefSerializer" must {
+
+    Seq(
+      "SequencedOnNext" -> StreamRefsProtocol.SequencedOnNext(7L, "element"),
+      "SequencedOnNextBatch" -> StreamRefsProtocol.SequencedOnNextBatch(
+        42L,
+        Vector("first", ByteString("second"), Integer.valueOf(3))),
+      "BatchingSupported" -> StreamRefsProtocol.BatchingSupported,
+      "CumulativeDemand" -> StreamRefsProtocol.CumulativeDemand(49L),
+      "RemoteStreamCompleted" -> StreamRefsProtocol.RemoteStreamCompleted(50L)).foreach {
+      case (scenario, item) =>
+        s"resolve serializer for [$scenario]" in {
+          SerializationExtension(system).serializerFor(item.getClass).getClass should ===(classOf[StreamRefSerializer])
+        }
+
+        s"serialize and de-serialize [$scenario]" in {
+          verifySerialization(item)
+        }
+    }
+  }
+}
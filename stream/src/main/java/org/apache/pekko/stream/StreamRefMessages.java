@@ -4570,6 +4570,1329 @@ public final class StreamRefMessages {
 
   }
 
+  public interface SequencedOnNextBatchOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:SequencedOnNextBatch)
+      org.apache.pekko.protobufv3.internal.MessageOrBuilder {
+
+    /**
+     * <code>required int64 seqNr = 1;</code>
+     * @return Whether the seqNr field is set.
+     */
+    boolean hasSeqNr();
+    /**
+     * <code>required int64 seqNr = 1;</code>
+     * @return The seqNr.
+     */
+    long getSeqNr();
+
+    /**
+     * <code>repeated .Payload payloads = 2;</code>
+     */
+    java.util.List<org.apache.pekko.stream.StreamRefMessages.Payload> 
+        getPayloadsList();
+    /**
+     * <code>repeated .Payload payloads = 2;</code>
+     */
+    org.apache.pekko.stream.StreamRefMessages.Payload getPayloads(int index);
+    /**
+     * <code>repeated .Payload payloads = 2;</code>
+     */
+    int getPayloadsCount();
+    /**
+     * <code>repeated .Payload payloads = 2;</code>
+     */
+    java.util.List<? extends org.apache.pekko.stream.StreamRefMessages.PayloadOrBuilder> 
+        getPayloadsOrBuilderList();
+    /**
+     * <code>repeated .Payload payloads = 2;</code>
+     */
+    org.apache.pekko.stream.StreamRefMessages.PayloadOrBuilder getPayloadsOrBuilder(
+        int index);
+  }
+  /**
+   * Protobuf type {@code SequencedOnNextBatch}
+   */
+  public  static final class SequencedOnNextBatch extends
+      org.apache.pekko.protobufv3.internal.GeneratedMessageV3 implements
+      // @@protoc_insertion_point(message_implements:SequencedOnNextBatch)
+      SequencedOnNextBatchOrBuilder {
+  private static final long serialVersionUID = 0L;
+    // Use SequencedOnNextBatch.newBuilder() to construct.
+    private SequencedOnNextBatch(org.apache.pekko.protobufv3.internal.GeneratedMessageV3.Builder<?> builder) {
+      super(builder);
+    }
+    private SequencedOnNextBatch() {
+      payloads_ = java.util.Collections.emptyList();
+    }
+
+    @java.lang.Override
+    @SuppressWarnings({"unused"})
+    protected java.lang.Object newInstance(
+        org.apache.pekko.protobufv3.internal.GeneratedMessageV3.UnusedPrivateParameter unused) {
+      return new SequencedOnNextBatch();
+    }
+
+    @java.lang.Override
+    public final org.apache.pekko.protobufv3.internal.UnknownFieldSet
+    getUnknownFields() {
+      return this.unknownFields;
+    }
+    private SequencedOnNextBatch(
+        org.apache.pekko.protobufv3.internal.CodedInputStream input,
+        org.apache.pekko.protobufv3.internal.ExtensionRegistryLite extensionRegistry)
+        throws org.apache.pekko.protobufv3.internal.InvalidProtocolBufferException {
+      this();
+      if (extensionRegistry == null) {
+        throw new java.lang.NullPointerException();
+      }
+      int mutable_bitField0_ = 0;
+      org.apache.pekko.protobufv3.internal.UnknownFieldSet.Builder unknownFields =
+          org.apache.pekko.protobufv3.internal.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            case 8: {
+              bitField0_ |= 0x00000001;
+              seqNr_ = input.readInt64();
+              break;
+            }
+            case 18: {
+              if (!((mutable_bitField0_ & 0x00000002) != 0)) {
+                payloads_ = new java.util.ArrayList<org.apache.pekko.stream.StreamRefMessages.Payload>();
+                mutable_bitField0_ |= 0x00000002;
+              }
+              payloads_.add(
+                  input.readMessage(org.apache.pekko.stream.StreamRefMessages.Payload.PARSER, extensionRegistry));
+              break;
+            }
+            default: {
+              if (!parseUnknownField(
+                  input, unknownFields, extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+          }
+        }
+      } catch (org.apache.pekko.protobufv3.internal.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new org.apache.pekko.protobufv3.internal.InvalidProtocolBufferException(
+            e).setUnfinishedMessage(this);
+      } finally {
+        if (((mutable_bitField0_ & 0x00000002) != 0)) {
+          payloads_ = java.util.Collections.unmodifiableList(payloads_);
+        }
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final org.apache.pekko.protobufv3.internal.Descriptors.Descriptor
+        getDescriptor() {
+      return org.apache.pekko.stream.StreamRefMessages.internal_static_SequencedOnNextBatch_descriptor;
+    }
+
+    @java.lang.Override
+    protected org.apache.pekko.protobufv3.internal.GeneratedMessageV3.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return org.apache.pekko.stream.StreamRefMessages.internal_static_SequencedOnNextBatch_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch.class, org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch.Builder.class);
+    }
+
+    private int bitField0_;
+    public static final int SEQNR_FIELD_NUMBER = 1;
+    private long seqNr_;
+    /**
+     * <code>required int64 seqNr = 1;</code>
+     * @return Whether the seqNr field is set.
+     */
+    public boolean hasSeqNr() {
+      return ((bitField0_ & 0x00000001) != 0);
+    }
+    /**
+     * <code>required int64 seqNr = 1;</code>
+     * @return The seqNr.
+     */
+    public long getSeqNr() {
+      return seqNr_;
+    }
+
+    public static final int PAYLOADS_FIELD_NUMBER = 2;
+    private java.util.List<org.apache.pekko.stream.StreamRefMessages.Payload> payloads_;
+    /**
+     * <code>repeated .Payload payloads = 2;</code>
+     */
+    public java.util.List<org.apache.pekko.stream.StreamRefMessages.Payload> getPayloadsList() {
+      return payloads_;
+    }
+    /**
+     * <code>repeated .Payload payloads = 2;</code>
+     */
+    public java.util.List<? extends org.apache.pekko.stream.StreamRefMessages.PayloadOrBuilder> 
+        getPayloadsOrBuilderList() {
+      return payloads_;
+    }
+    /**
+     * <code>repeated .Payload payloads = 2;</code>
+     */
+    public int getPayloadsCount() {
+      return payloads_.size();
+    }
+    /**
+     * <code>repeated .Payload payloads = 2;</code>
+     */
+    public org.apache.pekko.stream.StreamRefMessages.Payload getPayloads(int index) {
+      return payloads_.get(index);
+    }
+    /**
+     * <code>repeated .Payload payloads = 2;</code>
+     */
+    public org.apache.pekko.stream.StreamRefMessages.PayloadOrBuilder getPayloadsOrBuilder(
+        int index) {
+      return payloads_.get(index);
+    }
+
+    private byte memoizedIsInitialized = -1;
+    @java.lang.Override
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      if (!hasSeqNr()) {
+        memoizedIsInitialized = 0;
+        return false;
+      }
+      for (int i = 0; i < getPayloadsCount(); i++) {
+        if (!getPayloads(i).isInitialized()) {
+          memoizedIsInitialized = 0;
+          return false;
+        }
+      }
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    @java.lang.Override
+    public void writeTo(org.apache.pekko.protobufv3.internal.CodedOutputStream output)
+                        throws java.io.IOException {
+      if (((bitField0_ & 0x00000001) != 0)) {
+        output.writeInt64(1, seqNr_);
+      }
+      for (int i = 0; i < payloads_.size(); i++) {
+        output.writeMessage(2, payloads_.get(i));
+      }
+      unknownFields.writeTo(output);
+    }
+
+    @java.lang.Override
+    public int getSerializedSize() {
+      int size = memoizedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (((bitField0_ & 0x00000001) != 0)) {
+        size += org.apache.pekko.protobufv3.internal.CodedOutputStream
+          .computeInt64Size(1, seqNr_);
+      }
+      for (int i = 0; i < payloads_.size(); i++) {
+        size += org.apache.pekko.protobufv3.internal.CodedOutputStream
+          .computeMessageSize(2, payloads_.get(i));
+      }
+      size += unknownFields.getSerializedSize();
+      memoizedSize = size;
+      return size;
+    }
+
+    @java.lang.Override
+    public boolean equals(final java.lang.Object obj) {
+      if (obj == this) {
+       return true;
+      }
+      if (!(obj instanceof org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch)) {
+        return super.equals(obj);
+      }
+      org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch other = (org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch) obj;
+
+      if (hasSeqNr() != other.hasSeqNr()) return false;
+      if (hasSeqNr()) {
+        if (getSeqNr()
+            != other.getSeqNr()) return false;
+      }
+      if (!getPayloadsList()
+          .equals(other.getPayloadsList())) return false;
+      if (!unknownFields.equals(other.unknownFields)) return false;
+      return true;
+    }
+
+    @java.lang.Override
+    public int hashCode() {
+      if (memoizedHashCode != 0) {
+        return memoizedHashCode;
+      }
+      int hash = 41;
+      hash = (19 * hash) + getDescriptor().hashCode();
+      if (hasSeqNr()) {
+        hash = (37 * hash) + SEQNR_FIELD_NUMBER;
+        hash = (53 * hash) + org.apache.pekko.protobufv3.internal.Internal.hashLong(
+            getSeqNr());
+      }
+      if (getPayloadsCount() > 0) {
+        hash = (37 * hash) + PAYLOADS_FIELD_NUMBER;
+        hash = (53 * hash) + getPayloadsList().hashCode();
+      }
+      hash = (29 * hash) + unknownFields.hashCode();
+      memoizedHashCode = hash;
+      return hash;
+    }
+
+    public static org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch parseFrom(
+        java.nio.ByteBuffer data)
+        throws org.apache.pekko.protobufv3.internal.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch parseFrom(
+        java.nio.ByteBuffer data,
+        org.apache.pekko.protobufv3.internal.ExtensionRegistryLite extensionRegistry)
+        throws org.apache.pekko.protobufv3.internal.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch parseFrom(
+        org.apache.pekko.protobufv3.internal.ByteString data)
+        throws org.apache.pekko.protobufv3.internal.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch parseFrom(
+        org.apache.pekko.protobufv3.internal.ByteString data,
+        org.apache.pekko.protobufv3.internal.ExtensionRegistryLite extensionRegistry)
+        throws org.apache.pekko.protobufv3.internal.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch parseFrom(byte[] data)
+        throws org.apache.pekko.protobufv3.internal.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch parseFrom(
+        byte[] data,
+        org.apache.pekko.protobufv3.internal.ExtensionRegistryLite extensionRegistry)
+        throws org.apache.pekko.protobufv3.internal.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return org.apache.pekko.protobufv3.internal.GeneratedMessageV3
+          .parseWithIOException(PARSER, input);
+    }
+    public static org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch parseFrom(
+        java.io.InputStream input,
+        org.apache.pekko.protobufv3.internal.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return org.apache.pekko.protobufv3.internal.GeneratedMessageV3
+          .parseWithIOException(PARSER, input, extensionRegistry);
+    }
+    public static org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return org.apache.pekko.protobufv3.internal.GeneratedMessageV3
+          .parseDelimitedWithIOException(PARSER, input);
+    }
+    public static org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch parseDelimitedFrom(
+        java.io.InputStream input,
+        org.apache.pekko.protobufv3.internal.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return org.apache.pekko.protobufv3.internal.GeneratedMessageV3
+          .parseDelimitedWithIOException(PARSER, input, extensionRegistry);
+    }
+    public static org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch parseFrom(
+        org.apache.pekko.protobufv3.internal.CodedInputStream input)
+        throws java.io.IOException {
+      return org.apache.pekko.protobufv3.internal.GeneratedMessageV3
+          .parseWithIOException(PARSER, input);
+    }
+    public static org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch parseFrom(
+        org.apache.pekko.protobufv3.internal.CodedInputStream input,
+        org.apache.pekko.protobufv3.internal.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return org.apache.pekko.protobufv3.internal.GeneratedMessageV3
+          .parseWithIOException(PARSER, input, extensionRegistry);
+    }
+
+    @java.lang.Override
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder() {
+      return DEFAULT_INSTANCE.toBuilder();
+    }
+    public static Builder newBuilder(org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch prototype) {
+      return DEFAULT_INSTANCE.toBuilder().mergeFrom(prototype);
+    }
+    @java.lang.Override
+    public Builder toBuilder() {
+      return this == DEFAULT_INSTANCE
+          ? new Builder() : new Builder().mergeFrom(this);
+    }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        org.apache.pekko.protobufv3.internal.GeneratedMessageV3.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code SequencedOnNextBatch}
+     */
+    public static final class Builder extends
+        org.apache.pekko.protobufv3.internal.GeneratedMessageV3.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:SequencedOnNextBatch)
+        org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatchOrBuilder {
+      public static final org.apache.pekko.protobufv3.internal.Descriptors.Descriptor
+          getDescriptor() {
+        return org.apache.pekko.stream.StreamRefMessages.internal_static_SequencedOnNextBatch_descriptor;
+      }
+
+      @java.lang.Override
+      protected org.apache.pekko.protobufv3.internal.GeneratedMessageV3.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return org.apache.pekko.stream.StreamRefMessages.internal_static_SequencedOnNextBatch_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch.class, org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch.Builder.class);
+      }
+
+      // Construct using org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          org.apache.pekko.protobufv3.internal.GeneratedMessageV3.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (org.apache.pekko.protobufv3.internal.GeneratedMessageV3
+                .alwaysUseFieldBuilders) {
+          getPayloadsFieldBuilder();
+        }
+      }
+      @java.lang.Override
+      public Builder clear() {
+        super.clear();
+        seqNr_ = 0L;
+        bitField0_ = (bitField0_ & ~0x00000001);
+        if (payloadsBuilder_ == null) {
+          payloads_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000002);
+        } else {
+          payloadsBuilder_.clear();
+        }
+        return this;
+      }
+
+      @java.lang.Override
+      public org.apache.pekko.protobufv3.internal.Descriptors.Descriptor
+          getDescriptorForType() {
+        return org.apache.pekko.stream.StreamRefMessages.internal_static_SequencedOnNextBatch_descriptor;
+      }
+
+      @java.lang.Override
+      public org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch getDefaultInstanceForType() {
+        return org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch.getDefaultInstance();
+      }
+
+      @java.lang.Override
+      public org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch build() {
+        org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      @java.lang.Override
+      public org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch buildPartial() {
+        org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch result = new org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (((from_bitField0_ & 0x00000001) != 0)) {
+          result.seqNr_ = seqNr_;
+          to_bitField0_ |= 0x00000001;
+        }
+        if (payloadsBuilder_ == null) {
+          if (((bitField0_ & 0x00000002) != 0)) {
+            payloads_ = java.util.Collections.unmodifiableList(payloads_);
+            bitField0_ = (bitField0_ & ~0x00000002);
+          }
+          result.payloads_ = payloads_;
+        } else {
+          result.payloads_ = payloadsBuilder_.build();
+        }
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
+      }
+
+      @java.lang.Override
+      public Builder clone() {
+        return super.clone();
+      }
+      @java.lang.Override
+      public Builder setField(
+          org.apache.pekko.protobufv3.internal.Descriptors.FieldDescriptor field,
+          java.lang.Object value) {
+        return super.setField(field, value);
+      }
+      @java.lang.Override
+      public Builder clearField(
+          org.apache.pekko.protobufv3.internal.Descriptors.FieldDescriptor field) {
+        return super.clearField(field);
+      }
+      @java.lang.Override
+      public Builder clearOneof(
+          org.apache.pekko.protobufv3.internal.Descriptors.OneofDescriptor oneof) {
+        return super.clearOneof(oneof);
+      }
+      @java.lang.Override
+      public Builder setRepeatedField(
+          org.apache.pekko.protobufv3.internal.Descriptors.FieldDescriptor field,
+          int index, java.lang.Object value) {
+        return super.setRepeatedField(field, index, value);
+      }
+      @java.lang.Override
+      public Builder addRepeatedField(
+          org.apache.pekko.protobufv3.internal.Descriptors.FieldDescriptor field,
+          java.lang.Object value) {
+        return super.addRepeatedField(field, value);
+      }
+      @java.lang.Override
+      public Builder mergeFrom(org.apache.pekko.protobufv3.internal.Message other) {
+        if (other instanceof org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch) {
+          return mergeFrom((org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch other) {
+        if (other == org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch.getDefaultInstance()) return this;
+        if (other.hasSeqNr()) {
+          setSeqNr(other.getSeqNr());
+        }
+        if (payloadsBuilder_ == null) {
+          if (!other.payloads_.isEmpty()) {
+            if (payloads_.isEmpty()) {
+              payloads_ = other.payloads_;
+              bitField0_ = (bitField0_ & ~0x00000002);
+            } else {
+              ensurePayloadsIsMutable();
+              payloads_.addAll(other.payloads_);
+            }
+            onChanged();
+          }
+        } else {
+          if (!other.payloads_.isEmpty()) {
+            if (payloadsBuilder_.isEmpty()) {
+              payloadsBuilder_.dispose();
+              payloadsBuilder_ = null;
+              payloads_ = other.payloads_;
+              bitField0_ = (bitField0_ & ~0x00000002);
+              payloadsBuilder_ = 
+                org.apache.pekko.protobufv3.internal.GeneratedMessageV3.alwaysUseFieldBuilders ?
+                   getPayloadsFieldBuilder() : null;
+            } else {
+              payloadsBuilder_.addAllMessages(other.payloads_);
+            }
+          }
+        }
+        this.mergeUnknownFields(other.unknownFields);
+        onChanged();
+        return this;
+      }
+
+      @java.lang.Override
+      public final boolean isInitialized() {
+        if (!hasSeqNr()) {
+          return false;
+        }
+        for (int i = 0; i < getPayloadsCount(); i++) {
+          if (!getPayloads(i).isInitialized()) {
+            return false;
+          }
+        }
+        return true;
+      }
+
+      @java.lang.Override
+      public Builder mergeFrom(
+          org.apache.pekko.protobufv3.internal.CodedInputStream input,
+          org.apache.pekko.protobufv3.internal.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (org.apache.pekko.protobufv3.internal.InvalidProtocolBufferException e) {
+          parsedMessage = (org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch) e.getUnfinishedMessage();
+          throw e.unwrapIOException();
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      private long seqNr_ ;
+      /**
+       * <code>required int64 seqNr = 1;</code>
+       * @return Whether the seqNr field is set.
+       */
+      public boolean hasSeqNr() {
+        return ((bitField0_ & 0x00000001) != 0);
+      }
+      /**
+       * <code>required int64 seqNr = 1;</code>
+       * @return The seqNr.
+       */
+      public long getSeqNr() {
+        return seqNr_;
+      }
+      /**
+       * <code>required int64 seqNr = 1;</code>
+       * @param value The seqNr to set.
+       * @return This builder for chaining.
+       */
+      public Builder setSeqNr(long value) {
+        bitField0_ |= 0x00000001;
+        seqNr_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>required int64 seqNr = 1;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearSeqNr() {
+        bitField0_ = (bitField0_ & ~0x00000001);
+        seqNr_ = 0L;
+        onChanged();
+        return this;
+      }
+
+      private java.util.List<org.apache.pekko.stream.StreamRefMessages.Payload> payloads_ =
+        java.util.Collections.emptyList();
+      private void ensurePayloadsIsMutable() {
+        if (!((bitField0_ & 0x00000002) != 0)) {
+          payloads_ = new java.util.ArrayList<org.apache.pekko.stream.StreamRefMessages.Payload>(payloads_);
+          bitField0_ |= 0x00000002;
+         }
+      }
+
+      private org.apache.pekko.protobufv3.internal.RepeatedFieldBuilderV3<
+          org.apache.pekko.stream.StreamRefMessages.Payload, org.apache.pekko.stream.StreamRefMessages.Payload.Builder, org.apache.pekko.stream.StreamRefMessages.PayloadOrBuilder> payloadsBuilder_;
+
+      /**
+       * <code>repeated .Payload payloads = 2;</code>
+       */
+      public java.util.List<org.apache.pekko.stream.StreamRefMessages.Payload> getPayloadsList() {
+        if (payloadsBuilder_ == null) {
+          return java.util.Collections.unmodifiableList(payloads_);
+        } else {
+          return payloadsBuilder_.getMessageList();
+        }
+      }
+      /**
+       * <code>repeated .Payload payloads = 2;</code>
+       */
+      public int getPayloadsCount() {
+        if (payloadsBuilder_ == null) {
+          return payloads_.size();
+        } else {
+          return payloadsBuilder_.getCount();
+        }
+      }
+      /**
+       * <code>repeated .Payload payloads = 2;</code>
+       */
+      public org.apache.pekko.stream.StreamRefMessages.Payload getPayloads(int index) {
+        if (payloadsBuilder_ == null) {
+          return payloads_.get(index);
+        } else {
+          return payloadsBuilder_.getMessage(index);
+        }
+      }
+      /**
+       * <code>repeated .Payload payloads = 2;</code>
+       */
+      public Builder setPayloads(
+          int index, org.apache.pekko.stream.StreamRefMessages.Payload value) {
+        if (payloadsBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensurePayloadsIsMutable();
+          payloads_.set(index, value);
+          onChanged();
+        } else {
+          payloadsBuilder_.setMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .Payload payloads = 2;</code>
+       */
+      public Builder setPayloads(
+          int index, org.apache.pekko.stream.StreamRefMessages.Payload.Builder builderForValue) {
+        if (payloadsBuilder_ == null) {
+          ensurePayloadsIsMutable();
+          payloads_.set(index, builderForValue.build());
+          onChanged();
+        } else {
+          payloadsBuilder_.setMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .Payload payloads = 2;</code>
+       */
+      public Builder addPayloads(org.apache.pekko.stream.StreamRefMessages.Payload value) {
+        if (payloadsBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensurePayloadsIsMutable();
+          payloads_.add(value);
+          onChanged();
+        } else {
+          payloadsBuilder_.addMessage(value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .Payload payloads = 2;</code>
+       */
+      public Builder addPayloads(
+          int index, org.apache.pekko.stream.StreamRefMessages.Payload value) {
+        if (payloadsBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensurePayloadsIsMutable();
+          payloads_.add(index, value);
+          onChanged();
+        } else {
+          payloadsBuilder_.addMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .Payload payloads = 2;</code>
+       */
+      public Builder addPayloads(
+          org.apache.pekko.stream.StreamRefMessages.Payload.Builder builderForValue) {
+        if (payloadsBuilder_ == null) {
+          ensurePayloadsIsMutable();
+          payloads_.add(builderForValue.build());
+          onChanged();
+        } else {
+          payloadsBuilder_.addMessage(builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .Payload payloads = 2;</code>
+       */
+      public Builder addPayloads(
+          int index, org.apache.pekko.stream.StreamRefMessages.Payload.Builder builderForValue) {
+        if (payloadsBuilder_ == null) {
+          ensurePayloadsIsMutable();
+          payloads_.add(index, builderForValue.build());
+          onChanged();
+        } else {
+          payloadsBuilder_.addMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .Payload payloads = 2;</code>
+       */
+      public Builder addAllPayloads(
+          java.lang.Iterable<? extends org.apache.pekko.stream.StreamRefMessages.Payload> values) {
+        if (payloadsBuilder_ == null) {
+          ensurePayloadsIsMutable();
+          org.apache.pekko.protobufv3.internal.AbstractMessageLite.Builder.addAll(
+              values, payloads_);
+          onChanged();
+        } else {
+          payloadsBuilder_.addAllMessages(values);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .Payload payloads = 2;</code>
+       */
+      public Builder clearPayloads() {
+        if (payloadsBuilder_ == null) {
+          payloads_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000002);
+          onChanged();
+        } else {
+          payloadsBuilder_.clear();
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .Payload payloads = 2;</code>
+       */
+      public Builder removePayloads(int index) {
+        if (payloadsBuilder_ == null) {
+          ensurePayloadsIsMutable();
+          payloads_.remove(index);
+          onChanged();
+        } else {
+          payloadsBuilder_.remove(index);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .Payload payloads = 2;</code>
+       */
+      public org.apache.pekko.stream.StreamRefMessages.Payload.Builder getPayloadsBuilder(
+          int index) {
+        return getPayloadsFieldBuilder().getBuilder(index);
+      }
+      /**
+       * <code>repeated .Payload payloads = 2;</code>
+       */
+      public org.apache.pekko.stream.StreamRefMessages.PayloadOrBuilder getPayloadsOrBuilder(
+          int index) {
+        if (payloadsBuilder_ == null) {
+          return payloads_.get(index);  } else {
+          return payloadsBuilder_.getMessageOrBuilder(index);
+        }
+      }
+      /**
+       * <code>repeated .Payload payloads = 2;</code>
+       */
+      public java.util.List<? extends org.apache.pekko.stream.StreamRefMessages.PayloadOrBuilder> 
+           getPayloadsOrBuilderList() {
+        if (payloadsBuilder_ != null) {
+          return payloadsBuilder_.getMessageOrBuilderList();
+        } else {
+          return java.util.Collections.unmodifiableList(payloads_);
+        }
+      }
+      /**
+       * <code>repeated .Payload payloads = 2;</code>
+       */
+      public org.apache.pekko.stream.StreamRefMessages.Payload.Builder addPayloadsBuilder() {
+        return getPayloadsFieldBuilder().addBuilder(
+            org.apache.pekko.stream.StreamRefMessages.Payload.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .Payload payloads = 2;</code>
+       */
+      public org.apache.pekko.stream.StreamRefMessages.Payload.Builder addPayloadsBuilder(
+          int index) {
+        return getPayloadsFieldBuilder().addBuilder(
+            index, org.apache.pekko.stream.StreamRefMessages.Payload.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .Payload payloads = 2;</code>
+       */
+      public java.util.List<org.apache.pekko.stream.StreamRefMessages.Payload.Builder> 
+           getPayloadsBuilderList() {
+        return getPayloadsFieldBuilder().getBuilderList();
+      }
+      private org.apache.pekko.protobufv3.internal.RepeatedFieldBuilderV3<
+          org.apache.pekko.stream.StreamRefMessages.Payload, org.apache.pekko.stream.StreamRefMessages.Payload.Builder, org.apache.pekko.stream.StreamRefMessages.PayloadOrBuilder> 
+          getPayloadsFieldBuilder() {
+        if (payloadsBuilder_ == null) {
+          payloadsBuilder_ = new org.apache.pekko.protobufv3.internal.RepeatedFieldBuilderV3<
+              org.apache.pekko.stream.StreamRefMessages.Payload, org.apache.pekko.stream.StreamRefMessages.Payload.Builder, org.apache.pekko.stream.StreamRefMessages.PayloadOrBuilder>(
+                  payloads_,
+                  ((bitField0_ & 0x00000002) != 0),
+                  getParentForChildren(),
+                  isClean());
+          payloads_ = null;
+        }
+        return payloadsBuilder_;
+      }
+      @java.lang.Override
+      public final Builder setUnknownFields(
+          final org.apache.pekko.protobufv3.internal.UnknownFieldSet unknownFields) {
+        return super.setUnknownFields(unknownFields);
+      }
+
+      @java.lang.Override
+      public final Builder mergeUnknownFields(
+          final org.apache.pekko.protobufv3.internal.UnknownFieldSet unknownFields) {
+        return super.mergeUnknownFields(unknownFields);
+      }
+
+
+      // @@protoc_insertion_point(builder_scope:SequencedOnNextBatch)
+    }
+
+    // @@protoc_insertion_point(class_scope:SequencedOnNextBatch)
+    private static final org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch DEFAULT_INSTANCE;
+    static {
+      DEFAULT_INSTANCE = new org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch();
+    }
+
+    public static org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch getDefaultInstance() {
+      return DEFAULT_INSTANCE;
+    }
+
+    @java.lang.Deprecated public static final org.apache.pekko.protobufv3.internal.Parser<SequencedOnNextBatch>
+        PARSER = new org.apache.pekko.protobufv3.internal.AbstractParser<SequencedOnNextBatch>() {
+      @java.lang.Override
+      public SequencedOnNextBatch parsePartialFrom(
+          org.apache.pekko.protobufv3.internal.CodedInputStream input,
+          org.apache.pekko.protobufv3.internal.ExtensionRegistryLite extensionRegistry)
+          throws org.apache.pekko.protobufv3.internal.InvalidProtocolBufferException {
+        return new SequencedOnNextBatch(input, extensionRegistry);
+      }
+    };
+
+    public static org.apache.pekko.protobufv3.internal.Parser<SequencedOnNextBatch> parser() {
+      return PARSER;
+    }
+
+    @java.lang.Override
+    public org.apache.pekko.protobufv3.internal.Parser<SequencedOnNextBatch> getParserForType() {
+      return PARSER;
+    }
+
+    @java.lang.Override
+    public org.apache.pekko.stream.StreamRefMessages.SequencedOnNextBatch getDefaultInstanceForType() {
+      return DEFAULT_INSTANCE;
+    }
+
+  }
+
+  public interface BatchingSupportedOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:BatchingSupported)
+      org.apache.pekko.protobufv3.internal.MessageOrBuilder {
+  }
+  /**
+   * Protobuf type {@code BatchingSupported}
+   */
+  public  static final class BatchingSupported extends
+      org.apache.pekko.protobufv3.internal.GeneratedMessageV3 implements
+      // @@protoc_insertion_point(message_implements:BatchingSupported)
+      BatchingSupportedOrBuilder {
+  private static final long serialVersionUID = 0L;
+    // Use BatchingSupported.newBuilder() to construct.
+    private BatchingSupported(org.apache.pekko.protobufv3.internal.GeneratedMessageV3.Builder<?> builder) {
+      super(builder);
+    }
+    private BatchingSupported() {
+    }
+
+    @java.lang.Override
+    @SuppressWarnings({"unused"})
+    protected java.lang.Object newInstance(
+        org.apache.pekko.protobufv3.internal.GeneratedMessageV3.UnusedPrivateParameter unused) {
+      return new BatchingSupported();
+    }
+
+    @java.lang.Override
+    public final org.apache.pekko.protobufv3.internal.UnknownFieldSet
+    getUnknownFields() {
+      return this.unknownFields;
+    }
+    private BatchingSupported(
+        org.apache.pekko.protobufv3.internal.CodedInputStream input,
+        org.apache.pekko.protobufv3.internal.ExtensionRegistryLite extensionRegistry)
+        throws org.apache.pekko.protobufv3.internal.InvalidProtocolBufferException {
+      this();
+      if (extensionRegistry == null) {
+        throw new java.lang.NullPointerException();
+      }
+      org.apache.pekko.protobufv3.internal.UnknownFieldSet.Builder unknownFields =
+          org.apache.pekko.protobufv3.internal.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(
+                  input, unknownFields, extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+          }
+        }
+      } catch (org.apache.pekko.protobufv3.internal.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new org.apache.pekko.protobufv3.internal.InvalidProtocolBufferException(
+            e).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final org.apache.pekko.protobufv3.internal.Descriptors.Descriptor
+        getDescriptor() {
+      return org.apache.pekko.stream.StreamRefMessages.internal_static_BatchingSupported_descriptor;
+    }
+
+    @java.lang.Override
+    protected org.apache.pekko.protobufv3.internal.GeneratedMessageV3.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return org.apache.pekko.stream.StreamRefMessages.internal_static_BatchingSupported_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              org.apache.pekko.stream.StreamRefMessages.BatchingSupported.class, org.apache.pekko.stream.StreamRefMessages.BatchingSupported.Builder.class);
+    }
+
+    private byte memoizedIsInitialized = -1;
+    @java.lang.Override
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    @java.lang.Override
+    public void writeTo(org.apache.pekko.protobufv3.internal.CodedOutputStream output)
+                        throws java.io.IOException {
+      unknownFields.writeTo(output);
+    }
+
+    @java.lang.Override
+    public int getSerializedSize() {
+      int size = memoizedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      size += unknownFields.getSerializedSize();
+      memoizedSize = size;
+      return size;
+    }
+
+    @java.lang.Override
+    public boolean equals(final java.lang.Object obj) {
+      if (obj == this) {
+       return true;
+      }
+      if (!(obj instanceof org.apache.pekko.stream.StreamRefMessages.BatchingSupported)) {
+        return super.equals(obj);
+      }
+      org.apache.pekko.stream.StreamRefMessages.BatchingSupported other = (org.apache.pekko.stream.StreamRefMessages.BatchingSupported) obj;
+
+      if (!unknownFields.equals(other.unknownFields)) return false;
+      return true;
+    }
+
+    @java.lang.Override
+    public int hashCode() {
+      if (memoizedHashCode != 0) {
+        return memoizedHashCode;
+      }
+      int hash = 41;
+      hash = (19 * hash) + getDescriptor().hashCode();
+      hash = (29 * hash) + unknownFields.hashCode();
+      memoizedHashCode = hash;
+      return hash;
+    }
+
+    public static org.apache.pekko.stream.StreamRefMessages.BatchingSupported parseFrom(
+        java.nio.ByteBuffer data)
+        throws org.apache.pekko.protobufv3.internal.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static org.apache.pekko.stream.StreamRefMessages.BatchingSupported parseFrom(
+        java.nio.ByteBuffer data,
+        org.apache.pekko.protobufv3.internal.ExtensionRegistryLite extensionRegistry)
+        throws org.apache.pekko.protobufv3.internal.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static org.apache.pekko.stream.StreamRefMessages.BatchingSupported parseFrom(
+        org.apache.pekko.protobufv3.internal.ByteString data)
+        throws org.apache.pekko.protobufv3.internal.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static org.apache.pekko.stream.StreamRefMessages.BatchingSupported parseFrom(
+        org.apache.pekko.protobufv3.internal.ByteString data,
+        org.apache.pekko.protobufv3.internal.ExtensionRegistryLite extensionRegistry)
+        throws org.apache.pekko.protobufv3.internal.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static org.apache.pekko.stream.StreamRefMessages.BatchingSupported parseFrom(byte[] data)
+        throws org.apache.pekko.protobufv3.internal.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static org.apache.pekko.stream.StreamRefMessages.BatchingSupported parseFrom(
+        byte[] data,
+        org.apache.pekko.protobufv3.internal.ExtensionRegistryLite extensionRegistry)
+        throws org.apache.pekko.protobufv3.internal.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static org.apache.pekko.stream.StreamRefMessages.BatchingSupported parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return org.apache.pekko.protobufv3.internal.GeneratedMessageV3
+          .parseWithIOException(PARSER, input);
+    }
+    public static org.apache.pekko.stream.StreamRefMessages.BatchingSupported parseFrom(
+        java.io.InputStream input,
+        org.apache.pekko.protobufv3.internal.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return org.apache.pekko.protobufv3.internal.GeneratedMessageV3
+          .parseWithIOException(PARSER, input, extensionRegistry);
+    }
+    public static org.apache.pekko.stream.StreamRefMessages.BatchingSupported parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return org.apache.pekko.protobufv3.internal.GeneratedMessageV3
+          .parseDelimitedWithIOException(PARSER, input);
+    }
+    public static org.apache.pekko.stream.StreamRefMessages.BatchingSupported parseDelimitedFrom(
+        java.io.InputStream input,
+        org.apache.pekko.protobufv3.internal.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return org.apache.pekko.protobufv3.internal.GeneratedMessageV3
+          .parseDelimitedWithIOException(PARSER, input, extensionRegistry);
+    }
+    public static org.apache.pekko.stream.StreamRefMessages.BatchingSupported parseFrom(
+        org.apache.pekko.protobufv3.internal.CodedInputStream input)
+        throws java.io.IOException {
+      return org.apache.pekko.protobufv3.internal.GeneratedMessageV3
+          .parseWithIOException(PARSER, input);
+    }
+    public static org.apache.pekko.stream.StreamRefMessages.BatchingSupported parseFrom(
+        org.apache.pekko.protobufv3.internal.CodedInputStream input,
+        org.apache.pekko.protobufv3.internal.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return org.apache.pekko.protobufv3.internal.GeneratedMessageV3
+          .parseWithIOException(PARSER, input, extensionRegistry);
+    }
+
+    @java.lang.Override
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder() {
+      return DEFAULT_INSTANCE.toBuilder();
+    }
+    public static Builder newBuilder(org.apache.pekko.stream.StreamRefMessages.BatchingSupported prototype) {
+      return DEFAULT_INSTANCE.toBuilder().mergeFrom(prototype);
+    }
+    @java.lang.Override
+    public Builder toBuilder() {
+      return this == DEFAULT_INSTANCE
+          ? new Builder() : new Builder().mergeFrom(this);
+    }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        org.apache.pekko.protobufv3.internal.GeneratedMessageV3.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code BatchingSupported}
+     */
+    public static final class Builder extends
+        org.apache.pekko.protobufv3.internal.GeneratedMessageV3.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:BatchingSupported)
+        org.apache.pekko.stream.StreamRefMessages.BatchingSupportedOrBuilder {
+      public static final org.apache.pekko.protobufv3.internal.Descriptors.Descriptor
+          getDescriptor() {
+        return org.apache.pekko.stream.StreamRefMessages.internal_static_BatchingSupported_descriptor;
+      }
+
+      @java.lang.Override
+      protected org.apache.pekko.protobufv3.internal.GeneratedMessageV3.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return org.apache.pekko.stream.StreamRefMessages.internal_static_BatchingSupported_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                org.apache.pekko.stream.StreamRefMessages.BatchingSupported.class, org.apache.pekko.stream.StreamRefMessages.BatchingSupported.Builder.class);
+      }
+
+      // Construct using org.apache.pekko.stream.StreamRefMessages.BatchingSupported.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          org.apache.pekko.protobufv3.internal.GeneratedMessageV3.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (org.apache.pekko.protobufv3.internal.GeneratedMessageV3
+                .alwaysUseFieldBuilders) {
+        }
+      }
+      @java.lang.Override
+      public Builder clear() {
+        super.clear();
+        return this;
+      }
+
+      @java.lang.Override
+      public org.apache.pekko.protobufv3.internal.Descriptors.Descriptor
+          getDescriptorForType() {
+        return org.apache.pekko.stream.StreamRefMessages.internal_static_BatchingSupported_descriptor;
+      }
+
+      @java.lang.Override
+      public org.apache.pekko.stream.StreamRefMessages.BatchingSupported getDefaultInstanceForType() {
+        return org.apache.pekko.stream.StreamRefMessages.BatchingSupported.getDefaultInstance();
+      }
+
+      @java.lang.Override
+      public org.apache.pekko.stream.StreamRefMessages.BatchingSupported build() {
+        org.apache.pekko.stream.StreamRefMessages.BatchingSupported result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      @java.lang.Override
+      public org.apache.pekko.stream.StreamRefMessages.BatchingSupported buildPartial() {
+        org.apache.pekko.stream.StreamRefMessages.BatchingSupported result = new org.apache.pekko.stream.StreamRefMessages.BatchingSupported(this);
+        onBuilt();
+        return result;
+      }
+
+      @java.lang.Override
+      public Builder clone() {
+        return super.clone();
+      }
+      @java.lang.Override
+      public Builder setField(
+          org.apache.pekko.protobufv3.internal.Descriptors.FieldDescriptor field,
+          java.lang.Object value) {
+        return super.setField(field, value);
+      }
+      @java.lang.Override
+      public Builder clearField(
+          org.apache.pekko.protobufv3.internal.Descriptors.FieldDescriptor field) {
+        return super.clearField(field);
+      }
+      @java.lang.Override
+      public Builder clearOneof(
+          org.apache.pekko.protobufv3.internal.Descriptors.OneofDescriptor oneof) {
+        return super.clearOneof(oneof);
+      }
+      @java.lang.Override
+      public Builder setRepeatedField(
+          org.apache.pekko.protobufv3.internal.Descriptors.FieldDescriptor field,
+          int index, java.lang.Object value) {
+        return super.setRepeatedField(field, index, value);
+      }
+      @java.lang.Override
+      public Builder addRepeatedField(
+          org.apache.pekko.protobufv3.internal.Descriptors.FieldDescriptor field,
+          java.lang.Object value) {
+        return super.addRepeatedField(field, value);
+      }
+      @java.lang.Override
+      public Builder mergeFrom(org.apache.pekko.protobufv3.internal.Message other) {
+        if (other instanceof org.apache.pekko.stream.StreamRefMessages.BatchingSupported) {
+          return mergeFrom((org.apache.pekko.stream.StreamRefMessages.BatchingSupported)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(org.apache.pekko.stream.StreamRefMessages.BatchingSupported other) {
+        if (other == org.apache.pekko.stream.StreamRefMessages.BatchingSupported.getDefaultInstance()) return this;
+        this.mergeUnknownFields(other.unknownFields);
+        onChanged();
+        return this;
+      }
+
+      @java.lang.Override
+      public final boolean isInitialized() {
+        return true;
+      }
+
+      @java.lang.Override
+      public Builder mergeFrom(
+          org.apache.pekko.protobufv3.internal.CodedInputStream input,
+          org.apache.pekko.protobufv3.internal.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        org.apache.pekko.stream.StreamRefMessages.BatchingSupported parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (org.apache.pekko.protobufv3.internal.InvalidProtocolBufferException e) {
+          parsedMessage = (org.apache.pekko.stream.StreamRefMessages.BatchingSupported) e.getUnfinishedMessage();
+          throw e.unwrapIOException();
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      @java.lang.Override
+      public final Builder setUnknownFields(
+          final org.apache.pekko.protobufv3.internal.UnknownFieldSet unknownFields) {
+        return super.setUnknownFields(unknownFields);
+      }
+
+      @java.lang.Override
+      public final Builder mergeUnknownFields(
+          final org.apache.pekko.protobufv3.internal.UnknownFieldSet unknownFields) {
+        return super.mergeUnknownFields(unknownFields);
+      }
+
+
+      // @@protoc_insertion_point(builder_scope:BatchingSupported)
+    }
+
+    // @@protoc_insertion_point(class_scope:BatchingSupported)
+    private static final org.apache.pekko.stream.StreamRefMessages.BatchingSupported DEFAULT_INSTANCE;
+    static {
+      DEFAULT_INSTANCE = new org.apache.pekko.stream.StreamRefMessages.BatchingSupported();
+    }
+
+    public static org.apache.pekko.stream.StreamRefMessages.BatchingSupported getDefaultInstance() {
+      return DEFAULT_INSTANCE;
+    }
+
+    @java.lang.Deprecated public static final org.apache.pekko.protobufv3.internal.Parser<BatchingSupported>
+        PARSER = new org.apache.pekko.protobufv3.internal.AbstractParser<BatchingSupported>() {
+      @java.lang.Override
+      public BatchingSupported parsePartialFrom(
+          org.apache.pekko.protobufv3.internal.CodedInputStream input,
+          org.apache.pekko.protobufv3.internal.ExtensionRegistryLite extensionRegistry)
+          throws org.apache.pekko.protobufv3.internal.InvalidProtocolBufferException {
+        return new BatchingSupported(input, extensionRegistry);
+      }
+    };
+
+    public static org.apache.pekko.protobufv3.internal.Parser<BatchingSupported> parser() {
+      return PARSER;
+    }
+
+    @java.lang.Override
+    public org.apache.pekko.protobufv3.internal.Parser<BatchingSupported> getParserForType() {
+      return PARSER;
+    }
+
+    @java.lang.Override
+    public org.apache.pekko.stream.StreamRefMessages.BatchingSupported getDefaultInstanceForType() {
+      return DEFAULT_INSTANCE;
+    }
+
+  }
+
   public interface RemoteStreamFailureOrBuilder extends
       // @@protoc_insertion_point(interface_extends:RemoteStreamFailure)
       org.apache.pekko.protobufv3.internal.MessageOrBuilder {
@@ -5655,6 +6978,16 @@ public final class StreamRefMessages {
   private static final 
     org.apache.pekko.protobufv3.internal.GeneratedMessageV3.FieldAccessorTable
       internal_static_SequencedOnNext_fieldAccessorTable;
+  private static final org.apache.pekko.protobufv3.internal.Descriptors.Descriptor
+    internal_static_SequencedOnNextBatch_descriptor;
+  private static final 
+    org.apache.pekko.protobufv3.internal.GeneratedMessageV3.FieldAccessorTable
+      internal_static_SequencedOnNextBatch_fieldAccessorTable;
+  private static final org.apache.pekko.protobufv3.internal.Descriptors.Descriptor
+    internal_static_BatchingSupported_descriptor;
+  private static final 
+    org.apache.pekko.protobufv3.internal.GeneratedMessageV3.FieldAccessorTable
+      internal_static_BatchingSupported_fieldAccessorTable;
   private static final org.apache.pekko.protobufv3.internal.Descriptors.Descriptor
     internal_static_RemoteStreamFailure_descriptor;
   private static final 
@@ -5683,9 +7016,12 @@ public final class StreamRefMessages {
       "ke\022\034\n\ttargetRef\030\001 \002(\0132\t.ActorRef\"!\n\020Cumu" +
       "lativeDemand\022\r\n\005seqNr\030\001 \002(\003\";\n\017Sequenced" +
       "OnNext\022\r\n\005seqNr\030\001 \002(\003\022\031\n\007payload\030\002 \002(\0132\010" +
-      ".Payload\"$\n\023RemoteStreamFailure\022\r\n\005cause" +
-      "\030\001 \001(\014\"&\n\025RemoteStreamCompleted\022\r\n\005seqNr" +
-      "\030\001 \002(\003B\033\n\027org.apache.pekko.streamH\001"
+      ".Payload\"A\n\024SequencedOnNextBatch\022\r\n\005seqN" +
+      "r\030\001 \002(\003\022\032\n\010payloads\030\002 \003(\0132\010.Payload\"\023\n\021B" +
+      "atchingSupported\"$\n\023RemoteStreamFailure\022" +
+      "\r\n\005cause\030\001 \001(\014\"&\n\025RemoteStreamCompleted\022" +
+      "\r\n\005seqNr\030\001 \002(\003B\033\n\027org.apache.pekko.strea" +
+      "mH\001"
     };
     descriptor = org.apache.pekko.protobufv3.internal.Descriptors.FileDescriptor
       .internalBuildGeneratedFileFrom(descriptorData,
@@ -5733,14 +7069,26 @@ public final class StreamRefMessages {
       org.apache.pekko.protobufv3.internal.GeneratedMessageV3.FieldAccessorTable(
         internal_static_SequencedOnNext_descriptor,
         new java.lang.String[] { "SeqNr", "Payload", });
-    internal_static_RemoteStreamFailure_descriptor =
+    internal_static_SequencedOnNextBatch_descriptor =
       getDescriptor().getMessageTypes().get(7);
+    internal_static_SequencedOnNextBatch_fieldAccessorTable = new
+      org.apache.pekko.protobufv3.internal.GeneratedMessageV3.FieldAccessorTable(
+        internal_static_SequencedOnNextBatch_descriptor,
+        new java.lang.String[] { "SeqNr", "Payloads", });
+    internal_static_BatchingSupported_descriptor =
+      getDescriptor().getMessageTypes().get(8);
+    internal_static_BatchingSupported_fieldAccessorTable = new
+      org.apache.pekko.protobufv3.internal.GeneratedMessageV3.FieldAccessorTable(
+        internal_static_BatchingSupported_descriptor,
+        new java.lang.String[] { });
+    internal_static_RemoteStreamFailure_descriptor =
+      getDescriptor().getMessageTypes().get(9);
     internal_static_RemoteStreamFailure_fieldAccessorTable = new
       org.apache.pekko.protobufv3.internal.GeneratedMessageV3.FieldAccessorTable(
         internal_static_RemoteStreamFailure_descriptor,
         new java.lang.String[] { "Cause", });
     internal_static_RemoteStreamCompleted_descriptor =
-      getDescriptor().getMessageTypes().get(8);
+      getDescriptor().getMessageTypes().get(10);
     internal_static_RemoteStreamCompleted_fieldAccessorTable = new
       org.apache.pekko.protobufv3.internal.GeneratedMessageV3.FieldAccessorTable(
         internal_static_RemoteStreamCompleted_descriptor,
@@ -355,10 +355,30 @@ object Attributes {
    */
   final case class InputBuffer(initial: Int, max: Int) extends MandatoryAttribute
 
+  /**
+   * When enabled, the input buffer of an asynchronous boundary adapts the number of elements it requests from
+   * upstream between the initial and the maximum size of the [[InputBuffer]]: it requests more when the downstream
+   * operators have to wait for elements because of the round trip latency to the upstream actor, and fewer when
+   * the elements stay buffered because downstream is slower. Disabled by default, when the maximum size is always used.
+   *
+   * Use factory method [[Attributes#adaptiveInputBuffer]] to create instances.
+   */
+  final case class AdaptiveInputBuffer(enabled: Boolean) extends Attribute
+
   final case class LogLevels(onElement: Logging.LogLevel, onFinish: Logging.LogLevel, onFailure: Logging.LogLevel)
       extends Attribute
   case object AsyncBoundary extends Attribute
 
+  /**
+   * The maximum number of reads or writes that the `FileIO` operators based on an `AsynchronousFileChannel`
+   * keep outstanding at the same time, defaults to 4.
+   *
+   * Use factory method [[Attributes#maxInFlightFileOperations]] to create instances.
+   */
+  final case class MaxInFlightFileOperations(max: Int) extends Attribute {
+    require(max > 0, "max must be > 0")
+  }
+
   /**
    * Cancellation strategies provide a way to configure the behavior of a stage when `cancelStage` is called.
    *
@@ -683,6 +703,18 @@ object Attributes {
    */
   def inputBuffer(initial: Int, max: Int): Attributes = Attributes(InputBuffer(initial, max))
 
+  /**
+   * Lets the input buffers of the asynchronous boundaries adapt the number of elements they request from upstream
+   * between the initial and the maximum input buffer size, see [[Attributes.AdaptiveInputBuffer]].
+   */
+  def adaptiveInputBuffer(enabled: Boolean): Attributes = Attributes(AdaptiveInputBuffer(enabled))
+
+  /**
+   * Configures how many reads or writes the `FileIO` operators based on an `AsynchronousFileChannel`,
+   * such as `FileIO.fromPathAsync` and `FileIO.toPathAsync`, keep outstanding at the same time.
+   */
+  def maxInFlightFileOperations(max: Int): Attributes = Attributes(MaxInFlightFileOperations(max))
+
   /**
    * Java API
    *
@@ -917,6 +949,11 @@ object StreamRefAttributes {
   }
   final case class DemandRedeliveryInterval(timeout: FiniteDuration) extends StreamRefAttribute
   final case class FinalTerminationSignalDeadline(timeout: FiniteDuration) extends StreamRefAttribute
+  final case class Batching(maxElements: Int, maxBytes: Int, maxDelay: FiniteDuration) extends StreamRefAttribute {
+    require(maxElements > 0, "maxElements must be > 0")
+    require(maxBytes > 0, "maxBytes must be > 0")
+    require(maxDelay.length >= 0, "maxDelay must be >= 0")
+  }
 
   /**
    * Scala API: Specifies the subscription timeout within which the remote side MUST subscribe to the handed out stream reference.
@@ -957,4 +994,30 @@ object StreamRefAttributes {
   def finalTerminationSignalDeadline(timeout: Duration): Attributes =
     finalTerminationSignalDeadline(timeout.asScala)
 
+  /**
+   * Scala API: Send up to `maxElements` elements, or elements of up to `maxBytes` bytes (only counting `ByteString`
+   * and `String` elements), in one message over the network. A batch is sent once it is full, once the demand of the
+   * receiving side is used up, or `maxDelay` after its first element. `maxElements` of 1 or a `maxDelay` of zero
+   * disables batching.
+   *
+   * Batches are only sent when both sides of the stream ref have batching enabled. A node running a version that does
+   * not support batching logs a deserialization warning for the message announcing it, so enable batching once all
+   * nodes have been upgraded.
+   */
+  def batching(maxElements: Int, maxBytes: Int, maxDelay: FiniteDuration): Attributes =
+    Attributes(Batching(maxElements, maxBytes, maxDelay))
+
+  /**
+   * Java API: Send up to `maxElements` elements, or elements of up to `maxBytes` bytes (only counting `ByteString`
+   * and `String` elements), in one message over the network. A batch is sent once it is full, once the demand of the
+   * receiving side is used up, or `maxDelay` after its first element. `maxElements` of 1 or a `maxDelay` of zero
+   * disables batching.
+   *
+   * Batches are only sent when both sides of the stream ref have batching enabled. A node running a version that does
+   * not support batching logs a deserialization warning for the message announcing it, so enable batching once all
+   * nodes have been upgraded.
+   */
+  def batching(maxElements: Int, maxBytes: Int, maxDelay: Duration): Attributes =
+    batching(maxElements, maxBytes, maxDelay.asScala)
+
 }
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream
+
+import FileSyncPolicies._
+
+/**
+ * Decides when the bytes written by a memory-mapped file sink are forced to the storage device.
+ */
+sealed abstract class FileSyncPolicy
+
+private[pekko] object FileSyncPolicies {
+
+  /**
+   * INTERNAL API
+   */
+  private[pekko] case object Never extends FileSyncPolicy
+
+  /**
+   * INTERNAL API
+   */
+  private[pekko] case object OnComplete extends FileSyncPolicy
+
+  /**
+   * INTERNAL API
+   */
+  private[pekko] case object EveryRegion extends FileSyncPolicy
+}
+
+object FileSyncPolicy {
+
+  /**
+   * Leave it to the OS to write the bytes to the storage device, they may not be stored durably
+   * at the time the stream completes.
+   */
+  def never: FileSyncPolicy = Never
+
+  /**
+   * Force all bytes to the storage device before the materialized value of the sink is completed successfully.
+   * The bytes of a full region are forced when the next region is mapped, as they are not guaranteed to be
+   * forced once the region is no longer used.
+   */
+  def onComplete: FileSyncPolicy = OnComplete
+
+  /**
+   * Force the bytes of every mapped region to the storage device as soon as the region is full, and the bytes of
+   * the last region before the materialized value of the sink is completed successfully.
+   */
+  def everyRegion: FileSyncPolicy = EveryRegion
+}
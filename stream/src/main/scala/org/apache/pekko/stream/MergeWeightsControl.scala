@@ -0,0 +1,33 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream
+
+import org.apache.pekko.annotation.DoNotInherit
+
+/**
+ * Materialized value of `MergeWeightedFair`, changes the weights of its inputs while the stream is running.
+ *
+ * Not for user extension.
+ */
+@DoNotInherit
+trait MergeWeightsControl {
+
+  /**
+   * Changes the weight of the given input, starting with the next round of the merge. A weight of zero stops
+   * emitting elements from that input, which then backpressures once its buffer is full. Its buffered elements
+   * are still emitted once all upstreams completed.
+   *
+   * Has no effect if the stream has already terminated.
+   *
+   * @param input the index of the input port
+   * @param weight the new weight, zero or positive
+   */
+  def setWeight(input: Int, weight: Int): Unit
+}
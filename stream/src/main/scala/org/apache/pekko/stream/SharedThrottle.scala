@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream
+
+import scala.concurrent.duration.FiniteDuration
+
+import org.apache.pekko
+import pekko.japi.function
+import pekko.stream.impl.{ SharedThrottleStage, Throttle }
+import pekko.util.NanoTimeConcurrentTokenBucket
+import pekko.util.JavaDurationConverters._
+
+/**
+ * Creates [[SharedThrottle]]s, which limit the rate of all the streams they are attached to together.
+ */
+object SharedThrottle {
+
+  /**
+   * Creates a new [[SharedThrottle]] that lets `cost` tokens pass per time unit `per` through all the flows it
+   * provides together, with the given mode and maximum burst, see `throttle` for the parameters.
+   */
+  def apply(name: String, cost: Int, per: FiniteDuration, maximumBurst: Int, mode: ThrottleMode): SharedThrottle =
+    new SharedThrottle(name, cost, per, maximumBurst, mode)
+
+  /**
+   * Creates a new [[SharedThrottle]] that lets `cost` tokens pass per time unit `per` through all the flows it
+   * provides together, delaying elements to meet the rate with an automatic maximum burst, see `throttle`.
+   */
+  def apply(name: String, cost: Int, per: FiniteDuration): SharedThrottle =
+    apply(name, cost, per, Throttle.AutomaticMaximumBurst, ThrottleMode.Shaping)
+
+  /**
+   * Java API: Creates a new [[SharedThrottle]] that lets `cost` tokens pass per time unit `per` through all the
+   * flows it provides together, with the given mode and maximum burst, see `throttle` for the parameters.
+   */
+  def create(
+      name: String,
+      cost: Int,
+      per: java.time.Duration,
+      maximumBurst: Int,
+      mode: ThrottleMode): SharedThrottle =
+    apply(name, cost, per.asScala, maximumBurst, mode)
+
+  /**
+   * Java API: Creates a new [[SharedThrottle]] that lets `cost` tokens pass per time unit `per` through all the
+   * flows it provides together, delaying elements to meet the rate with an automatic maximum burst, see `throttle`.
+   */
+  def create(name: String, cost: Int, per: java.time.Duration): SharedThrottle =
+    apply(name, cost, per.asScala)
+
+  /**
+   * The capacity of the token bucket and the nanoseconds between tokens, calculated like for `throttle`.
+   */
+  private def tokenRate(cost: Int, per: FiniteDuration, maximumBurst: Int, mode: ThrottleMode): (Long, Long) = {
+    require(cost > 0, "cost must be > 0")
+    require(per.toNanos > 0, "per time must be > 0")
+    require(per.toNanos >= cost, "Rates larger than 1 unit / nanosecond are not supported")
+    val nanosBetweenTokens = per.toNanos / cost
+    val capacity =
+      if (maximumBurst == Throttle.AutomaticMaximumBurst) math.max(1, (100 * 1000 * 1000) / nanosBetweenTokens)
+      else maximumBurst.toLong
+    require(capacity >= 0, "maximumBurst must be >= 0")
+    require(!(mode == ThrottleMode.Enforcing && capacity == 0), "maximumBurst must be > 0 in Enforcing mode")
+    (capacity, nanosBetweenTokens)
+  }
+}
+
+/**
+ * A rate limit that is shared by every materialization of every flow it provides, for example to limit all calls
+ * to an external service made by the streams of an application, in the same way as the `throttle` operator limits
+ * a single stream.
+ *
+ * The tokens are accounted for without locking, an element that has to wait in [[ThrottleMode.Shaping]] mode
+ * reserves its tokens, so that the elements of the other streams are delayed until after it. In
+ * [[ThrottleMode.Enforcing]] mode a stream fails with a [[RateExceededException]] when the tokens for its element
+ * are not available.
+ *
+ * The rate can be changed while the streams are running with [[SharedThrottle#setRate]], for example to divide a
+ * rate limit between several nodes.
+ */
+final class SharedThrottle private (
+    val name: String,
+    cost: Int,
+    per: FiniteDuration,
+    maximumBurst: Int,
+    val mode: ThrottleMode) {
+  private[this] val bucket = {
+    val (capacity, nanosBetweenTokens) = SharedThrottle.tokenRate(cost, per, maximumBurst, mode)
+    val bucket = new NanoTimeConcurrentTokenBucket(capacity, nanosBetweenTokens)
+    bucket.init()
+    bucket
+  }
+  private[this] val _flow: Graph[FlowShape[Any, Any], SharedThrottle] = new SharedThrottleStage[Any](this, _ => 1)
+
+  /**
+   * Returns a flow that passes its elements through this throttle, each element costs one token.
+   *
+   * @tparam T Type of the elements the Flow will forward
+   * @return   A reusable [[Graph]] that is linked with the throttle. The materialized value provided is this throttle itself.
+   */
+  def flow[T]: Graph[FlowShape[T, T], SharedThrottle] = _flow.asInstanceOf[Graph[FlowShape[T, T], SharedThrottle]]
+
+  /**
+   * Returns a flow that passes its elements through this throttle, each element costs the tokens calculated by
+   * `costCalculation`.
+   *
+   * @tparam T Type of the elements the Flow will forward
+   * @return   A reusable [[Graph]] that is linked with the throttle. The materialized value provided is this throttle itself.
+   */
+  def flowWithCost[T](costCalculation: T => Int): Graph[FlowShape[T, T], SharedThrottle] =
+    new SharedThrottleStage[T](this, costCalculation)
+
+  /**
+   * Java API: Returns a flow that passes its elements through this throttle, each element costs the tokens
+   * calculated by `costCalculation`.
+   *
+   * @tparam T Type of the elements the Flow will forward
+   * @return   A reusable [[Graph]] that is linked with the throttle. The materialized value provided is this throttle itself.
+   */
+  def createFlow[T](costCalculation: function.Function[T, Integer]): Graph[FlowShape[T, T], SharedThrottle] =
+    flowWithCost[T](elem => costCalculation.apply(elem).intValue)
+
+  /**
+   * Changes the rate to `cost` tokens per time unit `per`, for the tokens taken from now on. The maximum burst is the
+   * one given when the throttle was created.
+   */
+  def setRate(cost: Int, per: FiniteDuration): Unit = {
+    val (capacity, nanosBetweenTokens) = SharedThrottle.tokenRate(cost, per, maximumBurst, mode)
+    bucket.setRate(capacity, nanosBetweenTokens)
+  }
+
+  /**
+   * Java API: Changes the rate to `cost` tokens per time unit `per`, for the tokens taken from now on. The maximum
+   * burst is the one given when the throttle was created.
+   */
+  def setRate(cost: Int, per: java.time.Duration): Unit = setRate(cost, per.asScala)
+
+  /**
+   * INTERNAL API: Takes the tokens and returns the nanoseconds to wait until they are available.
+   */
+  private[stream] def offer(cost: Int): Long = bucket.offer(cost)
+
+  /**
+   * INTERNAL API: Takes the tokens if they are available right now.
+   */
+  private[stream] def tryTake(cost: Int): Boolean = bucket.tryTake(cost)
+
+  override def toString: String = s"SharedThrottle($name)"
+}
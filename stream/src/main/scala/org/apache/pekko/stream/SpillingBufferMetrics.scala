@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream
+
+import org.apache.pekko.annotation.DoNotInherit
+
+/**
+ * Materialized value of `SpillingBuffer`, the current state of the buffer and the totals of what was spilled to disk.
+ * The values can be read from any thread while the stream is running, sampling the totals gives the spill rate.
+ *
+ * Not for user extension.
+ */
+@DoNotInherit
+trait SpillingBufferMetrics {
+
+  /**
+   * The number of elements currently buffered in memory.
+   */
+  def elementsInMemory: Int
+
+  /**
+   * The number of elements currently spilled to disk.
+   */
+  def elementsOnDisk: Long
+
+  /**
+   * The size of the segment files currently on disk.
+   */
+  def bytesOnDisk: Long
+
+  /**
+   * The total number of elements spilled to disk since the stream was materialized.
+   */
+  def spilledElements: Long
+
+  /**
+   * The total number of serialized bytes spilled to disk since the stream was materialized.
+   */
+  def spilledBytes: Long
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream
+
+import scala.concurrent.duration.FiniteDuration
+
+import org.apache.pekko
+import pekko.util.JavaDurationConverters._
+
+import SubstreamEvictionStrategies._
+
+/**
+ * Represents a strategy that decides what `groupBy` does when the maximum number of substreams is reached,
+ * and whether substreams that have not received elements for a while are closed.
+ */
+sealed abstract class SubstreamEvictionStrategy
+
+private[pekko] object SubstreamEvictionStrategies {
+
+  /**
+   * INTERNAL API
+   */
+  private[pekko] case object Fail extends SubstreamEvictionStrategy
+
+  /**
+   * INTERNAL API
+   */
+  private[pekko] case object LeastRecentlyUsed extends SubstreamEvictionStrategy
+
+  /**
+   * INTERNAL API
+   */
+  private[pekko] final case class IdleTimeout(timeout: FiniteDuration) extends SubstreamEvictionStrategy {
+    require(timeout > FiniteDuration(0, "nanos"), "idle timeout must be positive")
+  }
+}
+
+object SubstreamEvictionStrategy {
+
+  /**
+   * Fail the stream with a [[TooManySubstreamsOpenException]] when the maximum number of substreams is reached.
+   */
+  def fail: SubstreamEvictionStrategy = Fail
+
+  /**
+   * Complete the least recently used substream when the maximum number of substreams is reached,
+   * so that the element for the new key can be emitted in a new substream.
+   */
+  def leastRecentlyUsed: SubstreamEvictionStrategy = LeastRecentlyUsed
+
+  /**
+   * Complete substreams that have not received an element for at least the given timeout, and the least
+   * recently used substream when the maximum number of substreams is reached.
+   *
+   * Idle substreams are looked for periodically, a substream is completed at the latest after being idle for
+   * one and a half times the timeout.
+   */
+  def idleTimeout(timeout: FiniteDuration): SubstreamEvictionStrategy = IdleTimeout(timeout)
+
+  /**
+   * Java API: Complete substreams that have not received an element for at least the given timeout, and the least
+   * recently used substream when the maximum number of substreams is reached.
+   *
+   * Idle substreams are looked for periodically, a substream is completed at the latest after being idle for
+   * one and a half times the timeout.
+   */
+  def idleTimeout(timeout: java.time.Duration): SubstreamEvictionStrategy = IdleTimeout(timeout.asScala)
+}
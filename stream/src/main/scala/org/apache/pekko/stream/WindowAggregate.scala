@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream
+
+import scala.reflect.ClassTag
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.japi.function
+
+/**
+ * An incremental aggregation of the elements of a window, used by the `Window` operators.
+ *
+ * The elements are added one by one to an immutable accumulator, starting from `zero`, and the accumulators of
+ * parts of a window are merged to calculate the result of the whole window. An invertible aggregate can also
+ * subtract the accumulator of a part from the accumulator of a window, which lets sliding windows be calculated
+ * with a constant amount of work per element, independent of the size of the window.
+ *
+ * The accumulators are stored in arrays of their class, so that accumulators of a primitive type, such as the
+ * `Long` of [[WindowAggregate.count]], are stored in primitive arrays.
+ */
+final class WindowAggregate[T, A, R] private (
+    val zero: A,
+    addFn: (A, T) => A,
+    mergeFn: (A, A) => A,
+    subtractFn: (A, A) => A,
+    resultFn: A => R)(implicit accumulatorTag: ClassTag[A]) {
+
+  /**
+   * Whether the accumulator of a part can be subtracted from the accumulator of a window.
+   */
+  def isInvertible: Boolean = subtractFn ne null
+
+  /** INTERNAL API */
+  @InternalApi private[pekko] def add(acc: A, elem: T): A = addFn(acc, elem)
+
+  /** INTERNAL API */
+  @InternalApi private[pekko] def merge(acc1: A, acc2: A): A = mergeFn(acc1, acc2)
+
+  /** INTERNAL API */
+  @InternalApi private[pekko] def subtract(acc: A, removed: A): A = subtractFn(acc, removed)
+
+  /** INTERNAL API */
+  @InternalApi private[pekko] def result(acc: A): R = resultFn(acc)
+
+  /** INTERNAL API */
+  @InternalApi private[pekko] def newAccumulators(size: Int): Array[A] = {
+    val accumulators = accumulatorTag.newArray(size)
+    var i = 0
+    while (i < size) {
+      accumulators(i) = zero
+      i += 1
+    }
+    accumulators
+  }
+}
+
+object WindowAggregate {
+
+  /**
+   * An aggregate that adds the elements to the accumulator with `add`, merges two accumulators with `merge` and
+   * calculates the result of a window from its accumulator with `result`.
+   */
+  def apply[T, A: ClassTag, R](zero: A)(add: (A, T) => A, merge: (A, A) => A)(
+      result: A => R): WindowAggregate[T, A, R] =
+    new WindowAggregate[T, A, R](zero, add, merge, null, result)
+
+  /**
+   * An invertible aggregate, which in addition can remove the accumulator of a part of a window from the accumulator
+   * of a window with `subtract`, such that `subtract(merge(a, b), b) == a`.
+   */
+  def invertible[T, A: ClassTag, R](zero: A)(add: (A, T) => A, merge: (A, A) => A, subtract: (A, A) => A)(
+      result: A => R): WindowAggregate[T, A, R] =
+    new WindowAggregate[T, A, R](zero, add, merge, subtract, result)
+
+  /**
+   * Java API: An aggregate that adds the elements to the accumulator with `add`, merges two accumulators with
+   * `merge` and calculates the result of a window from its accumulator with `result`.
+   */
+  def create[T, A, R](
+      zero: A,
+      add: function.Function2[A, T, A],
+      merge: function.Function2[A, A, A],
+      result: function.Function[A, R]): WindowAggregate[T, A, R] =
+    new WindowAggregate[T, A, R](
+      zero,
+      (acc, elem) => add.apply(acc, elem),
+      (acc1, acc2) => merge.apply(acc1, acc2),
+      null,
+      acc => result.apply(acc))(ClassTag.AnyRef.asInstanceOf[ClassTag[A]])
+
+  /**
+   * Java API: An invertible aggregate, which in addition can remove the accumulator of a part of a window from the
+   * accumulator of a window with `subtract`, such that `subtract(merge(a, b), b) == a`.
+   */
+  def createInvertible[T, A, R](
+      zero: A,
+      add: function.Function2[A, T, A],
+      merge: function.Function2[A, A, A],
+      subtract: function.Function2[A, A, A],
+      result: function.Function[A, R]): WindowAggregate[T, A, R] =
+    new WindowAggregate[T, A, R](
+      zero,
+      (acc, elem) => add.apply(acc, elem),
+      (acc1, acc2) => merge.apply(acc1, acc2),
+      (acc, removed) => subtract.apply(acc, removed),
+      acc => result.apply(acc))(ClassTag.AnyRef.asInstanceOf[ClassTag[A]])
+
+  /**
+   * Counts the elements of a window.
+   */
+  def count[T]: WindowAggregate[T, Long, Long] =
+    invertible[T, Long, Long](0L)((acc, _) => acc + 1, _ + _, _ - _)(identity)
+
+  /**
+   * Sums the values of the elements of a window.
+   */
+  def sum[T](value: T => Long): WindowAggregate[T, Long, Long] =
+    invertible[T, Long, Long](0L)((acc, elem) => acc + value(elem), _ + _, _ - _)(identity)
+
+  /**
+   * Sums the values of the elements of a window. Subtracting floating point numbers can accumulate rounding errors,
+   * so that the result of a sliding window may differ slightly from the sum of its elements.
+   */
+  def sumDouble[T](value: T => Double): WindowAggregate[T, Double, Double] =
+    invertible[T, Double, Double](0.0)((acc, elem) => acc + value(elem), _ + _, _ - _)(identity)
+
+  /**
+   * The largest value of the elements of a window, `Long.MinValue` for an empty window.
+   */
+  def max[T](value: T => Long): WindowAggregate[T, Long, Long] =
+    apply[T, Long, Long](Long.MinValue)((acc, elem) => math.max(acc, value(elem)), (a, b) => math.max(a, b))(identity)
+
+  /**
+   * The smallest value of the elements of a window, `Long.MaxValue` for an empty window.
+   */
+  def min[T](value: T => Long): WindowAggregate[T, Long, Long] =
+    apply[T, Long, Long](Long.MaxValue)((acc, elem) => math.min(acc, value(elem)), (a, b) => math.min(a, b))(identity)
+
+  /**
+   * Java API: Counts the elements of a window.
+   */
+  def createCount[T](): WindowAggregate[T, java.lang.Long, java.lang.Long] =
+    count[T].asInstanceOf[WindowAggregate[T, java.lang.Long, java.lang.Long]]
+
+  /**
+   * Java API: Sums the values of the elements of a window.
+   */
+  def createSum[T](value: function.Function[T, java.lang.Long]): WindowAggregate[T, java.lang.Long, java.lang.Long] =
+    sum[T](elem => value.apply(elem).longValue).asInstanceOf[WindowAggregate[T, java.lang.Long, java.lang.Long]]
+
+  /**
+   * Java API: The largest value of the elements of a window, `Long.MIN_VALUE` for an empty window.
+   */
+  def createMax[T](value: function.Function[T, java.lang.Long]): WindowAggregate[T, java.lang.Long, java.lang.Long] =
+    max[T](elem => value.apply(elem).longValue).asInstanceOf[WindowAggregate[T, java.lang.Long, java.lang.Long]]
+
+  /**
+   * Java API: The smallest value of the elements of a window, `Long.MAX_VALUE` for an empty window.
+   */
+  def createMin[T](value: function.Function[T, java.lang.Long]): WindowAggregate[T, java.lang.Long, java.lang.Long] =
+    min[T](elem => value.apply(elem).longValue).asInstanceOf[WindowAggregate[T, java.lang.Long, java.lang.Long]]
+}
+
+/**
+ * The result of the `Window` operators for one window, which contains the elements with a timestamp from `start`
+ * (inclusive) to `end` (exclusive), in milliseconds.
+ */
+final case class Windowed[+R](start: Long, end: Long, result: R) {
+
+  /** Java API */
+  def getStart: Long = start
+
+  /** Java API */
+  def getEnd: Long = end
+
+  /** Java API */
+  def getResult: R = result
+}
+
+/**
+ * Decides what the `Window` operators do with an element that arrives after the windows it belongs to were emitted.
+ */
+sealed abstract class LateElementStrategy
+
+object LateElementStrategy {
+
+  /**
+   * Drops late elements.
+   */
+  case object Drop extends LateElementStrategy
+
+  /**
+   * Fails the stream with a [[LateElementException]].
+   */
+  case object Fail extends LateElementStrategy
+
+  /**
+   * Java API: Drops late elements.
+   */
+  def drop: LateElementStrategy = Drop
+
+  /**
+   * Java API: Fails the stream with a [[LateElementException]].
+   */
+  def fail: LateElementStrategy = Fail
+}
+
+/**
+ * Exception that is thrown by the `Window` operators for a late element with [[LateElementStrategy.Fail]].
+ */
+class LateElementException(msg: String) extends RuntimeException(msg)
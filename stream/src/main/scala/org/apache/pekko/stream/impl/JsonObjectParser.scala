@@ -13,7 +13,11 @@
 
 package org.apache.pekko.stream.impl
 
+import java.nio.{ ByteBuffer, ByteOrder }
+
 import scala.annotation.switch
+import scala.annotation.tailrec
+
 import org.apache.pekko
 import pekko.annotation.InternalApi
 import pekko.stream.scaladsl.Framing.FramingException
@@ -45,6 +49,23 @@ import pekko.util.ByteString
     case _          => false
   }
 
+  private final val Ones = 0x0101010101010101L
+  private final val HighBits = 0x8080808080808080L
+
+  private final val QuoteMask = Ones * DoubleQuote
+  private final val BackslashMask = Ones * Backslash
+  private final val CurlyBraceStartMask = Ones * CurlyBraceStart
+  private final val CurlyBraceEndMask = Ones * CurlyBraceEnd
+
+  /**
+   * Marks the bytes of `word` that are equal to the byte repeated in `mask` with their high bit. Bytes above
+   * a match may be marked as well, so only the lowest mark is exact, which is all the scanning needs.
+   */
+  private def matching(word: Long, mask: Long): Long = {
+    val x = word ^ mask
+    (x - Ones) & ~x & HighBits
+  }
+
 }
 
 /**
@@ -55,34 +76,48 @@ import pekko.util.ByteString
  * into valid JSON objects by this framing implementation.
  *
  * Leading whitespace between elements will be trimmed.
+ *
+ * Inside of objects only quotes, backslashes and curly braces matter, they are searched for eight bytes at a time
+ * (SWAR) so that the bytes in between, most notably the contents of strings, are skipped without looking at each.
+ * Emitted objects are slices of the internal buffer, which is therefore only ever appended to, never overwritten.
  */
 @InternalApi private[pekko] class JsonObjectParser(maximumObjectLength: Int = Int.MaxValue) {
   import JsonObjectParser._
 
-  private[this] var buffer: Array[Byte] = Array.empty
+  private[this] var buffer: Array[Byte] = Array.emptyByteArray
+  private[this] var words: ByteBuffer = ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN)
+  private[this] var limit = 0 // end of the valid bytes in the buffer
 
   private[this] var pos = 0 // latest position of pointer while scanning for json object end
-  private[this] var start = 0 // number of chars to drop from the front of the bytestring before emitting (skip whitespace etc)
+  private[this] var start = 0 // start of the current object, or of the bytes not scanned yet between objects
   private[this] var depth = 0 // counter of object-nesting depth, once hits 0 an object should be emitted
 
-  private[this] var completedObject = false
   private[this] var inStringExpression = false
-  private[this] var inBackslashEscape = false
+  private[this] var inBackslashEscape = false // the last byte scanned was a backslash inside a string
 
   /**
    * Appends input ByteString to internal buffer.
    * Use [[poll]] to extract contained JSON objects.
    */
   def offer(input: ByteString): Unit = {
-    val oldBuffer = buffer
-    buffer = new Array[Byte](oldBuffer.length - start + input.size)
-    System.arraycopy(oldBuffer, start, buffer, 0, oldBuffer.length - start)
-    input.copyToArray(buffer, oldBuffer.length - start)
-    pos -= start
-    start = 0
+    val inputSize = input.size
+    if (limit + inputSize > buffer.length) {
+      // grow by doubling so that an object spanning many chunks is copied a bounded number of times
+      val remaining = limit - start
+      val newSize = math.max(remaining + inputSize, math.min(remaining.toLong * 2, Int.MaxValue - 8).toInt)
+      val newBuffer = new Array[Byte](newSize)
+      System.arraycopy(buffer, start, newBuffer, 0, remaining)
+      buffer = newBuffer
+      words = ByteBuffer.wrap(newBuffer).order(ByteOrder.LITTLE_ENDIAN)
+      pos -= start
+      limit = remaining
+      start = 0
+    }
+    input.copyToArray(buffer, limit)
+    limit += inputSize
   }
 
-  def isEmpty: Boolean = buffer.isEmpty
+  def isEmpty: Boolean = start == limit
 
   /** `true` if the buffer is in a valid state to end framing. */
   def canComplete: Boolean = depth == 0
@@ -91,89 +126,118 @@ import pekko.util.ByteString
    * Attempt to locate next complete JSON object in buffered ByteString and returns `Some(it)` if found.
    * May throw a [[pekko.stream.scaladsl.Framing.FramingException]] if the contained JSON is invalid or max object size is exceeded.
    */
-  def poll(): Option[ByteString] =
-    try {
-      val foundObject = seekObject()
-      if (!foundObject) None
-      else
-        (pos: @switch) match {
-          case -1 | 0 => None
-          case _ =>
-            if (start == pos) None
-            else {
-              val res = ByteString.fromArrayUnsafe(buffer, start, pos - start)
-              start = pos
-              Some(res)
-            }
-        }
-    } catch {
-      case _: ArithmeticException =>
-        throw new FramingException(s"Invalid JSON encountered at position [$pos] of [${ByteString(buffer).utf8String}]")
-    }
-
-  /** @return true if an entire valid JSON object was found, false otherwise */
-  private def seekObject(): Boolean = {
-    completedObject = false
-    val bufSize = buffer.length
-
-    skipToNextObject(bufSize)
-    val maxObjectLengthIndex = if (pos + maximumObjectLength < 0) Int.MaxValue else pos + maximumObjectLength
-
-    while (pos < bufSize && pos < maxObjectLengthIndex && !completedObject) {
-      val input = buffer(pos)
-      proceed(input)
-      pos += 1
+  def poll(): Option[ByteString] = {
+    if (depth == 0) skipToNextObject()
+    if (depth == 0) None
+    else {
+      val end = seekObjectEnd()
+      if (end == -1) {
+        checkObjectLength(limit)
+        None
+      } else {
+        checkObjectLength(end)
+        val res = ByteString.fromArrayUnsafe(buffer, start, end - start)
+        start = end
+        Some(res)
+      }
     }
-
-    if (pos >= maxObjectLengthIndex)
-      throw new FramingException(s"""JSON element exceeded maximumObjectLength ($maximumObjectLength bytes)!""")
-
-    completedObject
   }
 
-  private def skipToNextObject(bufSize: Int): Unit =
-    while (pos != -1 && pos < bufSize && depth == 0) {
-      val outer = outerChars(buffer(pos) & 0xFF)
-      start += outer & 1
-      depth = (outer & 2) >> 1
+  private def checkObjectLength(end: Int): Unit =
+    if (end - start > maximumObjectLength)
+      throw new FramingException(s"""JSON element exceeded maximumObjectLength ($maximumObjectLength bytes)!""")
 
-      1 / outer // HACK: use arithmetic exception to cover error case
+  private def skipToNextObject(): Unit = {
+    while (pos < limit && depth == 0) {
+      val b = buffer(pos)
+      if (b == CurlyBraceStart) {
+        start = pos
+        depth = 1
+      } else if (!(isWhitespace(b) || b == Comma || b == SquareBraceStart || b == SquareBraceEnd)) {
+        val json = ByteString.fromArrayUnsafe(buffer, 0, limit).utf8String
+        throw new FramingException(s"Invalid JSON encountered at position [$pos] of [$json]")
+      }
       pos += 1
     }
+    if (depth == 0) start = pos
+  }
 
-  private def proceed(input: Byte): Unit =
+  /** @return the index after the closing curly brace of the current object, or -1 if it is not in the buffer yet */
+  @tailrec private def seekObjectEnd(): Int =
     if (inStringExpression) {
-      input match {
-        case DoubleQuote =>
-          inStringExpression = inBackslashEscape
-          inBackslashEscape = false
-        case Backslash =>
-          inBackslashEscape = !inBackslashEscape
-        case _ =>
-          inBackslashEscape = false
+      if (inBackslashEscape && pos < limit) {
+        // the escaped character can't end the string
+        inBackslashEscape = false
+        pos += 1
       }
-    } else
-      input match {
-        case DoubleQuote =>
-          inStringExpression = true
-        case CurlyBraceStart =>
-          depth += 1
-        case CurlyBraceEnd =>
-          depth -= 1
-          completedObject = depth == 0
-        case _ =>
+      val i = indexOfStringEnd(pos)
+      if (i == -1) {
+        pos = limit
+        -1
+      } else if (buffer(i) == DoubleQuote) {
+        inStringExpression = false
+        pos = i + 1
+        seekObjectEnd()
+      } else {
+        inBackslashEscape = true
+        pos = i + 1
+        seekObjectEnd()
       }
-
-  // lookup table to avoid branches while scanning over characters outside of objects
-  private val outerChars: Array[Byte] =
-    // 0x1: skip
-    // 0x2: depth + 1
-    Array.tabulate[Byte](256) { i =>
-      i.toByte match {
-        case CurlyBraceStart                           => 2 // found object
-        case SquareBraceStart | SquareBraceEnd | Comma => 1 // skip
-        case b if isWhitespace(b.toByte)               => 1 // skip
-        case _                                         => 0 // error
+    } else {
+      val i = indexOfStructural(pos)
+      if (i == -1) {
+        pos = limit
+        -1
+      } else {
+        pos = i + 1
+        buffer(i) match {
+          case DoubleQuote =>
+            inStringExpression = true
+            seekObjectEnd()
+          case CurlyBraceStart =>
+            depth += 1
+            seekObjectEnd()
+          case _ => // CurlyBraceEnd
+            depth -= 1
+            if (depth == 0) pos else seekObjectEnd()
+        }
       }
     }
+
+  /** Index of the first quote or backslash at or after `from`, or -1 */
+  private def indexOfStringEnd(from: Int): Int = {
+    var i = from
+    var found = -1
+    while (found == -1 && i + 8 <= limit) {
+      val word = words.getLong(i)
+      val marks = matching(word, QuoteMask) | matching(word, BackslashMask)
+      if (marks != 0) found = i + (java.lang.Long.numberOfTrailingZeros(marks) >>> 3)
+      else i += 8
+    }
+    while (found == -1 && i < limit) {
+      val b = buffer(i)
+      if (b == DoubleQuote || b == Backslash) found = i
+      else i += 1
+    }
+    found
+  }
+
+  /** Index of the first quote or curly brace at or after `from`, or -1 */
+  private def indexOfStructural(from: Int): Int = {
+    var i = from
+    var found = -1
+    while (found == -1 && i + 8 <= limit) {
+      val word = words.getLong(i)
+      val marks =
+        matching(word, QuoteMask) | matching(word, CurlyBraceStartMask) | matching(word, CurlyBraceEndMask)
+      if (marks != 0) found = i + (java.lang.Long.numberOfTrailingZeros(marks) >>> 3)
+      else i += 8
+    }
+    while (found == -1 && i < limit) {
+      val b = buffer(i)
+      if (b == DoubleQuote || b == CurlyBraceStart || b == CurlyBraceEnd) found = i
+      else i += 1
+    }
+    found
+  }
 }
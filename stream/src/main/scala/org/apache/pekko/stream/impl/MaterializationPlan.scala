@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.impl
+
+import java.lang.ref.WeakReference
+import java.util.concurrent.atomic.AtomicReferenceArray
+
+import org.reactivestreams.Publisher
+
+import org.apache.pekko
+import pekko.NotUsed
+import pekko.annotation.InternalApi
+import pekko.stream.{ ActorMaterializerSettings, Attributes, InPort, OutPort, Shape }
+import pekko.stream.impl.StreamLayout.AtomicModule
+
+/**
+ * INTERNAL API
+ *
+ * The calls a materialization of a blueprint made on its islands, in order, so that later materializations of the
+ * same blueprint can make the same calls without traversing its layout again: the islands, the slots of the ports
+ * and the attributes of every operator only depend on the layout, only the logics and the materialized values are
+ * new for every materialization.
+ *
+ * A plan is recorded by materializing the blueprint with the phases wrapped by a [[MaterializationPlan.Recorder]].
+ */
+@InternalApi private[pekko] final class MaterializationPlan private (
+    steps: Array[MaterializationPlan.Step],
+    islands: Int,
+    logics: Int,
+    publishers: Int) {
+  import MaterializationPlan._
+
+  /**
+   * Makes the recorded calls on new islands, returns the materialized value.
+   */
+  def run(
+      settings: ActorMaterializerSettings,
+      materializer: PhasedFusingActorMaterializer,
+      islandNamePrefix: String): Any = {
+    val islandsArray = new Array[PhaseIsland[Any]](islands)
+    val logicsArray = new Array[Any](logics)
+    val publishersArray = new Array[Publisher[Any]](publishers)
+    val matValueStack = new java.util.ArrayDeque[Any](8)
+
+    var i = 0
+    while (i < steps.length) {
+      steps(i) match {
+        case CreateIsland(island, phase, attributes) =>
+          islandsArray(island) = phase(settings, attributes, materializer, islandNamePrefix + island)
+        case MaterializeModule(island, mod, attributes, logic) =>
+          val matAndStage = islandsArray(island).materializeAtomic(mod, attributes)
+          logicsArray(logic) = matAndStage._1
+          matValueStack.addLast(matAndStage._2)
+        case AssignIn(island, in, slot, logic) =>
+          islandsArray(island).assignPort(in, slot, logicsArray(logic))
+        case AssignOut(island, out, slot, logic) =>
+          islandsArray(island).assignPort(out, slot, logicsArray(logic))
+        case CreatePublisher(island, out, logic, publisher) =>
+          publishersArray(publisher) = islandsArray(island).createPublisher(out, logicsArray(logic))
+        case TakePublisher(island, slot, publisher, attributes) =>
+          islandsArray(island).takePublisher(slot, publishersArray(publisher), attributes)
+        case IslandReady(island) =>
+          islandsArray(island).onIslandReady()
+        case MatValue(traversal) =>
+          applyMatValue(traversal, matValueStack)
+      }
+      i += 1
+    }
+    matValueStack.peekLast()
+  }
+
+  override def toString: String = s"MaterializationPlan(steps = ${steps.length}, islands = $islands)"
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi private[pekko] object MaterializationPlan {
+
+  sealed abstract class Step
+  final case class CreateIsland(island: Int, phase: Phase[Any], attributes: Attributes) extends Step
+  final case class MaterializeModule(island: Int, mod: AtomicModule[Shape, Any], attributes: Attributes, logic: Int)
+      extends Step
+  final case class AssignIn(island: Int, in: InPort, slot: Int, logic: Int) extends Step
+  final case class AssignOut(island: Int, out: OutPort, slot: Int, logic: Int) extends Step
+  final case class CreatePublisher(island: Int, out: OutPort, logic: Int, publisher: Int) extends Step
+  final case class TakePublisher(island: Int, slot: Int, publisher: Int, attributes: Attributes) extends Step
+  final case class IslandReady(island: Int) extends Step
+  final case class MatValue(traversal: Traversal) extends Step
+
+  /**
+   * Applies one of the materialized value steps of a traversal, `Pop`, `PushNotUsed`, `Transform` or `Compose`.
+   */
+  def applyMatValue(traversal: Traversal, matValueStack: java.util.ArrayDeque[Any]): Unit =
+    traversal match {
+      case Pop =>
+        matValueStack.removeLast()
+      case PushNotUsed =>
+        matValueStack.addLast(NotUsed)
+      case transform: Transform =>
+        matValueStack.addLast(transform(matValueStack.removeLast()))
+      case compose: Compose =>
+        val second = matValueStack.removeLast()
+        val first = matValueStack.removeLast()
+        matValueStack.addLast(compose(first, second))
+      case other =>
+        throw new IllegalArgumentException(s"Not a materialized value step: $other")
+    }
+
+  /**
+   * Records the calls of a materialization on the islands of the phases it wraps. Not thread-safe, a recorder is
+   * used for one materialization only.
+   */
+  final class Recorder(defaultPhase: Phase[Any], phases: Map[IslandTag, Phase[Any]]) {
+    private val steps = new java.util.ArrayList[Step](64)
+    private var islands = 0
+    // logics and publishers are referred to by their index, the last index given to a logic is used for it
+    private var logicCount = 0
+    private val logics = new java.util.IdentityHashMap[Any, Integer]
+    private var publisherCount = 0
+    private val publishers = new java.util.IdentityHashMap[Publisher[Any], Integer]
+
+    val recordingDefaultPhase: Phase[Any] = recording(defaultPhase)
+    val recordingPhases: Map[IslandTag, Phase[Any]] = phases.map {
+      case (tag, phase) => tag -> (if (phase eq defaultPhase) recordingDefaultPhase else recording(phase))
+    }
+
+    def recordMatValue(traversal: Traversal): Unit = steps.add(MatValue(traversal))
+
+    def plan: MaterializationPlan =
+      new MaterializationPlan(steps.toArray(new Array[Step](steps.size)), islands, logicCount, publisherCount)
+
+    private def logicIndex(logic: Any): Int = {
+      val index = logics.get(logic)
+      if (index eq null) throw new IllegalStateException(s"Logic [$logic] was not materialized by a recorded island")
+      index
+    }
+
+    private def recording(phase: Phase[Any]): Phase[Any] = new Phase[Any] {
+      override def apply(
+          settings: ActorMaterializerSettings,
+          effectiveAttributes: Attributes,
+          materializer: PhasedFusingActorMaterializer,
+          islandName: String): PhaseIsland[Any] = {
+        val island = islands
+        islands += 1
+        steps.add(CreateIsland(island, phase, effectiveAttributes))
+        new RecordingIsland(island, phase(settings, effectiveAttributes, materializer, islandName))
+      }
+    }
+
+    private final class RecordingIsland(island: Int, delegate: PhaseIsland[Any]) extends PhaseIsland[Any] {
+      override def name: String = delegate.name
+
+      override def materializeAtomic(mod: AtomicModule[Shape, Any], attributes: Attributes): (Any, Any) = {
+        val matAndStage = delegate.materializeAtomic(mod, attributes)
+        val logic = logicCount
+        logicCount += 1
+        logics.put(matAndStage._1, logic)
+        steps.add(MaterializeModule(island, mod, attributes, logic))
+        matAndStage
+      }
+
+      override def assignPort(in: InPort, slot: Int, logic: Any): Unit = {
+        steps.add(AssignIn(island, in, slot, logicIndex(logic)))
+        delegate.assignPort(in, slot, logic)
+      }
+
+      override def assignPort(out: OutPort, slot: Int, logic: Any): Unit = {
+        steps.add(AssignOut(island, out, slot, logicIndex(logic)))
+        delegate.assignPort(out, slot, logic)
+      }
+
+      override def createPublisher(out: OutPort, logic: Any): Publisher[Any] = {
+        val publisher = delegate.createPublisher(out, logic)
+        val index = publisherCount
+        publisherCount += 1
+        publishers.put(publisher, index)
+        steps.add(CreatePublisher(island, out, logicIndex(logic), index))
+        publisher
+      }
+
+      override def takePublisher(slot: Int, publisher: Publisher[Any], attributes: Attributes): Unit = {
+        steps.add(TakePublisher(island, slot, publishers.get(publisher), attributes))
+        delegate.takePublisher(slot, publisher, attributes)
+      }
+
+      override def onIslandReady(): Unit = {
+        steps.add(IslandReady(island))
+        delegate.onIslandReady()
+      }
+
+      override def toString: String = delegate.toString
+    }
+  }
+}
+
+/**
+ * INTERNAL API
+ *
+ * A bounded cache of [[MaterializationPlan]]s by the identity of the blueprint and of the default attributes they
+ * were recorded with. Each blueprint can only be in one of the `size` slots, a blueprint that is materialized often
+ * replaces the plan of a different blueprint in its slot. Blueprints that were only seen once are remembered weakly in
+ * a separate admission filter of the same size, so that one-off blueprints don't evict the plans of hot ones and are
+ * not kept from being garbage collected by the filter. Cached plans keep their blueprint reachable. Thread-safe.
+ */
+@InternalApi private[pekko] final class MaterializationPlanCache(size: Int) {
+  import MaterializationPlanCache.{ Entry, Seen }
+
+  private val capacity = if (size <= 1) 1 else Integer.highestOneBit(size - 1) << 1
+  private val mask = capacity - 1
+  private val entries = new AtomicReferenceArray[Entry](capacity)
+  private val seenOnce = new AtomicReferenceArray[Seen](capacity)
+
+  private def find(blueprint: AnyRef, defaultAttributes: Attributes): Entry = {
+    val entry = entries.get(System.identityHashCode(blueprint) & mask)
+    if ((entry ne null) && (entry.blueprint eq blueprint) && (entry.defaultAttributes eq defaultAttributes)) entry
+    else null
+  }
+
+  private def wasSeenOnce(blueprint: AnyRef, defaultAttributes: Attributes): Boolean = {
+    val seen = seenOnce.get(System.identityHashCode(blueprint) & mask)
+    (seen ne null) && (seen.get eq blueprint) && (seen.defaultAttributes eq defaultAttributes)
+  }
+
+  /**
+   * Returns the plan of the blueprint, or null if there is none.
+   */
+  def get(blueprint: AnyRef, defaultAttributes: Attributes): MaterializationPlan = {
+    val found = find(blueprint, defaultAttributes)
+    if (found eq null) null else found.plan
+  }
+
+  /**
+   * Returns whether the blueprint was seen before, remembers that it was seen if not.
+   */
+  def seenBefore(blueprint: AnyRef, defaultAttributes: Attributes): Boolean =
+    (find(blueprint, defaultAttributes) ne null) || wasSeenOnce(blueprint, defaultAttributes) || {
+      seenOnce.set(System.identityHashCode(blueprint) & mask, new Seen(blueprint, defaultAttributes))
+      false
+    }
+
+  def put(blueprint: AnyRef, defaultAttributes: Attributes, plan: MaterializationPlan): Unit =
+    entries.set(System.identityHashCode(blueprint) & mask, new Entry(blueprint, defaultAttributes, plan))
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi private[pekko] object MaterializationPlanCache {
+  private final class Entry(val blueprint: AnyRef, val defaultAttributes: Attributes, val plan: MaterializationPlan)
+
+  private final class Seen(blueprint: AnyRef, val defaultAttributes: Attributes)
+      extends WeakReference[AnyRef](blueprint)
+}
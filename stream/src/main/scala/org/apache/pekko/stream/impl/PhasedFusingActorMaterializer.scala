@@ -41,6 +41,7 @@ import pekko.dispatch.Dispatchers
 import pekko.event.Logging
 import pekko.event.LoggingAdapter
 import pekko.stream._
+import pekko.stream.Attributes.AdaptiveInputBuffer
 import pekko.stream.Attributes.InputBuffer
 import pekko.stream.impl.Stages.DefaultAttributes
 import pekko.stream.impl.StreamLayout.AtomicModule
@@ -421,6 +422,11 @@ private final case class SavedIslandData(
 
   private[this] def createFlowName(): String = flowNames.next()
 
+  private[this] val planCache: MaterializationPlanCache = {
+    val size = system.settings.config.getInt("pekko.stream.materializer.materialization-plan-cache-size")
+    if (size > 0) new MaterializationPlanCache(size) else null
+  }
+
   // note that this will never be overridden on a per-graph-stage basis regardless of more specific attributes
   override lazy val executionContext: ExecutionContextExecutor =
     dispatchers.lookup(defaultAttributes.mandatoryAttribute[ActorAttributes.Dispatcher].dispatcher)
@@ -473,11 +479,41 @@ private final case class SavedIslandData(
         "set 'pekko.stream.materializer.debug.fuzzing-mode' to off.")
     }
 
+    def shutdownWhileMaterializingFailure =
+      new IllegalStateException("Materializer shutdown while materializing stream")
+
+    // plans are only cached for the phases of this materializer, not for those of sub-fusing materializers
+    val blueprint = graph.traversalBuilder
+    val cachePlan = (planCache ne null) && (defaultPhase eq DefaultPhase) && (phases eq DefaultPhases) && !Debug
+    val plan = if (cachePlan) planCache.get(blueprint, defaultAttributes) else null
+    if (plan ne null) {
+      try plan.run(settings, this, islandNamePrefix = createFlowName() + "-").asInstanceOf[Mat]
+      finally {
+        if (isShutdown) throw shutdownWhileMaterializingFailure
+      }
+    } else {
+      // a plan is only recorded when a blueprint is materialized for the second time, not for one-off blueprints
+      val recorder =
+        if (cachePlan && planCache.seenBefore(blueprint, defaultAttributes))
+          new MaterializationPlan.Recorder(defaultPhase, phases)
+        else null
+      val result = traverse[Mat](graph, defaultAndGraphAttributes, defaultPhase, phases, recorder)
+      if (recorder ne null) planCache.put(blueprint, defaultAttributes, recorder.plan)
+      result
+    }
+  }
+
+  private def traverse[Mat](
+      graph: Graph[ClosedShape, Mat],
+      defaultAndGraphAttributes: Attributes,
+      defaultPhase: Phase[Any],
+      phases: Map[IslandTag, Phase[Any]],
+      recorder: MaterializationPlan.Recorder): Mat = {
     val islandTracking = new IslandTracking(
-      phases,
+      if (recorder eq null) phases else recorder.recordingPhases,
       settings,
       defaultAndGraphAttributes,
-      defaultPhase,
+      if (recorder eq null) defaultPhase else recorder.recordingDefaultPhase,
       this,
       islandNamePrefix = createFlowName() + "-")
 
@@ -523,20 +559,24 @@ private final case class SavedIslandData(
             nextStep = first
           case Pop =>
             val popped = matValueStack.removeLast()
+            if (recorder ne null) recorder.recordMatValue(Pop)
             if (Debug) println(s"POP: $popped => $matValueStack")
           case PushNotUsed =>
             matValueStack.addLast(NotUsed)
+            if (recorder ne null) recorder.recordMatValue(PushNotUsed)
             if (Debug) println(s"PUSH: NotUsed => $matValueStack")
           case transform: Transform =>
             val prev = matValueStack.removeLast()
             val result = transform(prev)
             matValueStack.addLast(result)
+            if (recorder ne null) recorder.recordMatValue(transform)
             if (Debug) println(s"TRFM: $matValueStack")
           case compose: Compose =>
             val second = matValueStack.removeLast()
             val first = matValueStack.removeLast()
             val result = compose(first, second)
             matValueStack.addLast(result)
+            if (recorder ne null) recorder.recordMatValue(compose)
             if (Debug) println(s"COMP: $matValueStack")
           case PushAttributes(attr) =>
             attributesStack.addLast(attributesStack.getLast and attr)
@@ -554,8 +594,6 @@ private final case class SavedIslandData(
       }
     }
 
-    def shutdownWhileMaterializingFailure =
-      new IllegalStateException("Materializer shutdown while materializing stream")
     try {
       islandTracking.getCurrentPhase.onIslandReady()
       islandTracking.allNestedIslandsReady()
@@ -564,9 +602,8 @@ private final case class SavedIslandData(
       matValueStack.peekLast().asInstanceOf[Mat]
 
     } finally {
-      if (isShutdown) throw shutdownWhileMaterializingFailure
+      if (isShutdown) throw new IllegalStateException("Materializer shutdown while materializing stream")
     }
-
   }
 
   private def wireInlets(
@@ -779,9 +816,13 @@ private final case class SavedIslandData(
 
   override def takePublisher(slot: Int, publisher: Publisher[Any], attributes: Attributes): Unit = {
     val connection = conn(slot)
-    val bufferSize = connection.inOwner.attributes.mandatoryAttribute[InputBuffer].max
+    val inputBuffer = connection.inOwner.attributes.mandatoryAttribute[InputBuffer]
+    val minWindow =
+      if (connection.inOwner.attributes.get[AdaptiveInputBuffer].exists(_.enabled))
+        math.max(1, math.min(inputBuffer.initial, inputBuffer.max))
+      else inputBuffer.max
     val boundary =
-      new BatchingActorInputBoundary(bufferSize, shell, publisher, "publisher.in")
+      new BatchingActorInputBoundary(inputBuffer.max, minWindow, shell, publisher, "publisher.in")
     logics.add(boundary)
     boundary.stageId = logics.size() - 1
     boundary.attributes = connection.inOwner.attributes.and(DefaultAttributes.inputBoundary)
@@ -40,11 +40,15 @@ import pekko.stream.Attributes._
     val mapError = name("mapError")
     val mapAsync = name("mapAsync")
     val mapAsyncUnordered = name("mapAsyncUnordered")
+    val mapAsyncPartitioned = name("mapAsyncPartitioned")
     val ask = name("ask")
     val grouped = name("grouped")
     val groupedWithin = name("groupedWithin")
     val groupedWeighted = name("groupedWeighted")
     val groupedWeightedWithin = name("groupedWeightedWithin")
+    val tumblingWindow = name("tumblingWindow")
+    val slidingWindow = name("slidingWindow")
+    val sessionWindow = name("sessionWindow")
     val limit = name("limit")
     val limitWeighted = name("limitWeighted")
     val sliding = name("sliding")
@@ -87,6 +91,7 @@ import pekko.stream.Attributes._
     val merge = name("merge")
     val mergePreferred = name("mergePreferred")
     val mergePrioritized = name("mergePrioritized")
+    val mergeWeightedFair = name("mergeWeightedFair")
     val flattenMerge = name("flattenMerge")
     val recoverWith = name("recoverWith")
     val broadcast = name("broadcast")
@@ -104,6 +109,7 @@ import pekko.stream.Attributes._
     val unfold = name("unfold")
     val unfoldAsync = name("unfoldAsync")
     val delay = name("delay")
+    val sharedThrottle = name("sharedThrottle")
 
     val terminationWatcher = name("terminationWatcher")
     val watch = name("watch")
@@ -129,6 +135,8 @@ import pekko.stream.Attributes._
     val inputStreamSource = name("inputStreamSource") and IODispatcher
     val outputStreamSource = name("outputStreamSource")
     val fileSource = name("fileSource") and IODispatcher
+    val mmapFileSource = name("mmapFileSource") and IODispatcher
+    val asyncFileSource = name("asyncFileSource")
     val unfoldResourceSource = name("unfoldResourceSource") and IODispatcher
     val unfoldResourceSourceAsync = name("unfoldResourceSourceAsync") and IODispatcher
     val asJavaStream = name("asJavaStream") and IODispatcher
@@ -158,6 +166,9 @@ import pekko.stream.Attributes._
     val outputStreamSink = name("outputStreamSink") and IODispatcher
     val inputStreamSink = name("inputStreamSink")
     val fileSink = name("fileSink") and IODispatcher
+    val mmapFileSink = name("mmapFileSink") and IODispatcher
+    val spillingBuffer = name("spillingBuffer") and IODispatcher
+    val asyncFileSink = name("asyncFileSink")
     val fromJavaStream = name("fromJavaStream")
 
     val inputBoundary = name("input-boundary")
@@ -17,6 +17,7 @@ import org.apache.pekko
 import pekko.annotation.InternalApi
 import pekko.stream.ThrottleMode.Enforcing
 import pekko.stream._
+import pekko.stream.impl.Stages.DefaultAttributes
 import pekko.stream.impl.fusing.GraphStages.SimpleLinearGraphStage
 import pekko.stream.stage._
 import pekko.util.NanoTimeTokenBucket
@@ -28,7 +29,7 @@ import scala.concurrent.duration.{ FiniteDuration, _ }
  */
 @InternalApi private[pekko] object Throttle {
   final val AutomaticMaximumBurst = -1
-  private case object TimerKey
+  private[impl] case object TimerKey
 }
 
 /**
@@ -96,3 +97,59 @@ import scala.concurrent.duration.{ FiniteDuration, _ }
 
   override def toString = "Throttle"
 }
+
+/**
+ * INTERNAL API
+ *
+ * Like [[Throttle]], but takes the tokens from a [[SharedThrottle]] that is used by other streams at the same time.
+ */
+@InternalApi private[pekko] final class SharedThrottleStage[T](throttle: SharedThrottle, costCalculation: T => Int)
+    extends GraphStageWithMaterializedValue[FlowShape[T, T], SharedThrottle] {
+  val in = Inlet[T]("SharedThrottle.in")
+  val out = Outlet[T]("SharedThrottle.out")
+  override val shape: FlowShape[T, T] = FlowShape(in, out)
+  override def initialAttributes: Attributes = DefaultAttributes.sharedThrottle
+
+  override def createLogicAndMaterializedValue(inheritedAttributes: Attributes): (GraphStageLogic, SharedThrottle) = {
+    val logic = new TimerGraphStageLogic(shape) with InHandler with OutHandler {
+      private var currentElement: T = _
+
+      override def onUpstreamFinish(): Unit =
+        if (!(isAvailable(out) && isTimerActive(Throttle.TimerKey))) {
+          completeStage()
+        }
+
+      override def onPush(): Unit = {
+        val elem = grab(in)
+        val cost = costCalculation(elem)
+
+        if (throttle.mode eq Enforcing) {
+          // the tokens of a failing stream are not taken, so that they are left for the other streams
+          if (throttle.tryTake(cost)) push(out, elem)
+          else
+            failStage(new RateExceededException(s"Maximum throughput of shared throttle [${throttle.name}] exceeded."))
+        } else {
+          val delayNanos = throttle.offer(cost)
+          if (delayNanos == 0L) push(out, elem)
+          else {
+            currentElement = elem
+            scheduleOnce(Throttle.TimerKey, delayNanos.nanos)
+          }
+        }
+      }
+
+      override def onPull(): Unit = pull(in)
+
+      override protected def onTimer(key: Any): Unit = {
+        push(out, currentElement)
+        currentElement = null.asInstanceOf[T]
+        if (isClosed(in)) completeStage()
+      }
+
+      setHandlers(in, out, this)
+    }
+    (logic, throttle)
+  }
+
+  override def toString = s"SharedThrottle(${throttle.name})"
+}
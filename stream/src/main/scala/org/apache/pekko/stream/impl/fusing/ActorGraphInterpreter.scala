@@ -79,15 +79,25 @@ import pekko.util.OptionVal
   def props(shell: GraphInterpreterShell): Props =
     Props(new ActorGraphInterpreter(shell)).withDeploy(Deploy.local)
 
+  /**
+   * Buffers up to `size` elements from the publisher. When `minWindow` is smaller than `size` the number of elements
+   * that are buffered or requested at the same time (the window) adapts between the two: it grows when downstream
+   * had to wait for elements and more elements than half the window arrive during the round trip of a request, and it
+   * shrinks when at least half of the window stayed buffered for a whole round of `window` elements.
+   */
   @InternalStableApi
   class BatchingActorInputBoundary(
       size: Int,
+      minWindow: Int,
       shell: GraphInterpreterShell,
       publisher: Publisher[Any],
       internalPortName: String)
       extends UpstreamBoundaryStageLogic[Any]
       with OutHandler {
 
+    def this(size: Int, shell: GraphInterpreterShell, publisher: Publisher[Any], internalPortName: String) =
+      this(size, size, shell, publisher, internalPortName)
+
     // can't be final because of SI-4440
     case class OnError(shell: GraphInterpreterShell, cause: Throwable) extends SimpleBoundaryEvent {
       override def execute(): Unit = {
@@ -136,6 +146,8 @@ import pekko.util.OptionVal
 
     if (size <= 0) throw new IllegalArgumentException("buffer size cannot be zero")
     if ((size & (size - 1)) != 0) throw new IllegalArgumentException("buffer size must be a power of two")
+    if (minWindow <= 0 || minWindow > size)
+      throw new IllegalArgumentException("minimum window must be between one and the buffer size")
 
     private var actor: ActorRef = ActorRef.noSender
     private var upstream: Subscription = _
@@ -146,8 +158,22 @@ import pekko.util.OptionVal
     private var downstreamCanceled: Option[Throwable] = None
     private val IndexMask = size - 1
 
-    private def requestBatchSize = math.max(1, inputBuffer.length / 2)
-    private var batchRemaining = requestBatchSize
+    private val adaptive = minWindow < size
+    private var window = if (adaptive) minWindow else size
+    // requested from upstream but not received yet
+    private var outstanding = 0
+
+    // measurements for the adaptive window
+    // the number of elements to receive until the first one of the request sent at `requestedAt`, 0 when not measuring
+    private var roundTripMarker = 0
+    private var requestedAt = 0L
+    private var roundTripNanos = 0L
+    private var roundStart = 0L
+    private var roundElements = 0
+    private var roundStarved = false
+    private var roundMinFill = Int.MaxValue
+
+    private def requestBatchSize = math.max(1, window / 2)
 
     val out: Outlet[Any] = Outlet[Any]("UpstreamBoundary:" + internalPortName)
     out.id = 0
@@ -183,17 +209,42 @@ import pekko.util.OptionVal
       if (elem eq null) throw new IllegalArgumentException("Internal queue must never contain a null")
       inputBuffer(nextInputElementCursor) = null
 
-      batchRemaining -= 1
-      if (batchRemaining == 0 && !upstreamCompleted) {
-        tryRequest(upstream, requestBatchSize)
-        batchRemaining = requestBatchSize
-      }
-
       inputBufferElements -= 1
       nextInputElementCursor = (nextInputElementCursor + 1) & IndexMask
+
+      if (adaptive) {
+        roundElements += 1
+        if (roundElements >= window) adaptWindow()
+      }
+      requestMore()
       elem
     }
 
+    private def requestMore(): Unit = {
+      val free = window - inputBufferElements - outstanding
+      if (free >= requestBatchSize && !upstreamCompleted) {
+        if (adaptive && roundTripMarker == 0) {
+          roundTripMarker = outstanding + 1
+          requestedAt = System.nanoTime()
+        }
+        outstanding += free
+        tryRequest(upstream, free)
+      }
+    }
+
+    private def adaptWindow(): Unit = {
+      val now = System.nanoTime()
+      if (roundStarved) {
+        // the number of elements that arrive during the round trip of a request, at the rate of the last round
+        val inFlight = roundElements.toDouble * roundTripNanos / math.max(1L, now - roundStart)
+        if (inFlight > window / 2.0) window = math.min(size, window * 2)
+      } else if (roundMinFill >= requestBatchSize) window = math.max(minWindow, window / 2)
+      roundStart = now
+      roundElements = 0
+      roundStarved = false
+      roundMinFill = Int.MaxValue
+    }
+
     @InternalStableApi
     private def clear(): Unit = {
       java.util.Arrays.fill(inputBuffer, 0, inputBuffer.length, null)
@@ -215,6 +266,14 @@ import pekko.util.OptionVal
         if (inputBufferElements == size) throw new IllegalStateException("Input buffer overrun")
         inputBuffer((nextInputElementCursor + inputBufferElements) & IndexMask) = elem.asInstanceOf[AnyRef]
         inputBufferElements += 1
+        outstanding -= 1
+        if (adaptive && roundTripMarker > 0) {
+          roundTripMarker -= 1
+          if (roundTripMarker == 0) {
+            val sample = System.nanoTime() - requestedAt
+            roundTripNanos = if (roundTripNanos == 0L) sample else (roundTripNanos * 3 + sample) / 4
+          }
+        }
         if (isAvailable(out)) push(out, dequeue())
       }
     }
@@ -253,8 +312,9 @@ import pekko.util.OptionVal
         tryCancel(subscription, new IllegalStateException("Publisher can only be subscribed once."))
       } else {
         upstream = subscription
+        if (adaptive) roundStart = System.nanoTime()
         // Prefetch
-        tryRequest(upstream, inputBuffer.length)
+        requestMore()
       }
     }
 
@@ -262,6 +322,10 @@ import pekko.util.OptionVal
 
     override def onPull(): Unit = {
       try {
+        if (adaptive) {
+          if (inputBufferElements == 0 && !upstreamCompleted) roundStarved = true
+          roundMinFill = math.min(roundMinFill, inputBufferElements)
+        }
         if (inputBufferElements > 1) push(out, dequeue())
         else if (inputBufferElements == 1) {
           if (upstreamCompleted) {
@@ -283,7 +347,7 @@ import pekko.util.OptionVal
       }
 
     override def toString: String =
-      s"BatchingActorInputBoundary(forPort=$internalPortName, fill=$inputBufferElements/$size, completed=$upstreamCompleted, canceled=$downstreamCanceled)"
+      s"BatchingActorInputBoundary(forPort=$internalPortName, fill=$inputBufferElements/$window/$size, completed=$upstreamCompleted, canceled=$downstreamCanceled)"
   }
 
   final case class SubscribePending(boundary: ActorOutputBoundary) extends SimpleBoundaryEvent {
@@ -1468,6 +1468,220 @@ private[stream] object Collect {
     }
 }
 
+/**
+ * INTERNAL API
+ */
+@InternalApi private[pekko] object MapAsyncPartitioned {
+
+  final class Holder[P, In, Out](
+      val partition: Partition[P, In, Out],
+      var in: In,
+      val cb: AsyncCallback[Holder[P, In, Out]])
+      extends (Try[Out] => Unit) {
+
+    // written by the thread completing the future, read by the stage after the callback has been run
+    @volatile var result: Try[Out] = MapAsync.NotYetThere
+
+    // only accessed from within the stage
+    var completed: Boolean = false
+
+    override def apply(t: Try[Out]): Unit = {
+      result = t
+      cb.invoke(this)
+    }
+  }
+
+  final class Partition[P, In, Out](val key: P) {
+    // started elements in upstream order, the ones at the head may already be completed
+    val running = new java.util.ArrayDeque[Holder[P, In, Out]]()
+    // elements waiting for a free slot, in upstream order
+    val waiting = new java.util.ArrayDeque[Holder[P, In, Out]]()
+    var inFlight: Int = 0
+    // whether the partition is enqueued for emitting its completed head element
+    var ready: Boolean = false
+    // whether the partition is enqueued for a free slot of the global parallelism
+    var blocked: Boolean = false
+
+    def isEmpty: Boolean = running.isEmpty && waiting.isEmpty
+
+    def headCompleted: Boolean = !running.isEmpty && running.peek().completed
+
+    override def toString: String =
+      s"Partition($key, running=${running.size}, waiting=${waiting.size}, inFlight=$inFlight)"
+  }
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi private[pekko] final case class MapAsyncPartitioned[In, Out, P](
+    parallelism: Int,
+    perPartition: Int,
+    partitioner: In => P,
+    f: (In, P) => Future[Out])
+    extends GraphStage[FlowShape[In, Out]] {
+
+  import MapAsyncPartitioned._
+
+  require(parallelism >= 1, "parallelism must be at least 1")
+  require(perPartition >= 1, "perPartition must be at least 1")
+
+  private val in = Inlet[In]("MapAsyncPartitioned.in")
+  private val out = Outlet[Out]("MapAsyncPartitioned.out")
+
+  override def initialAttributes = DefaultAttributes.mapAsyncPartitioned and SourceLocation.forLambda(f)
+
+  override val shape = FlowShape(in, out)
+
+  override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
+    new GraphStageLogic(shape) with InHandler with OutHandler {
+      override def toString =
+        s"MapAsyncPartitioned.Logic(inFlight=$inFlight, held=$held, partitions=${partitions.size})"
+
+      private type HolderT = Holder[P, In, Out]
+      private type PartitionT = Partition[P, In, Out]
+
+      lazy val decider = inheritedAttributes.mandatoryAttribute[SupervisionStrategy].decider
+
+      private val partitions = new java.util.HashMap[P, PartitionT]()
+      // partitions with a completed head element, emitted round robin
+      private val readyQueue = new java.util.ArrayDeque[PartitionT]()
+      // partitions with waiting elements that could start if the global parallelism allowed it
+      private val blockedQueue = new java.util.ArrayDeque[PartitionT]()
+
+      // number of futures that have not completed yet
+      private var inFlight = 0
+      // number of elements in the stage, whether in flight, waiting for a slot or completed and not yet emitted
+      private var held = 0
+
+      private val futureCB = getAsyncCallback[HolderT] { holder =>
+        inFlight -= 1
+        holder.partition.inFlight -= 1
+        onCompleted(holder)
+        startBlocked()
+        startAvailable(holder.partition)
+        pushNextIfPossible()
+        pullIfNeeded()
+      }
+
+      override def onPush(): Unit = {
+        val elem = grab(in)
+        try {
+          val key = partitioner(elem)
+          var partition = partitions.get(key)
+          if (partition eq null) {
+            partition = new Partition[P, In, Out](key)
+            partitions.put(key, partition)
+          }
+          partition.waiting.add(new Holder[P, In, Out](partition, elem, futureCB))
+          held += 1
+          startAvailable(partition)
+        } catch {
+          // the partitioner threw, the element is dropped unless the supervision says otherwise
+          case NonFatal(ex) => if (decider(ex) == Supervision.Stop) failStage(ex)
+        }
+        pushNextIfPossible()
+        pullIfNeeded()
+      }
+
+      override def onUpstreamFinish(): Unit = if (held == 0) completeStage()
+
+      override def onPull(): Unit = {
+        pushNextIfPossible()
+        pullIfNeeded()
+      }
+
+      /**
+       * Start as many waiting elements of the partition as the partition and global limits allow,
+       * keeping track of the partition if it is only held back by the global limit.
+       */
+      private def startAvailable(partition: PartitionT): Unit = {
+        while (!partition.waiting.isEmpty && partition.inFlight < perPartition && inFlight < parallelism)
+          start(partition.waiting.poll())
+
+        if (!partition.waiting.isEmpty && partition.inFlight < perPartition && !partition.blocked) {
+          partition.blocked = true
+          blockedQueue.add(partition)
+        }
+        markReadyIfNeeded(partition)
+      }
+
+      private def startBlocked(): Unit =
+        while (inFlight < parallelism && !blockedQueue.isEmpty) {
+          val partition = blockedQueue.poll()
+          partition.blocked = false
+          startAvailable(partition)
+        }
+
+      private def start(holder: HolderT): Unit = {
+        val partition = holder.partition
+        val elem = holder.in
+        holder.in = null.asInstanceOf[In]
+        partition.running.add(holder)
+        try {
+          val future = f(elem, partition.key)
+          future.value match {
+            case None =>
+              inFlight += 1
+              partition.inFlight += 1
+              future.onComplete(holder)(pekko.dispatch.ExecutionContexts.parasitic)
+            case Some(v) =>
+              // the future is already here, avoid scheduling it on the dispatcher (see #20217 in MapAsync)
+              holder.result = v
+              onCompleted(holder)
+          }
+        } catch {
+          // this logic must only be executed if f throws, not if the future is failed
+          case NonFatal(ex) =>
+            holder.result = Failure(ex)
+            onCompleted(holder)
+        }
+      }
+
+      private def onCompleted(holder: HolderT): Unit = {
+        holder.completed = true
+        holder.result match {
+          case Failure(ex) if decider(ex) == Supervision.Stop => failStage(ex)
+          case _                                              => markReadyIfNeeded(holder.partition)
+        }
+      }
+
+      private def markReadyIfNeeded(partition: PartitionT): Unit =
+        if (!partition.ready && partition.headCompleted) {
+          partition.ready = true
+          readyQueue.add(partition)
+        }
+
+      @tailrec
+      private def pushNextIfPossible(): Unit =
+        if (isAvailable(out) && !readyQueue.isEmpty) {
+          val partition = readyQueue.poll()
+          partition.ready = false
+          val holder = partition.running.poll()
+          held -= 1
+          // re-enqueue at the end to emit round robin between partitions with completed elements
+          markReadyIfNeeded(partition)
+          if (partition.isEmpty) partitions.remove(partition.key)
+
+          holder.result match {
+            case Success(elem) if elem != null => push(out, elem)
+            case _                             =>
+              // null result, or failure that the decider resumed from, try the next element
+              pushNextIfPossible()
+          }
+        }
+
+      private def pullIfNeeded(): Unit = {
+        if (isClosed(in)) {
+          if (held == 0) completeStage()
+        } else if (held - inFlight < parallelism && !hasBeenPulled(in)) pull(in)
+        // else already pulled and waiting for next element, or too many elements waiting in the stage
+      }
+
+      setHandlers(in, out, this)
+    }
+}
+
 @InternalApi private[pekko] final case class Watch[T](targetRef: ActorRef) extends SimpleLinearGraphStage[T] {
 
   override def initialAttributes = DefaultAttributes.watch
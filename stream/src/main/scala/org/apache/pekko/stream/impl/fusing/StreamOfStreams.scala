@@ -262,27 +262,51 @@ import pekko.util.ccompat.JavaConverters._
   override def toString: String = s"PrefixAndTail($n)"
 }
 
+/**
+ * INTERNAL API
+ */
+@InternalApi private[pekko] object GroupBy {
+
+  /** Timer key of the periodic look up for idle substreams, distinct from any substream. */
+  private case object IdleSubstreamsTimer
+}
+
 /**
  * INTERNAL API
  */
 @InternalApi private[pekko] final class GroupBy[T, K](
     val maxSubstreams: Int,
     val keyFor: T => K,
-    val allowClosedSubstreamRecreation: Boolean = false)
+    val allowClosedSubstreamRecreation: Boolean = false,
+    val evictionStrategy: SubstreamEvictionStrategy = SubstreamEvictionStrategies.Fail)
     extends GraphStage[FlowShape[T, Source[T, NotUsed]]] {
+  import GroupBy._
+
   val in: Inlet[T] = Inlet("GroupBy.in")
   val out: Outlet[Source[T, NotUsed]] = Outlet("GroupBy.out")
   override val shape: FlowShape[T, Source[T, NotUsed]] = FlowShape(in, out)
   override def initialAttributes = DefaultAttributes.groupBy
 
+  private val evicting = evictionStrategy ne SubstreamEvictionStrategies.Fail
+  private val idleTimeout: OptionVal[FiniteDuration] = evictionStrategy match {
+    case SubstreamEvictionStrategies.IdleTimeout(timeout) => OptionVal.Some(timeout)
+    case _                                                => OptionVal.None
+  }
+
   override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
     new TimerGraphStageLogic(shape) with OutHandler with InHandler {
       parent =>
       lazy val decider = inheritedAttributes.mandatoryAttribute[SupervisionStrategy].decider
-      private val activeSubstreamsMap = new java.util.HashMap[Any, SubstreamSource]()
+      // when evicting, the map is kept in access order so that the least recently used substream comes first
+      private val activeSubstreamsMap: java.util.HashMap[Any, SubstreamSource] =
+        if (evicting) new java.util.LinkedHashMap[Any, SubstreamSource](16, 0.75f, true)
+        else new java.util.HashMap[Any, SubstreamSource]()
+      // keys of evicted substreams may always be recreated, keeping track of them would defeat the eviction
       private val closedSubstreams =
-        if (allowClosedSubstreamRecreation) Collections.unmodifiableSet(Collections.emptySet[Any])
+        if (allowClosedSubstreamRecreation || evicting) Collections.unmodifiableSet(Collections.emptySet[Any])
         else new java.util.HashSet[Any]()
+      // evicted substreams that still have to emit their first element before completing
+      private val evictedBeforeFirstPull = new java.util.HashSet[SubstreamSource]()
       private val timeout: FiniteDuration =
         inheritedAttributes.mandatoryAttribute[ActorAttributes.StreamSubscriptionTimeout].timeout
       private var substreamWaitingToBePushed: Option[SubstreamSource] = None
@@ -291,6 +315,8 @@ import pekko.util.ccompat.JavaConverters._
       private var _nextId = 0
       private val substreamsJustStared = new java.util.HashSet[Any]()
       private var firstPushCounter: Int = 0
+      // incremented on every look up for idle substreams, substreams remember the tick of their last element
+      private var idleTick: Long = 0L
 
       private val tooManySubstreamsOpenException = new TooManySubstreamsOpenException
 
@@ -303,8 +329,17 @@ import pekko.util.ccompat.JavaConverters._
         nextElementValue = null.asInstanceOf[T]
       }
 
+      override def preStart(): Unit = idleTimeout match {
+        case OptionVal.Some(t) =>
+          // a substream idle for two full ticks has been idle for at least the timeout
+          val interval = t / 2L
+          scheduleWithFixedDelay(IdleSubstreamsTimer, interval, interval)
+        case _ =>
+      }
+
       private def tryCompleteAll(): Boolean =
-        if (activeSubstreamsMap.isEmpty || (!hasNextElement && firstPushCounter == 0)) {
+        if ((activeSubstreamsMap.isEmpty && evictedBeforeFirstPull.isEmpty) ||
+          (!hasNextElement && firstPushCounter == 0)) {
           for (value <- activeSubstreamsMap.values().asScala) value.complete()
           completeStage()
           true
@@ -329,7 +364,7 @@ import pekko.util.ccompat.JavaConverters._
         substreamWaitingToBePushed match {
           case Some(substreamSource) =>
             push(out, Source.fromGraph(substreamSource.source))
-            scheduleOnce(substreamSource.key, timeout)
+            scheduleOnce(substreamSource, timeout)
             substreamWaitingToBePushed = None
           case None =>
             if (hasNextElement) {
@@ -355,15 +390,19 @@ import pekko.util.ccompat.JavaConverters._
           require(key != null, "Key cannot be null")
           val substreamSource = activeSubstreamsMap.get(key)
           if (substreamSource != null) {
+            substreamSource.lastTick = idleTick
             if (substreamSource.isAvailable) substreamSource.push(elem)
             else {
               nextElementKey = key
               nextElementValue = elem
             }
           } else {
-            if (activeSubstreamsMap.size + closedSubstreams.size == maxSubstreams)
-              throw tooManySubstreamsOpenException
-            else if (closedSubstreams.contains(key) && !hasBeenPulled(in))
+            if (activeSubstreamsMap.size + closedSubstreams.size == maxSubstreams) {
+              if (evicting) {
+                evictLeastRecentlyUsed()
+                runSubstream(key, elem)
+              } else throw tooManySubstreamsOpenException
+            } else if (closedSubstreams.contains(key) && !hasBeenPulled(in))
               pull(in)
             else runSubstream(key, elem)
           }
@@ -377,11 +416,12 @@ import pekko.util.ccompat.JavaConverters._
 
       private def runSubstream(key: K, value: T): Unit = {
         val substreamSource = new SubstreamSource("GroupBySource " + nextId(), key, value)
+        substreamSource.lastTick = idleTick
         activeSubstreamsMap.put(key, substreamSource)
         firstPushCounter += 1
         if (isAvailable(out)) {
           push(out, Source.fromGraph(substreamSource.source))
-          scheduleOnce(key, timeout)
+          scheduleOnce(substreamSource, timeout)
           substreamWaitingToBePushed = None
         } else {
           setKeepGoing(true)
@@ -390,15 +430,57 @@ import pekko.util.ccompat.JavaConverters._
         }
       }
 
-      override protected def onTimer(timerKey: Any): Unit = {
-        val substreamSource = activeSubstreamsMap.get(timerKey)
-        if (substreamSource != null) {
-          if (!allowClosedSubstreamRecreation) {
-            closedSubstreams.add(timerKey)
+      /**
+       * An element for a new key is only pulled when there is no pending element nor substream waiting
+       * to be pushed, so the least recently used substream can always be evicted.
+       */
+      private def evictLeastRecentlyUsed(): Unit = {
+        val it = activeSubstreamsMap.values().iterator()
+        if (it.hasNext) {
+          val substreamSource = it.next()
+          it.remove()
+          substreamSource.evict()
+        }
+      }
+
+      private def evictIdleSubstreams(): Unit = {
+        idleTick += 1
+        val it = activeSubstreamsMap.values().iterator()
+        var lookingUp = true
+        while (lookingUp && it.hasNext) {
+          val substreamSource = it.next()
+          // the map is in access order, the first substream that is not idle ends the look up
+          if (idleTick - substreamSource.lastTick <= 2) lookingUp = false
+          else if (!substreamSource.firstPush() && !substreamSource.hasNextForSubSource) {
+            it.remove()
+            substreamSource.evict()
           }
-          activeSubstreamsMap.remove(timerKey)
-          if (isClosed(in)) tryCompleteAll()
         }
+        if (isClosed(in)) tryCompleteAll()
+      }
+
+      override protected def onTimer(timerKey: Any): Unit = timerKey match {
+        case IdleSubstreamsTimer => evictIdleSubstreams()
+        case substreamSource: SubstreamSource @unchecked =>
+          val key = substreamSource.key
+          if (evictedBeforeFirstPull.contains(substreamSource)) {
+            // an evicted substream that was never materialized would keep the stage from completing
+            substreamSource.timeout(timeout)
+            if (substreamSource.isClosed) {
+              evictedBeforeFirstPull.remove(substreamSource)
+              firstPushCounter -= 1
+              if (isClosed(in)) tryCompleteAll()
+            }
+          } else if (!substreamSource.removed) {
+            // not looked up in the map, in access order that would make the substream the most recently used one
+            if (!allowClosedSubstreamRecreation && !evicting) {
+              closedSubstreams.add(key)
+            }
+            activeSubstreamsMap.remove(key)
+            substreamSource.removed = true
+            if (isClosed(in)) tryCompleteAll()
+          }
+        case _ =>
       }
 
       setHandlers(in, out, this)
@@ -406,13 +488,32 @@ import pekko.util.ccompat.JavaConverters._
       private class SubstreamSource(name: String, val key: K, var firstElement: T)
           extends SubSourceOutlet[T](name)
           with OutHandler {
+        // tick of the last element for this substream, only used when evicting idle substreams
+        var lastTick: Long = 0L
+        // evicted substreams are not in the map anymore, and a new substream may have been started for the same key
+        private var evicted = false
+        // whether the substream is not in the map anymore, because it was evicted, completed or timed out
+        var removed = false
+
         def firstPush(): Boolean = firstElement != null
-        def hasNextForSubSource = hasNextElement && nextElementKey == key
+        def hasNextForSubSource = !evicted && hasNextElement && nextElementKey == key
+
+        /** Must be called after the substream was removed from the map. */
+        def evict(): Unit = {
+          evicted = true
+          removed = true
+          if (firstPush()) evictedBeforeFirstPull.add(this)
+          else complete()
+        }
+
         private def completeSubStream(): Unit = {
           complete()
-          activeSubstreamsMap.remove(key)
-          if (!allowClosedSubstreamRecreation) {
-            closedSubstreams.add(key)
+          if (!evicted) {
+            activeSubstreamsMap.remove(key)
+            removed = true
+            if (!allowClosedSubstreamRecreation && !evicting) {
+              closedSubstreams.add(key)
+            }
           }
         }
 
@@ -424,24 +525,31 @@ import pekko.util.ccompat.JavaConverters._
         }
 
         override def onPull(): Unit = {
-          cancelTimer(key)
+          cancelTimer(this)
           if (firstPush()) {
             firstPushCounter -= 1
             push(firstElement)
             firstElement = null.asInstanceOf[T]
             substreamsJustStared.remove(this)
             if (substreamsJustStared.isEmpty) setKeepGoing(false)
+            if (evicted) {
+              evictedBeforeFirstPull.remove(this)
+              complete()
+            }
           } else if (hasNextForSubSource) {
             push(nextElementValue)
             clearNextElement()
           } else if (needToPull) pull(in)
 
-          tryCompleteHandler()
+          if (!isClosed) tryCompleteHandler()
         }
 
         override def onDownstreamFinish(cause: Throwable): Unit = {
-          if (hasNextElement && nextElementKey == key) clearNextElement()
-          if (firstPush()) firstPushCounter -= 1
+          if (hasNextForSubSource) clearNextElement()
+          if (firstPush()) {
+            firstPushCounter -= 1
+            evictedBeforeFirstPull.remove(this)
+          }
           completeSubStream()
           if (parent.isClosed(out)) tryCancel(cause)
           if (parent.isClosed(in)) tryCompleteAll() else if (needToPull) pull(in)
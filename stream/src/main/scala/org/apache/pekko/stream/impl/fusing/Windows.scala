@@ -0,0 +1,334 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.impl.fusing
+
+import scala.collection.mutable.ListBuffer
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.stream.{
+  Attributes,
+  FlowShape,
+  Inlet,
+  LateElementException,
+  LateElementStrategy,
+  Outlet,
+  WindowAggregate,
+  Windowed
+}
+import pekko.stream.impl.Stages.DefaultAttributes
+import pekko.stream.stage.{ GraphStage, GraphStageLogic, InHandler, OutHandler }
+
+/**
+ * INTERNAL API
+ */
+@InternalApi private[pekko] object Windows {
+
+  /**
+   * The largest number of panes a [[PaneWindow]] keeps, each pane is one element of the arrays of its state.
+   */
+  val MaxPanes: Int = 1 << 24
+
+  @scala.annotation.tailrec
+  def gcd(a: Long, b: Long): Long = if (b == 0) a else gcd(b, a % b)
+}
+
+/**
+ * INTERNAL API
+ *
+ * Event time windows of `sizeMillis` that start every `slideMillis`, which are tumbling windows if the two are the
+ * same. Time is divided into panes of the greatest common divisor of the size and the slide, so that every window
+ * is made of whole panes and an element is only added to the accumulator of its pane. The accumulators and element
+ * counts of the panes that can still receive elements are kept in two ring arrays.
+ *
+ * The watermark is the largest timestamp seen minus `allowedLatenessMillis`, a window is emitted once its end is not
+ * after the watermark, and an element with a timestamp before the watermark is late. When the aggregate is
+ * invertible, the accumulator of the next window is kept up to date as well, and moving it by one slide subtracts
+ * the panes that leave it and merges the ones that enter it, so the work per element does not depend on the size of
+ * the window.
+ */
+@InternalApi private[pekko] final class PaneWindow[T, A, R](
+    sizeMillis: Long,
+    slideMillis: Long,
+    allowedLatenessMillis: Long,
+    lateElements: LateElementStrategy,
+    timestampOf: T => Long,
+    aggregate: WindowAggregate[T, A, R])
+    extends GraphStage[FlowShape[T, Windowed[R]]] {
+  require(sizeMillis > 0, "size must be at least 1 millisecond")
+  require(slideMillis > 0, "slide must be at least 1 millisecond")
+  require(slideMillis <= sizeMillis, "slide must not be larger than the size")
+  require(allowedLatenessMillis >= 0, "allowedLateness must not be negative")
+
+  private val paneMillis = Windows.gcd(sizeMillis, slideMillis)
+  private val panesPerWindow = sizeMillis / paneMillis
+  private val panesPerSlide = slideMillis / paneMillis
+  // the panes from the start of the next window to the newest pane, see `firstWindowAfter`
+  private val capacity = {
+    val panes = panesPerWindow + (allowedLatenessMillis + paneMillis - 1) / paneMillis + 2
+    require(
+      panes <= Windows.MaxPanes,
+      s"A window of $sizeMillis ms that slides by $slideMillis ms with an allowed lateness of " +
+      s"$allowedLatenessMillis ms needs $panes panes of $paneMillis ms, more than the maximum ${Windows.MaxPanes}")
+    panes.toInt
+  }
+
+  val in: Inlet[T] = Inlet("Window.in")
+  val out: Outlet[Windowed[R]] = Outlet("Window.out")
+  override val shape: FlowShape[T, Windowed[R]] = FlowShape(in, out)
+
+  override def initialAttributes: Attributes =
+    if (sizeMillis == slideMillis) DefaultAttributes.tumblingWindow else DefaultAttributes.slidingWindow
+
+  override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
+    new GraphStageLogic(shape) with InHandler with OutHandler {
+      private[this] val invertible = aggregate.isInvertible
+      private[this] val panes: Array[A] = aggregate.newAccumulators(capacity)
+      private[this] val counts = new Array[Int](capacity)
+      // the elements in all panes
+      private[this] var stored = 0L
+      private[this] var watermark = Long.MinValue
+      // the first pane of the next window to emit, always a multiple of `panesPerSlide`
+      private[this] var nextStart = Long.MinValue
+      // the accumulator and elements of the next window, only kept for invertible aggregates
+      private[this] var windowAcc: A = aggregate.zero
+      private[this] var windowCount = 0L
+      private[this] val pullIn: () => Unit = () => tryPull(in)
+
+      override def preStart(): Unit = pull(in)
+
+      override def onPush(): Unit = {
+        val elem = grab(in)
+        val timestamp = timestampOf(elem)
+        if (timestamp < watermark) {
+          lateElements match {
+            case LateElementStrategy.Drop => pull(in)
+            case LateElementStrategy.Fail =>
+              failStage(
+                new LateElementException(
+                  s"Element with timestamp [$timestamp] arrived after the watermark [$watermark] in $this"))
+          }
+        } else {
+          watermark = math.max(watermark, timestamp - allowedLatenessMillis)
+          val fired = fire()
+          if (stored == 0) {
+            // no window before the first one that can still receive elements has any
+            nextStart = math.max(nextStart, firstWindowAfter(watermark))
+            windowAcc = aggregate.zero
+            windowCount = 0
+          }
+          store(elem, Math.floorDiv(timestamp, paneMillis))
+          if (fired eq null) pull(in)
+          else emitMultiple(out, fired.toList, pullIn)
+        }
+      }
+
+      override def onUpstreamFinish(): Unit = {
+        watermark = Long.MaxValue
+        val fired = fire()
+        if (fired ne null) emitMultiple(out, fired.toList)
+        // after the windows that are still being emitted
+        complete(out)
+      }
+
+      override def onPull(): Unit = ()
+
+      // the first pane of the first window that ends after the given time
+      private def firstWindowAfter(time: Long): Long =
+        if (time == Long.MinValue) Long.MinValue
+        else (Math.floorDiv(Math.floorDiv(time, paneMillis) - panesPerWindow, panesPerSlide) + 1) * panesPerSlide
+
+      private def slot(pane: Long): Int = Math.floorMod(pane, capacity.toLong).toInt
+
+      private def store(elem: T, pane: Long): Unit = {
+        val i = slot(pane)
+        panes(i) = aggregate.add(panes(i), elem)
+        counts(i) += 1
+        stored += 1
+        if (invertible && pane < nextStart + panesPerWindow) {
+          windowAcc = aggregate.add(windowAcc, elem)
+          windowCount += 1
+        }
+      }
+
+      // emits every window that ends before the watermark, until there are no stored elements left
+      private def fire(): ListBuffer[Windowed[R]] = {
+        var fired: ListBuffer[Windowed[R]] = null
+        while (stored > 0 && (nextStart + panesPerWindow) * paneMillis <= watermark) {
+          val window = current()
+          if (window ne null) {
+            if (fired eq null) fired = new ListBuffer[Windowed[R]]
+            fired += window
+          }
+          slide()
+        }
+        fired
+      }
+
+      // the next window, null if it has no elements
+      private def current(): Windowed[R] = {
+        val start = nextStart * paneMillis
+        val end = start + sizeMillis
+        if (invertible) {
+          if (windowCount == 0) null else Windowed(start, end, aggregate.result(windowAcc))
+        } else {
+          var acc = aggregate.zero
+          var count = 0L
+          var pane = nextStart
+          while (pane < nextStart + panesPerWindow) {
+            val i = slot(pane)
+            if (counts(i) > 0) {
+              acc = aggregate.merge(acc, panes(i))
+              count += counts(i)
+            }
+            pane += 1
+          }
+          if (count == 0) null else Windowed(start, end, aggregate.result(acc))
+        }
+      }
+
+      // moves the next window by one slide, clearing the panes that are in no window anymore
+      private def slide(): Unit = {
+        var pane = nextStart
+        while (pane < nextStart + panesPerSlide) {
+          val i = slot(pane)
+          if (counts(i) > 0) {
+            if (invertible) {
+              windowAcc = aggregate.subtract(windowAcc, panes(i))
+              windowCount -= counts(i)
+            }
+            stored -= counts(i)
+            panes(i) = aggregate.zero
+            counts(i) = 0
+          }
+          pane += 1
+        }
+        nextStart += panesPerSlide
+        if (invertible) {
+          pane = nextStart + panesPerWindow - panesPerSlide
+          while (pane < nextStart + panesPerWindow) {
+            val i = slot(pane)
+            if (counts(i) > 0) {
+              windowAcc = aggregate.merge(windowAcc, panes(i))
+              windowCount += counts(i)
+            }
+            pane += 1
+          }
+        }
+      }
+
+      setHandlers(in, out, this)
+    }
+
+  override def toString: String =
+    if (sizeMillis == slideMillis) s"TumblingWindow(${sizeMillis}ms)"
+    else s"SlidingWindow(${sizeMillis}ms, ${slideMillis}ms)"
+}
+
+/**
+ * INTERNAL API
+ *
+ * Event time session windows, a session contains elements that are less than `gapMillis` apart and ends `gapMillis`
+ * after its last element. The open sessions are kept ordered by their start, an element starts a new session or is
+ * added to the one it falls into, and merges the sessions it connects. A session is emitted once its end is not
+ * after the watermark, which is the largest timestamp seen minus `allowedLatenessMillis`.
+ */
+@InternalApi private[pekko] final class SessionWindow[T, A, R](
+    gapMillis: Long,
+    allowedLatenessMillis: Long,
+    lateElements: LateElementStrategy,
+    timestampOf: T => Long,
+    aggregate: WindowAggregate[T, A, R])
+    extends GraphStage[FlowShape[T, Windowed[R]]] {
+  require(gapMillis > 0, "gap must be at least 1 millisecond")
+  require(allowedLatenessMillis >= 0, "allowedLateness must not be negative")
+
+  val in: Inlet[T] = Inlet("SessionWindow.in")
+  val out: Outlet[Windowed[R]] = Outlet("SessionWindow.out")
+  override val shape: FlowShape[T, Windowed[R]] = FlowShape(in, out)
+
+  override def initialAttributes: Attributes = DefaultAttributes.sessionWindow
+
+  private final class Session(var start: Long, var end: Long, var acc: A)
+
+  override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
+    new GraphStageLogic(shape) with InHandler with OutHandler {
+      private[this] val sessions = new java.util.ArrayList[Session]
+      private[this] var watermark = Long.MinValue
+      private[this] val pullIn: () => Unit = () => tryPull(in)
+
+      override def preStart(): Unit = pull(in)
+
+      override def onPush(): Unit = {
+        val elem = grab(in)
+        val timestamp = timestampOf(elem)
+        if (timestamp < watermark) {
+          lateElements match {
+            case LateElementStrategy.Drop => pull(in)
+            case LateElementStrategy.Fail =>
+              failStage(
+                new LateElementException(
+                  s"Element with timestamp [$timestamp] arrived after the watermark [$watermark] in $this"))
+          }
+        } else {
+          add(elem, timestamp)
+          watermark = math.max(watermark, timestamp - allowedLatenessMillis)
+          val fired = fire()
+          if (fired eq null) pull(in)
+          else emitMultiple(out, fired.toList, pullIn)
+        }
+      }
+
+      override def onUpstreamFinish(): Unit = {
+        watermark = Long.MaxValue
+        val fired = fire()
+        if (fired ne null) emitMultiple(out, fired.toList)
+        // after the windows that are still being emitted
+        complete(out)
+      }
+
+      override def onPull(): Unit = ()
+
+      private def add(elem: T, timestamp: Long): Unit = {
+        val end = timestamp + gapMillis
+        // the first session that ends after the element
+        var i = 0
+        while (i < sessions.size && sessions.get(i).end <= timestamp) i += 1
+        if (i == sessions.size || sessions.get(i).start >= end) {
+          sessions.add(i, new Session(timestamp, end, aggregate.add(aggregate.zero, elem)))
+        } else {
+          val session = sessions.get(i)
+          session.start = math.min(session.start, timestamp)
+          session.end = math.max(session.end, end)
+          session.acc = aggregate.add(session.acc, elem)
+          // the element may close the gap to the following sessions
+          while (i + 1 < sessions.size && sessions.get(i + 1).start < session.end) {
+            val next = sessions.remove(i + 1)
+            session.end = math.max(session.end, next.end)
+            session.acc = aggregate.merge(session.acc, next.acc)
+          }
+        }
+      }
+
+      private def fire(): ListBuffer[Windowed[R]] = {
+        var fired: ListBuffer[Windowed[R]] = null
+        while (!sessions.isEmpty && sessions.get(0).end <= watermark) {
+          val session = sessions.remove(0)
+          if (fired eq null) fired = new ListBuffer[Windowed[R]]
+          fired += Windowed(session.start, session.end, aggregate.result(session.acc))
+        }
+        fired
+      }
+
+      setHandlers(in, out, this)
+    }
+
+  override def toString: String = s"SessionWindow(${gapMillis}ms)"
+}
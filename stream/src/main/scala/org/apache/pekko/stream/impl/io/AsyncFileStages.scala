@@ -0,0 +1,331 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.impl.io
+
+import java.nio.ByteBuffer
+import java.nio.channels.{ AsynchronousFileChannel, CompletionHandler }
+import java.nio.file.{ Files, NoSuchFileException, OpenOption, Path, StandardOpenOption }
+import java.util.{ Collections, List => JList }
+import java.util.concurrent.{ AbstractExecutorService, ExecutorService, TimeUnit }
+
+import scala.collection.immutable
+import scala.concurrent.{ ExecutionContextExecutor, Future, Promise }
+import scala.util.Success
+import scala.util.control.NonFatal
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.stream._
+import pekko.stream.Attributes.MaxInFlightFileOperations
+import pekko.stream.impl.Stages.DefaultAttributes
+import pekko.stream.stage._
+import pekko.util.ByteString
+import pekko.util.ccompat.JavaConverters._
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[pekko] object AsyncFileIO {
+
+  val DefaultMaxInFlight = 4
+
+  def maxInFlight(attributes: Attributes): Int =
+    attributes.get[MaxInFlightFileOperations](MaxInFlightFileOperations(DefaultMaxInFlight)).max
+
+  /**
+   * The channels run their I/O and completion handlers on the blocking IO dispatcher of the stream, so that all
+   * files share its bounded number of threads instead of the JDK default pool, which creates threads on demand.
+   * Where the platform does not support asynchronous file I/O (Linux and macOS) the JDK performs a blocking
+   * read or write on one of those threads, the stage itself never blocks.
+   */
+  def executorFor(materializer: Materializer): ExecutorService =
+    new ExecutionContextExecutorService(
+      materializer.system.dispatchers.lookup(ActorAttributes.IODispatcher.dispatcher))
+
+  /**
+   * The JDK only submits tasks to the executor of an `AsynchronousFileChannel`, the dispatcher it delegates to
+   * is owned by the actor system so shutting this down does nothing.
+   */
+  private final class ExecutionContextExecutorService(ec: ExecutionContextExecutor) extends AbstractExecutorService {
+    override def execute(command: Runnable): Unit = ec.execute(command)
+    override def shutdown(): Unit = ()
+    override def shutdownNow(): JList[Runnable] = Collections.emptyList()
+    override def isShutdown: Boolean = false
+    override def isTerminated: Boolean = false
+    override def awaitTermination(timeout: Long, unit: TimeUnit): Boolean = false
+  }
+}
+
+/**
+ * INTERNAL API
+ * Creates a Source backed by the given file that keeps up to `maxInFlight` reads of `chunkSize` bytes outstanding
+ * on an `AsynchronousFileChannel`. Reads may complete in any order, chunks are emitted in file order.
+ */
+@InternalApi
+private[pekko] final class AsyncFileSource(path: Path, chunkSize: Int, startPosition: Long)
+    extends GraphStageWithMaterializedValue[SourceShape[ByteString], Future[IOResult]] {
+  require(chunkSize > 0, "chunkSize must be greater than 0")
+  val out = Outlet[ByteString]("AsyncFileSource.out")
+
+  override val shape = SourceShape(out)
+
+  override def createLogicAndMaterializedValue(inheritedAttributes: Attributes): (GraphStageLogic, Future[IOResult]) = {
+    val ioResultPromise = Promise[IOResult]()
+    val maxInFlight = AsyncFileIO.maxInFlight(inheritedAttributes)
+
+    val logic = new GraphStageLogic(shape) with OutHandler {
+
+      /** The read of chunk `index`, reused for every `maxInFlight`th chunk. */
+      final class Read {
+        var index = 0L
+        var buffer: ByteBuffer = _
+        var bytesRead = 0
+        var done = false
+      }
+
+      private val reads = Array.fill(maxInFlight)(new Read)
+      private var channel: AsynchronousFileChannel = _
+      // chunks in [nextEmit, nextRead) are being read or waiting for demand
+      private var nextRead = 0L
+      private var nextEmit = 0L
+      // the first chunk that was not read to its end
+      private var lastChunk = Long.MaxValue
+      private var position = startPosition
+
+      private val readCompleted = getAsyncCallback[Read](onRead)
+      private val readFailed = getAsyncCallback[Throwable] { ex =>
+        ioResultPromise.tryFailure(new IOOperationIncompleteException(position, ex))
+        failStage(ex)
+      }
+      private val handler = new CompletionHandler[Integer, Read] {
+        override def completed(result: Integer, read: Read): Unit = {
+          read.bytesRead = result
+          readCompleted.invoke(read)
+        }
+        override def failed(ex: Throwable, read: Read): Unit = readFailed.invoke(ex)
+      }
+
+      setHandler(out, this)
+
+      override def preStart(): Unit = {
+        try {
+          // this is a bit weird but required to keep existing semantics
+          if (!Files.exists(path)) throw new NoSuchFileException(path.toString)
+
+          require(!Files.isDirectory(path), s"Path '$path' is a directory")
+          require(Files.isReadable(path), s"Missing read permission for '$path'")
+
+          channel = AsynchronousFileChannel.open(
+            path,
+            Collections.singleton(StandardOpenOption.READ),
+            AsyncFileIO.executorFor(materializer))
+        } catch {
+          case NonFatal(ex) =>
+            ioResultPromise.tryFailure(ex)
+            throw ex
+        }
+        startReads()
+      }
+
+      private def startReads(): Unit =
+        while (nextRead - nextEmit < maxInFlight && nextRead <= lastChunk) {
+          val read = reads((nextRead % maxInFlight).toInt)
+          read.index = nextRead
+          read.buffer = ByteBuffer.allocate(chunkSize)
+          read.done = false
+          readNext(read)
+          nextRead += 1
+        }
+
+      private def readNext(read: Read): Unit =
+        channel.read(read.buffer, startPosition + read.index * chunkSize + read.buffer.position(), read, handler)
+
+      private def onRead(read: Read): Unit =
+        if (read.bytesRead > 0 && read.buffer.hasRemaining) readNext(read)
+        else {
+          read.done = true
+          if (read.buffer.hasRemaining) lastChunk = math.min(lastChunk, read.index)
+          tryPush()
+        }
+
+      override def onPull(): Unit = tryPush()
+
+      private def tryPush(): Unit =
+        if (nextEmit < nextRead) {
+          val read = reads((nextEmit % maxInFlight).toInt)
+          if (read.done) {
+            val bytes = read.buffer.position()
+            if (bytes == 0) success()
+            else if (isAvailable(out)) {
+              // the buffer is not reused, so its array can back the emitted element
+              push(out, ByteString.fromArrayUnsafe(read.buffer.array(), 0, bytes))
+              read.buffer = null
+              position += bytes
+              nextEmit += 1
+              if (nextEmit > lastChunk) success()
+              else startReads()
+            }
+          }
+        }
+
+      private def success(): Unit = {
+        completeStage()
+        ioResultPromise.trySuccess(IOResult(position))
+      }
+
+      override def onDownstreamFinish(cause: Throwable): Unit = {
+        cause match {
+          case _: SubscriptionWithCancelException.NonFailureCancellation =>
+            success()
+          case ex =>
+            ioResultPromise.tryFailure(
+              new IOOperationIncompleteException("Downstream failed before reaching file end", position, ex))
+            completeStage()
+        }
+      }
+
+      override def postStop(): Unit = {
+        ioResultPromise.trySuccess(IOResult(position))
+        // reads still in flight fail with an AsynchronousCloseException, which is dropped with the stage
+        if ((channel ne null) && channel.isOpen) channel.close()
+      }
+    }
+
+    (logic, ioResultPromise.future)
+  }
+
+  override def toString = s"AsyncFileSource($path, $chunkSize)"
+}
+
+/**
+ * INTERNAL API
+ * Creates a Sink backed by the given file that keeps writing up to `maxInFlight` elements at the same time on an
+ * `AsynchronousFileChannel`, each at the position following the previous element.
+ */
+@InternalApi
+private[pekko] final class AsyncFileOutputStage(
+    path: Path,
+    startPosition: Long,
+    openOptions: immutable.Set[OpenOption])
+    extends GraphStageWithMaterializedValue[SinkShape[ByteString], Future[IOResult]] {
+
+  val in: Inlet[ByteString] = Inlet("AsyncFileSink")
+  override def shape: SinkShape[ByteString] = SinkShape(in)
+  override def initialAttributes: Attributes = DefaultAttributes.asyncFileSink
+
+  override def createLogicAndMaterializedValue(inheritedAttributes: Attributes): (GraphStageLogic, Future[IOResult]) = {
+    val mat = Promise[IOResult]()
+    val maxInFlight = AsyncFileIO.maxInFlight(inheritedAttributes)
+
+    val logic = new GraphStageLogic(shape) with InHandler {
+
+      final class Write(val buffer: ByteBuffer, val position: Long) {
+        val length: Int = buffer.remaining
+        def nextPosition: Long = position + length - buffer.remaining
+      }
+
+      private var chan: AsynchronousFileChannel = _
+      private var writePosition = startPosition
+      private var inFlight = 0
+      // only counts the writes that completed, which do not need to be contiguous in the file
+      private var bytesWritten: Long = 0
+
+      private val writeCompleted = getAsyncCallback[Write](onWritten)
+      private val writeFailed = getAsyncCallback[Throwable] { t =>
+        closeFile(Some(new IOOperationIncompleteException(bytesWritten, t)))
+        failStage(t)
+      }
+      private val handler = new CompletionHandler[Integer, Write] {
+        override def completed(result: Integer, write: Write): Unit = writeCompleted.invoke(write)
+        override def failed(ex: Throwable, write: Write): Unit = writeFailed.invoke(ex)
+      }
+
+      override def preStart(): Unit = {
+        try {
+          // AsynchronousFileChannel does not support APPEND, the writes start at the end of the file instead
+          val append = openOptions.contains(StandardOpenOption.APPEND)
+          val options: immutable.Set[OpenOption] =
+            if (append) openOptions - StandardOpenOption.APPEND + StandardOpenOption.WRITE else openOptions
+          chan = AsynchronousFileChannel.open(path, options.asJava, AsyncFileIO.executorFor(materializer))
+          if (append) writePosition = chan.size()
+          // the in flight writes complete after upstream may have finished
+          setKeepGoing(true)
+          pull(in)
+        } catch {
+          case NonFatal(t) =>
+            closeFile(Some(new IOOperationIncompleteException(bytesWritten, t)))
+            failStage(t)
+        }
+      }
+
+      override def onPush(): Unit = {
+        val next = grab(in)
+        if (next.nonEmpty) {
+          val write = new Write(next.asByteBuffer, writePosition)
+          writePosition += next.size
+          inFlight += 1
+          chan.write(write.buffer, write.position, write, handler)
+        }
+        if (inFlight < maxInFlight) pull(in)
+      }
+
+      private def onWritten(write: Write): Unit =
+        if (write.buffer.hasRemaining) chan.write(write.buffer, write.nextPosition, write, handler)
+        else {
+          inFlight -= 1
+          bytesWritten += write.length
+          if (isClosed(in)) {
+            if (inFlight == 0) {
+              closeFile(None)
+              completeStage()
+            }
+          } else if (!hasBeenPulled(in)) pull(in)
+        }
+
+      override def onUpstreamFailure(t: Throwable): Unit = {
+        closeFile(Some(new IOOperationIncompleteException(bytesWritten, t)))
+        failStage(t)
+      }
+
+      override def onUpstreamFinish(): Unit =
+        if (inFlight == 0) {
+          closeFile(None)
+          completeStage()
+        }
+
+      override def postStop(): Unit = {
+        if (!mat.isCompleted) {
+          val failure = new AbruptStageTerminationException(this)
+          closeFile(Some(failure))
+          mat.tryFailure(failure)
+        }
+      }
+
+      private def closeFile(failed: Option[Throwable]): Unit = {
+        try {
+          if (chan ne null) chan.close()
+          failed match {
+            case Some(t) => mat.tryFailure(t)
+            case None    => mat.tryComplete(Success(IOResult(bytesWritten)))
+          }
+        } catch {
+          case NonFatal(t) =>
+            mat.tryFailure(failed.getOrElse(t))
+        }
+      }
+
+      setHandler(in, this)
+    }
+    (logic, mat.future)
+  }
+
+  override def toString = s"AsyncFileOutputStage($path)"
+}
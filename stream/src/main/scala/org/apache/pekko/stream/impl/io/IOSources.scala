@@ -13,7 +13,7 @@
 
 package org.apache.pekko.stream.impl.io
 
-import java.nio.ByteBuffer
+import java.nio.{ ByteBuffer, MappedByteBuffer }
 import java.nio.channels.{ CompletionHandler, FileChannel }
 import java.nio.file.{ Files, NoSuchFileException, Path, StandardOpenOption }
 
@@ -154,3 +154,102 @@ private[pekko] final class FileSource(path: Path, chunkSize: Int, startPosition:
 
   override def toString = s"FileSource($path, $chunkSize)"
 }
+
+/**
+ * INTERNAL API
+ * Creates a Source backed by memory-mapped regions of the given file.
+ *
+ * The file is mapped `regionSize` bytes at a time, rounded down to a multiple of `chunkSize`, and every chunk is
+ * copied out of the mapped region in a single bulk copy, without a read system call per chunk.
+ * The file is read up to the size it had when the stage started.
+ */
+private[pekko] final class MmapFileSource(path: Path, chunkSize: Int, regionSize: Int, startPosition: Long)
+    extends GraphStageWithMaterializedValue[SourceShape[ByteString], Future[IOResult]] {
+  require(chunkSize > 0, "chunkSize must be greater than 0")
+  require(regionSize >= chunkSize, "regionSize must be greater than or equal to chunkSize")
+  val out = Outlet[ByteString]("MmapFileSource.out")
+
+  override val shape = SourceShape(out)
+
+  // regions hold whole chunks so that only the last element of the file may be smaller than chunkSize
+  private val alignedRegionSize: Long = (regionSize / chunkSize).toLong * chunkSize
+
+  override def createLogicAndMaterializedValue(inheritedAttributes: Attributes): (GraphStageLogic, Future[IOResult]) = {
+    val ioResultPromise = Promise[IOResult]()
+
+    val logic = new GraphStageLogic(shape) with OutHandler {
+      var channel: FileChannel = _
+      var size = 0L
+      var position = startPosition
+      var region: MappedByteBuffer = _
+
+      setHandler(out, this)
+
+      override def preStart(): Unit = {
+        try {
+          // this is a bit weird but required to keep existing semantics
+          if (!Files.exists(path)) throw new NoSuchFileException(path.toString)
+
+          require(!Files.isDirectory(path), s"Path '$path' is a directory")
+          require(Files.isReadable(path), s"Missing read permission for '$path'")
+
+          channel = FileChannel.open(path, StandardOpenOption.READ)
+          size = channel.size()
+        } catch {
+          case ex: Exception =>
+            ioResultPromise.trySuccess(IOResult(position, Failure(ex)))
+            throw ex
+        }
+      }
+
+      /** BLOCKING I/O READ, page faults of the mapped region are served on the calling thread */
+      override def onPull(): Unit =
+        if (position >= size) success()
+        else {
+          val chunk =
+            try {
+              if ((region eq null) || !region.hasRemaining)
+                region = channel.map(FileChannel.MapMode.READ_ONLY, position, math.min(alignedRegionSize, size - position))
+              val bytes = new Array[Byte](math.min(chunkSize, region.remaining))
+              region.get(bytes)
+              bytes
+            } catch {
+              case NonFatal(ex) =>
+                failStage(ex)
+                ioResultPromise.trySuccess(IOResult(position, Failure(ex)))
+                throw ex
+            }
+          position += chunk.length
+          push(out, ByteString.fromArrayUnsafe(chunk))
+          if (position >= size) success()
+        }
+
+      private def success(): Unit = {
+        completeStage()
+        ioResultPromise.trySuccess(IOResult(position, Success(Done)))
+      }
+
+      override def onDownstreamFinish(cause: Throwable): Unit = {
+        cause match {
+          case _: SubscriptionWithCancelException.NonFailureCancellation =>
+            success()
+          case ex =>
+            ioResultPromise.tryFailure(
+              new IOOperationIncompleteException("Downstream failed before reaching file end", position, ex))
+            completeStage()
+        }
+      }
+
+      override def postStop(): Unit = {
+        ioResultPromise.trySuccess(IOResult(position, Success(Done)))
+        // the mapping stays valid until the buffer is garbage collected, closing the channel does not unmap it
+        region = null
+        if ((channel ne null) && channel.isOpen) channel.close()
+      }
+    }
+
+    (logic, ioResultPromise.future)
+  }
+
+  override def toString = s"MmapFileSource($path, $chunkSize, $regionSize)"
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.impl.io
+
+import java.nio.{ ByteBuffer, MappedByteBuffer }
+import java.nio.channels.FileChannel
+import java.nio.file.{ OpenOption, Path, StandardOpenOption }
+
+import scala.collection.immutable
+import scala.concurrent.{ Future, Promise }
+import scala.util.Success
+import scala.util.control.NonFatal
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.stream.{
+  AbruptStageTerminationException,
+  Attributes,
+  FileSyncPolicies,
+  FileSyncPolicy,
+  IOOperationIncompleteException,
+  IOResult,
+  Inlet,
+  SinkShape
+}
+import pekko.stream.impl.Stages.DefaultAttributes
+import pekko.stream.stage.{ GraphStageLogic, GraphStageWithMaterializedValue, InHandler }
+import pekko.util.ByteString
+import pekko.util.ccompat.JavaConverters._
+
+/**
+ * INTERNAL API
+ *
+ * Writes to memory-mapped regions of `regionSize` bytes, mapping the next region when the current one is full.
+ * Mapping a region extends the file, so it is truncated to the written bytes when the stage stops, unless it was
+ * already longer before.
+ */
+@InternalApi
+private[pekko] final class MmapFileOutputStage(
+    path: Path,
+    startPosition: Long,
+    openOptions: immutable.Set[OpenOption],
+    regionSize: Int,
+    syncPolicy: FileSyncPolicy)
+    extends GraphStageWithMaterializedValue[SinkShape[ByteString], Future[IOResult]] {
+  require(regionSize > 0, "regionSize must be greater than 0")
+  require(startPosition >= 0, "startPosition must not be negative")
+  require(!openOptions.contains(StandardOpenOption.APPEND), "APPEND is not supported for memory-mapped files")
+
+  val in: Inlet[ByteString] = Inlet("MmapFileSink")
+  override def shape: SinkShape[ByteString] = SinkShape(in)
+  override def initialAttributes: Attributes = DefaultAttributes.mmapFileSink
+
+  override def createLogicAndMaterializedValue(inheritedAttributes: Attributes): (GraphStageLogic, Future[IOResult]) = {
+    val mat = Promise[IOResult]()
+    val logic = new GraphStageLogic(shape) with InHandler {
+      private var chan: FileChannel = _
+      private var initialSize: Long = 0
+      private var region: MappedByteBuffer = _
+      private var bytesWritten: Long = 0
+
+      override def preStart(): Unit = {
+        try {
+          // mapping a region for writing requires the channel to be readable as well
+          chan = FileChannel.open(path, (openOptions + StandardOpenOption.READ + StandardOpenOption.WRITE).asJava)
+          initialSize = chan.size()
+          pull(in)
+        } catch {
+          case NonFatal(t) =>
+            closeFile(Some(new IOOperationIncompleteException(bytesWritten, t)))
+            failStage(t)
+        }
+      }
+
+      override def onPush(): Unit = {
+        val next = grab(in)
+        try {
+          next.asByteBuffers.foreach(write)
+          pull(in)
+        } catch {
+          case NonFatal(t) =>
+            closeFile(Some(new IOOperationIncompleteException(bytesWritten, t)))
+            failStage(t)
+        }
+      }
+
+      private def write(buffer: ByteBuffer): Unit =
+        while (buffer.hasRemaining) {
+          if ((region eq null) || !region.hasRemaining) nextRegion()
+          val n = math.min(buffer.remaining, region.remaining)
+          val slice = buffer.duplicate()
+          slice.limit(slice.position() + n)
+          region.put(slice)
+          buffer.position(buffer.position() + n)
+          bytesWritten += n
+          if (!region.hasRemaining && (syncPolicy eq FileSyncPolicies.EveryRegion)) region.force()
+        }
+
+      private def nextRegion(): Unit = {
+        // the channel does not guarantee to force the bytes of a region that is no longer used, so a full region
+        // is forced before it is replaced
+        if ((region ne null) && (syncPolicy eq FileSyncPolicies.OnComplete)) region.force()
+        region = chan.map(FileChannel.MapMode.READ_WRITE, startPosition + bytesWritten, regionSize)
+      }
+
+      override def onUpstreamFailure(t: Throwable): Unit = {
+        closeFile(Some(new IOOperationIncompleteException(bytesWritten, t)))
+        failStage(t)
+      }
+
+      override def onUpstreamFinish(): Unit = {
+        closeFile(None)
+        completeStage()
+      }
+
+      override def postStop(): Unit = {
+        if (!mat.isCompleted) {
+          val failure = new AbruptStageTerminationException(this)
+          closeFile(Some(failure))
+          mat.tryFailure(failure)
+        }
+      }
+
+      private def closeFile(failed: Option[Throwable]): Unit = {
+        try {
+          if ((region ne null) && failed.isEmpty && (syncPolicy ne FileSyncPolicies.Never)) region.force()
+          region = null
+          if (chan ne null) {
+            // drop the unused tail of the last mapped region, on some platforms this fails while the region is mapped
+            val end = math.max(startPosition + bytesWritten, initialSize)
+            if (chan.size() > end) chan.truncate(end)
+            chan.close()
+          }
+          failed match {
+            case Some(t) => mat.tryFailure(t)
+            case None    => mat.tryComplete(Success(IOResult(bytesWritten)))
+          }
+        } catch {
+          case NonFatal(t) =>
+            mat.tryFailure(failed.getOrElse(t))
+        }
+      }
+
+      setHandler(in, this)
+    }
+    (logic, mat.future)
+  }
+
+  override def toString = s"MmapFileSink($path, $regionSize)"
+}
@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.impl.io
+
+import java.nio.MappedByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.{ Files, Path, StandardOpenOption }
+
+import scala.util.control.NonFatal
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.io.DirectByteBufferPool
+import pekko.stream.{ Attributes, FlowShape, Inlet, Outlet, SpillingBufferMetrics }
+import pekko.stream.impl.FixedSizeBuffer
+import pekko.stream.impl.Stages.DefaultAttributes
+import pekko.stream.stage.{ GraphStageLogic, GraphStageWithMaterializedValue, InHandler, OutHandler }
+import pekko.util.ByteString
+
+/**
+ * INTERNAL API
+ *
+ * Buffers up to `memorySize` elements in memory and spills the elements that arrive while the memory buffer is full
+ * to memory-mapped segment files of `segmentSize` bytes in `directory`, using at most `maxSegments` of them.
+ * The elements on disk are read back in order whenever there is room in the memory buffer, and upstream is
+ * backpressured when both are full.
+ */
+@InternalApi
+private[pekko] final class SpillingBufferStage[T](
+    memorySize: Int,
+    directory: Path,
+    segmentSize: Int,
+    maxSegments: Int,
+    serialize: T => ByteString,
+    deserialize: ByteString => T)
+    extends GraphStageWithMaterializedValue[FlowShape[T, T], SpillingBufferMetrics] {
+  require(memorySize > 0, "memorySize must be greater than 0")
+  require(segmentSize > SpillSegments.RecordHeaderSize, "segmentSize must be greater than 4")
+  require(maxSegments > 0, "the disk space must be enough for at least one segment")
+
+  val in: Inlet[T] = Inlet("SpillingBuffer.in")
+  val out: Outlet[T] = Outlet("SpillingBuffer.out")
+  override val shape: FlowShape[T, T] = FlowShape(in, out)
+  override def initialAttributes: Attributes = DefaultAttributes.spillingBuffer
+
+  private final class Metrics extends SpillingBufferMetrics {
+    @volatile var elementsInMemory: Int = 0
+    @volatile var elementsOnDisk: Long = 0L
+    @volatile var bytesOnDisk: Long = 0L
+    @volatile var spilledElements: Long = 0L
+    @volatile var spilledBytes: Long = 0L
+
+    override def toString: String =
+      s"SpillingBufferMetrics(elementsInMemory=$elementsInMemory, elementsOnDisk=$elementsOnDisk, " +
+      s"bytesOnDisk=$bytesOnDisk, spilledElements=$spilledElements, spilledBytes=$spilledBytes)"
+  }
+
+  override def createLogicAndMaterializedValue(
+      inheritedAttributes: Attributes): (GraphStageLogic, SpillingBufferMetrics) = {
+    val metrics = new Metrics
+    val logic = new GraphStageLogic(shape) with InHandler with OutHandler {
+      private val memory = FixedSizeBuffer[T](memorySize)
+      private val disk = new SpillSegments(directory, segmentSize, maxSegments)
+      // an element that did not fit on disk, upstream is backpressured until there is room for it
+      private var pending: T = _
+      private var pendingBytes: ByteString = _
+
+      override def preStart(): Unit = pull(in)
+
+      override def onPush(): Unit = {
+        val elem = grab(in)
+        if (isAvailable(out) && memory.isEmpty && disk.isEmpty) {
+          push(out, elem)
+          pull(in)
+        } else if (store(elem, null)) pull(in)
+      }
+
+      override def onUpstreamFinish(): Unit =
+        if (isDrained) completeStage()
+
+      override def onPull(): Unit =
+        if (memory.nonEmpty) {
+          push(out, memory.dequeue())
+          refill()
+          if (isClosed(in) && isDrained) completeStage()
+        } else if (isClosed(in)) completeStage()
+
+      /** Returns false if the element had to be kept as pending because the disk is full. */
+      private def store(elem: T, serialized: ByteString): Boolean = {
+        val stored =
+          if (disk.isEmpty && memory.nonFull) {
+            memory.enqueue(elem)
+            true
+          } else {
+            val bytes = if (serialized eq null) serialize(elem) else serialized
+            if (disk.tryWrite(bytes)) {
+              metrics.spilledElements += 1
+              metrics.spilledBytes += bytes.size
+              true
+            } else {
+              pending = elem
+              pendingBytes = bytes
+              false
+            }
+          }
+        updateMetrics()
+        stored
+      }
+
+      private def refill(): Unit = {
+        while (memory.nonFull && disk.nonEmpty) memory.enqueue(deserialize(disk.read()))
+        if (pendingBytes ne null) {
+          val elem = pending
+          val bytes = pendingBytes
+          pending = null.asInstanceOf[T]
+          pendingBytes = null
+          // upstream may have finished while the element was pending
+          if (store(elem, bytes) && !isClosed(in) && !hasBeenPulled(in)) pull(in)
+        } else updateMetrics()
+      }
+
+      private def isDrained: Boolean = memory.isEmpty && disk.isEmpty && (pendingBytes eq null)
+
+      private def updateMetrics(): Unit = {
+        metrics.bytesOnDisk = disk.bytesOnDisk
+        metrics.elementsInMemory = memory.used
+        metrics.elementsOnDisk = disk.size
+      }
+
+      override def postStop(): Unit = {
+        disk.close()
+        updateMetrics()
+      }
+
+      setHandlers(in, out, this)
+    }
+    (logic, metrics)
+  }
+
+  override def toString = s"SpillingBuffer($memorySize, $directory)"
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi private[pekko] object SpillSegments {
+  val RecordHeaderSize = 4
+}
+
+/**
+ * INTERNAL API
+ *
+ * A queue of serialized elements stored in memory-mapped segment files, each record is the length of the element
+ * followed by its bytes. A segment is deleted once it has been read completely, unless it is the only one, which is
+ * then written again from the start. Not thread-safe.
+ */
+@InternalApi private[pekko] final class SpillSegments(directory: Path, segmentSize: Int, maxSegments: Int) {
+  import SpillSegments.RecordHeaderSize
+
+  private final class Segment(val path: Path, val writer: MappedByteBuffer) {
+    val reader = writer.duplicate()
+
+    def isFullyRead: Boolean = reader.position() == writer.position()
+  }
+
+  private val segments = new java.util.ArrayDeque[Segment]
+  private var elements = 0L
+
+  def isEmpty: Boolean = elements == 0
+  def nonEmpty: Boolean = elements != 0
+  def size: Long = elements
+  def bytesOnDisk: Long = segments.size.toLong * segmentSize
+
+  /**
+   * Appends the element, returns false if it would need another segment but there are `maxSegments` already.
+   */
+  def tryWrite(bytes: ByteString): Boolean = {
+    val recordSize = RecordHeaderSize + bytes.size
+    if (recordSize > segmentSize)
+      throw new IllegalArgumentException(
+        s"A serialized element of ${bytes.size} bytes does not fit into a segment of $segmentSize bytes")
+    val last = segments.peekLast()
+    val segment =
+      if ((last ne null) && last.writer.remaining >= recordSize) last
+      else if (segments.size < maxSegments) {
+        val created = newSegment()
+        segments.addLast(created)
+        created
+      } else null
+    if (segment eq null) false
+    else {
+      segment.writer.putInt(bytes.size)
+      bytes.copyToBuffer(segment.writer)
+      elements += 1
+      true
+    }
+  }
+
+  /**
+   * Removes and returns the oldest element, must only be called when not empty.
+   */
+  def read(): ByteString = {
+    val segment = segments.peekFirst()
+    val length = segment.reader.getInt()
+    val bytes = new Array[Byte](length)
+    segment.reader.get(bytes)
+    elements -= 1
+    if (segment.isFullyRead) {
+      if (segments.size > 1) {
+        segments.removeFirst()
+        delete(segment)
+      } else {
+        segment.writer.clear()
+        segment.reader.clear()
+      }
+    }
+    ByteString.fromArrayUnsafe(bytes)
+  }
+
+  /**
+   * Deletes all segment files.
+   */
+  def close(): Unit = {
+    while (!segments.isEmpty) delete(segments.removeFirst())
+    elements = 0
+  }
+
+  private def newSegment(): Segment = {
+    val path = Files.createTempFile(directory, "spill-", ".segment")
+    val channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+    try {
+      // the mapping stays valid after the channel is closed
+      new Segment(path, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize))
+    } catch {
+      case NonFatal(e) =>
+        Files.deleteIfExists(path)
+        throw e
+    } finally channel.close()
+  }
+
+  private def delete(segment: Segment): Unit = {
+    // unmap before deleting, some platforms do not delete files that are mapped
+    DirectByteBufferPool.tryCleanDirectByteBuffer(segment.writer)
+    Files.deleteIfExists(segment.path)
+  }
+}
@@ -0,0 +1,582 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.impl.io
+
+import java.nio.ByteBuffer
+
+import javax.net.ssl._
+import javax.net.ssl.SSLEngineResult.HandshakeStatus
+import javax.net.ssl.SSLEngineResult.HandshakeStatus._
+import javax.net.ssl.SSLEngineResult.Status._
+
+import scala.annotation.tailrec
+import scala.util.{ Failure, Success, Try }
+
+import org.apache.pekko
+import pekko.actor.{ ActorSystem, ExtendedActorSystem, Extension, ExtensionId, ExtensionIdProvider }
+import pekko.actor.ClassicActorSystemProvider
+import pekko.annotation.InternalApi
+import pekko.io.DirectByteBufferPool
+import pekko.stream._
+import pekko.stream.TLSProtocol._
+import pekko.stream.impl.{ Pump, TransferPhase, TransferState }
+import pekko.stream.stage._
+import pekko.util.ByteString
+
+/**
+ * INTERNAL API.
+ */
+@InternalApi private[stream] object TlsGraphStage {
+
+  /** Room for two TLS records, see the user out buffer of [[TLSActor]] */
+  final val BufferSize = 16665 * 2 + 2048
+}
+
+/**
+ * INTERNAL API: The buffers shared between the TLS stages of an actor system.
+ */
+@InternalApi private[stream] object TlsBufferPool extends ExtensionId[TlsBufferPool] with ExtensionIdProvider {
+
+  override def createExtension(system: ExtendedActorSystem): TlsBufferPool = new TlsBufferPool
+
+  override def lookup: TlsBufferPool.type = this
+
+  override def get(system: ActorSystem): TlsBufferPool = super.get(system)
+  override def get(system: ClassicActorSystemProvider): TlsBufferPool = super.get(system)
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi private[stream] final class TlsBufferPool extends Extension {
+
+  /** Each running stage holds four of these buffers */
+  val pool = new DirectByteBufferPool(TlsGraphStage.BufferSize, maxPoolEntries = 256)
+}
+
+/**
+ * INTERNAL API: The same state machine as [[TLSActor]], but as a `GraphStage` that is fused with the surrounding
+ * operators instead of running in an actor of its own, and that hands pooled direct buffers to the `SSLEngine`.
+ *
+ * Plaintext is wrapped into as many records as fit into the transport buffer before they are emitted as one
+ * `ByteString`, and all complete records received from the transport are unwrapped in one go.
+ */
+@InternalApi private[stream] final class TlsGraphStage(
+    createSSLEngine: ActorSystem => SSLEngine, // ActorSystem is only needed to support the PekkoSSLConfig legacy, see #21753
+    verifySession: (ActorSystem, SSLSession) => Try[Unit], // ActorSystem is only needed to support the PekkoSSLConfig legacy, see #21753
+    closing: TLSClosing)
+    extends GraphStage[BidiShape[SslTlsOutbound, ByteString, ByteString, SslTlsInbound]] {
+  import TlsGraphStage._
+
+  val plainIn: Inlet[SslTlsOutbound] = Inlet("StreamTls.transportIn")
+  val cipherOut: Outlet[ByteString] = Outlet("StreamTls.cipherOut")
+  val cipherIn: Inlet[ByteString] = Inlet("StreamTls.cipherIn")
+  val plainOut: Outlet[SslTlsInbound] = Outlet("StreamTls.transportOut")
+
+  override val shape: BidiShape[SslTlsOutbound, ByteString, ByteString, SslTlsInbound] =
+    BidiShape(plainIn, cipherOut, cipherIn, plainOut)
+
+  override protected def initialAttributes: Attributes = Attributes.name("StreamTls")
+
+  override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
+    new GraphStageLogic(shape) with Pump {
+
+      // port states, standing in for the InputBunch and OutputBunch of TLSActor ---
+      private var userElement: SslTlsOutbound = _
+      private var transportElement: ByteString = _
+      private var userInFinished = false
+      private var transportInFinished = false
+      private var inputsCancelled = false
+      private var userOutCancelled = false
+      private var userOutErrored = false
+      private var transportOutCancelled = false
+      private var stopped = false
+      // end of port states ---
+
+      /**
+       * The SSLEngine needs bite-sized chunks of data but we get arbitrary ByteString from both the plainIn and the
+       * cipherIn ports. This is used to chop up such a ByteString by filling the respective ByteBuffer and taking
+       * care to grab a new element when data are demanded and none are left lying on the chopping block.
+       */
+      private abstract class ChoppingBlock extends TransferState {
+        protected def isPending: Boolean
+        protected def isDepleted: Boolean
+        protected def dequeue(): ByteString
+        // whether the engine may be able to take more bytes, the pump must not spin on a chop it would not take
+        protected def engineMayTake: Boolean = true
+
+        private var bytes = ByteString.empty
+        // bytes left in the ByteBuffer after wrap or unwrap that may be complete, instead of putting them back
+        // onto the chopping block like TLSActor does they stay in the buffer
+        private var retry = false
+
+        override def isReady: Boolean = (engineMayTake && (retry || bytes.nonEmpty || isPending)) || isDepleted
+        override def isCompleted: Boolean = inputsCancelled
+
+        /**
+         * Whether there are no bytes lying on this chopping block.
+         */
+        def isEmpty: Boolean = bytes.isEmpty && !retry
+
+        /**
+         * Pour as many bytes as are available either on the chopping block or in the next element into the
+         * supplied ByteBuffer, which is expected to be in “read left-overs” mode, i.e. everything between its
+         * position and limit is retained.
+         */
+        def chopInto(b: ByteBuffer): Unit = {
+          b.compact()
+          if (bytes.isEmpty && !retry && isPending) bytes = dequeue()
+          retry = false
+          val copied = bytes.copyToBuffer(b)
+          bytes = bytes.drop(copied)
+          b.flip()
+        }
+
+        /**
+         * When potentially complete packet data are left after wrap() or unwrap() the pump must know that we are
+         * runnable.
+         */
+        def putBack(b: ByteBuffer): Unit =
+          if (b.hasRemaining) retry = true
+
+        /**
+         * Prepare a fresh ByteBuffer for receiving a chop of data.
+         */
+        def prepare(b: ByteBuffer): Unit = {
+          b.clear()
+          b.limit(0)
+        }
+      }
+
+      private val userInChoppingBlock = new ChoppingBlock {
+        override protected def isPending: Boolean = userElement ne null
+        override protected def isDepleted: Boolean = userInFinished && (userElement eq null)
+        override protected def dequeue(): ByteString = {
+          val elem = userElement
+          userElement = null
+          pullIfNeeded(plainIn)
+          elem match {
+            case SendBytes(bs) => bs
+            case n: NegotiateNewSession =>
+              setNewSessionParameters(n)
+              ByteString.empty
+          }
+        }
+      }
+
+      private val transportInChoppingBlock = new ChoppingBlock {
+        override protected def isPending: Boolean = transportElement ne null
+        override protected def isDepleted: Boolean = transportInFinished && (transportElement eq null)
+        // unwrap does not consume anything until the engine has wrapped, which can only happen once cipherOut is
+        // pulled, so the pump must stop and wait for that
+        override protected def engineMayTake: Boolean = lastHandshakeStatus != NEED_WRAP
+        override protected def dequeue(): ByteString = {
+          val elem = transportElement
+          transportElement = null
+          pullIfNeeded(cipherIn)
+          elem
+        }
+      }
+
+      private def isUserInDepleted: Boolean = userInFinished && (userElement eq null)
+      private def isTransportInDepleted: Boolean = transportInFinished && (transportElement eq null)
+
+      private def demandAvailableFor(out: Outlet[_]): TransferState = new TransferState {
+        override def isReady: Boolean = isAvailable(out)
+        override def isCompleted: Boolean = isClosed(out)
+      }
+
+      private def pullIfNeeded(in: Inlet[_]): Unit =
+        if (!inputsCancelled && !hasBeenPulled(in) && !isClosed(in)) pull(in)
+
+      private def enqueue[T](out: Outlet[T], elem: T): Unit =
+        if (!isClosed(out)) emit(out, elem)
+
+      private var bufferPool: DirectByteBufferPool = _
+      private var transportOutBuffer: ByteBuffer = _
+      private var userOutBuffer: ByteBuffer = _
+      private var transportInBuffer: ByteBuffer = _
+      private var userInBuffer: ByteBuffer = _
+
+      private var lastHandshakeStatus: HandshakeStatus = _
+      private var corkUser = true
+
+      private var engine: SSLEngine = _
+      private var currentSession: SSLSession = _
+      private var packetBufferSize = 0
+
+      override def preStart(): Unit = {
+        bufferPool = TlsBufferPool(materializer.system).pool
+        transportOutBuffer = bufferPool.acquire()
+        userOutBuffer = bufferPool.acquire()
+        transportInBuffer = bufferPool.acquire()
+        transportInChoppingBlock.prepare(transportInBuffer)
+        userInBuffer = bufferPool.acquire()
+        userInChoppingBlock.prepare(userInBuffer)
+
+        engine = createSSLEngine(materializer.system)
+        engine.beginHandshake()
+        lastHandshakeStatus = engine.getHandshakeStatus
+        currentSession = engine.getSession
+        packetBufferSize = currentSession.getPacketBufferSize
+
+        // like TLSActor, start once the signals that the connected operators send when they start were handled, so
+        // that an input that fails right away fails the stage before the first handshake record is emitted
+        initialPhase(1, bidirectional)
+        pullIfNeeded(plainIn)
+        pullIfNeeded(cipherIn)
+        getAsyncCallback[Unit](_ => gotUpstreamSubscription()).invoke(())
+      }
+
+      override def postStop(): Unit = {
+        // the engine is not closed yet when the stage was cancelled or failed before the TLS session was shut down
+        if (engine ne null) {
+          if (!engine.isOutboundDone) engine.closeOutbound()
+          if (!engine.isInboundDone)
+            try engine.closeInbound()
+            catch { case _: SSLException => } // the peer's close_notify was not received
+        }
+        if (transportOutBuffer ne null) bufferPool.release(transportOutBuffer)
+        if (userOutBuffer ne null) bufferPool.release(userOutBuffer)
+        if (transportInBuffer ne null) bufferPool.release(transportInBuffer)
+        if (userInBuffer ne null) bufferPool.release(userInBuffer)
+      }
+
+      def setNewSessionParameters(params: NegotiateNewSession): Unit = {
+        currentSession.invalidate()
+        TlsUtils.applySessionParameters(engine, params)
+        engine.beginHandshake()
+        lastHandshakeStatus = engine.getHandshakeStatus
+        corkUser = true
+      }
+
+      setHandler(
+        plainIn,
+        new InHandler {
+          override def onPush(): Unit = {
+            userElement = grab(plainIn)
+            pump()
+          }
+          override def onUpstreamFinish(): Unit = {
+            userInFinished = true
+            pump()
+          }
+          override def onUpstreamFailure(ex: Throwable): Unit = fail(ex)
+        })
+
+      setHandler(
+        cipherIn,
+        new InHandler {
+          override def onPush(): Unit = {
+            transportElement = grab(cipherIn)
+            pump()
+          }
+          override def onUpstreamFinish(): Unit = {
+            transportInFinished = true
+            pump()
+          }
+          override def onUpstreamFailure(ex: Throwable): Unit = fail(ex)
+        })
+
+      setHandler(
+        plainOut,
+        new OutHandler {
+          override def onPull(): Unit = pump()
+          override def onDownstreamFinish(cause: Throwable): Unit = {
+            userOutCancelled = true
+            pump()
+          }
+        })
+
+      setHandler(
+        cipherOut,
+        new OutHandler {
+          override def onPull(): Unit = pump()
+          override def onDownstreamFinish(cause: Throwable): Unit = {
+            transportOutCancelled = true
+            pump()
+          }
+        })
+
+      // the phases and transfer states are the same as in TLSActor, see there for the big picture
+
+      private val engineNeedsWrap = new TransferState {
+        def isReady = lastHandshakeStatus == NEED_WRAP
+        def isCompleted = engine.isOutboundDone
+      }
+
+      private val engineInboundOpen = new TransferState {
+        def isReady = true
+        def isCompleted = engine.isInboundDone
+      }
+
+      private val userHasData = new TransferState {
+        def isReady = !corkUser && userInChoppingBlock.isReady && lastHandshakeStatus != NEED_UNWRAP
+        def isCompleted = inputsCancelled || isUserInDepleted
+      }
+
+      private val userOutCancelledState = new TransferState {
+        def isReady = userOutCancelled
+        def isCompleted = engine.isInboundDone || userOutErrored
+      }
+
+      private val transportInAvailable = new TransferState {
+        def isReady = transportElement ne null
+        def isCompleted = isTransportInDepleted || inputsCancelled
+      }
+
+      // TLSActor has buffers for both ports, here the user side may backpressure until a handshake is done, so the
+      // handshake records are unwrapped without demand, `emit` keeps any data that comes with them
+      private val userOutDemandOrHandshake = new TransferState {
+        def isReady = isAvailable(plainOut) || lastHandshakeStatus == NEED_UNWRAP
+        def isCompleted = isClosed(plainOut)
+      }
+
+      // bidirectional case
+      private val outbound = (userHasData || engineNeedsWrap) && demandAvailableFor(cipherOut)
+      private val inbound = (transportInChoppingBlock && userOutDemandOrHandshake) || userOutCancelledState
+
+      // half-closed
+      private val outboundHalfClosed = engineNeedsWrap && demandAvailableFor(cipherOut)
+      private val inboundHalfClosed = transportInChoppingBlock && engineInboundOpen
+
+      private val bidirectional = TransferPhase(outbound || inbound) { () =>
+        val continue = doInbound(isOutboundClosed = false, inbound)
+        if (continue) doOutbound(isInboundClosed = false)
+      }
+
+      private val flushingOutbound = TransferPhase(outboundHalfClosed) { () =>
+        try doWrap()
+        catch { case _: SSLException => nextPhase(completedPhase) }
+      }
+
+      private val awaitingClose = TransferPhase(transportInAvailable && engineInboundOpen) { () =>
+        transportInChoppingBlock.chopInto(transportInBuffer)
+        try doUnwrap(ignoreOutput = true)
+        catch { case _: SSLException => nextPhase(completedPhase) }
+      }
+
+      private val outboundClosed = TransferPhase(outboundHalfClosed || inbound) { () =>
+        val continue = doInbound(isOutboundClosed = true, inbound)
+        if (continue && outboundHalfClosed.isReady) {
+          try doWrap()
+          catch { case _: SSLException => nextPhase(completedPhase) }
+        }
+      }
+
+      private val inboundClosed = TransferPhase(outbound || inboundHalfClosed) { () =>
+        val continue = doInbound(isOutboundClosed = false, inboundHalfClosed)
+        if (continue) doOutbound(isInboundClosed = true)
+      }
+
+      private def completeOrFlush(): Unit =
+        if (engine.isOutboundDone || (engine.isInboundDone && userInChoppingBlock.isEmpty)) nextPhase(completedPhase)
+        else nextPhase(flushingOutbound)
+
+      /**
+       * The engine has an alert for the peer to be wrapped after a failed handshake. Unlike TLSActor, whose `fail`
+       * pumps once more and flushes it that way, the stage has to go to flushing explicitly.
+       */
+      private def flushAlertOrComplete(): Unit = {
+        lastHandshakeStatus = engine.getHandshakeStatus
+        if (lastHandshakeStatus == NEED_WRAP && !engine.isOutboundDone) nextPhase(flushingOutbound)
+        else completeOrFlush()
+      }
+
+      private def doInbound(isOutboundClosed: Boolean, inboundState: TransferState): Boolean =
+        if (isTransportInDepleted && transportInChoppingBlock.isEmpty) {
+          try engine.closeInbound()
+          catch { case _: SSLException => enqueue(plainOut, SessionTruncated) }
+          lastHandshakeStatus = engine.getHandshakeStatus
+          completeOrFlush()
+          false
+        } else if ((inboundState ne inboundHalfClosed) && userOutCancelled) {
+          if (!isOutboundClosed && closing.ignoreCancel) {
+            nextPhase(inboundClosed)
+          } else {
+            engine.closeOutbound() // this is the correct way of shutting down the engine
+            lastHandshakeStatus = engine.getHandshakeStatus
+            nextPhase(flushingOutbound)
+          }
+          true
+        } else if (inboundState.isReady) {
+          transportInChoppingBlock.chopInto(transportInBuffer)
+          try {
+            doUnwrap(ignoreOutput = false)
+            true
+          } catch {
+            case ex: SSLException =>
+              fail(ex, closeTransport = false)
+              engine.closeInbound()
+              flushAlertOrComplete()
+              false
+          }
+        } else true
+
+      private def doOutbound(isInboundClosed: Boolean): Unit =
+        if (isUserInDepleted && userInChoppingBlock.isEmpty && mayCloseOutbound) {
+          if (isInboundClosed || !closing.ignoreComplete) {
+            engine.closeOutbound()
+            lastHandshakeStatus = engine.getHandshakeStatus
+          }
+          nextPhase(outboundClosed)
+        } else if (transportOutCancelled) {
+          nextPhase(completedPhase)
+        } else if (outbound.isReady) {
+          if (userHasData.isReady) userInChoppingBlock.chopInto(userInBuffer)
+          try doWrap()
+          catch {
+            case ex: SSLException =>
+              fail(ex, closeTransport = false)
+              flushAlertOrComplete()
+          }
+        }
+
+      /**
+       * In JDK 8 it is not allowed to call `closeOutbound` before the handshake is done or otherwise
+       * an IllegalStateException might be thrown when the next handshake packet arrives.
+       */
+      private def mayCloseOutbound: Boolean =
+        lastHandshakeStatus match {
+          case HandshakeStatus.NOT_HANDSHAKING | HandshakeStatus.FINISHED => true
+          case _                                                          => false
+        }
+
+      private def flushToTransport(): Unit = {
+        transportOutBuffer.flip()
+        if (transportOutBuffer.hasRemaining) enqueue(cipherOut, ByteString(transportOutBuffer))
+        transportOutBuffer.clear()
+      }
+
+      private def flushToUser(): Unit = {
+        userOutBuffer.flip()
+        if (userOutBuffer.hasRemaining) enqueue(plainOut, SessionBytes(currentSession, ByteString(userOutBuffer)))
+        userOutBuffer.clear()
+      }
+
+      private def doWrap(): Unit = {
+        val result = wrapRecords()
+        lastHandshakeStatus = result.getHandshakeStatus
+
+        if (lastHandshakeStatus == FINISHED) handshakeFinished()
+        runDelegatedTasks()
+        result.getStatus match {
+          case OK =>
+            // https://github.com/akka/akka/issues/29922, see TLSActor
+            if (transportOutBuffer.position() == 0 && lastHandshakeStatus == NEED_WRAP)
+              throw new IllegalStateException("SSLEngine trying to loop NEED_WRAP without producing output")
+
+            flushToTransport()
+            userInChoppingBlock.putBack(userInBuffer)
+          case CLOSED =>
+            flushToTransport()
+            if (engine.isInboundDone) nextPhase(completedPhase)
+            else nextPhase(awaitingClose)
+          case s => fail(new IllegalStateException(s"unexpected status $s in doWrap()"))
+        }
+      }
+
+      /**
+       * Wraps records for as long as there is plaintext left and room for another record in the transport buffer,
+       * so that they are emitted as one chunk.
+       */
+      @tailrec
+      private def wrapRecords(): SSLEngineResult = {
+        val result = engine.wrap(userInBuffer, transportOutBuffer)
+        if (result.getStatus == OK && result.getHandshakeStatus == NOT_HANDSHAKING && userInBuffer.hasRemaining &&
+          transportOutBuffer.remaining >= packetBufferSize)
+          wrapRecords()
+        else result
+      }
+
+      @tailrec
+      private def doUnwrap(ignoreOutput: Boolean): Unit = {
+        val oldInPosition = transportInBuffer.position()
+        val result = engine.unwrap(transportInBuffer, userOutBuffer)
+        if (ignoreOutput) userOutBuffer.clear()
+        lastHandshakeStatus = result.getHandshakeStatus
+        runDelegatedTasks()
+        result.getStatus match {
+          case OK =>
+            result.getHandshakeStatus match {
+              case NEED_WRAP =>
+                flushToUser()
+                transportInChoppingBlock.putBack(transportInBuffer)
+              case FINISHED =>
+                flushToUser()
+                handshakeFinished()
+                transportInChoppingBlock.putBack(transportInBuffer)
+              case NEED_UNWRAP
+                  if transportInBuffer.hasRemaining &&
+                  userOutBuffer.position() == 0 &&
+                  transportInBuffer.position() == oldInPosition =>
+                throw new IllegalStateException("SSLEngine trying to loop NEED_UNWRAP without producing output")
+              case _ =>
+                if (transportInBuffer.hasRemaining) doUnwrap(ignoreOutput = false)
+                else flushToUser()
+            }
+          case CLOSED =>
+            flushToUser()
+            completeOrFlush()
+          case BUFFER_UNDERFLOW =>
+            flushToUser()
+          case BUFFER_OVERFLOW =>
+            flushToUser()
+            transportInChoppingBlock.putBack(transportInBuffer)
+          case null => fail(new IllegalStateException(s"unexpected status 'null' in doUnwrap()"))
+        }
+      }
+
+      @tailrec
+      private def runDelegatedTasks(): Unit = {
+        val task = engine.getDelegatedTask
+        if (task != null) {
+          task.run()
+          runDelegatedTasks()
+        } else lastHandshakeStatus = engine.getHandshakeStatus
+      }
+
+      private def handshakeFinished(): Unit = {
+        val session = engine.getSession
+
+        verifySession(materializer.system, session) match {
+          case Success(()) =>
+            currentSession = session
+            packetBufferSize = session.getPacketBufferSize
+            corkUser = false
+          case Failure(ex) =>
+            fail(ex, closeTransport = true)
+        }
+      }
+
+      private def fail(e: Throwable, closeTransport: Boolean = true): Unit =
+        if (closeTransport) {
+          stopped = true
+          failStage(e)
+          nextPhase(completedPhase)
+        } else {
+          inputsCancelled = true
+          cancel(plainIn)
+          cancel(cipherIn)
+          userOutErrored = true
+          if (!isClosed(plainOut)) fail(plainOut, e)
+        }
+
+      override protected def pumpFailed(e: Throwable): Unit = fail(e)
+
+      override protected def pumpFinished(): Unit =
+        if (!stopped) {
+          stopped = true
+          completeStage()
+        }
+    }
+
+  override def toString: String = s"TlsGraphStage($closing)"
+}
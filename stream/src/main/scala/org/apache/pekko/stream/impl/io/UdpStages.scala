@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.impl.io
+
+import java.io.IOException
+import java.net.InetSocketAddress
+
+import scala.collection.immutable
+import scala.concurrent.{ Future, Promise }
+
+import org.apache.pekko
+import pekko.Done
+import pekko.actor.{ ActorRef, PoisonPill, Terminated }
+import pekko.annotation.InternalApi
+import pekko.io.Inet.SocketOption
+import pekko.io.Udp
+import pekko.io.Udp._
+import pekko.stream._
+import pekko.stream.stage._
+
+/**
+ * INTERNAL API
+ *
+ * Binds a UDP listener that delivers the received datagrams in batches of up to `maxBatchSize` and emits them. It
+ * suspends reading from the socket while `bufferSize` datagrams are buffered and resumes once half of them have been
+ * emitted, so that the datagrams that arrive meanwhile are dropped by the O/S kernel once its receive buffer is full.
+ */
+@InternalApi private[stream] final class UdpBindSource(
+    udpManager: ActorRef,
+    localAddress: InetSocketAddress,
+    options: immutable.Iterable[SocketOption],
+    maxBatchSize: Int,
+    bufferSize: Int)
+    extends GraphStageWithMaterializedValue[SourceShape[Datagram], Future[InetSocketAddress]] {
+  require(maxBatchSize > 0, "maxBatchSize must be > 0")
+  require(bufferSize > 0, "bufferSize must be > 0")
+
+  val out: Outlet[Datagram] = Outlet("UdpBindSource.out")
+  override def initialAttributes: Attributes = Attributes.name("UdpBindSource")
+  override val shape: SourceShape[Datagram] = SourceShape(out)
+
+  override def createLogicAndMaterializedValue(
+      inheritedAttributes: Attributes): (GraphStageLogic, Future[InetSocketAddress]) = {
+    val boundPromise = Promise[InetSocketAddress]()
+
+    val logic = new GraphStageLogic(shape) with OutHandler with StageLogging {
+      implicit def self: ActorRef = stageActor.ref
+
+      private var listener: ActorRef = _
+      private val buffer = new java.util.ArrayDeque[Datagram]
+      private var suspended = false
+      private var unbinding = false
+
+      override def preStart(): Unit = {
+        getStageActor(receive)
+        udpManager ! Bind(self, localAddress, options.toList :+ BatchReceive(maxBatchSize))
+      }
+
+      private def receive(evt: (ActorRef, Any)): Unit = evt._2 match {
+        case ReceivedBatch(datagrams) =>
+          datagrams.foreach(buffer.add)
+          if (isAvailable(out)) push(out, buffer.poll())
+          if (!suspended && buffer.size >= bufferSize) {
+            suspended = true
+            listener ! SuspendReading
+          }
+        case Bound(address) =>
+          listener = evt._1
+          stageActor.watch(listener)
+          boundPromise.success(address)
+        case CommandFailed(_: Bind) =>
+          val ex = new BindFailedException {
+            override def getMessage: String = s"Bind to UDP address [$localAddress] failed"
+          }
+          boundPromise.failure(ex)
+          failStage(ex)
+        case Unbound =>
+          completeStage()
+        case Terminated(ref) if ref == listener =>
+          if (unbinding) completeStage()
+          else failStage(new IllegalStateException(s"UDP listener actor for [$localAddress] terminated unexpectedly"))
+        case other =>
+          log.warning("Unexpected message to UdpBindSource: [{}]", other.getClass)
+      }
+
+      override def onPull(): Unit =
+        if (!buffer.isEmpty) {
+          push(out, buffer.poll())
+          if (suspended && buffer.size <= bufferSize / 2) {
+            suspended = false
+            listener ! ResumeReading
+          }
+        }
+
+      override def onDownstreamFinish(cause: Throwable): Unit =
+        if (listener eq null) super.onDownstreamFinish(cause)
+        else if (!unbinding) {
+          unbinding = true
+          setKeepGoing(true)
+          listener ! Unbind
+        }
+
+      override def postStop(): Unit =
+        boundPromise.tryFailure(new AbruptStageTerminationException(this))
+
+      setHandler(out, this)
+    }
+
+    (logic, boundPromise.future)
+  }
+}
+
+/**
+ * INTERNAL API
+ *
+ * Sends the datagrams it consumes with a UDP "simple sender", in batches of the datagrams that arrived while the
+ * previous batch was sent, up to `maxBatchSize`. It backpressures while a batch is being sent and `maxBatchSize`
+ * datagrams are waiting.
+ */
+@InternalApi private[stream] final class UdpSendSink(
+    udpManager: ActorRef,
+    options: immutable.Iterable[SocketOption],
+    maxBatchSize: Int)
+    extends GraphStageWithMaterializedValue[SinkShape[Datagram], Future[Done]] {
+  import UdpSendSink._
+  require(maxBatchSize > 0, "maxBatchSize must be > 0")
+
+  val in: Inlet[Datagram] = Inlet("UdpSendSink.in")
+  override def initialAttributes: Attributes = Attributes.name("UdpSendSink")
+  override val shape: SinkShape[Datagram] = SinkShape(in)
+
+  override def createLogicAndMaterializedValue(inheritedAttributes: Attributes): (GraphStageLogic, Future[Done]) = {
+    val donePromise = Promise[Done]()
+
+    val logic = new GraphStageLogic(shape) with InHandler with StageLogging {
+      implicit def self: ActorRef = stageActor.ref
+
+      private var sender: ActorRef = _
+      private var batch = Vector.empty[Datagram]
+      private var sending = false
+
+      override def preStart(): Unit = {
+        getStageActor(receive)
+        udpManager ! SimpleSender(options)
+        pull(in)
+      }
+
+      private def receive(evt: (ActorRef, Any)): Unit = evt._2 match {
+        case BatchSent =>
+          sending = false
+          sendBatch()
+        case SimpleSenderReady =>
+          sender = evt._1
+          stageActor.watch(sender)
+          sendBatch()
+        case CommandFailed(failed: SendBatch) =>
+          fail(
+            new IOException(
+              s"Failed to send [${failed.datagrams.size}] UDP datagrams, " +
+              s"the first to [${failed.datagrams.head.remoteAddress}]"))
+        case CommandFailed(_: SimpleSender) =>
+          fail(new IOException("Failed to create a UDP sender"))
+        case Terminated(ref) if ref == sender =>
+          fail(new IllegalStateException("UDP sender actor terminated unexpectedly"))
+        case other =>
+          log.warning("Unexpected message to UdpSendSink: [{}]", other.getClass)
+      }
+
+      override def onPush(): Unit = {
+        batch :+= grab(in)
+        sendBatch()
+        if (batch.size < maxBatchSize && !hasBeenPulled(in)) pull(in)
+      }
+
+      override def onUpstreamFinish(): Unit =
+        if (batch.isEmpty && !sending) completeStage()
+        else setKeepGoing(true)
+
+      override def onUpstreamFailure(ex: Throwable): Unit = fail(ex)
+
+      private def fail(ex: Throwable): Unit = {
+        donePromise.tryFailure(ex)
+        failStage(ex)
+      }
+
+      private def sendBatch(): Unit =
+        if ((sender ne null) && !sending) {
+          if (batch.nonEmpty) {
+            sending = true
+            sender ! SendBatch(batch, BatchSent)
+            batch = Vector.empty
+            if (!isClosed(in) && !hasBeenPulled(in)) pull(in)
+          } else if (isClosed(in)) completeStage()
+        }
+
+      override def postStop(): Unit = {
+        if (sender ne null) sender ! PoisonPill
+        if (isClosed(in) && batch.isEmpty && !sending) donePromise.trySuccess(Done)
+        else donePromise.tryFailure(new AbruptStageTerminationException(this))
+      }
+
+      setHandler(in, this)
+    }
+
+    (logic, donePromise.future)
+  }
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi private[stream] object UdpSendSink {
+  private case object BatchSent extends Udp.Event
+}
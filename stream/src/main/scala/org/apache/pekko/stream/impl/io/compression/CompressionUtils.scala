@@ -13,10 +13,12 @@
 
 package org.apache.pekko.stream.impl.io.compression
 
+import scala.concurrent.Future
+
 import org.apache.pekko
 import pekko.NotUsed
 import pekko.annotation.InternalApi
-import pekko.stream.Attributes
+import pekko.stream.{ ActorAttributes, Attributes }
 import pekko.stream.impl.fusing.GraphStages.SimpleLinearGraphStage
 import pekko.stream.scaladsl.Flow
 import pekko.stream.stage.{ GraphStageLogic, InHandler, OutHandler }
@@ -55,4 +57,69 @@ import pekko.util.ByteString
           }
       }
     }
+
+  /**
+   * Creates a flow that splits the stream into blocks of `blockSize` bytes and compresses up to `parallelism` of
+   * them at the same time on the dispatcher of the flow. Each block is compressed and finished with a fresh
+   * compressor, so the compressor must produce a format where finished outputs can be concatenated, like gzip.
+   */
+  def parallelCompressorFlow(
+      blockSize: Int,
+      parallelism: Int,
+      newCompressor: () => Compressor): Flow[ByteString, ByteString, NotUsed] = {
+    require(blockSize > 0, "blockSize must be > 0")
+    require(parallelism > 0, "parallelism must be > 0")
+    Flow
+      .fromMaterializer { (mat, attributes) =>
+        val dispatcher = attributes.mandatoryAttribute[ActorAttributes.Dispatcher].dispatcher
+        val ec = mat.system.dispatchers.lookup(dispatcher)
+        Flow[ByteString]
+          .via(new BlockChunker(blockSize))
+          .mapAsync(parallelism) { block =>
+            Future {
+              val compressor = newCompressor()
+              try compressor.compressAndFinish(block)
+              finally compressor.close()
+            }(ec)
+          }
+      }
+      .mapMaterializedValue(_ => NotUsed)
+  }
+
+  /**
+   * Emits the incoming bytes in blocks of exactly `blockSize` bytes, except for the last one. Emits a single empty
+   * block for an empty stream so that the compressed stream is never empty.
+   */
+  private final class BlockChunker(blockSize: Int) extends SimpleLinearGraphStage[ByteString] {
+    override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
+      new GraphStageLogic(shape) with InHandler with OutHandler {
+        private var buffer = ByteString.empty
+        private var emitted = false
+
+        override def onPush(): Unit = {
+          buffer ++= grab(in)
+          if (buffer.length >= blockSize) pushBlock()
+          else pull(in)
+        }
+
+        override def onPull(): Unit =
+          if (buffer.length >= blockSize) pushBlock()
+          else pull(in)
+
+        override def onUpstreamFinish(): Unit = {
+          if (buffer.nonEmpty) emitMultiple(out, buffer.grouped(blockSize))
+          else if (!emitted) emit(out, ByteString.empty)
+          completeStage()
+        }
+
+        private def pushBlock(): Unit = {
+          val (block, rest) = buffer.splitAt(blockSize)
+          buffer = rest
+          emitted = true
+          push(out, block)
+        }
+
+        setHandlers(in, out, this)
+      }
+  }
 }
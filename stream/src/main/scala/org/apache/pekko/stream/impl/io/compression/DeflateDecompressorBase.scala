@@ -15,6 +15,8 @@ package org.apache.pekko.stream.impl.io.compression
 
 import java.util.zip.Inflater
 
+import scala.annotation.tailrec
+
 import org.apache.pekko
 import pekko.annotation.InternalApi
 import pekko.stream.impl.io.ByteStringParser
@@ -42,11 +44,7 @@ import pekko.util.ByteString
     abstract class Inflate(noPostProcessing: Boolean) extends ParseStep[ByteString] {
       override def canWorkWithPartialData = true
       override def parse(reader: ByteStringParser.ByteReader): ParseResult[ByteString] = {
-        inflater.setInput(reader.remainingData.toArrayUnsafe())
-
-        val read = inflater.inflate(buffer)
-
-        reader.skip(reader.remainingSize - inflater.getRemaining)
+        val read = inflate(reader)
 
         if (read > 0) {
           afterBytesRead(buffer, 0, read)
@@ -57,6 +55,23 @@ import pekko.util.ByteString
           else throw ByteStringParser.NeedMoreData
         }
       }
+
+      /**
+       * The inflater keeps the unconsumed part of its input between calls, and that part is always the head of the
+       * reader, so new input is only handed over once it has run out. Input is passed in windows of at most
+       * `maxBytesPerChunk` bytes so that a large buffer containing many (gzip) members isn't copied for every call.
+       */
+      @tailrec private def inflate(reader: ByteStringParser.ByteReader): Int = {
+        if (inflater.needsInput())
+          inflater.setInput(reader.remainingData.take(maxBytesPerChunk).toArrayUnsafe())
+
+        val remainingBefore = inflater.getRemaining
+        val read = inflater.inflate(buffer)
+        reader.skip(remainingBefore - inflater.getRemaining)
+
+        if (read == 0 && !inflater.finished() && inflater.needsInput() && reader.hasRemaining) inflate(reader)
+        else read
+      }
     }
 
     override def postStop(): Unit = inflater.end()
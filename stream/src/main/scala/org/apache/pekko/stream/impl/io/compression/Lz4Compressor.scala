@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.impl.io.compression
+
+import java.nio.ByteOrder
+
+import net.jpountz.lz4.{ LZ4Compressor, LZ4Factory }
+import net.jpountz.xxhash.XXHashFactory
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.util.{ ByteString, ByteStringBuilder }
+
+/**
+ * INTERNAL API
+ *
+ * Writes the LZ4 frame format (https://github.com/lz4/lz4/blob/dev/doc/lz4_Frame_format.md) with independent
+ * blocks of at most [[Lz4Compressor.BlockSize]] bytes and a content checksum.
+ */
+@InternalApi private[pekko] class Lz4Compressor(level: Int = 0) extends Compressor {
+  import Lz4Compressor._
+
+  private val compressor: LZ4Compressor =
+    if (level <= 0) LZ4Factory.fastestInstance().fastCompressor()
+    else LZ4Factory.fastestInstance().highCompressor(level)
+  private val contentChecksum = XXHashFactory.fastestInstance().newStreamingHash32(0)
+  private val block = new Array[Byte](BlockSize)
+  private val compressed = new Array[Byte](compressor.maxCompressedLength(BlockSize))
+  private var blockLength = 0
+  private var headerSent = false
+  private var closed = false
+
+  override def compress(input: ByteString): ByteString = {
+    val result = new ByteStringBuilder
+    header(result)
+    var remaining = input
+    while (remaining.nonEmpty) {
+      val copied = math.min(remaining.length, BlockSize - blockLength)
+      remaining.copyToArray(block, blockLength, copied)
+      blockLength += copied
+      remaining = remaining.drop(copied)
+      if (blockLength == BlockSize) writeBlock(result)
+    }
+    result.result()
+  }
+
+  override def flush(): ByteString = {
+    val result = new ByteStringBuilder
+    header(result)
+    writeBlock(result)
+    result.result()
+  }
+
+  override def finish(): ByteString = {
+    val result = new ByteStringBuilder
+    header(result)
+    writeBlock(result)
+    result.putInt(0)(ByteOrder.LITTLE_ENDIAN) // end mark
+    result.putInt(contentChecksum.getValue)(ByteOrder.LITTLE_ENDIAN)
+    close()
+    result.result()
+  }
+
+  override def compressAndFlush(input: ByteString): ByteString = compress(input) ++ flush()
+  override def compressAndFinish(input: ByteString): ByteString = compress(input) ++ finish()
+
+  override def close(): Unit =
+    if (!closed) {
+      closed = true
+      contentChecksum.close()
+    }
+
+  private def header(result: ByteStringBuilder): Unit =
+    if (!headerSent) {
+      headerSent = true
+      result.putInt(Magic)(ByteOrder.LITTLE_ENDIAN)
+      result ++= FrameDescriptor
+    }
+
+  private def writeBlock(result: ByteStringBuilder): Unit =
+    if (blockLength > 0) {
+      contentChecksum.update(block, 0, blockLength)
+      val compressedLength = compressor.compress(block, 0, blockLength, compressed, 0, compressed.length)
+      if (compressedLength < blockLength) {
+        result.putInt(compressedLength)(ByteOrder.LITTLE_ENDIAN)
+        result.putBytes(compressed, 0, compressedLength)
+      } else {
+        // incompressible data is stored as is
+        result.putInt(blockLength | UncompressedBlockFlag)(ByteOrder.LITTLE_ENDIAN)
+        result.putBytes(block, 0, blockLength)
+      }
+      blockLength = 0
+    }
+}
+
+/** INTERNAL API */
+@InternalApi private[pekko] object Lz4Compressor {
+  val Magic = 0x184D2204
+  val UncompressedBlockFlag = 0x80000000
+  val BlockSize: Int = 64 * 1024
+
+  // FLG: version 01, independent blocks, content checksum. BD: 64 KiB maximum block size.
+  private val Flags: Byte = 0x64
+  private val BlockDescriptor: Byte = 0x40
+  private val FrameDescriptor: ByteString = {
+    val descriptor = Array[Byte](Flags, BlockDescriptor)
+    val headerChecksum = (XXHashFactory.fastestInstance().hash32().hash(descriptor, 0, 2, 0) >> 8) & 0xFF
+    ByteString(Flags, BlockDescriptor, headerChecksum.toByte)
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.impl.io.compression
+
+import java.io.IOException
+import java.nio.ByteOrder
+
+import net.jpountz.lz4.LZ4Factory
+import net.jpountz.xxhash.XXHashFactory
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.stream.Attributes
+import pekko.stream.impl.io.ByteStringParser
+import pekko.stream.impl.io.ByteStringParser.{ ParseResult, ParseStep }
+import pekko.util.ByteString
+
+/**
+ * INTERNAL API
+ *
+ * Reads the LZ4 frame format (https://github.com/lz4/lz4/blob/dev/doc/lz4_Frame_format.md). Like the reference
+ * Java implementation it only supports independent blocks and frames without a dictionary. Skippable frames are
+ * skipped.
+ */
+@InternalApi private[pekko] class Lz4Decompressor(maxBytesPerChunk: Int) extends ByteStringParser[ByteString] {
+  import Lz4Decompressor._
+
+  override def createLogic(attr: Attributes) = new ParsingLogic {
+    private val decompressor = LZ4Factory.fastestInstance().safeDecompressor()
+    private val xxHash = XXHashFactory.fastestInstance()
+    private val contentChecksum = xxHash.newStreamingHash32(0)
+
+    private var blockChecksum = false
+    private var hasContentChecksum = false
+    private var block: Array[Byte] = Array.emptyByteArray
+    // the current block is decoded into `block` and emitted in chunks before it is consumed from the input
+    private var decodedLength = -1
+    private var emitted = 0
+
+    trait Step extends ParseStep[ByteString] {
+      override def onTruncation(): Unit = failStage(new IOException("Truncated LZ4 stream"))
+    }
+
+    startWith(ReadFrameHeader)
+
+    case object ReadFrameHeader extends Step {
+      override def parse(reader: ByteStringParser.ByteReader): ParseResult[ByteString] = {
+        val magic = reader.readIntLE()
+        if ((magic & SkippableMagicMask) == SkippableMagic) {
+          reader.skip(reader.readIntLE())
+          ParseResult(None, ReadFrameHeader, acceptUpstreamFinish = true)
+        } else {
+          if (magic != Lz4Compressor.Magic) fail("Not in LZ4 frame format")
+          val flags = reader.readByte()
+          val blockDescriptor = reader.readByte()
+          if ((flags >> 6) != 1) fail("Unsupported LZ4 frame version")
+          if ((flags & 0x20) == 0) fail("Linked LZ4 blocks are not supported")
+          if ((flags & 0x01) != 0) fail("LZ4 frames with a dictionary are not supported")
+          blockChecksum = (flags & 0x10) != 0
+          hasContentChecksum = (flags & 0x04) != 0
+          if ((flags & 0x08) != 0) reader.skip(8) // content size
+          val descriptor = reader.fromStartToHere.drop(4).toArrayUnsafe()
+          val headerChecksum = (xxHash.hash32().hash(descriptor, 0, descriptor.length, 0) >> 8) & 0xFF
+          if (reader.readByte() != headerChecksum) fail("Corrupt LZ4 frame descriptor")
+
+          val blockMaxSize = 1 << (2 * ((blockDescriptor >> 4) & 0x07) + 8)
+          if (blockMaxSize < MinBlockMaxSize) fail("Invalid LZ4 block maximum size")
+          if (block.length != blockMaxSize) block = new Array[Byte](blockMaxSize)
+          contentChecksum.reset()
+          ParseResult(None, ReadBlock, acceptUpstreamFinish = false)
+        }
+      }
+    }
+
+    case object ReadBlock extends Step {
+      override def parse(reader: ByteStringParser.ByteReader): ParseResult[ByteString] = {
+        // peek at the block, it is only consumed after all of it has been emitted
+        val data = reader.remainingData
+        if (data.length < 4) throw ByteStringParser.NeedMoreData
+        val size = data.iterator.getInt(LittleEndian)
+        if (size == 0) {
+          reader.skip(4)
+          if (hasContentChecksum && reader.readIntLE() != contentChecksum.getValue)
+            fail("Corrupt data (LZ4 content checksum error)")
+          ParseResult(None, ReadFrameHeader, acceptUpstreamFinish = true)
+        } else {
+          val length = size & 0x7FFFFFFF
+          val total = 4 + length + (if (blockChecksum) 4 else 0)
+          if (length > block.length) fail("LZ4 block exceeds the maximum block size")
+          if (data.length < total) throw ByteStringParser.NeedMoreData
+
+          if (decodedLength < 0) decode(data.slice(4, total), length, uncompressed = (size & 0x80000000) != 0)
+
+          val chunkLength = math.min(maxBytesPerChunk, decodedLength - emitted)
+          val chunk = ByteString.fromArray(block, emitted, chunkLength)
+          emitted += chunkLength
+          if (emitted == decodedLength) {
+            reader.skip(total)
+            decodedLength = -1
+            emitted = 0
+          }
+          ParseResult(Some(chunk), ReadBlock, acceptUpstreamFinish = false)
+        }
+      }
+
+      private def decode(blockData: ByteString, length: Int, uncompressed: Boolean): Unit = {
+        val bytes = blockData.toArrayUnsafe()
+        if (blockChecksum) {
+          val expected = blockData.drop(length).iterator.getInt(LittleEndian)
+          if (xxHash.hash32().hash(bytes, 0, length, 0) != expected) fail("Corrupt data (LZ4 block checksum error)")
+        }
+        decodedLength =
+          if (uncompressed) {
+            System.arraycopy(bytes, 0, block, 0, length)
+            length
+          } else decompressor.decompress(bytes, 0, length, block, 0, block.length)
+        contentChecksum.update(block, 0, decodedLength)
+      }
+    }
+
+    private def fail(msg: String) = throw new IOException(msg)
+
+    override def postStop(): Unit = contentChecksum.close()
+  }
+}
+
+/** INTERNAL API */
+@InternalApi private[pekko] object Lz4Decompressor {
+  private val SkippableMagic = 0x184D2A50
+  private val SkippableMagicMask = 0xFFFFFFF0
+  private val MinBlockMaxSize = 64 * 1024
+  private val LittleEndian = ByteOrder.LITTLE_ENDIAN
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.impl.io.compression
+
+import java.nio.ByteBuffer
+
+import scala.annotation.tailrec
+
+import com.github.luben.zstd.{ EndDirective, Zstd, ZstdCompressCtx }
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.util.{ ByteString, ByteStringBuilder }
+
+/** INTERNAL API */
+@InternalApi private[pekko] class ZstdCompressor(
+    level: Int = ZstdCompressor.DefaultLevel,
+    dictionary: ByteString = ByteString.empty)
+    extends Compressor {
+  import ZstdCompressor._
+
+  private val ctx = {
+    val ctx = new ZstdCompressCtx
+    ctx.setLevel(level)
+    ctx.setChecksum(true)
+    if (dictionary.nonEmpty) ctx.loadDict(dictionary.toArrayUnsafe())
+    ctx
+  }
+  // zstd-jni only streams from and to direct buffers
+  private val source = ByteBuffer.allocateDirect(InputBufferSize)
+  private val target = ByteBuffer.allocateDirect(Zstd.compressBound(InputBufferSize).toInt)
+  private var closed = false
+
+  override def compress(input: ByteString): ByteString = compressWith(input, EndDirective.CONTINUE)
+  override def flush(): ByteString = compressWith(ByteString.empty, EndDirective.FLUSH)
+  override def finish(): ByteString = compressAndFinish(ByteString.empty)
+  override def compressAndFlush(input: ByteString): ByteString = compressWith(input, EndDirective.FLUSH)
+  override def compressAndFinish(input: ByteString): ByteString =
+    try compressWith(input, EndDirective.END)
+    finally close()
+
+  override def close(): Unit =
+    if (!closed) {
+      closed = true
+      ctx.close()
+    }
+
+  private def compressWith(input: ByteString, directive: EndDirective): ByteString = {
+    val result = new ByteStringBuilder
+    @tailrec def feed(remaining: ByteString): Unit = {
+      val (slice, rest) = remaining.splitAt(source.capacity)
+      source.clear()
+      slice.copyToBuffer(source)
+      source.flip()
+      drain(if (rest.isEmpty) directive else EndDirective.CONTINUE, result)
+      if (rest.nonEmpty) feed(rest)
+    }
+    feed(input)
+    result.result()
+  }
+
+  @tailrec private def drain(directive: EndDirective, result: ByteStringBuilder): Unit = {
+    target.clear()
+    val done = ctx.compressDirectByteBufferStream(target, source, directive)
+    target.flip()
+    if (target.hasRemaining) result ++= ByteString.fromByteBuffer(target)
+    if (source.hasRemaining || (directive != EndDirective.CONTINUE && !done)) drain(directive, result)
+  }
+}
+
+/** INTERNAL API */
+@InternalApi private[pekko] object ZstdCompressor {
+  val DefaultLevel = 3
+  val InputBufferSize: Int = 128 * 1024
+}
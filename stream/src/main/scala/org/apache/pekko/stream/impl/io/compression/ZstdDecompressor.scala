@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.impl.io.compression
+
+import java.io.IOException
+import java.nio.ByteBuffer
+
+import scala.annotation.tailrec
+
+import com.github.luben.zstd.ZstdDecompressCtx
+
+import org.apache.pekko
+import pekko.annotation.InternalApi
+import pekko.stream.Attributes
+import pekko.stream.impl.fusing.GraphStages.SimpleLinearGraphStage
+import pekko.stream.stage.{ GraphStageLogic, InHandler, OutHandler }
+import pekko.util.ByteString
+
+/**
+ * INTERNAL API
+ *
+ * Not a [[pekko.stream.impl.io.ByteStringParser]] like the gzip and deflate decompressors: zstd takes over
+ * input into its own buffers, so there may be output left to drain when all input has been consumed.
+ */
+@InternalApi private[pekko] class ZstdDecompressor(maxBytesPerChunk: Int, dictionary: ByteString = ByteString.empty)
+    extends SimpleLinearGraphStage[ByteString] {
+
+  override def initialAttributes: Attributes = Attributes.name("zstdDecompress")
+
+  override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
+    new GraphStageLogic(shape) with InHandler with OutHandler {
+      private val ctx = {
+        val ctx = new ZstdDecompressCtx
+        if (dictionary.nonEmpty) ctx.loadDict(dictionary.toArrayUnsafe())
+        ctx
+      }
+      private val source = ByteBuffer.allocateDirect(maxBytesPerChunk)
+      private val target = ByteBuffer.allocateDirect(maxBytesPerChunk)
+      // input that didn't fit into `source` yet
+      private var pending = ByteString.empty
+      private var frameDone = true
+      // the last call filled `target` completely, so zstd may have more output without further input
+      private var targetFull = false
+
+      source.flip()
+
+      override def onPush(): Unit = {
+        pending ++= grab(in)
+        decompress()
+      }
+
+      override def onPull(): Unit = decompress()
+
+      override def onUpstreamFinish(): Unit =
+        if (!hasInput) finish()
+        else if (isAvailable(out)) decompress()
+
+      @tailrec private def decompress(): Unit = {
+        if (!source.hasRemaining && pending.nonEmpty) {
+          source.clear()
+          pending = pending.drop(pending.copyToBuffer(source))
+          source.flip()
+        }
+        if (!source.hasRemaining && !targetFull) {
+          if (isClosed(in)) finish()
+          else pull(in)
+        } else {
+          val remainingBefore = source.remaining
+          frameDone = ctx.decompressDirectByteBufferStream(target, source)
+          targetFull = !target.hasRemaining
+          if (target.position() > 0) {
+            target.flip()
+            val chunk = ByteString.fromByteBuffer(target)
+            target.clear()
+            push(out, chunk)
+            if (isClosed(in) && !hasInput) finish()
+          } else if (source.remaining < remainingBefore || !source.hasRemaining) decompress()
+          else failStage(new IOException("ZSTD decompression made no progress"))
+        }
+      }
+
+      private def hasInput: Boolean = source.hasRemaining || pending.nonEmpty || targetFull
+
+      private def finish(): Unit =
+        if (frameDone) completeStage()
+        else failStage(new IOException("Truncated ZSTD stream"))
+
+      override def postStop(): Unit = ctx.close()
+
+      setHandlers(in, out, this)
+    }
+}
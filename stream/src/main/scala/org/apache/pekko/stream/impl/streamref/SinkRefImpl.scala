@@ -16,6 +16,7 @@ package org.apache.pekko.stream.impl.streamref
 import scala.util.{ Failure, Success, Try }
 
 import scala.annotation.nowarn
+import scala.concurrent.duration.Duration
 
 import org.apache.pekko
 import pekko.Done
@@ -26,7 +27,7 @@ import pekko.event.Logging
 import pekko.stream._
 import pekko.stream.scaladsl.Sink
 import pekko.stream.stage._
-import pekko.util.{ OptionVal, PrettyDuration }
+import pekko.util.{ ByteString, OptionVal, PrettyDuration }
 
 /** INTERNAL API: Implementation class, not intended to be touched directly by end-users */
 @InternalApi
@@ -40,6 +41,34 @@ private[stream] final case class SinkRefImpl[In](initialPartnerRef: ActorRef) ex
  */
 @InternalApi private[stream] object SinkRefStageImpl {
   private sealed trait ActorRefStage { def ref: ActorRef }
+
+  private val FlushBatchTimerKey = "FlushBatchTimerKey"
+
+  /** Size counted towards the `maxBytes` of a batch, only for the types where it is cheap to know */
+  private def elementBytes(elem: Any): Int = elem match {
+    case bytes: ByteString => bytes.length
+    case string: String    => utf8Length(string)
+    case _                 => 0
+  }
+
+  /** The number of bytes of the UTF-8 encoding of `string`, which the String serializer uses */
+  private def utf8Length(string: String): Int = {
+    var bytes = 0
+    var i = 0
+    while (i < string.length) {
+      val c = string.charAt(i)
+      if (c < 0x80) bytes += 1
+      else if (c < 0x800) bytes += 2
+      else if (Character.isHighSurrogate(c) && i + 1 < string.length &&
+        Character.isLowSurrogate(string.charAt(i + 1))) {
+        // a surrogate pair is one code point of four bytes
+        bytes += 4
+        i += 1
+      } else bytes += 3
+      i += 1
+    }
+    bytes
+  }
 }
 
 /**
@@ -51,7 +80,7 @@ private[stream] final case class SinkRefImpl[In](initialPartnerRef: ActorRef) ex
 @InternalApi
 private[stream] final class SinkRefStageImpl[In] private[pekko] (val initialPartnerRef: OptionVal[ActorRef])
     extends GraphStageWithMaterializedValue[SinkShape[In], SourceRef[In]] {
-  import SinkRefStageImpl.ActorRefStage
+  import SinkRefStageImpl._
 
   val in: Inlet[In] = Inlet[In](s"${Logging.simpleName(getClass)}($initialRefName).in")
   override def shape: SinkShape[In] = SinkShape.of(in)
@@ -82,6 +111,8 @@ private[stream] final class SinkRefStageImpl[In] private[pekko] (val initialPart
         inheritedAttributes.get[StreamRefAttributes.SubscriptionTimeout](
           SubscriptionTimeout(settings.subscriptionTimeout))
       }
+      private[this] val batching =
+        inheritedAttributes.get[StreamRefAttributes.Batching](streamRefsMaster.defaultBatching)
       // end of settings ---
 
       override protected val stageActorName: String = streamRefsMaster.nextSinkRefStageName()
@@ -104,6 +135,14 @@ private[stream] final class SinkRefStageImpl[In] private[pekko] (val initialPart
       private var remoteCumulativeDemandConsumed: Long = 0L
       // end of demand management ---
 
+      // batching, only used once the partner has sent BatchingSupported ---
+      private var partnerAcceptsBatches = false
+      private val batch = Vector.newBuilder[In]
+      private var batchSeqNr: Long = 0L
+      private var batchCount: Int = 0
+      private var batchBytes: Int = 0
+      // end of batching ---
+
       private var completedBeforeRemoteConnected: OptionVal[Try[Done]] = OptionVal.None
 
       // When this side of the stream has completed/failed, and we await the Terminated() signal back from the partner
@@ -174,6 +213,11 @@ private[stream] final class SinkRefStageImpl[In] private[pekko] (val initialPart
 
           tryPull()
 
+        case (sender, StreamRefsProtocol.BatchingSupported) =>
+          observeAndValidateSender(sender, "Illegal sender for BatchingSupported")
+          partnerAcceptsBatches = batching.maxElements > 1 && batching.maxDelay > Duration.Zero
+          log.debug("[{}] Partner accepts batches, batching enabled: [{}]", stageActorName, partnerAcceptsBatches)
+
         case (sender, StreamRefsProtocol.RemoteStreamCompleted(_)) =>
           // unless we already sent a completed/failed downstream and are awaiting Terminated as ack for that
           if (finishedWithAwaitingPartnerTermination.isEmpty) {
@@ -199,12 +243,42 @@ private[stream] final class SinkRefStageImpl[In] private[pekko] (val initialPart
       }
 
       override def onPush(): Unit = {
-        val elem = grabSequenced(in)
-        getPartnerRef ! elem
-        log.debug("[{}] Sending sequenced: {} to {}", stageActorName, elem, getPartnerRef)
+        if (partnerAcceptsBatches) addToBatch(grab(in))
+        else {
+          val elem = grabSequenced(in)
+          getPartnerRef ! elem
+          log.debug("[{}] Sending sequenced: {} to {}", stageActorName, elem, getPartnerRef)
+        }
         tryPull()
       }
 
+      private def addToBatch(elem: In): Unit = {
+        if (batchCount == 0) batchSeqNr = remoteCumulativeDemandConsumed
+        remoteCumulativeDemandConsumed += 1
+        batch += elem
+        batchCount += 1
+        batchBytes += elementBytes(elem)
+        // no point in waiting for more elements when the partner has not demanded them yet
+        if (batchCount >= batching.maxElements || batchBytes >= batching.maxBytes ||
+          remoteCumulativeDemandConsumed == remoteCumulativeDemandReceived)
+          flushBatch()
+        else if (batchCount == 1) scheduleOnce(FlushBatchTimerKey, batching.maxDelay)
+      }
+
+      private def flushBatch(): Unit =
+        if (batchCount > 0) {
+          cancelTimer(FlushBatchTimerKey)
+          val elems = batch.result()
+          val msg =
+            if (batchCount == 1) StreamRefsProtocol.SequencedOnNext(batchSeqNr, elems.head)
+            else StreamRefsProtocol.SequencedOnNextBatch(batchSeqNr, elems)
+          getPartnerRef ! msg
+          log.debug("[{}] Sending {} elements from seqNr {} to {}", stageActorName, batchCount, batchSeqNr, getPartnerRef)
+          batch.clear()
+          batchCount = 0
+          batchBytes = 0
+        }
+
       private def tryPull(): Unit =
         if (remoteCumulativeDemandConsumed < remoteCumulativeDemandReceived && !hasBeenPulled(in) && !isClosed(in)) {
           pull(in)
@@ -220,6 +294,9 @@ private[stream] final class SinkRefStageImpl[In] private[pekko] (val initialPart
 
           throw ex
 
+        case FlushBatchTimerKey =>
+          flushBatch()
+
         case other => throw new IllegalArgumentException(s"Unknown timer key: $other")
       }
 
@@ -233,6 +310,7 @@ private[stream] final class SinkRefStageImpl[In] private[pekko] (val initialPart
         log.debug("[{}] Upstream failure, partnerRef [{}]", stageActorName, partnerRef)
         partnerRef match {
           case OptionVal.Some(ref) =>
+            flushBatch()
             ref ! StreamRefsProtocol.RemoteStreamFailure(ex.getMessage)
             finishedWithAwaitingPartnerTermination = OptionVal(Failure(ex))
             setKeepGoing(true) // we will terminate once partner ref has Terminated (to avoid racing Terminated with completion message)
@@ -249,6 +327,7 @@ private[stream] final class SinkRefStageImpl[In] private[pekko] (val initialPart
         log.debug("[{}] Upstream finish, partnerRef [{}]", stageActorName, partnerRef)
         partnerRef match {
           case OptionVal.Some(ref) =>
+            flushBatch()
             ref ! StreamRefsProtocol.RemoteStreamCompleted(remoteCumulativeDemandConsumed)
             finishedWithAwaitingPartnerTermination = OptionVal(Success(Done))
             setKeepGoing(true) // we will terminate once partner ref has Terminated (to avoid racing Terminated with completion message)
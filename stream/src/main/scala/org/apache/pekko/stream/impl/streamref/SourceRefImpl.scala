@@ -157,6 +157,9 @@ private[stream] final class SourceRefStageImpl[Out](val initialPartnerRef: Optio
           .get[StreamRefAttributes.FinalTerminationSignalDeadline](
             FinalTerminationSignalDeadline(settings.finalTerminationSignalDeadline))
           .timeout
+
+      private[this] val batchingEnabled =
+        inheritedAttributes.get[StreamRefAttributes.Batching](streamRefsMaster.defaultBatching).maxElements > 1
       // end of settings ---
 
       override protected val stageActorName: String = streamRefsMaster.nextSourceRefStageName()
@@ -179,6 +182,7 @@ private[stream] final class SourceRefStageImpl[Out](val initialPartnerRef: Optio
       private var expectingSeqNr: Long = 0L
       private var localCumulativeDemand: Long = 0L
       private var localRemainingRequested: Int = 0
+      private var batchingAnnounced = false
 
       private val receiveBuffer = FixedSizeBuffer[Out](bufferCapacity)
 
@@ -232,44 +236,13 @@ private[stream] final class SourceRefStageImpl[Out](val initialPartnerRef: Optio
               throw new IllegalStateException(s"[$stageActorName] Got unexpected $msg in state $other")
           }
 
-        case (sender, msg @ StreamRefsProtocol.SequencedOnNext(seqNr, payload: Out @unchecked)) =>
+        case (sender, msg @ StreamRefsProtocol.SequencedOnNext(seqNr, _)) =>
           observeAndValidateSequenceNr(seqNr, "Illegal sequence nr in SequencedOnNext")
-          state match {
-            case AwaitingSubscription(partner) =>
-              verifyPartner(sender, partner)
-
-              log.debug("[{}] Received seq {} from {}", stageActorName, msg, sender)
-              state = Running(partner)
-              onReceiveElement(payload)
-              triggerCumulativeDemand()
+          onReceiveElements(sender, msg)
 
-            case Running(partner) =>
-              verifyPartner(sender, partner)
-              onReceiveElement(payload)
-              triggerCumulativeDemand()
-
-            case AwaitingPartner =>
-              throw new IllegalStateException(s"[$stageActorName] Got $msg from $sender while AwaitingPartner")
-
-            case WaitingForCancelAck(partner, _) =>
-              // awaiting cancellation ack from remote
-              verifyPartner(sender, partner)
-              log.warning(
-                "[{}] Got element from remote but downstream cancelled, dropping element of type {}",
-                stageActorName,
-                payload.getClass)
-
-            case UpstreamCompleted(partner) =>
-              verifyPartner(sender, partner)
-              throw new IllegalStateException(
-                s"[$stageActorName] Got completion and then received more elements from $sender, this is not supposed to happen.")
-
-            case UpstreamTerminated(partner) =>
-              verifyPartner(sender, partner)
-              log.debug("[{}] Received element after partner terminated")
-              onReceiveElement(payload)
-
-          }
+        case (sender, msg @ StreamRefsProtocol.SequencedOnNextBatch(seqNr, payloads)) =>
+          observeAndValidateSequenceNr(seqNr, payloads.size, "Illegal sequence nr in SequencedOnNextBatch")
+          onReceiveElements(sender, msg)
 
         case (sender, StreamRefsProtocol.RemoteStreamCompleted(seqNr)) =>
           observeAndValidateSequenceNr(seqNr, "Illegal sequence nr in RemoteSinkCompleted")
@@ -346,6 +319,62 @@ private[stream] final class SourceRefStageImpl[Out](val initialPartnerRef: Optio
           throw new IllegalStateException(s"[$stageActorName] Unexpected message in state $state: $msg from $sender")
       }
 
+      private def onReceiveElements(sender: ActorRef, msg: StreamRefsProtocol): Unit =
+        state match {
+          case AwaitingSubscription(partner) =>
+            verifyPartner(sender, partner)
+
+            log.debug("[{}] Received seq {} from {}", stageActorName, msg, sender)
+            state = Running(partner)
+            enqueueElements(msg)
+            triggerCumulativeDemand()
+
+          case Running(partner) =>
+            verifyPartner(sender, partner)
+            enqueueElements(msg)
+            triggerCumulativeDemand()
+
+          case AwaitingPartner =>
+            throw new IllegalStateException(s"[$stageActorName] Got $msg from $sender while AwaitingPartner")
+
+          case WaitingForCancelAck(partner, _) =>
+            // awaiting cancellation ack from remote
+            verifyPartner(sender, partner)
+            msg match {
+              case StreamRefsProtocol.SequencedOnNextBatch(_, payloads) =>
+                log.warning(
+                  "[{}] Got {} elements from remote but downstream cancelled, dropping elements",
+                  stageActorName,
+                  payloads.size)
+              case StreamRefsProtocol.SequencedOnNext(_, payload) =>
+                log.warning(
+                  "[{}] Got element from remote but downstream cancelled, dropping element of type {}",
+                  stageActorName,
+                  payload.getClass)
+              case _ =>
+            }
+
+          case UpstreamCompleted(partner) =>
+            verifyPartner(sender, partner)
+            throw new IllegalStateException(
+              s"[$stageActorName] Got completion and then received more elements from $sender, this is not supposed to happen.")
+
+          case UpstreamTerminated(partner) =>
+            verifyPartner(sender, partner)
+            log.debug("[{}] Received element after partner terminated", stageActorName)
+            enqueueElements(msg)
+        }
+
+      private def enqueueElements(msg: StreamRefsProtocol): Unit =
+        msg match {
+          case StreamRefsProtocol.SequencedOnNext(_, payload: Out @unchecked) =>
+            onReceiveElement(payload)
+          case StreamRefsProtocol.SequencedOnNextBatch(_, payloads) =>
+            payloads.foreach(payload => onReceiveElement(payload.asInstanceOf[Out]))
+          case other =>
+            throw new IllegalArgumentException(s"[$stageActorName] Not an element message: $other")
+        }
+
       override protected def onTimer(timerKey: Any): Unit = timerKey match {
         case SubscriptionTimeoutTimerKey =>
           state match {
@@ -478,6 +507,11 @@ private[stream] final class SourceRefStageImpl[Out](val initialPartnerRef: Optio
           // otherwise it's the same demand level, so it'd be triggered via redelivery anyway
           if (addDemand > 0) {
             def sendDemand(partner: ActorRef): Unit = {
+              if (batchingEnabled && !batchingAnnounced) {
+                // must reach the partner before the first demand, so that it can batch the first elements already
+                partner ! StreamRefsProtocol.BatchingSupported
+                batchingAnnounced = true
+              }
               localCumulativeDemand += addDemand
               localRemainingRequested += addDemand
               val demand = StreamRefsProtocol.CumulativeDemand(localCumulativeDemand)
@@ -538,11 +572,18 @@ private[stream] final class SourceRefStageImpl[Out](val initialPartnerRef: Optio
 
       /** @throws InvalidSequenceNumberException when sequence number is invalid */
       private def observeAndValidateSequenceNr(seqNr: Long, msg: String): Unit =
+        observeAndValidateSequenceNr(seqNr, 1, msg)
+
+      /**
+       * @param count the number of sequence numbers used by the message, starting at `seqNr`
+       * @throws InvalidSequenceNumberException when sequence number is invalid
+       */
+      private def observeAndValidateSequenceNr(seqNr: Long, count: Int, msg: String): Unit =
         if (isInvalidSequenceNr(seqNr)) {
           log.warning("[{}] {}, expected {} but was {}", stageActorName, msg, expectingSeqNr, seqNr)
           throw InvalidSequenceNumberException(expectingSeqNr, seqNr, msg)
         } else {
-          expectingSeqNr += 1
+          expectingSeqNr += count
         }
 
       private def isInvalidSequenceNr(seqNr: Long): Boolean =
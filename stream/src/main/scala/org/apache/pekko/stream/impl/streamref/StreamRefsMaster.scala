@@ -17,14 +17,16 @@ import org.apache.pekko
 import pekko.actor.{ ActorSystem, ExtendedActorSystem, Extension, ExtensionId, ExtensionIdProvider }
 import pekko.actor.ClassicActorSystemProvider
 import pekko.annotation.InternalApi
+import pekko.stream.StreamRefAttributes
 import pekko.stream.impl.SeqActorName
+import pekko.util.JavaDurationConverters._
 
 /** INTERNAL API */
 @InternalApi
 private[stream] object StreamRefsMaster extends ExtensionId[StreamRefsMaster] with ExtensionIdProvider {
 
   override def createExtension(system: ExtendedActorSystem): StreamRefsMaster =
-    new StreamRefsMaster
+    new StreamRefsMaster(system)
 
   override def lookup: StreamRefsMaster.type = this
 
@@ -34,7 +36,16 @@ private[stream] object StreamRefsMaster extends ExtensionId[StreamRefsMaster] wi
 
 /** INTERNAL API */
 @InternalApi
-private[stream] final class StreamRefsMaster extends Extension {
+private[stream] final class StreamRefsMaster(system: ExtendedActorSystem) extends Extension {
+
+  /** Default for the [[StreamRefAttributes.Batching]] attribute, which has no deprecated setting to fall back to */
+  val defaultBatching: StreamRefAttributes.Batching = {
+    val config = system.settings.config.getConfig("pekko.stream.materializer.stream-ref.batching")
+    StreamRefAttributes.Batching(
+      maxElements = config.getInt("max-elements"),
+      maxBytes = math.min(config.getBytes("max-bytes"), Int.MaxValue.toLong).toInt,
+      maxDelay = config.getDuration("max-delay").asScala)
+  }
 
   private[this] val sourceRefStageNames = SeqActorName("SourceRef") // "local target"
   private[this] val sinkRefStageNames = SeqActorName("SinkRef") // "remote sender"
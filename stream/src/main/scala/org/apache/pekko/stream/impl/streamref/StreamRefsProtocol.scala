@@ -13,6 +13,8 @@
 
 package org.apache.pekko.stream.impl.streamref
 
+import scala.collection.immutable
+
 import org.apache.pekko
 import pekko.actor.{ ActorRef, DeadLetterSuppression }
 import pekko.annotation.InternalApi
@@ -40,6 +42,24 @@ private[pekko] object StreamRefsProtocol {
     if (payload == null) throw ReactiveStreamsCompliance.elementMustNotBeNullException
   }
 
+  /**
+   * Several consecutive [[SequencedOnNext]] in one message, the first element has the sequence number `seqNr`.
+   * Only sent to a partner that announced it understands batches with [[BatchingSupported]].
+   */
+  @InternalApi
+  private[pekko] final case class SequencedOnNextBatch[T](seqNr: Long, payloads: immutable.Seq[T])
+      extends StreamRefsProtocol
+      with DeadLetterSuppression {
+    if (payloads.isEmpty) throw new IllegalArgumentException("SequencedOnNextBatch must contain elements")
+  }
+
+  /**
+   * INTERNAL API: Sent by the receiving side before its first demand when it has batching enabled. Versions without
+   * batching support don't send it, so the sending side keeps sending [[SequencedOnNext]] to them.
+   */
+  @InternalApi
+  private[pekko] case object BatchingSupported extends StreamRefsProtocol with DeadLetterSuppression
+
   /**
    * INTERNAL API: Initial message sent to remote side to establish partnership between origin and remote stream refs.
    */
@@ -62,6 +62,31 @@ object Compression {
   def gzip(level: Int): Flow[ByteString, ByteString, NotUsed] =
     scaladsl.Compression.gzip(level).asJava
 
+  /**
+   * Creates a flow that gzip-compresses a stream of ByteStrings using several cores. The stream is split into
+   * blocks which are compressed concurrently, each into its own gzip member. The members are emitted in order,
+   * so the output is a standard multi-member gzip stream which can be read by [[gunzip]] or any other gzip
+   * decompressor.
+   *
+   * Unlike [[gzip]] the output is not flushed per [[ByteString]], a block is only emitted when it is full or when
+   * the upstream completes. The blocks are compressed on the dispatcher of the flow, use
+   * `ActorAttributes.dispatcher` to run them on a dedicated dispatcher.
+   *
+   * @param parallelism Maximum number of blocks compressed at the same time
+   */
+  def gzipParallel(parallelism: Int): Flow[ByteString, ByteString, NotUsed] =
+    scaladsl.Compression.gzipParallel(parallelism).asJava
+
+  /**
+   * Same as [[gzipParallel]] with a custom level and block size.
+   *
+   * @param level Compression level (0-9)
+   * @param blockSize Number of uncompressed bytes compressed into one gzip member
+   * @param parallelism Maximum number of blocks compressed at the same time
+   */
+  def gzipParallel(level: Int, blockSize: Int, parallelism: Int): Flow[ByteString, ByteString, NotUsed] =
+    scaladsl.Compression.gzipParallel(level, blockSize, parallelism).asJava
+
   /**
    * Creates a flow that deflate-compresses a stream of ByteString. Note that the compressor
    * will SYNC_FLUSH after every [[ByteString]] so that it is guaranteed that every [[ByteString]]
@@ -80,4 +105,75 @@ object Compression {
   def deflate(level: Int, nowrap: Boolean): Flow[ByteString, ByteString, NotUsed] =
     scaladsl.Compression.deflate(level, nowrap).asJava
 
+  /**
+   * Creates a flow that zstd-compresses a stream of ByteStrings into a zstd frame with a content checksum. Note that
+   * the compressor will flush after every [[ByteString]] so that it is guaranteed that every [[ByteString]] coming
+   * out of the flow can be fully decompressed without waiting for additional data.
+   *
+   * Requires `com.github.luben:zstd-jni` on the classpath.
+   */
+  def zstd: Flow[ByteString, ByteString, NotUsed] =
+    scaladsl.Compression.zstd.asJava
+
+  /**
+   * Same as [[zstd]] with a custom level.
+   *
+   * @param level Compression level, from negative levels for fast compression up to 22
+   */
+  def zstd(level: Int): Flow[ByteString, ByteString, NotUsed] =
+    scaladsl.Compression.zstd(level).asJava
+
+  /**
+   * Same as [[zstd]] with a custom level and a dictionary. The same dictionary must be passed to
+   * [[zstdDecompress]].
+   *
+   * @param level Compression level, from negative levels for fast compression up to 22
+   * @param dictionary The dictionary, no dictionary is used when empty
+   */
+  def zstd(level: Int, dictionary: ByteString): Flow[ByteString, ByteString, NotUsed] =
+    scaladsl.Compression.zstd(level, dictionary).asJava
+
+  /**
+   * Creates a Flow that decompresses a zstd-compressed stream of data.
+   *
+   * @param maxBytesPerChunk Maximum length of the output [[ByteString]] chunk.
+   */
+  def zstdDecompress(maxBytesPerChunk: Int): Flow[ByteString, ByteString, NotUsed] =
+    scaladsl.Compression.zstdDecompress(maxBytesPerChunk).asJava
+
+  /**
+   * Creates a Flow that decompresses a stream of data that was zstd-compressed with the given dictionary.
+   *
+   * @param maxBytesPerChunk Maximum length of the output [[ByteString]] chunk.
+   * @param dictionary The dictionary the data was compressed with
+   */
+  def zstdDecompress(maxBytesPerChunk: Int, dictionary: ByteString): Flow[ByteString, ByteString, NotUsed] =
+    scaladsl.Compression.zstdDecompress(maxBytesPerChunk, dictionary).asJava
+
+  /**
+   * Creates a flow that compresses a stream of ByteStrings into the LZ4 frame format. Note that the compressor
+   * will end a block after every [[ByteString]] so that it is guaranteed that every [[ByteString]] coming out of
+   * the flow can be fully decompressed without waiting for additional data.
+   *
+   * Requires `org.lz4:lz4-java` on the classpath.
+   */
+  def lz4: Flow[ByteString, ByteString, NotUsed] =
+    scaladsl.Compression.lz4.asJava
+
+  /**
+   * Same as [[lz4]] with a custom level.
+   *
+   * @param level 0 for the fast compressor, 1-17 for the high compression compressor
+   */
+  def lz4(level: Int): Flow[ByteString, ByteString, NotUsed] =
+    scaladsl.Compression.lz4(level).asJava
+
+  /**
+   * Creates a Flow that decompresses a stream of data in the LZ4 frame format.
+   *
+   * @param maxBytesPerChunk Maximum length of the output [[ByteString]] chunk.
+   */
+  def lz4Decompress(maxBytesPerChunk: Int): Flow[ByteString, ByteString, NotUsed] =
+    scaladsl.Compression.lz4Decompress(maxBytesPerChunk).asJava
+
 }
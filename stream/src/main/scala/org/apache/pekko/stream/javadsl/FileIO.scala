@@ -19,7 +19,7 @@ import java.util
 import java.util.concurrent.CompletionStage
 
 import org.apache.pekko
-import pekko.stream.{ javadsl, scaladsl, IOResult }
+import pekko.stream.{ javadsl, scaladsl, FileSyncPolicy, IOResult }
 import pekko.util.ByteString
 import pekko.util.ccompat.JavaConverters._
 import pekko.stream.scaladsl.SinkToCompletionStage
@@ -130,6 +130,135 @@ object FileIO {
       startPosition: Long): javadsl.Sink[ByteString, CompletionStage[IOResult]] =
     new Sink(scaladsl.FileIO.toPath(f, options.asScala.toSet, startPosition).toCompletionStage())
 
+  /**
+   * Creates a Sink that writes incoming [[ByteString]] elements to memory-mapped regions of the given file path,
+   * which avoids a write system call per element. Overwrites existing files by truncating their contents.
+   *
+   * The file is mapped in regions of 64 MiB and the bytes are left to the OS to be written to the storage device.
+   *
+   * Materializes a [[java.util.concurrent.CompletionStage]] of [[IOResult]] that will be completed with the size of the file (in bytes) at the streams completion,
+   * and a possible exception if IO operation was not completed successfully.
+   *
+   * You can configure the default dispatcher for this Source by changing the `pekko.stream.materializer.blocking-io-dispatcher` or
+   * set it for a given Source by using [[pekko.stream.ActorAttributes]].
+   *
+   * @param f The file path to write to
+   */
+  def mmapSink(f: Path): javadsl.Sink[ByteString, CompletionStage[IOResult]] =
+    new Sink(scaladsl.FileIO.mmapSink(f).toCompletionStage())
+
+  /**
+   * Creates a Sink that writes incoming [[ByteString]] elements to memory-mapped regions of the given file path,
+   * which avoids a write system call per element.
+   *
+   * The file is mapped in regions of 64 MiB and the bytes are left to the OS to be written to the storage device.
+   *
+   * Materializes a [[java.util.concurrent.CompletionStage]] of [[IOResult]] that will be completed with the size of the file (in bytes) at the streams completion,
+   * and a possible exception if IO operation was not completed successfully.
+   *
+   * You can configure the default dispatcher for this Source by changing the `pekko.stream.materializer.blocking-io-dispatcher` or
+   * set it for a given Source by using [[pekko.stream.ActorAttributes]].
+   *
+   * @param f The file path to write to
+   * @param options File open options, see [[java.nio.file.StandardOpenOption]], `APPEND` is not supported
+   */
+  def mmapSink[Opt <: OpenOption](
+      f: Path,
+      options: util.Set[Opt]): javadsl.Sink[ByteString, CompletionStage[IOResult]] =
+    new Sink(scaladsl.FileIO.mmapSink(f, options.asScala.toSet).toCompletionStage())
+
+  /**
+   * Creates a Sink that writes incoming [[ByteString]] elements to memory-mapped regions of the given file path,
+   * which avoids a write system call per element.
+   *
+   * Mapping a region extends the file to the end of the region, when the stream stops the file is truncated to
+   * the written bytes unless it was already longer before. On platforms that do not allow truncating a file while
+   * it is mapped, this may fail the materialized value.
+   *
+   * Materializes a [[java.util.concurrent.CompletionStage]] of [[IOResult]] that will be completed with the size of the file (in bytes) at the streams completion,
+   * and a possible exception if IO operation was not completed successfully.
+   *
+   * You can configure the default dispatcher for this Source by changing the `pekko.stream.materializer.blocking-io-dispatcher` or
+   * set it for a given Source by using [[pekko.stream.ActorAttributes]].
+   *
+   * @param f The file path to write to
+   * @param options File open options, see [[java.nio.file.StandardOpenOption]], `APPEND` is not supported
+   * @param regionSize the size of each mapped region
+   * @param syncPolicy when the written bytes are forced to the storage device
+   * @param startPosition the start position to write to
+   */
+  def mmapSink[Opt <: OpenOption](
+      f: Path,
+      options: util.Set[Opt],
+      regionSize: Int,
+      syncPolicy: FileSyncPolicy,
+      startPosition: Long): javadsl.Sink[ByteString, CompletionStage[IOResult]] =
+    new Sink(
+      scaladsl.FileIO.mmapSink(f, options.asScala.toSet, regionSize, syncPolicy, startPosition).toCompletionStage())
+
+  /**
+   * Creates a Sink that writes incoming [[ByteString]] elements to the given file path with an
+   * `AsynchronousFileChannel`, which keeps writing several elements at the same time instead of blocking a thread
+   * for each write. Overwrites existing files by truncating their contents.
+   *
+   * The number of outstanding writes is 4 by default and can be set with [[pekko.stream.Attributes.maxInFlightFileOperations]].
+   * The writes are performed by the JDK, on platforms without asynchronous file I/O on threads of the
+   * `pekko.stream.materializer.blocking-io-dispatcher`, the operator itself runs on the dispatcher of the stream.
+   *
+   * Materializes a [[java.util.concurrent.CompletionStage]] of [[IOResult]] that will be completed with the size of the file (in bytes) at the streams completion,
+   * and a possible exception if IO operation was not completed successfully.
+   *
+   * @param f The file path to write to
+   */
+  def toPathAsync(f: Path): javadsl.Sink[ByteString, CompletionStage[IOResult]] =
+    new Sink(scaladsl.FileIO.toPathAsync(f).toCompletionStage())
+
+  /**
+   * Creates a Sink that writes incoming [[ByteString]] elements to the given file path with an
+   * `AsynchronousFileChannel`, which keeps writing several elements at the same time instead of blocking a thread
+   * for each write.
+   *
+   * The number of outstanding writes is 4 by default and can be set with [[pekko.stream.Attributes.maxInFlightFileOperations]].
+   * The writes are performed by the JDK, on platforms without asynchronous file I/O on threads of the
+   * `pekko.stream.materializer.blocking-io-dispatcher`, the operator itself runs on the dispatcher of the stream.
+   *
+   * Materializes a [[java.util.concurrent.CompletionStage]] of [[IOResult]] that will be completed with the size of the file (in bytes) at the streams completion,
+   * and a possible exception if IO operation was not completed successfully.
+   *
+   * @param f The file path to write to
+   * @param options File open options, see [[java.nio.file.StandardOpenOption]]
+   */
+  def toPathAsync[Opt <: OpenOption](
+      f: Path,
+      options: util.Set[Opt]): javadsl.Sink[ByteString, CompletionStage[IOResult]] =
+    new Sink(scaladsl.FileIO.toPathAsync(f, options.asScala.toSet).toCompletionStage())
+
+  /**
+   * Creates a Sink that writes incoming [[ByteString]] elements to the given file path with an
+   * `AsynchronousFileChannel`, which keeps writing several elements at the same time instead of blocking a thread
+   * for each write. Each element is written at the position following the previous element, so the elements end
+   * up in the file in order even though the writes may complete in any order.
+   *
+   * `APPEND` makes the writes start at the end of the file when the stream starts, other writers appending to the
+   * same file at the same time may overwrite the written bytes.
+   *
+   * The number of outstanding writes is 4 by default and can be set with [[pekko.stream.Attributes.maxInFlightFileOperations]].
+   * The writes are performed by the JDK, on platforms without asynchronous file I/O on threads of the
+   * `pekko.stream.materializer.blocking-io-dispatcher`, the operator itself runs on the dispatcher of the stream.
+   *
+   * Materializes a [[java.util.concurrent.CompletionStage]] of [[IOResult]] that will be completed with the size of the file (in bytes) at the streams completion,
+   * and a possible exception if IO operation was not completed successfully.
+   *
+   * @param f The file path to write to
+   * @param options File open options, see [[java.nio.file.StandardOpenOption]]
+   * @param startPosition the start position to write to
+   */
+  def toPathAsync[Opt <: OpenOption](
+      f: Path,
+      options: util.Set[Opt],
+      startPosition: Long): javadsl.Sink[ByteString, CompletionStage[IOResult]] =
+    new Sink(scaladsl.FileIO.toPathAsync(f, options.asScala.toSet, startPosition).toCompletionStage())
+
   /**
    * Creates a Source from a files contents.
    * Emitted elements are [[ByteString]] elements, chunked by default by 8192 bytes,
@@ -218,4 +347,134 @@ object FileIO {
    */
   def fromPath(f: Path, chunkSize: Int, startPosition: Long): javadsl.Source[ByteString, CompletionStage[IOResult]] =
     new Source(scaladsl.FileIO.fromPath(f, chunkSize, startPosition).toCompletionStage())
+
+  /**
+   * Creates a Source from a files contents by memory-mapping it, which avoids a read system call per chunk
+   * for large files.
+   * Emitted elements are [[ByteString]] elements, chunked by default by 8192 bytes,
+   * except the last element, which will be up to 8192 in size.
+   *
+   * The file is mapped in regions of 64 MiB, and read up to the size it had when the stream started.
+   *
+   * You can configure the default dispatcher for this Source by changing the `pekko.stream.materializer.blocking-io-dispatcher` or
+   * set it for a given Source by using [[pekko.stream.ActorAttributes]].
+   *
+   * It materializes a [[java.util.concurrent.CompletionStage]] of [[IOResult]] containing the number of bytes read from the source file upon completion,
+   * and a possible exception if IO operation was not completed successfully. Note that bytes having been read by the source does
+   * not give any guarantee that the bytes were seen by downstream stages.
+   *
+   * @param f         the file path to read from
+   */
+  def mmapSource(f: Path): javadsl.Source[ByteString, CompletionStage[IOResult]] = mmapSource(f, 8192)
+
+  /**
+   * Creates a Source from a files contents by memory-mapping it, which avoids a read system call per chunk
+   * for large files.
+   * Emitted elements are `chunkSize` sized [[ByteString]] elements,
+   * except the last element, which will be up to `chunkSize` in size.
+   *
+   * The file is mapped in regions of 64 MiB, and read up to the size it had when the stream started.
+   *
+   * You can configure the default dispatcher for this Source by changing the `pekko.stream.materializer.blocking-io-dispatcher` or
+   * set it for a given Source by using [[pekko.stream.ActorAttributes]].
+   *
+   * It materializes a [[java.util.concurrent.CompletionStage]] of [[IOResult]] containing the number of bytes read from the source file upon completion,
+   * and a possible exception if IO operation was not completed successfully. Note that bytes having been read by the source does
+   * not give any guarantee that the bytes were seen by downstream stages.
+   *
+   * @param f         the file path to read from
+   * @param chunkSize the size of each emitted element
+   */
+  def mmapSource(f: Path, chunkSize: Int): javadsl.Source[ByteString, CompletionStage[IOResult]] =
+    new Source(scaladsl.FileIO.mmapSource(f, chunkSize).toCompletionStage())
+
+  /**
+   * Creates a Source from a files contents by memory-mapping it, which avoids a read system call per chunk
+   * for large files.
+   * Emitted elements are `chunkSize` sized [[ByteString]] elements,
+   * except the last element, which will be up to `chunkSize` in size.
+   *
+   * The file is mapped `regionSize` bytes at a time, rounded down to a multiple of `chunkSize`, and read up to
+   * the size it had when the stream started.
+   *
+   * You can configure the default dispatcher for this Source by changing the `pekko.stream.materializer.blocking-io-dispatcher` or
+   * set it for a given Source by using [[pekko.stream.ActorAttributes]].
+   *
+   * It materializes a [[java.util.concurrent.CompletionStage]] of [[IOResult]] containing the number of bytes read from the source file upon completion,
+   * and a possible exception if IO operation was not completed successfully. Note that bytes having been read by the source does
+   * not give any guarantee that the bytes were seen by downstream stages.
+   *
+   * @param f         the file path to read from
+   * @param chunkSize the size of each emitted element
+   * @param regionSize the size of each mapped region, at least `chunkSize`
+   * @param startPosition the start position to read from
+   */
+  def mmapSource(
+      f: Path,
+      chunkSize: Int,
+      regionSize: Int,
+      startPosition: Long): javadsl.Source[ByteString, CompletionStage[IOResult]] =
+    new Source(scaladsl.FileIO.mmapSource(f, chunkSize, regionSize, startPosition).toCompletionStage())
+
+  /**
+   * Creates a Source from a files contents, read with an `AsynchronousFileChannel` that keeps several reads
+   * outstanding at the same time instead of blocking a thread for each read.
+   * Emitted elements are [[ByteString]] elements, chunked by default by 8192 bytes,
+   * except the last element, which will be up to 8192 in size.
+   *
+   * The number of outstanding reads is 4 by default and can be set with [[pekko.stream.Attributes.maxInFlightFileOperations]].
+   * The reads are performed by the JDK, on platforms without asynchronous file I/O on threads of the
+   * `pekko.stream.materializer.blocking-io-dispatcher`, the operator itself runs on the dispatcher of the stream.
+   *
+   * It materializes a [[java.util.concurrent.CompletionStage]] of [[IOResult]] containing the number of bytes read from the source file upon completion,
+   * and a possible exception if IO operation was not completed successfully. Note that bytes having been read by the source does
+   * not give any guarantee that the bytes were seen by downstream stages.
+   *
+   * @param f         the file path to read from
+   */
+  def fromPathAsync(f: Path): javadsl.Source[ByteString, CompletionStage[IOResult]] = fromPathAsync(f, 8192)
+
+  /**
+   * Creates a Source from a files contents, read with an `AsynchronousFileChannel` that keeps several reads
+   * outstanding at the same time instead of blocking a thread for each read.
+   * Emitted elements are `chunkSize` sized [[ByteString]] elements,
+   * except the last element, which will be up to `chunkSize` in size.
+   *
+   * The number of outstanding reads is 4 by default and can be set with [[pekko.stream.Attributes.maxInFlightFileOperations]].
+   * The reads are performed by the JDK, on platforms without asynchronous file I/O on threads of the
+   * `pekko.stream.materializer.blocking-io-dispatcher`, the operator itself runs on the dispatcher of the stream.
+   *
+   * It materializes a [[java.util.concurrent.CompletionStage]] of [[IOResult]] containing the number of bytes read from the source file upon completion,
+   * and a possible exception if IO operation was not completed successfully. Note that bytes having been read by the source does
+   * not give any guarantee that the bytes were seen by downstream stages.
+   *
+   * @param f         the file path to read from
+   * @param chunkSize the size of each read operation
+   */
+  def fromPathAsync(f: Path, chunkSize: Int): javadsl.Source[ByteString, CompletionStage[IOResult]] =
+    fromPathAsync(f, chunkSize, 0)
+
+  /**
+   * Creates a Source from a files contents, read with an `AsynchronousFileChannel` that keeps several reads
+   * outstanding at the same time instead of blocking a thread for each read.
+   * Emitted elements are `chunkSize` sized [[ByteString]] elements,
+   * except the last element, which will be up to `chunkSize` in size.
+   *
+   * The number of outstanding reads is 4 by default and can be set with [[pekko.stream.Attributes.maxInFlightFileOperations]].
+   * The reads are performed by the JDK, on platforms without asynchronous file I/O on threads of the
+   * `pekko.stream.materializer.blocking-io-dispatcher`, the operator itself runs on the dispatcher of the stream.
+   *
+   * It materializes a [[java.util.concurrent.CompletionStage]] of [[IOResult]] containing the number of bytes read from the source file upon completion,
+   * and a possible exception if IO operation was not completed successfully. Note that bytes having been read by the source does
+   * not give any guarantee that the bytes were seen by downstream stages.
+   *
+   * @param f         the file path to read from
+   * @param chunkSize the size of each read operation
+   * @param startPosition the start position to read from
+   */
+  def fromPathAsync(
+      f: Path,
+      chunkSize: Int,
+      startPosition: Long): javadsl.Source[ByteString, CompletionStage[IOResult]] =
+    new Source(scaladsl.FileIO.fromPathAsync(f, chunkSize, startPosition).toCompletionStage())
 }
@@ -858,6 +858,50 @@ final class Flow[In, Out, Mat](delegate: scaladsl.Flow[In, Out, Mat]) extends Gr
   def mapAsyncUnordered[T](parallelism: Int, f: function.Function[Out, CompletionStage[T]]): javadsl.Flow[In, T, Mat] =
     new Flow(delegate.mapAsyncUnordered(parallelism)(x => f(x).asScala))
 
+  /**
+   * Transform this stream by partitioning elements based on the provided partitioner and applying the given
+   * function to each of the elements as they pass through this processing step. The function returns a
+   * `CompletionStage` and the value of that future will be emitted downstream. At most `parallelism`
+   * CompletionStages run concurrently across all partitions, and at most `perPartition` of them for any
+   * single partition.
+   *
+   * Elements of the same partition are emitted in the same order as they were received from upstream,
+   * while elements of different partitions are emitted as soon as they are ready, so a slow element
+   * only holds back the elements of its own partition. Elements that cannot be started yet, because their
+   * partition or the stage reached its limit, are buffered in the operator, at most `parallelism` of them.
+   *
+   * If the function `partitioner` or `f` throws an exception or if the `CompletionStage` is completed
+   * with failure and the supervision decision is [[pekko.stream.Supervision#stop]]
+   * the stream will be completed with failure.
+   *
+   * If the function `partitioner` or `f` throws an exception or if the `CompletionStage` is completed
+   * with failure and the supervision decision is [[pekko.stream.Supervision#resume]] or
+   * [[pekko.stream.Supervision#restart]] the element is dropped and the stream continues.
+   *
+   * The function `f` is always invoked on the elements of a partition in the order they arrive.
+   *
+   * Adheres to the [[ActorAttributes.SupervisionStrategy]] attribute.
+   *
+   * '''Emits when''' the CompletionStage returned by the provided function finishes for the next element in sequence
+   * of any partition
+   *
+   * '''Backpressures when''' the number of elements buffered or waiting for their partition reaches the
+   * configured parallelism and the downstream backpressures or no partition has its next element completed
+   *
+   * '''Completes when''' upstream completes and all CompletionStages have been completed and all elements have been emitted
+   *
+   * '''Cancels when''' downstream cancels
+   *
+   * @see [[#mapAsync]]
+   * @see [[#mapAsyncUnordered]]
+   */
+  def mapAsyncPartitioned[T, P](
+      parallelism: Int,
+      perPartition: Int,
+      partitioner: function.Function[Out, P],
+      f: function.Function2[Out, P, CompletionStage[T]]): javadsl.Flow[In, T, Mat] =
+    new Flow(delegate.mapAsyncPartitioned(parallelism, perPartition)(partitioner(_))((x, p) => f(x, p).asScala))
+
   /**
    * Use the `ask` pattern to send a request-reply message to the target `ref` actor.
    * If any of the asks times out it will fail the stream with a [[pekko.pattern.AskTimeoutException]].
@@ -2273,6 +2317,32 @@ final class Flow[In, Out, Mat](delegate: scaladsl.Flow[In, Out, Mat]) extends Gr
   def groupBy[K](maxSubstreams: Int, f: function.Function[Out, K]): SubFlow[In, Out, Mat] =
     new SubFlow(delegate.groupBy(maxSubstreams, f.apply, false))
 
+  /**
+   * This operation demultiplexes the incoming stream into separate output
+   * streams, one for each element key. The key is computed for each element
+   * using the given function. When a new key is encountered a new substream
+   * is opened and subsequently fed with all elements belonging to that key.
+   *
+   * Unlike `groupBy`, reaching `maxSubstreams` does not have to fail
+   * the stream: depending on the `evictionStrategy` the least recently used substream is
+   * completed to make room for the new key, and substreams that have not received any element
+   * for a while can be completed as well. An element for the key of an evicted substream opens
+   * a new substream, so the operator only keeps state for at most `maxSubstreams` keys.
+   *
+   * Substreams are always allowed to be recreated with this variant, closed keys are not tracked.
+   *
+   * @see [[#groupBy]]
+   * @param maxSubstreams configures the maximum number of substreams (keys) that are open at the same time
+   * @param f computes the key for each element
+   * @param evictionStrategy decides whether the stream fails or substreams are evicted when `maxSubstreams`
+   *        is reached, and whether idle substreams are completed
+   */
+  def groupByWithEviction[K](
+      maxSubstreams: Int,
+      f: function.Function[Out, K],
+      evictionStrategy: SubstreamEvictionStrategy): SubFlow[In, Out, Mat] =
+    new SubFlow(delegate.groupByWithEviction(maxSubstreams, f.apply, evictionStrategy))
+
   /**
    * This operation applies the given predicate to all incoming elements and
    * emits them to a stream of output streams, always beginning a new one with
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.javadsl
+
+import org.apache.pekko
+import pekko.japi.function
+import pekko.stream.{ scaladsl, Graph, MergeWeightsControl, UniformFanInShape }
+
+/**
+ * Merge several streams with weighted fair queueing, so that a busy input cannot starve the others.
+ *
+ * The inputs are visited in rounds (deficit round robin): every round input `i` may emit elements with a total cost
+ * of up to `weights[i] * quantum`, cost it does not use is carried over to the next round as long as the input has
+ * buffered elements. Each input buffers up to `bufferSize` elements and is backpressured once its buffer is full.
+ *
+ * The weights can be changed while the stream is running with the materialized [[MergeWeightsControl]].
+ *
+ * '''Emits when''' one of the inputs has an element available and it is the turn of that input
+ *
+ * '''Backpressures when''' downstream backpressures, for each input when its buffer is full
+ *
+ * '''Completes when''' all upstreams complete and all buffered elements have been emitted, including those of
+ * inputs with weight zero
+ *
+ * '''Cancels when''' downstream cancels
+ */
+object MergeWeightedFair {
+
+  /**
+   * Create a new `MergeWeightedFair` that emits up to `weights[i]` elements from input `i` in every round.
+   *
+   * @param weights the weight of each input port, zero or positive, an input with weight zero is paused until all
+   *   upstreams completed
+   * @param bufferSize the number of elements buffered for each input port
+   */
+  def create[T](weights: Array[Int], bufferSize: Int): Graph[UniformFanInShape[T, T], MergeWeightsControl] =
+    scaladsl.MergeWeightedFair[T](weights.toIndexedSeq, bufferSize)
+
+  /**
+   * Create a new `MergeWeightedFair` that emits elements with a total cost of up to `weights[i] * quantum` from
+   * input `i` in every round, for example their size in bytes.
+   *
+   * An element that costs more than the share of its input is emitted once its input has saved up enough over
+   * several rounds, the quantum should be at least the cost of a typical element to keep the rounds short.
+   *
+   * @param weights the weight of each input port, zero or positive, an input with weight zero is paused until all
+   *   upstreams completed
+   * @param quantum the cost an input of weight 1 may emit in every round
+   * @param bufferSize the number of elements buffered for each input port
+   * @param cost the cost of an element, zero or positive
+   */
+  def create[T](
+      weights: Array[Int],
+      quantum: Long,
+      bufferSize: Int,
+      cost: function.Function[T, java.lang.Long]): Graph[UniformFanInShape[T, T], MergeWeightsControl] =
+    scaladsl.MergeWeightedFair[T](weights.toIndexedSeq, quantum, bufferSize)(elem => cost.apply(elem).longValue)
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.javadsl
+
+import java.nio.file.Path
+
+import org.apache.pekko
+import pekko.japi.function
+import pekko.stream.{ scaladsl, SpillingBufferMetrics }
+import pekko.util.ByteString
+
+/**
+ * A buffer that keeps up to `memorySize` elements in memory and spills the elements that arrive while it is full to
+ * memory-mapped segment files on disk, so that a stream can absorb long bursts without backpressuring its upstream
+ * and without holding all the buffered elements in memory. The spilled elements are serialized with the given
+ * functions and read back in order. Upstream is only backpressured when the disk space given is used up as well.
+ *
+ * The segment files are created in `directory` and deleted when they have been read, or when the stream terminates.
+ * The operator runs on the blocking IO dispatcher by default, since writing and reading the segments may block.
+ *
+ * The materialized [[SpillingBufferMetrics]] show how many elements are buffered and how many were spilled.
+ *
+ * '''Emits when''' downstream requests an element and there is one in the buffer
+ *
+ * '''Backpressures when''' the memory buffer is full and the disk space is used up
+ *
+ * '''Completes when''' upstream completes and all buffered elements have been emitted
+ *
+ * '''Cancels when''' downstream cancels
+ */
+object SpillingBuffer {
+
+  /**
+   * Creates a buffer that spills to segment files of 4 MiB.
+   *
+   * @param memorySize the number of elements buffered in memory
+   * @param directory the directory to create the segment files in
+   * @param maxDiskBytes the maximum size of the segment files on disk together, at least the size of one segment
+   * @param serialize serializes an element to spill it, a serialized element must fit into a segment
+   * @param deserialize deserializes a spilled element
+   */
+  def create[T](
+      memorySize: Int,
+      directory: Path,
+      maxDiskBytes: Long,
+      serialize: function.Function[T, ByteString],
+      deserialize: function.Function[ByteString, T]): Flow[T, T, SpillingBufferMetrics] =
+    create(memorySize, directory, maxDiskBytes, scaladsl.SpillingBuffer.DefaultSegmentSize, serialize, deserialize)
+
+  /**
+   * Creates a buffer that spills to segment files of `segmentSize` bytes.
+   *
+   * @param memorySize the number of elements buffered in memory
+   * @param directory the directory to create the segment files in
+   * @param maxDiskBytes the maximum size of the segment files on disk together, at least the size of one segment
+   * @param segmentSize the size of each segment file
+   * @param serialize serializes an element to spill it, a serialized element must fit into a segment
+   * @param deserialize deserializes a spilled element
+   */
+  def create[T](
+      memorySize: Int,
+      directory: Path,
+      maxDiskBytes: Long,
+      segmentSize: Int,
+      serialize: function.Function[T, ByteString],
+      deserialize: function.Function[ByteString, T]): Flow[T, T, SpillingBufferMetrics] =
+    scaladsl.SpillingBuffer
+      .apply[T](memorySize, directory, maxDiskBytes, segmentSize)(serialize.apply, deserialize.apply)
+      .asJava
+}
@@ -344,6 +344,50 @@ class SubFlow[In, Out, Mat](
   def mapAsyncUnordered[T](parallelism: Int, f: function.Function[Out, CompletionStage[T]]): SubFlow[In, T, Mat] =
     new SubFlow(delegate.mapAsyncUnordered(parallelism)(x => f(x).asScala))
 
+  /**
+   * Transform this stream by partitioning elements based on the provided partitioner and applying the given
+   * function to each of the elements as they pass through this processing step. The function returns a
+   * `CompletionStage` and the value of that future will be emitted downstream. At most `parallelism`
+   * CompletionStages run concurrently across all partitions, and at most `perPartition` of them for any
+   * single partition.
+   *
+   * Elements of the same partition are emitted in the same order as they were received from upstream,
+   * while elements of different partitions are emitted as soon as they are ready, so a slow element
+   * only holds back the elements of its own partition. Elements that cannot be started yet, because their
+   * partition or the stage reached its limit, are buffered in the operator, at most `parallelism` of them.
+   *
+   * If the function `partitioner` or `f` throws an exception or if the `CompletionStage` is completed
+   * with failure and the supervision decision is [[pekko.stream.Supervision#stop]]
+   * the stream will be completed with failure.
+   *
+   * If the function `partitioner` or `f` throws an exception or if the `CompletionStage` is completed
+   * with failure and the supervision decision is [[pekko.stream.Supervision#resume]] or
+   * [[pekko.stream.Supervision#restart]] the element is dropped and the stream continues.
+   *
+   * The function `f` is always invoked on the elements of a partition in the order they arrive.
+   *
+   * Adheres to the [[ActorAttributes.SupervisionStrategy]] attribute.
+   *
+   * '''Emits when''' the CompletionStage returned by the provided function finishes for the next element in sequence
+   * of any partition
+   *
+   * '''Backpressures when''' the number of elements buffered or waiting for their partition reaches the
+   * configured parallelism and the downstream backpressures or no partition has its next element completed
+   *
+   * '''Completes when''' upstream completes and all CompletionStages have been completed and all elements have been emitted
+   *
+   * '''Cancels when''' downstream cancels
+   *
+   * @see [[#mapAsync]]
+   * @see [[#mapAsyncUnordered]]
+   */
+  def mapAsyncPartitioned[T, P](
+      parallelism: Int,
+      perPartition: Int,
+      partitioner: function.Function[Out, P],
+      f: function.Function2[Out, P, CompletionStage[T]]): SubFlow[In, T, Mat] =
+    new SubFlow(delegate.mapAsyncPartitioned(parallelism, perPartition)(partitioner(_))((x, p) => f(x, p).asScala))
+
   /**
    * Only pass on those elements that satisfy the given predicate.
    *
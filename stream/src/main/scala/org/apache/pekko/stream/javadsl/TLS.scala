@@ -23,6 +23,7 @@ import com.typesafe.sslconfig.pekko.PekkoSSLConfig
 
 import org.apache.pekko
 import pekko.{ japi, NotUsed }
+import pekko.annotation.ApiMayChange
 import pekko.stream._
 import pekko.stream.TLSProtocol._
 import pekko.util.ByteString
@@ -201,6 +202,43 @@ object TLS {
       sslEngineCreator: Supplier[SSLEngine],
       closing: TLSClosing): BidiFlow[SslTlsOutbound, ByteString, ByteString, SslTlsInbound, NotUsed] =
     new javadsl.BidiFlow(scaladsl.TLS.apply(() => sslEngineCreator.get(), closing))
+
+  /**
+   * Create a StreamTls [[pekko.stream.javadsl.BidiFlow]] that behaves like the one created by `create`, but
+   * that is fused with the surrounding operators instead of running in an actor of its own. It hands pooled
+   * direct buffers to the SSLEngine and emits several TLS records in one chunk when there is enough data.
+   *
+   * You specify a factory `sslEngineCreator` to create an SSLEngine that must already be configured for
+   * client and server mode and with all the parameters for the first session.
+   *
+   * You can specify a verification function `sessionVerifier` that will be called
+   * after every successful handshake to verify additional session information.
+   *
+   * For a description of the `closing` parameter please refer to [[TLSClosing]].
+   */
+  @ApiMayChange
+  def createFused(
+      sslEngineCreator: Supplier[SSLEngine],
+      sessionVerifier: Consumer[SSLSession],
+      closing: TLSClosing): BidiFlow[SslTlsOutbound, ByteString, ByteString, SslTlsInbound, NotUsed] =
+    new javadsl.BidiFlow(
+      scaladsl.TLS.fused(() => sslEngineCreator.get(), session => Try(sessionVerifier.accept(session)), closing))
+
+  /**
+   * Create a StreamTls [[pekko.stream.javadsl.BidiFlow]] that behaves like the one created by `create`, but
+   * that is fused with the surrounding operators instead of running in an actor of its own. It hands pooled
+   * direct buffers to the SSLEngine and emits several TLS records in one chunk when there is enough data.
+   *
+   * You specify a factory `sslEngineCreator` to create an SSLEngine that must already be configured for
+   * client and server mode and with all the parameters for the first session.
+   *
+   * For a description of the `closing` parameter please refer to [[TLSClosing]].
+   */
+  @ApiMayChange
+  def createFused(
+      sslEngineCreator: Supplier[SSLEngine],
+      closing: TLSClosing): BidiFlow[SslTlsOutbound, ByteString, ByteString, SslTlsInbound, NotUsed] =
+    new javadsl.BidiFlow(scaladsl.TLS.fused(() => sslEngineCreator.get(), closing))
 }
 
 /**
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.javadsl
+
+import java.lang.{ Iterable => JIterable }
+import java.net.InetSocketAddress
+import java.util.concurrent.CompletionStage
+
+import org.apache.pekko
+import pekko.Done
+import pekko.actor.ClassicActorSystemProvider
+import pekko.io.Inet.SocketOption
+import pekko.io.Udp.Datagram
+import pekko.japi.Util.immutableSeq
+import pekko.stream.scaladsl
+import pekko.util.FutureConverters._
+
+/**
+ * Sources and sinks of UDP datagrams, based on the batch commands of the UDP extension of Pekko IO, which move many
+ * datagrams per actor message.
+ */
+object Udp {
+
+  /**
+   * Creates a [[Source]] of the datagrams received on a UDP socket bound to `localAddress`, which materializes the
+   * address the socket was bound to.
+   *
+   * Reading from the socket is suspended while 1024 datagrams are buffered, the datagrams that arrive meanwhile are
+   * dropped by the O/S kernel once its receive buffer is full.
+   */
+  def bind(
+      localAddress: InetSocketAddress,
+      system: ClassicActorSystemProvider): Source[Datagram, CompletionStage[InetSocketAddress]] =
+    scaladsl.Udp.bind(localAddress)(system).mapMaterializedValue(_.asJava).asJava
+
+  /**
+   * Creates a [[Source]] of the datagrams received on a UDP socket bound to `localAddress`, which materializes the
+   * address the socket was bound to.
+   *
+   * @param options socket options of the socket
+   * @param maxBatchSize the maximum number of datagrams read from the socket per readiness notification
+   * @param bufferSize the number of buffered datagrams at which reading from the socket is suspended, the datagrams
+   *                   that arrive meanwhile are dropped by the O/S kernel once its receive buffer is full
+   */
+  def bind(
+      localAddress: InetSocketAddress,
+      options: JIterable[SocketOption],
+      maxBatchSize: Int,
+      bufferSize: Int,
+      system: ClassicActorSystemProvider): Source[Datagram, CompletionStage[InetSocketAddress]] =
+    scaladsl.Udp
+      .bind(localAddress, immutableSeq(options), maxBatchSize, bufferSize)(system)
+      .mapMaterializedValue(_.asJava)
+      .asJava
+
+  /**
+   * Creates a [[Sink]] that sends the datagrams to their addresses from an ephemeral port, which materializes a
+   * [[CompletionStage]] that is completed when all datagrams have been sent. The datagrams that arrive while the
+   * previous ones are sent are sent together, up to 64 at a time.
+   */
+  def sendSink(system: ClassicActorSystemProvider): Sink[Datagram, CompletionStage[Done]] =
+    scaladsl.Udp.sendSink()(system).mapMaterializedValue(_.asJava).asJava
+
+  /**
+   * Creates a [[Sink]] that sends the datagrams to their addresses from an ephemeral port, which materializes a
+   * [[CompletionStage]] that is completed when all datagrams have been sent. The datagrams that arrive while the
+   * previous ones are sent are sent together, up to `maxBatchSize` at a time, it backpressures while `maxBatchSize`
+   * datagrams wait.
+   *
+   * @param options socket options of the socket
+   */
+  def sendSink(
+      options: JIterable[SocketOption],
+      maxBatchSize: Int,
+      system: ClassicActorSystemProvider): Sink[Datagram, CompletionStage[Done]] =
+    scaladsl.Udp.sendSink(immutableSeq(options), maxBatchSize)(system).mapMaterializedValue(_.asJava).asJava
+}
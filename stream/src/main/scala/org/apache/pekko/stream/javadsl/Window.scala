@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.javadsl
+
+import org.apache.pekko
+import pekko.NotUsed
+import pekko.japi.function
+import pekko.stream.{ scaladsl, LateElementStrategy, WindowAggregate, Windowed }
+import pekko.util.JavaDurationConverters._
+
+/**
+ * Operators that aggregate the elements of a stream in event time windows, by the timestamp in milliseconds that
+ * `timestamp` returns for each element. The elements are aggregated incrementally by a [[WindowAggregate]] as they
+ * arrive, without keeping the elements themselves, and one [[Windowed]] result is emitted for every window that
+ * contains elements.
+ *
+ * The elements may arrive out of order by up to `allowedLateness`: the watermark is the largest timestamp seen so far
+ * minus the allowed lateness, and a window is emitted once its end is not after the watermark. An element with a
+ * timestamp before the watermark arrives too late for its windows and is dropped or fails the stream, as decided by
+ * the [[LateElementStrategy]]. When upstream completes all remaining windows are emitted.
+ *
+ * '''Emits when''' the watermark passes the end of a window that contains elements
+ *
+ * '''Backpressures when''' downstream backpressures while windows are emitted
+ *
+ * '''Completes when''' upstream completes and all windows have been emitted
+ *
+ * '''Cancels when''' downstream cancels
+ */
+object Window {
+
+  /**
+   * Aggregates the elements in consecutive windows of `size`, which start at multiples of `size` since the epoch.
+   * The elements must arrive in the order of their timestamps, late elements are dropped.
+   */
+  def tumbling[T, A, R](
+      size: java.time.Duration,
+      timestamp: function.Function[T, java.lang.Long],
+      aggregate: WindowAggregate[T, A, R]): Flow[T, Windowed[R], NotUsed] =
+    scaladsl.Window.tumbling[T, A, R](size.asScala)(elem => timestamp.apply(elem).longValue)(aggregate).asJava
+
+  /**
+   * Aggregates the elements in consecutive windows of `size`, which start at multiples of `size` since the epoch.
+   * The elements may arrive up to `allowedLateness` out of order, `lateElements` decides what happens to later ones.
+   */
+  def tumbling[T, A, R](
+      size: java.time.Duration,
+      allowedLateness: java.time.Duration,
+      lateElements: LateElementStrategy,
+      timestamp: function.Function[T, java.lang.Long],
+      aggregate: WindowAggregate[T, A, R]): Flow[T, Windowed[R], NotUsed] =
+    scaladsl.Window
+      .tumbling[T, A, R](size.asScala, allowedLateness.asScala, lateElements)(elem => timestamp.apply(elem).longValue)(
+        aggregate)
+      .asJava
+
+  /**
+   * Aggregates the elements in overlapping windows of `size`, which start every `slide` since the epoch, so that
+   * every element is in `size / slide` windows. The elements must arrive in the order of their timestamps, late
+   * elements are dropped.
+   */
+  def sliding[T, A, R](
+      size: java.time.Duration,
+      slide: java.time.Duration,
+      timestamp: function.Function[T, java.lang.Long],
+      aggregate: WindowAggregate[T, A, R]): Flow[T, Windowed[R], NotUsed] =
+    scaladsl.Window
+      .sliding[T, A, R](size.asScala, slide.asScala)(elem => timestamp.apply(elem).longValue)(aggregate)
+      .asJava
+
+  /**
+   * Aggregates the elements in overlapping windows of `size`, which start every `slide` since the epoch, so that
+   * every element is in `size / slide` windows. The elements may arrive up to `allowedLateness` out of order,
+   * `lateElements` decides what happens to later ones.
+   */
+  def sliding[T, A, R](
+      size: java.time.Duration,
+      slide: java.time.Duration,
+      allowedLateness: java.time.Duration,
+      lateElements: LateElementStrategy,
+      timestamp: function.Function[T, java.lang.Long],
+      aggregate: WindowAggregate[T, A, R]): Flow[T, Windowed[R], NotUsed] =
+    scaladsl.Window
+      .sliding[T, A, R](size.asScala, slide.asScala, allowedLateness.asScala, lateElements)(elem =>
+        timestamp.apply(elem).longValue)(aggregate)
+      .asJava
+
+  /**
+   * Aggregates the elements in sessions, a session contains the elements that are less than `gap` apart and ends
+   * `gap` after its last element. The elements must arrive in the order of their timestamps, late elements are
+   * dropped.
+   */
+  def session[T, A, R](
+      gap: java.time.Duration,
+      timestamp: function.Function[T, java.lang.Long],
+      aggregate: WindowAggregate[T, A, R]): Flow[T, Windowed[R], NotUsed] =
+    scaladsl.Window.session[T, A, R](gap.asScala)(elem => timestamp.apply(elem).longValue)(aggregate).asJava
+
+  /**
+   * Aggregates the elements in sessions, a session contains the elements that are less than `gap` apart and ends
+   * `gap` after its last element. The elements may arrive up to `allowedLateness` out of order, `lateElements`
+   * decides what happens to later ones. An element that arrives out of order can merge two sessions.
+   */
+  def session[T, A, R](
+      gap: java.time.Duration,
+      allowedLateness: java.time.Duration,
+      lateElements: LateElementStrategy,
+      timestamp: function.Function[T, java.lang.Long],
+      aggregate: WindowAggregate[T, A, R]): Flow[T, Windowed[R], NotUsed] =
+    scaladsl.Window
+      .session[T, A, R](gap.asScala, allowedLateness.asScala, lateElements)(elem => timestamp.apply(elem).longValue)(
+        aggregate)
+      .asJava
+}
@@ -22,6 +22,7 @@ import pekko.util.ByteString
 
 object Compression {
   final val MaxBytesPerChunkDefault = 64 * 1024
+  final val ParallelBlockSizeDefault = 128 * 1024
 
   /**
    * Creates a flow that gzip-compresses a stream of ByteStrings. Note that the compressor
@@ -41,6 +42,33 @@ object Compression {
   def gzip(level: Int): Flow[ByteString, ByteString, NotUsed] =
     CompressionUtils.compressorFlow(() => new GzipCompressor(level))
 
+  /**
+   * Creates a flow that gzip-compresses a stream of ByteStrings using several cores. The stream is split into
+   * blocks of [[ParallelBlockSizeDefault]] bytes which are compressed concurrently, each into its own gzip member.
+   * The members are emitted in order, so the output is a standard multi-member gzip stream which can be read by
+   * [[gunzip]] or any other gzip decompressor.
+   *
+   * Unlike [[gzip]] the output is not flushed per [[ByteString]], a block is only emitted when it is full or when
+   * the upstream completes. The blocks are compressed on the dispatcher of the flow, use
+   * `ActorAttributes.dispatcher` to run them on a dedicated dispatcher.
+   *
+   * @param parallelism Maximum number of blocks compressed at the same time
+   */
+  def gzipParallel(parallelism: Int): Flow[ByteString, ByteString, NotUsed] =
+    gzipParallel(Deflater.BEST_COMPRESSION, ParallelBlockSizeDefault, parallelism)
+
+  /**
+   * Same as [[gzipParallel]] with a custom level and block size.
+   *
+   * @param level Compression level (0-9)
+   * @param blockSize Number of uncompressed bytes compressed into one gzip member
+   * @param parallelism Maximum number of blocks compressed at the same time
+   */
+  def gzipParallel(level: Int, blockSize: Int, parallelism: Int): Flow[ByteString, ByteString, NotUsed] =
+    CompressionUtils
+      .parallelCompressorFlow(blockSize, parallelism, () => new GzipCompressor(level))
+      .named("gzipParallel")
+
   /**
    * Creates a Flow that decompresses a gzip-compressed stream of data.
    *
@@ -84,4 +112,79 @@ object Compression {
    */
   def inflate(maxBytesPerChunk: Int, nowrap: Boolean): Flow[ByteString, ByteString, NotUsed] =
     Flow[ByteString].via(new DeflateDecompressor(maxBytesPerChunk, nowrap)).named("inflate")
+
+  /**
+   * Creates a flow that zstd-compresses a stream of ByteStrings into a zstd frame with a content checksum. Note that
+   * the compressor will flush after every [[ByteString]] so that it is guaranteed that every [[ByteString]] coming
+   * out of the flow can be fully decompressed without waiting for additional data.
+   *
+   * Requires `com.github.luben:zstd-jni` on the classpath.
+   */
+  def zstd: Flow[ByteString, ByteString, NotUsed] = zstd(ZstdCompressor.DefaultLevel)
+
+  /**
+   * Same as [[zstd]] with a custom level.
+   *
+   * @param level Compression level, from negative levels for fast compression up to 22
+   */
+  def zstd(level: Int): Flow[ByteString, ByteString, NotUsed] = zstd(level, ByteString.empty)
+
+  /**
+   * Same as [[zstd]] with a custom level and a dictionary. A dictionary trained on samples of the data, e.g. with
+   * `zstd --train`, improves the compression of small chunks considerably. The same dictionary must be passed to
+   * [[zstdDecompress]].
+   *
+   * @param level Compression level, from negative levels for fast compression up to 22
+   * @param dictionary The dictionary, no dictionary is used when empty
+   */
+  def zstd(level: Int, dictionary: ByteString): Flow[ByteString, ByteString, NotUsed] =
+    CompressionUtils.compressorFlow(() => new ZstdCompressor(level, dictionary)).named("zstd")
+
+  /**
+   * Creates a Flow that decompresses a zstd-compressed stream of data.
+   *
+   * Requires `com.github.luben:zstd-jni` on the classpath.
+   *
+   * @param maxBytesPerChunk Maximum length of an output [[ByteString]] chunk.
+   */
+  def zstdDecompress(maxBytesPerChunk: Int = MaxBytesPerChunkDefault): Flow[ByteString, ByteString, NotUsed] =
+    zstdDecompress(maxBytesPerChunk, ByteString.empty)
+
+  /**
+   * Creates a Flow that decompresses a stream of data that was zstd-compressed with the given dictionary.
+   *
+   * @param maxBytesPerChunk Maximum length of an output [[ByteString]] chunk.
+   * @param dictionary The dictionary the data was compressed with
+   */
+  def zstdDecompress(maxBytesPerChunk: Int, dictionary: ByteString): Flow[ByteString, ByteString, NotUsed] =
+    Flow[ByteString].via(new ZstdDecompressor(maxBytesPerChunk, dictionary)).named("zstdDecompress")
+
+  /**
+   * Creates a flow that compresses a stream of ByteStrings into the LZ4 frame format, with independent blocks and a
+   * content checksum. Note that the compressor will end a block after every [[ByteString]] so that it is guaranteed
+   * that every [[ByteString]] coming out of the flow can be fully decompressed without waiting for additional data.
+   * This may come at a compression performance cost for very small chunks.
+   *
+   * Requires `org.lz4:lz4-java` on the classpath.
+   */
+  def lz4: Flow[ByteString, ByteString, NotUsed] = lz4(0)
+
+  /**
+   * Same as [[lz4]] with a custom level.
+   *
+   * @param level 0 for the fast compressor, 1-17 for the high compression compressor
+   */
+  def lz4(level: Int): Flow[ByteString, ByteString, NotUsed] =
+    CompressionUtils.compressorFlow(() => new Lz4Compressor(level)).named("lz4")
+
+  /**
+   * Creates a Flow that decompresses a stream of data in the LZ4 frame format. Only frames with independent blocks
+   * and without a dictionary are supported, like the ones written by [[lz4]] and the `lz4` command line tool.
+   *
+   * Requires `org.lz4:lz4-java` on the classpath.
+   *
+   * @param maxBytesPerChunk Maximum length of an output [[ByteString]] chunk.
+   */
+  def lz4Decompress(maxBytesPerChunk: Int = MaxBytesPerChunkDefault): Flow[ByteString, ByteString, NotUsed] =
+    Flow[ByteString].via(new Lz4Decompressor(maxBytesPerChunk)).named("lz4Decompress")
 }
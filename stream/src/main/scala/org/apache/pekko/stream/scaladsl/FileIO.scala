@@ -20,6 +20,7 @@ import java.nio.file.StandardOpenOption._
 import scala.concurrent.Future
 
 import org.apache.pekko
+import pekko.stream.FileSyncPolicy
 import pekko.stream.IOResult
 import pekko.stream.impl.Stages.DefaultAttributes
 import pekko.stream.impl.io._
@@ -86,6 +87,98 @@ object FileIO {
   def fromPath(f: Path, chunkSize: Int, startPosition: Long): Source[ByteString, Future[IOResult]] =
     Source.fromGraph(new FileSource(f, chunkSize, startPosition)).withAttributes(DefaultAttributes.fileSource)
 
+  /**
+   * Creates a Source from a files contents by memory-mapping it, which avoids a read system call per chunk
+   * for large files.
+   * Emitted elements are `chunkSize` sized [[pekko.util.ByteString]] elements,
+   * except the final element, which will be up to `chunkSize` in size.
+   *
+   * The file is mapped in regions of 64 MiB, and read up to the size it had when the stream started.
+   *
+   * You can configure the default dispatcher for this Source by changing the `pekko.stream.materializer.blocking-io-dispatcher` or
+   * set it for a given Source by using [[pekko.stream.ActorAttributes]].
+   *
+   * It materializes a [[Future]] of [[IOResult]] containing the number of bytes read from the source file upon completion,
+   * and a possible exception if IO operation was not completed successfully. Note that bytes having been read by the source does
+   * not give any guarantee that the bytes were seen by downstream stages.
+   *
+   * @param f         the file path to read from
+   * @param chunkSize the size of each emitted element, defaults to 8192
+   */
+  def mmapSource(f: Path, chunkSize: Int = 8192): Source[ByteString, Future[IOResult]] =
+    mmapSource(f, chunkSize, DefaultMmapRegionSize, startPosition = 0)
+
+  /**
+   * Creates a Source from a files contents by memory-mapping it, which avoids a read system call per chunk
+   * for large files.
+   * Emitted elements are `chunkSize` sized [[pekko.util.ByteString]] elements,
+   * except the final element, which will be up to `chunkSize` in size.
+   *
+   * The file is mapped `regionSize` bytes at a time, rounded down to a multiple of `chunkSize`, and read up to
+   * the size it had when the stream started.
+   *
+   * You can configure the default dispatcher for this Source by changing the `pekko.stream.materializer.blocking-io-dispatcher` or
+   * set it for a given Source by using [[pekko.stream.ActorAttributes]].
+   *
+   * It materializes a [[Future]] of [[IOResult]] containing the number of bytes read from the source file upon completion,
+   * and a possible exception if IO operation was not completed successfully. Note that bytes having been read by the source does
+   * not give any guarantee that the bytes were seen by downstream stages.
+   *
+   * @param f         the file path to read from
+   * @param chunkSize the size of each emitted element
+   * @param regionSize the size of each mapped region, at least `chunkSize`
+   * @param startPosition the start position to read from
+   */
+  def mmapSource(
+      f: Path,
+      chunkSize: Int,
+      regionSize: Int,
+      startPosition: Long): Source[ByteString, Future[IOResult]] =
+    Source
+      .fromGraph(new MmapFileSource(f, chunkSize, regionSize, startPosition))
+      .withAttributes(DefaultAttributes.mmapFileSource)
+
+  /**
+   * Creates a Source from a files contents, read with an `AsynchronousFileChannel` that keeps several reads
+   * outstanding at the same time instead of blocking a thread for each read.
+   * Emitted elements are `chunkSize` sized [[pekko.util.ByteString]] elements,
+   * except the final element, which will be up to `chunkSize` in size.
+   *
+   * The number of outstanding reads is 4 by default and can be set with [[pekko.stream.Attributes.maxInFlightFileOperations]].
+   * The reads are performed by the JDK, on platforms without asynchronous file I/O on threads of the
+   * `pekko.stream.materializer.blocking-io-dispatcher`, the operator itself runs on the dispatcher of the stream.
+   *
+   * It materializes a [[Future]] of [[IOResult]] containing the number of bytes read from the source file upon completion,
+   * and a possible exception if IO operation was not completed successfully. Note that bytes having been read by the source does
+   * not give any guarantee that the bytes were seen by downstream stages.
+   *
+   * @param f         the file path to read from
+   * @param chunkSize the size of each read operation, defaults to 8192
+   */
+  def fromPathAsync(f: Path, chunkSize: Int = 8192): Source[ByteString, Future[IOResult]] =
+    fromPathAsync(f, chunkSize, startPosition = 0)
+
+  /**
+   * Creates a Source from a files contents, read with an `AsynchronousFileChannel` that keeps several reads
+   * outstanding at the same time instead of blocking a thread for each read.
+   * Emitted elements are `chunkSize` sized [[pekko.util.ByteString]] elements,
+   * except the final element, which will be up to `chunkSize` in size.
+   *
+   * The number of outstanding reads is 4 by default and can be set with [[pekko.stream.Attributes.maxInFlightFileOperations]].
+   * The reads are performed by the JDK, on platforms without asynchronous file I/O on threads of the
+   * `pekko.stream.materializer.blocking-io-dispatcher`, the operator itself runs on the dispatcher of the stream.
+   *
+   * It materializes a [[Future]] of [[IOResult]] containing the number of bytes read from the source file upon completion,
+   * and a possible exception if IO operation was not completed successfully. Note that bytes having been read by the source does
+   * not give any guarantee that the bytes were seen by downstream stages.
+   *
+   * @param f         the file path to read from
+   * @param chunkSize the size of each read operation
+   * @param startPosition the start position to read from
+   */
+  def fromPathAsync(f: Path, chunkSize: Int, startPosition: Long): Source[ByteString, Future[IOResult]] =
+    Source.fromGraph(new AsyncFileSource(f, chunkSize, startPosition)).withAttributes(DefaultAttributes.asyncFileSource)
+
   /**
    * Creates a Sink which writes incoming [[ByteString]] elements to the given file. Overwrites existing files
    * by truncating their contents as default.
@@ -151,4 +244,99 @@ object FileIO {
    */
   def toPath(f: Path, options: Set[OpenOption], startPosition: Long): Sink[ByteString, Future[IOResult]] =
     Sink.fromGraph(new FileOutputStage(f, startPosition, options))
+
+  /**
+   * Creates a Sink which writes incoming [[ByteString]] elements to memory-mapped regions of the given file path,
+   * which avoids a write system call per element. Overwrites existing files by truncating their contents as default.
+   *
+   * The file is mapped in regions of 64 MiB and the bytes are left to the OS to be written to the storage device,
+   * see the overload taking a [[pekko.stream.FileSyncPolicy]] to configure both.
+   *
+   * Materializes a [[Future]] of [[IOResult]] that will be completed with the size of the file (in bytes) at the streams completion,
+   * and a possible exception if IO operation was not completed successfully.
+   *
+   * This sink will use the dedicated `pekko.stream.blocking-io-dispatcher`,
+   * unless configured otherwise by using [[pekko.stream.ActorAttributes]].
+   *
+   * @param f the file path to write to
+   * @param options File open options, see [[java.nio.file.StandardOpenOption]], defaults to Set(WRITE, TRUNCATE_EXISTING, CREATE),
+   *                `APPEND` is not supported
+   */
+  def mmapSink(
+      f: Path,
+      options: Set[OpenOption] = Set(WRITE, TRUNCATE_EXISTING, CREATE)): Sink[ByteString, Future[IOResult]] =
+    mmapSink(f, options, DefaultMmapRegionSize, FileSyncPolicy.never, startPosition = 0)
+
+  /**
+   * Creates a Sink which writes incoming [[ByteString]] elements to memory-mapped regions of the given file path,
+   * which avoids a write system call per element.
+   *
+   * Mapping a region extends the file to the end of the region, when the stream stops the file is truncated to
+   * the written bytes unless it was already longer before. On platforms that do not allow truncating a file while
+   * it is mapped, this may fail the materialized value.
+   *
+   * Materializes a [[Future]] of [[IOResult]] that will be completed with the size of the file (in bytes) at the streams completion,
+   * and a possible exception if IO operation was not completed successfully.
+   *
+   * This sink will use the dedicated `pekko.stream.blocking-io-dispatcher`,
+   * unless configured otherwise by using [[pekko.stream.ActorAttributes]].
+   *
+   * @param f the file path to write to
+   * @param options File open options, see [[java.nio.file.StandardOpenOption]], `APPEND` is not supported
+   * @param regionSize the size of each mapped region
+   * @param syncPolicy when the written bytes are forced to the storage device
+   * @param startPosition the start position to write to
+   */
+  def mmapSink(
+      f: Path,
+      options: Set[OpenOption],
+      regionSize: Int,
+      syncPolicy: FileSyncPolicy,
+      startPosition: Long): Sink[ByteString, Future[IOResult]] =
+    Sink.fromGraph(new MmapFileOutputStage(f, startPosition, options, regionSize, syncPolicy))
+
+  /**
+   * Creates a Sink which writes incoming [[ByteString]] elements to the given file path with an
+   * `AsynchronousFileChannel`, which keeps writing several elements at the same time instead of blocking a thread
+   * for each write. Overwrites existing files by truncating their contents as default.
+   *
+   * The number of outstanding writes is 4 by default and can be set with [[pekko.stream.Attributes.maxInFlightFileOperations]].
+   * The writes are performed by the JDK, on platforms without asynchronous file I/O on threads of the
+   * `pekko.stream.materializer.blocking-io-dispatcher`, the operator itself runs on the dispatcher of the stream.
+   *
+   * Materializes a [[Future]] of [[IOResult]] that will be completed with the size of the file (in bytes) at the streams completion,
+   * and a possible exception if IO operation was not completed successfully.
+   *
+   * @param f the file path to write to
+   * @param options File open options, see [[java.nio.file.StandardOpenOption]], defaults to Set(WRITE, TRUNCATE_EXISTING, CREATE)
+   */
+  def toPathAsync(
+      f: Path,
+      options: Set[OpenOption] = Set(WRITE, TRUNCATE_EXISTING, CREATE)): Sink[ByteString, Future[IOResult]] =
+    toPathAsync(f, options, startPosition = 0)
+
+  /**
+   * Creates a Sink which writes incoming [[ByteString]] elements to the given file path with an
+   * `AsynchronousFileChannel`, which keeps writing several elements at the same time instead of blocking a thread
+   * for each write. Each element is written at the position following the previous element, so the elements end
+   * up in the file in order even though the writes may complete in any order.
+   *
+   * `APPEND` makes the writes start at the end of the file when the stream starts, other writers appending to the
+   * same file at the same time may overwrite the written bytes.
+   *
+   * The number of outstanding writes is 4 by default and can be set with [[pekko.stream.Attributes.maxInFlightFileOperations]].
+   * The writes are performed by the JDK, on platforms without asynchronous file I/O on threads of the
+   * `pekko.stream.materializer.blocking-io-dispatcher`, the operator itself runs on the dispatcher of the stream.
+   *
+   * Materializes a [[Future]] of [[IOResult]] that will be completed with the size of the file (in bytes) at the streams completion,
+   * and a possible exception if IO operation was not completed successfully.
+   *
+   * @param f the file path to write to
+   * @param options File open options, see [[java.nio.file.StandardOpenOption]]
+   * @param startPosition the start position to write to
+   */
+  def toPathAsync(f: Path, options: Set[OpenOption], startPosition: Long): Sink[ByteString, Future[IOResult]] =
+    Sink.fromGraph(new AsyncFileOutputStage(f, startPosition, options))
+
+  private final val DefaultMmapRegionSize = 64 * 1024 * 1024
 }
@@ -1127,6 +1127,46 @@ trait FlowOps[+Out, +Mat] {
    */
   def mapAsyncUnordered[T](parallelism: Int)(f: Out => Future[T]): Repr[T] = via(MapAsyncUnordered(parallelism, f))
 
+  /**
+   * Transform this stream by partitioning elements based on the provided partitioner and applying the given
+   * function to each of the elements as they pass through this processing step. The function returns a
+   * `Future` and the value of that future will be emitted downstream. At most `parallelism` Futures
+   * run concurrently across all partitions, and at most `perPartition` of them for any single partition.
+   *
+   * Elements of the same partition are emitted in the same order as they were received from upstream,
+   * while elements of different partitions are emitted as soon as they are ready, so a slow element
+   * only holds back the elements of its own partition. Elements that cannot be started yet, because their
+   * partition or the stage reached its limit, are buffered in the operator, at most `parallelism` of them.
+   *
+   * If the function `partitioner` or `f` throws an exception or if the `Future` is completed
+   * with failure and the supervision decision is [[pekko.stream.Supervision.Stop]]
+   * the stream will be completed with failure.
+   *
+   * If the function `partitioner` or `f` throws an exception or if the `Future` is completed
+   * with failure and the supervision decision is [[pekko.stream.Supervision.Resume]] or
+   * [[pekko.stream.Supervision.Restart]] the element is dropped and the stream continues.
+   *
+   * The function `f` is always invoked on the elements of a partition in the order they arrive.
+   *
+   * Adheres to the [[ActorAttributes.SupervisionStrategy]] attribute.
+   *
+   * '''Emits when''' the Future returned by the provided function finishes for the next element in sequence
+   * of any partition
+   *
+   * '''Backpressures when''' the number of elements buffered or waiting for their partition reaches the
+   * configured parallelism and the downstream backpressures or no partition has its next element completed
+   *
+   * '''Completes when''' upstream completes and all futures have been completed and all elements have been emitted
+   *
+   * '''Cancels when''' downstream cancels
+   *
+   * @see [[#mapAsync]]
+   * @see [[#mapAsyncUnordered]]
+   */
+  def mapAsyncPartitioned[T, P](parallelism: Int, perPartition: Int)(partitioner: Out => P)(
+      f: (Out, P) => Future[T]): Repr[T] =
+    via(MapAsyncPartitioned(parallelism, perPartition, partitioner, f))
+
   /**
    * Use the `ask` pattern to send a request-reply message to the target `ref` actor.
    * If any of the asks times out it will fail the stream with a [[pekko.pattern.AskTimeoutException]].
@@ -2192,6 +2232,73 @@ trait FlowOps[+Out, +Mat] {
    */
   def groupBy[K](maxSubstreams: Int, f: Out => K): SubFlow[Out, Mat, Repr, Closed] = groupBy(maxSubstreams, f, false)
 
+  /**
+   * This operation demultiplexes the incoming stream into separate output
+   * streams, one for each element key. The key is computed for each element
+   * using the given function. When a new key is encountered a new substream
+   * is opened and subsequently fed with all elements belonging to that key.
+   *
+   * Unlike `groupBy`, reaching `maxSubstreams` does not have to fail
+   * the stream: depending on the `evictionStrategy` the least recently used substream is
+   * completed to make room for the new key, and substreams that have not received any element
+   * for a while can be completed as well. An element for the key of an evicted substream opens
+   * a new substream, so the operator only keeps state for at most `maxSubstreams` keys,
+   * which makes it suitable for an unbounded number of keys where only some of them are
+   * active at the same time, for example user sessions.
+   *
+   * Substreams are always allowed to be recreated with this variant, closed keys are not tracked.
+   * Substreams completed by eviction that have not been consumed yet still emit their first element.
+   *
+   * The object returned from this method is not a normal [[Source]] or [[Flow]],
+   * it is a [[SubFlow]]. This means that after this operator all transformations
+   * are applied to all encountered substreams in the same fashion. Substream mode
+   * is exited either by closing the substream (i.e. connecting it to a [[Sink]])
+   * or by merging the substreams back together; see the `to` and `mergeBack` methods
+   * on [[SubFlow]] for more information. When merging the substreams back together,
+   * `breadth` must be at least `maxSubstreams` for the stream to make progress.
+   *
+   * If the group by function `f` throws an exception and the supervision decision
+   * is [[pekko.stream.Supervision.Stop]] the stream and substreams will be completed
+   * with failure.
+   *
+   * If the group by function `f` throws an exception and the supervision decision
+   * is [[pekko.stream.Supervision.Resume]] or [[pekko.stream.Supervision.Restart]]
+   * the element is dropped and the stream and substreams continue.
+   *
+   * Function `f`  MUST NOT return `null`. This will throw exception and trigger supervision decision mechanism.
+   *
+   * Adheres to the [[ActorAttributes.SupervisionStrategy]] attribute.
+   *
+   * '''Emits when''' an element for which the grouping function returns a group that has not yet been created,
+   * or has been evicted. Emits the new group
+   *
+   * '''Backpressures when''' there is an element pending for a group whose substream backpressures
+   *
+   * '''Completes when''' upstream completes
+   *
+   * '''Cancels when''' downstream cancels and all substreams cancel
+   *
+   * @param maxSubstreams configures the maximum number of substreams (keys) that are open at the same time
+   * @param f computes the key for each element
+   * @param evictionStrategy decides whether the stream fails or substreams are evicted when `maxSubstreams`
+   *        is reached, and whether idle substreams are completed
+   */
+  def groupByWithEviction[K](
+      maxSubstreams: Int,
+      f: Out => K,
+      evictionStrategy: SubstreamEvictionStrategy): SubFlow[Out, Mat, Repr, Closed] = {
+    val merge = new SubFlowImpl.MergeBack[Out, Repr] {
+      override def apply[T](flow: Flow[Out, T, NotUsed], breadth: Int): Repr[T] =
+        via(new GroupBy(maxSubstreams, f, allowClosedSubstreamRecreation = true, evictionStrategy))
+          .map(_.via(flow))
+          .via(new FlattenMerge(breadth))
+    }
+    val finish: (Sink[Out, NotUsed]) => Closed = s =>
+      via(new GroupBy(maxSubstreams, f, allowClosedSubstreamRecreation = true, evictionStrategy))
+        .to(Sink.foreach(_.runWith(s)(GraphInterpreter.currentInterpreter.materializer)))
+    new SubFlowImpl(Flow[Out], merge, finish)
+  }
+
   /**
    * This operation applies the given predicate to all incoming elements and
    * emits them to a stream of output streams, always beginning a new one with
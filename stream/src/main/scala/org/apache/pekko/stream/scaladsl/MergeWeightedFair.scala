@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.scaladsl
+
+import scala.annotation.tailrec
+import scala.collection.immutable
+
+import org.apache.pekko
+import pekko.stream.{ Attributes, Graph, Inlet, MergeWeightsControl, Outlet, UniformFanInShape }
+import pekko.stream.impl.FixedSizeBuffer
+import pekko.stream.impl.Stages.DefaultAttributes
+import pekko.stream.stage.{ GraphStageLogic, GraphStageWithMaterializedValue, InHandler, OutHandler }
+
+/**
+ * Merge several streams with weighted fair queueing, so that a busy input cannot starve the others.
+ *
+ * The inputs are visited in rounds (deficit round robin): every round input `i` may emit elements with a total cost
+ * of up to `weights(i) * quantum`, cost it does not use is carried over to the next round as long as the input has
+ * buffered elements. Each input buffers up to `bufferSize` elements and is backpressured once its buffer is full.
+ *
+ * The weights can be changed while the stream is running with the materialized [[MergeWeightsControl]].
+ *
+ * '''Emits when''' one of the inputs has an element available and it is the turn of that input
+ *
+ * '''Backpressures when''' downstream backpressures, for each input when its buffer is full
+ *
+ * '''Completes when''' all upstreams complete and all buffered elements have been emitted, including those of
+ * inputs with weight zero
+ *
+ * '''Cancels when''' downstream cancels
+ */
+object MergeWeightedFair {
+
+  /**
+   * Create a new `MergeWeightedFair` that emits up to `weights(i)` elements from input `i` in every round.
+   *
+   * @param weights the weight of each input port, zero or positive, an input with weight zero is paused until all
+   *   upstreams completed
+   * @param bufferSize the number of elements buffered for each input port
+   */
+  def apply[T](weights: immutable.Seq[Int], bufferSize: Int): Graph[UniformFanInShape[T, T], MergeWeightsControl] =
+    new MergeWeightedFair[T](weights, quantum = 1, bufferSize, _ => 1L)
+
+  /**
+   * Create a new `MergeWeightedFair` that emits elements with a total cost of up to `weights(i) * quantum` from
+   * input `i` in every round, for example their size in bytes.
+   *
+   * An element that costs more than the share of its input is emitted once its input has saved up enough over
+   * several rounds, the quantum should be at least the cost of a typical element to keep the rounds short.
+   *
+   * @param weights the weight of each input port, zero or positive
+   * @param quantum the cost an input of weight 1 may emit in every round
+   * @param bufferSize the number of elements buffered for each input port
+   * @param cost the cost of an element, zero or positive
+   */
+  def apply[T](weights: immutable.Seq[Int], quantum: Long, bufferSize: Int)(
+      cost: T => Long): Graph[UniformFanInShape[T, T], MergeWeightsControl] =
+    new MergeWeightedFair[T](weights, quantum, bufferSize, cost)
+}
+
+/**
+ * Merge several streams with weighted fair queueing, see [[MergeWeightedFair$]].
+ */
+final class MergeWeightedFair[T] private[scaladsl] (
+    val weights: immutable.Seq[Int],
+    val quantum: Long,
+    val bufferSize: Int,
+    cost: T => Long)
+    extends GraphStageWithMaterializedValue[UniformFanInShape[T, T], MergeWeightsControl] {
+  require(weights.nonEmpty, "A Merge must have one or more input ports")
+  require(weights.forall(_ >= 0), "Weights must be zero or positive integers")
+  require(quantum > 0, "quantum must be > 0")
+  require(bufferSize > 0, "bufferSize must be > 0")
+
+  val in: immutable.IndexedSeq[Inlet[T]] = Vector.tabulate(weights.size)(i => Inlet[T]("MergeWeightedFair.in" + i))
+  val out: Outlet[T] = Outlet[T]("MergeWeightedFair.out")
+  override def initialAttributes: Attributes = DefaultAttributes.mergeWeightedFair
+  override val shape: UniformFanInShape[T, T] = UniformFanInShape(out, in: _*)
+
+  private final class Logic extends GraphStageLogic(shape) with OutHandler {
+    private val inputs = weights.size
+    private val quanta = weights.map(_ * quantum).toArray
+    private val deficits = new Array[Long](inputs)
+    private val buffers = Array.fill(inputs)(FixedSizeBuffer[T](bufferSize))
+    // the cost of the first buffered element of each input, -1 when not yet known
+    private val headCosts = Array.fill(inputs)(-1L)
+    private var runningUpstreams = inputs
+    // the input whose turn it is, and whether it got its quantum for this turn
+    private var current = 0
+    private var quantumAdded = false
+
+    val weightChanged = getAsyncCallback[(Int, Int)] {
+      case (input, weight) =>
+        quanta(input) = weight * quantum
+        if (isAvailable(out)) tryPush()
+    }
+
+    override def preStart(): Unit = in.foreach(pull)
+
+    for (i <- 0 until inputs) {
+      setHandler(
+        in(i),
+        new InHandler {
+          override def onPush(): Unit = {
+            buffers(i).enqueue(grab(in(i)))
+            if (buffers(i).nonFull) pull(in(i))
+            if (isAvailable(out)) tryPush()
+          }
+
+          override def onUpstreamFinish(): Unit = {
+            runningUpstreams -= 1
+            if (isDrained) completeStage()
+            else if (runningUpstreams == 0 && isAvailable(out)) tryPush()
+          }
+        })
+    }
+
+    setHandler(out, this)
+
+    override def onPull(): Unit = tryPush()
+
+    private def isDrained: Boolean = runningUpstreams == 0 && buffers.forall(_.isEmpty)
+
+    private def tryPush(): Unit = {
+      val input = select(0)
+      if (input >= 0) {
+        val buffer = buffers(input)
+        if (quanta(input) > 0) deficits(input) -= headCosts(input)
+        headCosts(input) = -1L
+        push(out, buffer.dequeue())
+        if (buffer.isEmpty) {
+          // an input does not save up while it has nothing to emit
+          deficits(input) = 0
+          nextInput()
+        }
+        if (!hasBeenPulled(in(input)) && !isClosed(in(input))) pull(in(input))
+        else if (isDrained) completeStage()
+      }
+    }
+
+    private def nextInput(): Unit = {
+      current = if (current == inputs - 1) 0 else current + 1
+      quantumAdded = false
+    }
+
+    private def headCost(input: Int): Long = {
+      if (headCosts(input) < 0) {
+        val elementCost = cost(buffers(input).peek())
+        require(elementCost >= 0, s"The cost of an element must be zero or positive, was $elementCost")
+        headCosts(input) = elementCost
+      }
+      headCosts(input)
+    }
+
+    /** Returns the input to emit the next element from, or -1 if no input has an element. */
+    @tailrec private def select(visited: Int): Int =
+      if (visited == inputs) {
+        if (skipRounds()) select(0)
+        else if (runningUpstreams == 0) drainPaused(0)
+        else -1
+      } else if (buffers(current).nonEmpty && quanta(current) > 0) {
+        if (!quantumAdded) {
+          deficits(current) += quanta(current)
+          quantumAdded = true
+        }
+        if (headCost(current) <= deficits(current)) current
+        else {
+          nextInput()
+          select(visited + 1)
+        }
+      } else {
+        if (buffers(current).isEmpty) deficits(current) = 0
+        nextInput()
+        select(visited + 1)
+      }
+
+    /**
+     * Once all upstreams have completed, the elements of the inputs with weight zero are emitted one input after
+     * the other, so that the stage can complete. Returns -1 if no input has an element.
+     */
+    @tailrec private def drainPaused(visited: Int): Int =
+      if (visited == inputs) -1
+      else if (buffers(current).nonEmpty) current
+      else {
+        nextInput()
+        drainPaused(visited + 1)
+      }
+
+    /**
+     * After a whole round in which no input could afford its next element, adds the quanta of all the rounds
+     * until the first input can at once, rather than going through them one by one.
+     * Returns false if no input has an element to emit.
+     */
+    private def skipRounds(): Boolean = {
+      var rounds = Long.MaxValue
+      var i = 0
+      while (i < inputs) {
+        if (buffers(i).nonEmpty && quanta(i) > 0) {
+          val missing = headCost(i) - deficits(i)
+          rounds = math.min(rounds, (missing + quanta(i) - 1) / quanta(i))
+        }
+        i += 1
+      }
+      if (rounds == Long.MaxValue) false
+      else {
+        // the round that is about to start adds one more quantum
+        i = 0
+        while (i < inputs) {
+          if (buffers(i).nonEmpty && quanta(i) > 0) deficits(i) += (rounds - 1) * quanta(i)
+          i += 1
+        }
+        true
+      }
+    }
+  }
+
+  override def createLogicAndMaterializedValue(
+      inheritedAttributes: Attributes): (GraphStageLogic, MergeWeightsControl) = {
+    val logic = new Logic
+    val control = new MergeWeightsControl {
+      override def setWeight(input: Int, weight: Int): Unit = {
+        require(0 <= input && input < weights.size, s"input must be between 0 and ${weights.size - 1}, was $input")
+        require(weight >= 0, s"weight must be zero or positive, was $weight")
+        logic.weightChanged.invoke((input, weight))
+      }
+    }
+    (logic, control)
+  }
+
+  override def toString = "MergeWeightedFair"
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.scaladsl
+
+import java.nio.file.Path
+
+import org.apache.pekko
+import pekko.stream.SpillingBufferMetrics
+import pekko.stream.impl.io.SpillingBufferStage
+import pekko.util.ByteString
+
+/**
+ * A buffer that keeps up to `memorySize` elements in memory and spills the elements that arrive while it is full to
+ * memory-mapped segment files on disk, so that a stream can absorb long bursts without backpressuring its upstream
+ * and without holding all the buffered elements in memory. The spilled elements are serialized with the given
+ * functions and read back in order. Upstream is only backpressured when the disk space given is used up as well.
+ *
+ * The segment files are created in `directory` and deleted when they have been read, or when the stream terminates.
+ * The operator runs on the blocking IO dispatcher by default, since writing and reading the segments may block.
+ *
+ * The materialized [[SpillingBufferMetrics]] show how many elements are buffered and how many were spilled.
+ *
+ * '''Emits when''' downstream requests an element and there is one in the buffer
+ *
+ * '''Backpressures when''' the memory buffer is full and the disk space is used up
+ *
+ * '''Completes when''' upstream completes and all buffered elements have been emitted
+ *
+ * '''Cancels when''' downstream cancels
+ */
+object SpillingBuffer {
+
+  /**
+   * The default size of the segment files, 4 MiB.
+   */
+  val DefaultSegmentSize: Int = 4 * 1024 * 1024
+
+  /**
+   * Creates a buffer that spills to segment files of [[DefaultSegmentSize]] bytes.
+   *
+   * @param memorySize the number of elements buffered in memory
+   * @param directory the directory to create the segment files in
+   * @param maxDiskBytes the maximum size of the segment files on disk together, at least the size of one segment
+   * @param serialize serializes an element to spill it, a serialized element must fit into a segment
+   * @param deserialize deserializes a spilled element
+   */
+  def apply[T](memorySize: Int, directory: Path, maxDiskBytes: Long)(
+      serialize: T => ByteString,
+      deserialize: ByteString => T): Flow[T, T, SpillingBufferMetrics] =
+    apply(memorySize, directory, maxDiskBytes, DefaultSegmentSize)(serialize, deserialize)
+
+  /**
+   * Creates a buffer that spills to segment files of `segmentSize` bytes.
+   *
+   * @param memorySize the number of elements buffered in memory
+   * @param directory the directory to create the segment files in
+   * @param maxDiskBytes the maximum size of the segment files on disk together, at least the size of one segment
+   * @param segmentSize the size of each segment file
+   * @param serialize serializes an element to spill it, a serialized element must fit into a segment
+   * @param deserialize deserializes a spilled element
+   */
+  def apply[T](memorySize: Int, directory: Path, maxDiskBytes: Long, segmentSize: Int)(
+      serialize: T => ByteString,
+      deserialize: ByteString => T): Flow[T, T, SpillingBufferMetrics] = {
+    require(maxDiskBytes >= segmentSize, "maxDiskBytes must be at least the segmentSize")
+    val maxSegments = math.min(maxDiskBytes / segmentSize, Int.MaxValue.toLong).toInt
+    Flow.fromGraph(new SpillingBufferStage[T](memorySize, directory, segmentSize, maxSegments, serialize, deserialize))
+  }
+}
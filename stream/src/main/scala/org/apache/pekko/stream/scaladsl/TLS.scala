@@ -24,9 +24,10 @@ import com.typesafe.sslconfig.pekko.PekkoSSLConfig
 import org.apache.pekko
 import pekko.NotUsed
 import pekko.actor.ActorSystem
+import pekko.annotation.ApiMayChange
 import pekko.stream._
 import pekko.stream.TLSProtocol._
-import pekko.stream.impl.io.{ TlsModule, TlsUtils }
+import pekko.stream.impl.io.{ TlsGraphStage, TlsModule, TlsUtils }
 import pekko.util.ByteString
 
 /**
@@ -219,6 +220,43 @@ object TLS {
       createSSLEngine: () => SSLEngine, // we don't offer the internal `ActorSystem => SSLEngine` API here, see #21753
       closing: TLSClosing): scaladsl.BidiFlow[SslTlsOutbound, ByteString, ByteString, SslTlsInbound, NotUsed] =
     apply(createSSLEngine, _ => Success(()), closing)
+
+  /**
+   * Create a StreamTls [[pekko.stream.scaladsl.BidiFlow]] that behaves like the one created by `apply`, but
+   * that is fused with the surrounding operators instead of running in an actor of its own. It hands pooled
+   * direct buffers to the SSLEngine and emits several TLS records in one chunk when there is enough data.
+   *
+   * You specify a factory to create an SSLEngine that must already be configured for
+   * client and server mode and with all the parameters for the first session.
+   *
+   * You can specify a verification function that will be called after every successful handshake
+   * to verify additional session information.
+   *
+   * For a description of the `closing` parameter please refer to [[TLSClosing]].
+   */
+  @ApiMayChange
+  def fused(
+      createSSLEngine: () => SSLEngine,
+      verifySession: SSLSession => Try[Unit],
+      closing: TLSClosing): scaladsl.BidiFlow[SslTlsOutbound, ByteString, ByteString, SslTlsInbound, NotUsed] =
+    scaladsl.BidiFlow.fromGraph(
+      new TlsGraphStage(_ => createSSLEngine(), (_, session) => verifySession(session), closing))
+
+  /**
+   * Create a StreamTls [[pekko.stream.scaladsl.BidiFlow]] that behaves like the one created by `apply`, but
+   * that is fused with the surrounding operators instead of running in an actor of its own. It hands pooled
+   * direct buffers to the SSLEngine and emits several TLS records in one chunk when there is enough data.
+   *
+   * You specify a factory to create an SSLEngine that must already be configured for
+   * client and server mode and with all the parameters for the first session.
+   *
+   * For a description of the `closing` parameter please refer to [[TLSClosing]].
+   */
+  @ApiMayChange
+  def fused(
+      createSSLEngine: () => SSLEngine,
+      closing: TLSClosing): scaladsl.BidiFlow[SslTlsOutbound, ByteString, ByteString, SslTlsInbound, NotUsed] =
+    fused(createSSLEngine, _ => Success(()), closing)
 }
 
 /**
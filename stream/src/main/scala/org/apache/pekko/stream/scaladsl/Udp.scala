@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.scaladsl
+
+import java.net.InetSocketAddress
+
+import scala.collection.immutable
+import scala.concurrent.Future
+
+import org.apache.pekko
+import pekko.Done
+import pekko.actor.ClassicActorSystemProvider
+import pekko.io.{ IO, Udp => IoUdp }
+import pekko.io.Inet.SocketOption
+import pekko.stream.impl.io.{ UdpBindSource, UdpSendSink }
+
+/**
+ * Sources and sinks of UDP datagrams, based on the batch commands of the UDP extension of Pekko IO, which move many
+ * datagrams per actor message.
+ */
+object Udp {
+
+  /**
+   * A datagram with the address it is sent to or was received from.
+   */
+  type Datagram = IoUdp.Datagram
+  val Datagram: IoUdp.Datagram.type = IoUdp.Datagram
+
+  /**
+   * Creates a [[Source]] of the datagrams received on a UDP socket bound to `localAddress`, which materializes the
+   * address the socket was bound to.
+   *
+   * Reading from the socket is suspended while 1024 datagrams are buffered, the datagrams that arrive meanwhile are
+   * dropped by the O/S kernel once its receive buffer is full.
+   */
+  def bind(localAddress: InetSocketAddress)(
+      implicit system: ClassicActorSystemProvider): Source[Datagram, Future[InetSocketAddress]] =
+    bind(localAddress, Nil, maxBatchSize = 64, bufferSize = 1024)
+
+  /**
+   * Creates a [[Source]] of the datagrams received on a UDP socket bound to `localAddress`, which materializes the
+   * address the socket was bound to.
+   *
+   * @param options socket options of the socket
+   * @param maxBatchSize the maximum number of datagrams read from the socket per readiness notification
+   * @param bufferSize the number of buffered datagrams at which reading from the socket is suspended, the datagrams
+   *                   that arrive meanwhile are dropped by the O/S kernel once its receive buffer is full
+   */
+  def bind(
+      localAddress: InetSocketAddress,
+      options: immutable.Iterable[SocketOption],
+      maxBatchSize: Int,
+      bufferSize: Int)(implicit system: ClassicActorSystemProvider): Source[Datagram, Future[InetSocketAddress]] =
+    Source.fromGraph(
+      new UdpBindSource(IO(IoUdp)(system.classicSystem), localAddress, options, maxBatchSize, bufferSize))
+
+  /**
+   * Creates a [[Sink]] that sends the datagrams to their addresses from an ephemeral port, which materializes a
+   * [[Future]] that is completed when all datagrams have been sent. The datagrams that arrive while the previous ones
+   * are sent are sent together, up to 64 at a time.
+   */
+  def sendSink()(implicit system: ClassicActorSystemProvider): Sink[Datagram, Future[Done]] =
+    sendSink(Nil, maxBatchSize = 64)
+
+  /**
+   * Creates a [[Sink]] that sends the datagrams to their addresses from an ephemeral port, which materializes a
+   * [[Future]] that is completed when all datagrams have been sent. The datagrams that arrive while the previous ones
+   * are sent are sent together, up to `maxBatchSize` at a time, it backpressures while `maxBatchSize` datagrams wait.
+   *
+   * @param options socket options of the socket
+   */
+  def sendSink(options: immutable.Iterable[SocketOption], maxBatchSize: Int)(
+      implicit system: ClassicActorSystemProvider): Sink[Datagram, Future[Done]] =
+    Sink.fromGraph(new UdpSendSink(IO(IoUdp)(system.classicSystem), options, maxBatchSize))
+}
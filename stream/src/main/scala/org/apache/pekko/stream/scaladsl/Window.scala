@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * license agreements; and to You under the Apache License, version 2.0:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * This file is part of the Apache Pekko project, derived from Akka.
+ */
+
+package org.apache.pekko.stream.scaladsl
+
+import scala.concurrent.duration.{ Duration, FiniteDuration }
+
+import org.apache.pekko
+import pekko.NotUsed
+import pekko.stream.{ LateElementStrategy, WindowAggregate, Windowed }
+import pekko.stream.impl.fusing.{ PaneWindow, SessionWindow }
+
+/**
+ * Operators that aggregate the elements of a stream in event time windows, by the timestamp in milliseconds that
+ * `timestamp` returns for each element. The elements are aggregated incrementally by a [[WindowAggregate]] as they
+ * arrive, without keeping the elements themselves, and one [[Windowed]] result is emitted for every window that
+ * contains elements.
+ *
+ * The elements may arrive out of order by up to `allowedLateness`: the watermark is the largest timestamp seen so far
+ * minus the allowed lateness, and a window is emitted once its end is not after the watermark. An element with a
+ * timestamp before the watermark arrives too late for its windows and is dropped or fails the stream, as decided by
+ * the [[LateElementStrategy]]. When upstream completes all remaining windows are emitted.
+ *
+ * '''Emits when''' the watermark passes the end of a window that contains elements
+ *
+ * '''Backpressures when''' downstream backpressures while windows are emitted
+ *
+ * '''Completes when''' upstream completes and all windows have been emitted
+ *
+ * '''Cancels when''' downstream cancels
+ */
+object Window {
+
+  /**
+   * Aggregates the elements in consecutive windows of `size`, which start at multiples of `size` since the epoch.
+   * The elements must arrive in the order of their timestamps, late elements are dropped.
+   */
+  def tumbling[T, A, R](size: FiniteDuration)(timestamp: T => Long)(
+      aggregate: WindowAggregate[T, A, R]): Flow[T, Windowed[R], NotUsed] =
+    tumbling[T, A, R](size, Duration.Zero, LateElementStrategy.Drop)(timestamp)(aggregate)
+
+  /**
+   * Aggregates the elements in consecutive windows of `size`, which start at multiples of `size` since the epoch.
+   * The elements may arrive up to `allowedLateness` out of order, `lateElements` decides what happens to later ones.
+   */
+  def tumbling[T, A, R](size: FiniteDuration, allowedLateness: FiniteDuration, lateElements: LateElementStrategy)(
+      timestamp: T => Long)(aggregate: WindowAggregate[T, A, R]): Flow[T, Windowed[R], NotUsed] =
+    Flow.fromGraph(
+      new PaneWindow[T, A, R](size.toMillis, size.toMillis, allowedLateness.toMillis, lateElements, timestamp,
+        aggregate))
+
+  /**
+   * Aggregates the elements in overlapping windows of `size`, which start every `slide` since the epoch, so that
+   * every element is in `size / slide` windows. The elements must arrive in the order of their timestamps, late
+   * elements are dropped.
+   *
+   * Time is divided into panes of the greatest common divisor of `size` and `slide` and every element is only added
+   * to its pane. The panes are merged into the result of each window, unless the aggregate is invertible, in which
+   * case the result of a window is calculated from the previous one with a constant amount of work per slide.
+   */
+  def sliding[T, A, R](size: FiniteDuration, slide: FiniteDuration)(timestamp: T => Long)(
+      aggregate: WindowAggregate[T, A, R]): Flow[T, Windowed[R], NotUsed] =
+    sliding[T, A, R](size, slide, Duration.Zero, LateElementStrategy.Drop)(timestamp)(aggregate)
+
+  /**
+   * Aggregates the elements in overlapping windows of `size`, which start every `slide` since the epoch, so that
+   * every element is in `size / slide` windows. The elements may arrive up to `allowedLateness` out of order,
+   * `lateElements` decides what happens to later ones.
+   *
+   * Time is divided into panes of the greatest common divisor of `size` and `slide` and every element is only added
+   * to its pane. The panes are merged into the result of each window, unless the aggregate is invertible, in which
+   * case the result of a window is calculated from the previous one with a constant amount of work per slide.
+   */
+  def sliding[T, A, R](
+      size: FiniteDuration,
+      slide: FiniteDuration,
+      allowedLateness: FiniteDuration,
+      lateElements: LateElementStrategy)(timestamp: T => Long)(
+      aggregate: WindowAggregate[T, A, R]): Flow[T, Windowed[R], NotUsed] =
+    Flow.fromGraph(
+      new PaneWindow[T, A, R](size.toMillis, slide.toMillis, allowedLateness.toMillis, lateElements, timestamp,
+        aggregate))
+
+  /**
+   * Aggregates the elements in sessions, a session contains the elements that are less than `gap` apart and ends
+   * `gap` after its last element. The elements must arrive in the order of their timestamps, late elements are
+   * dropped.
+   */
+  def session[T, A, R](gap: FiniteDuration)(timestamp: T => Long)(
+      aggregate: WindowAggregate[T, A, R]): Flow[T, Windowed[R], NotUsed] =
+    session[T, A, R](gap, Duration.Zero, LateElementStrategy.Drop)(timestamp)(aggregate)
+
+  /**
+   * Aggregates the elements in sessions, a session contains the elements that are less than `gap` apart and ends
+   * `gap` after its last element. The elements may arrive up to `allowedLateness` out of order, `lateElements`
+   * decides what happens to later ones. An element that arrives out of order can merge two sessions.
+   */
+  def session[T, A, R](gap: FiniteDuration, allowedLateness: FiniteDuration, lateElements: LateElementStrategy)(
+      timestamp: T => Long)(aggregate: WindowAggregate[T, A, R]): Flow[T, Windowed[R], NotUsed] =
+    Flow.fromGraph(
+      new SessionWindow[T, A, R](gap.toMillis, allowedLateness.toMillis, lateElements, timestamp, aggregate))
+}
@@ -21,6 +21,7 @@ import pekko.protobufv3.internal.UnsafeByteOperations
 import pekko.serialization._
 import pekko.stream.StreamRefMessages
 import pekko.stream.impl.streamref._
+import pekko.util.ccompat.JavaConverters._
 
 import java.nio.charset.StandardCharsets
 
@@ -40,11 +41,15 @@ private[pekko] final class StreamRefSerializer(val system: ExtendedActorSystem)
   private[this] val SinkRefManifest = "F"
   private[this] val OnSubscribeHandshakeManifest = "G"
   private[this] val AckManifest = "H"
+  private[this] val SequencedOnNextBatchManifest = "I"
+  private[this] val BatchingSupportedManifest = "J"
 
   override def manifest(o: AnyRef): String = o match {
     // protocol
-    case _: StreamRefsProtocol.SequencedOnNext[_] => SequencedOnNextManifest
-    case _: StreamRefsProtocol.CumulativeDemand   => CumulativeDemandManifest
+    case _: StreamRefsProtocol.SequencedOnNext[_]      => SequencedOnNextManifest
+    case _: StreamRefsProtocol.SequencedOnNextBatch[_] => SequencedOnNextBatchManifest
+    case _: StreamRefsProtocol.CumulativeDemand        => CumulativeDemandManifest
+    case StreamRefsProtocol.BatchingSupported          => BatchingSupportedManifest
     // handshake
     case _: StreamRefsProtocol.OnSubscribeHandshake => OnSubscribeHandshakeManifest
     // completion
@@ -61,8 +66,10 @@ private[pekko] final class StreamRefSerializer(val system: ExtendedActorSystem)
 
   override def toBinary(o: AnyRef): Array[Byte] = o match {
     // protocol
-    case o: StreamRefsProtocol.SequencedOnNext[_] => serializeSequencedOnNext(o).toByteArray
-    case d: StreamRefsProtocol.CumulativeDemand   => serializeCumulativeDemand(d).toByteArray
+    case o: StreamRefsProtocol.SequencedOnNext[_]      => serializeSequencedOnNext(o).toByteArray
+    case b: StreamRefsProtocol.SequencedOnNextBatch[_] => serializeSequencedOnNextBatch(b).toByteArray
+    case d: StreamRefsProtocol.CumulativeDemand        => serializeCumulativeDemand(d).toByteArray
+    case StreamRefsProtocol.BatchingSupported          => serializeBatchingSupported().toByteArray
     // handshake
     case h: StreamRefsProtocol.OnSubscribeHandshake => serializeOnSubscribeHandshake(h).toByteArray
     // termination
@@ -81,7 +88,9 @@ private[pekko] final class StreamRefSerializer(val system: ExtendedActorSystem)
     // protocol
     case OnSubscribeHandshakeManifest => deserializeOnSubscribeHandshake(bytes)
     case SequencedOnNextManifest      => deserializeSequencedOnNext(bytes)
+    case SequencedOnNextBatchManifest => deserializeSequencedOnNextBatch(bytes)
     case CumulativeDemandManifest     => deserializeCumulativeDemand(bytes)
+    case BatchingSupportedManifest    => deserializeBatchingSupported(bytes)
     case RemoteSinkCompletedManifest  => deserializeRemoteStreamCompleted(bytes)
     case RemoteSinkFailureManifest    => deserializeRemoteStreamFailure(bytes)
     // refs
@@ -121,8 +130,20 @@ private[pekko] final class StreamRefSerializer(val system: ExtendedActorSystem)
       .build()
   }
 
-  private def serializeSequencedOnNext(o: StreamRefsProtocol.SequencedOnNext[_]) = {
-    val p = o.payload.asInstanceOf[AnyRef]
+  private def serializeSequencedOnNext(o: StreamRefsProtocol.SequencedOnNext[_]) =
+    StreamRefMessages.SequencedOnNext.newBuilder().setSeqNr(o.seqNr).setPayload(serializePayload(o.payload)).build()
+
+  private def serializeSequencedOnNextBatch(b: StreamRefsProtocol.SequencedOnNextBatch[_]) = {
+    val builder = StreamRefMessages.SequencedOnNextBatch.newBuilder().setSeqNr(b.seqNr)
+    b.payloads.foreach(payload => builder.addPayloads(serializePayload(payload)))
+    builder.build()
+  }
+
+  private def serializeBatchingSupported(): StreamRefMessages.BatchingSupported =
+    StreamRefMessages.BatchingSupported.getDefaultInstance
+
+  private def serializePayload(payload: Any): StreamRefMessages.Payload = {
+    val p = payload.asInstanceOf[AnyRef]
     val msgSerializer = serialization.findSerializerFor(p)
 
     val payloadBuilder = StreamRefMessages.Payload
@@ -133,7 +154,7 @@ private[pekko] final class StreamRefSerializer(val system: ExtendedActorSystem)
     val ms = Serializers.manifestFor(msgSerializer, p)
     if (ms.nonEmpty) payloadBuilder.setMessageManifest(ByteString.copyFromUtf8(ms))
 
-    StreamRefMessages.SequencedOnNext.newBuilder().setSeqNr(o.seqNr).setPayload(payloadBuilder.build()).build()
+    payloadBuilder.build()
   }
 
   private def serializeSinkRef(sink: SinkRefImpl[_]): StreamRefMessages.SinkRef = {
@@ -176,12 +197,25 @@ private[pekko] final class StreamRefSerializer(val system: ExtendedActorSystem)
 
   private def deserializeSequencedOnNext(bytes: Array[Byte]): StreamRefsProtocol.SequencedOnNext[AnyRef] = {
     val o = StreamRefMessages.SequencedOnNext.parseFrom(bytes)
-    val p = o.getPayload
-    val payload =
-      serialization.deserialize(p.getEnclosedMessage.toByteArray, p.getSerializerId, p.getMessageManifest.toStringUtf8)
-    StreamRefsProtocol.SequencedOnNext(o.getSeqNr, payload.get)
+    StreamRefsProtocol.SequencedOnNext(o.getSeqNr, deserializePayload(o.getPayload))
   }
 
+  private def deserializeSequencedOnNextBatch(bytes: Array[Byte]): StreamRefsProtocol.SequencedOnNextBatch[AnyRef] = {
+    val b = StreamRefMessages.SequencedOnNextBatch.parseFrom(bytes)
+    val payloads = b.getPayloadsList.asScala.iterator.map(deserializePayload).toVector
+    StreamRefsProtocol.SequencedOnNextBatch(b.getSeqNr, payloads)
+  }
+
+  private def deserializeBatchingSupported(bytes: Array[Byte]): StreamRefsProtocol.BatchingSupported.type = {
+    StreamRefMessages.BatchingSupported.parseFrom(bytes)
+    StreamRefsProtocol.BatchingSupported
+  }
+
+  private def deserializePayload(p: StreamRefMessages.Payload): AnyRef =
+    serialization
+      .deserialize(p.getEnclosedMessage.toByteArray, p.getSerializerId, p.getMessageManifest.toStringUtf8)
+      .get
+
   private def deserializeCumulativeDemand(bytes: Array[Byte]): StreamRefsProtocol.CumulativeDemand = {
     val d = StreamRefMessages.CumulativeDemand.parseFrom(bytes)
     StreamRefsProtocol.CumulativeDemand(d.getSeqNr)